@@ -0,0 +1,65 @@
+package gse.home.personalmanager.accounting.application;
+
+import gse.home.personalmanager.accounting.application.dto.CategorizationRuleDTO;
+import gse.home.personalmanager.accounting.application.service.CategorizationRuleUseCaseService;
+import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("v1/categorization-rules")
+@AllArgsConstructor
+public class CategorizationRuleController {
+
+  private final CategorizationRuleUseCaseService useCaseService;
+
+  @GetMapping
+  public ResponseEntity<List<CategorizationRuleDTO>> getRules(@AuthenticationPrincipal AppUserPrincipal principal) {
+    log.debug("Request to get categorization rules for user id={}", principal.id());
+    return ResponseEntity.ok(useCaseService.getRules(principal.id()));
+  }
+
+  @PostMapping
+  public ResponseEntity<CategorizationRuleDTO> createRule(
+      @AuthenticationPrincipal AppUserPrincipal principal,
+      @Valid @RequestBody CategorizationRuleDTO request) {
+    log.info("Request to create a {} categorization rule by user id={}", request.getType(), principal.id());
+    return ResponseEntity.status(HttpStatus.CREATED).body(useCaseService.createRule(request, principal.id()));
+  }
+
+  @PutMapping("/{id}")
+  public ResponseEntity<CategorizationRuleDTO> updateRule(
+      @AuthenticationPrincipal AppUserPrincipal principal,
+      @PathVariable Long id,
+      @Valid @RequestBody CategorizationRuleDTO request) {
+    log.info("Request to update categorization rule id={} by user id={}", id, principal.id());
+    return ResponseEntity.ok(useCaseService.updateRule(id, request, principal.id()));
+  }
+
+  @DeleteMapping("/{id}")
+  public ResponseEntity<Void> deleteRule(
+      @AuthenticationPrincipal AppUserPrincipal principal,
+      @PathVariable Long id) {
+    log.info("Request to delete categorization rule id={} by user id={}", id, principal.id());
+    useCaseService.deleteRule(id, principal.id());
+    return ResponseEntity.noContent().build();
+  }
+
+  /**
+   * Learns keyword rules from the transactions the user already categorized, replacing the
+   * previously learned ones.
+   */
+  @PostMapping("/learn")
+  public ResponseEntity<List<CategorizationRuleDTO>> learnRules(@AuthenticationPrincipal AppUserPrincipal principal) {
+    log.info("Request to learn categorization rules for user id={}", principal.id());
+    return ResponseEntity.ok(useCaseService.learnRules(principal.id()));
+  }
+}
@@ -0,0 +1,51 @@
+package gse.home.personalmanager.accounting.application;
+
+import gse.home.personalmanager.accounting.application.dto.TransactionCategoryDTO;
+import gse.home.personalmanager.accounting.application.service.CategoryUseCaseService;
+import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Categories are shared by all users: everyone reads the tree, only admins change it.
+ */
+@Slf4j
+@RestController
+@RequestMapping("v1/categories")
+@AllArgsConstructor
+public class CategoryController {
+
+  private final CategoryUseCaseService useCaseService;
+
+  @GetMapping
+  public ResponseEntity<List<TransactionCategoryDTO>> getCategoryTree() {
+    return ResponseEntity.ok(useCaseService.getCategoryTree());
+  }
+
+  @PostMapping
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<TransactionCategoryDTO> createCategory(
+      @AuthenticationPrincipal AppUserPrincipal principal,
+      @Valid @RequestBody TransactionCategoryDTO request) {
+    log.info("Request to create category '{}' by user id={}", request.getTitle(), principal.id());
+    return ResponseEntity.status(HttpStatus.CREATED).body(useCaseService.createCategory(request));
+  }
+
+  @PutMapping("/{id}")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<TransactionCategoryDTO> updateCategory(
+      @AuthenticationPrincipal AppUserPrincipal principal,
+      @PathVariable Integer id,
+      @Valid @RequestBody TransactionCategoryDTO request) {
+    log.info("Request to update category id={} by user id={}", id, principal.id());
+    return ResponseEntity.ok(useCaseService.updateCategory(id, request));
+  }
+}
@@ -1,16 +1,21 @@
 package gse.home.personalmanager.accounting.application;
 
 import gse.home.personalmanager.accounting.application.dto.*;
+import gse.home.personalmanager.accounting.application.service.CsvImportUseCaseService;
 import gse.home.personalmanager.accounting.application.service.TransactionUseCaseService;
 import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @RestController
@@ -19,15 +24,48 @@ import java.util.List;
 public class TransactionController {
 
   TransactionUseCaseService useCaseService;
+  CsvImportUseCaseService csvImportUseCaseService;
 
+  /**
+   * Totals per category, with every transaction of each category unless {@code summaryOnly} is set.
+   * With {@code nested} subcategories are nested under their parent, whose totals include theirs.
+   * With {@code excludeTransfers} the transfers linked between the user's wallets are left out.
+   */
   @GetMapping
   public ResponseEntity<List<TransactionSummaryDTO>> getTransactions(
       @AuthenticationPrincipal AppUserPrincipal principal,
       @RequestParam LocalDate minDate,
       @RequestParam LocalDate maxDate,
-      @RequestParam Long walletId) {
+      @RequestParam Long walletId,
+      @RequestParam(defaultValue = "false") boolean summaryOnly,
+      @RequestParam(defaultValue = "false") boolean nested,
+      @RequestParam(defaultValue = "false") boolean excludeTransfers) {
     log.debug("Request to get all transactions from {} to {} for wallet {}", minDate, maxDate, walletId);
-    return ResponseEntity.ok(useCaseService.getAllTransactions(minDate, maxDate, walletId, principal.getUser().getId()));
+    if (nested) {
+      return ResponseEntity.ok(useCaseService.getNestedTransactions(minDate, maxDate, walletId, principal.id(),
+          summaryOnly, excludeTransfers));
+    }
+    return ResponseEntity.ok(useCaseService.getAllTransactions(minDate, maxDate, walletId, principal.id(),
+        summaryOnly, excludeTransfers));
+  }
+
+  /**
+   * Transactions of one category, or the uncategorized ones without {@code categoryId}, newest first.
+   */
+  @GetMapping("/by-category")
+  public ResponseEntity<TransactionCursorPageDTO> getCategoryTransactions(
+      @AuthenticationPrincipal AppUserPrincipal principal,
+      @RequestParam LocalDate minDate,
+      @RequestParam LocalDate maxDate,
+      @RequestParam Long walletId,
+      @RequestParam(required = false) Integer categoryId,
+      @RequestParam(required = false) LocalDate afterDate,
+      @RequestParam(required = false) Integer afterId,
+      @RequestParam(defaultValue = "50") int size) {
+    log.debug("Request to get transactions of category {} from {} to {} for wallet {} after ({}, {})", categoryId,
+        minDate, maxDate, walletId, afterDate, afterId);
+    return ResponseEntity.ok(useCaseService.getCategoryTransactions(minDate, maxDate, walletId, principal.id(),
+        categoryId, afterDate, afterId, size));
   }
 
   @GetMapping("/summary")
@@ -35,35 +73,76 @@ public class TransactionController {
       @AuthenticationPrincipal AppUserPrincipal principal,
       @RequestParam LocalDate minDate,
       @RequestParam LocalDate maxDate,
-      @RequestParam Long walletId) {
+      @RequestParam Long walletId,
+      @RequestParam(defaultValue = "false") boolean excludeTransfers) {
     log.debug("Request to get transaction summary from {} to {} for wallet {}", minDate, maxDate, walletId);
-    return ResponseEntity.ok(useCaseService.getTransactionSummary(minDate, maxDate, walletId, principal.getUser().getId()));
+    return ResponseEntity.ok(useCaseService.getTransactionSummary(minDate, maxDate, walletId, principal.id(),
+        excludeTransfers));
+  }
+
+  @GetMapping("/merchants/top")
+  public ResponseEntity<List<MerchantSpendDTO>> getTopMerchants(
+      @AuthenticationPrincipal AppUserPrincipal principal,
+      @RequestParam LocalDate minDate,
+      @RequestParam LocalDate maxDate,
+      @RequestParam Long walletId,
+      @RequestParam(defaultValue = "10") int limit) {
+    log.debug("Request to get the top {} merchants from {} to {} for wallet {}", limit, minDate, maxDate, walletId);
+    return ResponseEntity.ok(useCaseService.getTopMerchants(minDate, maxDate, walletId, principal.id(), limit));
   }
 
   @PostMapping("/csv")
-  public ResponseEntity<Integer> importCSVRows(
+  public ResponseEntity<CsvImportReportDTO> importCSVRows(
       @AuthenticationPrincipal AppUserPrincipal principal,
       @RequestParam Long walletId,
       @RequestBody List<TransactionCSVRowDTO> csvRowDTOList) {
     log.debug("Request to import the csv rows for wallet {}", walletId);
-    return ResponseEntity.ok(useCaseService.importCSVRows(csvRowDTOList, walletId, principal.getUser().getId()));
+    return ResponseEntity.ok(useCaseService.importCSVRows(csvRowDTOList, walletId, principal.id()));
+  }
+
+  /**
+   * Imports a bank CSV export as uploaded, parsed with the given bank profile (or the default one).
+   */
+  @PostMapping(value = "/csv/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+  public ResponseEntity<CsvImportReportDTO> uploadCSV(
+      @AuthenticationPrincipal AppUserPrincipal principal,
+      @RequestParam Long walletId,
+      @RequestParam(required = false) String profile,
+      @RequestPart("file") MultipartFile file) throws IOException {
+    log.debug("Request to import the csv file {} ({} bytes) for wallet {}", file.getOriginalFilename(), file.getSize(),
+        walletId);
+    try (var input = file.getInputStream()) {
+      return ResponseEntity.ok(csvImportUseCaseService.importCSVFile(input, profile, walletId, principal.id()));
+    }
+  }
+
+  @GetMapping("/csv/profiles")
+  public ResponseEntity<Set<String>> getCSVProfiles() {
+    return ResponseEntity.ok(csvImportUseCaseService.getProfileNames());
   }
 
   @GetMapping("/to-categorize")
   public ResponseEntity<UncategorizedTransactionDTO> getUncategorizedTransactions(
       @AuthenticationPrincipal AppUserPrincipal principal,
       @RequestParam Long walletId,
-      @RequestParam int page,
-      @RequestParam int size) {
-    log.debug("Request to get uncategorized transactions for wallet {}", walletId);
-    return ResponseEntity.ok(useCaseService.getUncategorizedTransactions(walletId, principal.getUser().getId(), page, size));
+      @RequestParam(required = false) LocalDate afterDate,
+      @RequestParam(required = false) Integer afterId,
+      @RequestParam(defaultValue = "50") int size) {
+    log.debug("Request to get uncategorized transactions for wallet {} after ({}, {})", walletId, afterDate, afterId);
+    return ResponseEntity.ok(useCaseService.getUncategorizedTransactions(walletId, principal.id(), afterDate, afterId,
+        size));
   }
 
+  /**
+   * Sets category, custom label and related transaction of many transactions at once, with an
+   * outcome per transaction id.
+   */
   @PutMapping("/categorize")
-  public ResponseEntity<Void> updateTransactionToCategorize(@RequestBody List<TransactionDTO> transactionDTOS) {
-    log.debug("Request to update transactions");
-    useCaseService.updateTransactionsToCategorize(transactionDTOS);
-    return ResponseEntity.noContent().build();
+  public ResponseEntity<CategorizationReportDTO> updateTransactionToCategorize(
+      @AuthenticationPrincipal AppUserPrincipal principal,
+      @RequestBody List<TransactionDTO> transactionDTOS) {
+    log.debug("Request to update {} transactions", transactionDTOS.size());
+    return ResponseEntity.ok(useCaseService.updateTransactionsToCategorize(transactionDTOS, principal.id()));
   }
 
   @DeleteMapping("/{id}")
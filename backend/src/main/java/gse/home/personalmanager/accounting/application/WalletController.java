@@ -1,16 +1,22 @@
 package gse.home.personalmanager.accounting.application;
 
 import gse.home.personalmanager.accounting.application.dto.*;
+import gse.home.personalmanager.accounting.application.service.TransactionExportUseCaseService;
 import gse.home.personalmanager.accounting.application.service.WalletUseCaseService;
 import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Slf4j
@@ -19,14 +25,17 @@ import java.util.List;
 @AllArgsConstructor
 public class WalletController {
 
+    private static final MediaType GZIP = new MediaType("application", "gzip");
+
     private final WalletUseCaseService useCaseService;
+    private final TransactionExportUseCaseService exportUseCaseService;
 
     @PostMapping
     public ResponseEntity<WalletDTO> createWallet(
             @AuthenticationPrincipal AppUserPrincipal principal,
             @Valid @RequestBody CreateWalletRequest request) {
-        log.info("Request to create wallet: name={} by user id={}", request.getName(), principal.getUser().getId());
-        WalletDTO wallet = useCaseService.createWallet(request, principal.getUser().getId());
+        log.info("Request to create wallet: name={} by user id={}", request.getName(), principal.id());
+        WalletDTO wallet = useCaseService.createWallet(request, principal.id());
         return ResponseEntity.status(HttpStatus.CREATED).body(wallet);
     }
 
@@ -35,8 +44,8 @@ public class WalletController {
             @AuthenticationPrincipal AppUserPrincipal principal,
             @PathVariable Long id,
             @Valid @RequestBody UpdateWalletRequest request) {
-        log.info("Request to update wallet id={} by user id={}", id, principal.getUser().getId());
-        WalletDTO wallet = useCaseService.updateWallet(id, request, principal.getUser().getId());
+        log.info("Request to update wallet id={} by user id={}", id, principal.id());
+        WalletDTO wallet = useCaseService.updateWallet(id, request, principal.id());
         return ResponseEntity.ok(wallet);
     }
 
@@ -44,8 +53,8 @@ public class WalletController {
     public ResponseEntity<Void> deleteWallet(
             @AuthenticationPrincipal AppUserPrincipal principal,
             @PathVariable Long id) {
-        log.info("Request to delete wallet id={} by user id={}", id, principal.getUser().getId());
-        useCaseService.deleteWallet(id, principal.getUser().getId());
+        log.info("Request to delete wallet id={} by user id={}", id, principal.id());
+        useCaseService.deleteWallet(id, principal.id());
         return ResponseEntity.noContent().build();
     }
 
@@ -53,35 +62,61 @@ public class WalletController {
     public ResponseEntity<WalletDTO> getWallet(
             @AuthenticationPrincipal AppUserPrincipal principal,
             @PathVariable Long id) {
-        log.debug("Request to get wallet id={} by user id={}", id, principal.getUser().getId());
-        WalletDTO wallet = useCaseService.getWallet(id, principal.getUser().getId());
+        log.debug("Request to get wallet id={} by user id={}", id, principal.id());
+        WalletDTO wallet = useCaseService.getWallet(id, principal.id());
         return ResponseEntity.ok(wallet);
     }
 
     @GetMapping
     public ResponseEntity<List<WalletDTO>> getWalletsForCurrentUser(
             @AuthenticationPrincipal AppUserPrincipal principal) {
-        log.debug("Request to get all wallets for user id={}", principal.getUser().getId());
-        List<WalletDTO> wallets = useCaseService.getWalletsForCurrentUser(principal.getUser().getId());
+        log.debug("Request to get all wallets for user id={}", principal.id());
+        List<WalletDTO> wallets = useCaseService.getWalletsForCurrentUser(principal.id());
         return ResponseEntity.ok(wallets);
     }
 
     @GetMapping("/tenant/{tenantId}")
-    public ResponseEntity<List<WalletDTO>> getWalletsForTenant(@PathVariable Long tenantId) {
+    public ResponseEntity<List<WalletDTO>> getWalletsForTenant(
+            @AuthenticationPrincipal AppUserPrincipal principal,
+            @PathVariable Long tenantId) {
         log.debug("Request to get all wallets for tenant id={}", tenantId);
-        List<WalletDTO> wallets = useCaseService.getWalletsForTenant(tenantId);
+        List<WalletDTO> wallets = useCaseService.getWalletsForTenant(tenantId, principal.id());
         return ResponseEntity.ok(wallets);
     }
 
+    /**
+     * Streams the transaction history of the wallet as CSV or NDJSON, optionally gzipped.
+     */
+    @GetMapping("/{id}/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @AuthenticationPrincipal AppUserPrincipal principal,
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) LocalDate minDate,
+            @RequestParam(required = false) LocalDate maxDate,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        log.info("Request to export transactions of wallet id={} as {} by user id={}", id, format, principal.id());
+        var exportFormat = TransactionExportFormat.of(format);
+        exportUseCaseService.validateExport(id, principal.id(), minDate, maxDate);
+
+        StreamingResponseBody body = out -> exportUseCaseService.export(id, minDate, maxDate, exportFormat, gzip, out);
+        var filename = "wallet-" + id + "-transactions." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(gzip ? GZIP : exportFormat.getMediaType())
+                .body(body);
+    }
+
     @PostMapping("/{walletId}/permissions")
     public ResponseEntity<WalletPermissionDTO> grantPermission(
             @AuthenticationPrincipal AppUserPrincipal principal,
             @PathVariable Long walletId,
             @Valid @RequestBody GrantWalletPermissionRequest request) {
         log.info("Request to grant permission on wallet id={} to user id={} by user id={}", 
-                walletId, request.getUserId(), principal.getUser().getId());
+                walletId, request.getUserId(), principal.id());
         WalletPermissionDTO permission = useCaseService.grantPermission(
-                walletId, request, principal.getUser().getId());
+                walletId, request, principal.id());
         return ResponseEntity.status(HttpStatus.CREATED).body(permission);
     }
 
@@ -92,9 +127,9 @@ public class WalletController {
             @PathVariable Long userId,
             @Valid @RequestBody UpdateWalletPermissionRequest request) {
         log.info("Request to update permission on wallet id={} for user id={} by user id={}", 
-                walletId, userId, principal.getUser().getId());
+                walletId, userId, principal.id());
         WalletPermissionDTO permission = useCaseService.updatePermission(
-                walletId, userId, request, principal.getUser().getId());
+                walletId, userId, request, principal.id());
         return ResponseEntity.ok(permission);
     }
 
@@ -104,8 +139,8 @@ public class WalletController {
             @PathVariable Long walletId,
             @PathVariable Long userId) {
         log.info("Request to revoke permission on wallet id={} from user id={} by user id={}", 
-                walletId, userId, principal.getUser().getId());
-        useCaseService.revokePermission(walletId, userId, principal.getUser().getId());
+                walletId, userId, principal.id());
+        useCaseService.revokePermission(walletId, userId, principal.id());
         return ResponseEntity.noContent().build();
     }
 
@@ -114,9 +149,9 @@ public class WalletController {
             @AuthenticationPrincipal AppUserPrincipal principal,
             @PathVariable Long walletId) {
         log.debug("Request to get permissions for wallet id={} by user id={}", 
-                walletId, principal.getUser().getId());
+                walletId, principal.id());
         List<WalletPermissionDTO> permissions = useCaseService.getPermissionsForWallet(
-                walletId, principal.getUser().getId());
+                walletId, principal.id());
         return ResponseEntity.ok(permissions);
     }
 }
@@ -0,0 +1,45 @@
+package gse.home.personalmanager.accounting.application.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk categorization, one entry per requested transaction id in request order.
+ */
+@Data
+public class CategorizationReportDTO {
+
+  public enum Outcome {
+    UPDATED,
+    /**
+     * Category, label and related transaction were already the requested ones.
+     */
+    UNCHANGED,
+    NOT_FOUND,
+    /**
+     * The caller cannot write to the wallet of the transaction or of its related transaction.
+     */
+    FORBIDDEN,
+    CATEGORY_NOT_FOUND,
+    RELATED_NOT_FOUND
+  }
+
+  public record Result(int id, Outcome outcome) {
+  }
+
+  private int updated;
+  private int unchanged;
+  private int failed;
+  private List<Result> results = new ArrayList<>();
+
+  public void add(int id, Outcome outcome) {
+    results.add(new Result(id, outcome));
+    switch (outcome) {
+      case UPDATED -> updated++;
+      case UNCHANGED -> unchanged++;
+      default -> failed++;
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package gse.home.personalmanager.accounting.application.dto;
+
+import gse.home.personalmanager.accounting.domain.model.CategorizationRuleType;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorizationRuleDTO {
+  private Long id;
+
+  @NotNull(message = "Type is required")
+  private CategorizationRuleType type;
+
+  /**
+   * Keyword or regular expression; unused by amount range rules.
+   */
+  private String pattern;
+  private Double minAmount;
+  private Double maxAmount;
+
+  @NotNull(message = "Category ID is required")
+  private Integer categoryId;
+  private String categoryTitle;
+
+  /**
+   * Lower wins among the matching rules; defaults to 0.
+   */
+  private Integer priority;
+  private Boolean learned;
+  private Boolean enabled;
+  private Long createdAt;
+}
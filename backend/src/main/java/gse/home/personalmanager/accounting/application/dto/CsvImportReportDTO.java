@@ -0,0 +1,67 @@
+package gse.home.personalmanager.accounting.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import gse.home.personalmanager.accounting.domain.service.fingerprint.FingerprintSet;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a CSV import. Row numbers are 1-based positions in the submitted list, or the
+ * line of the record for an uploaded file. Only the first {@value #MAX_LISTED_ROWS} duplicate
+ * and rejected rows are listed; the counts are always exact.
+ */
+@Data
+@Builder
+public class CsvImportReportDTO {
+
+  public static final int MAX_LISTED_ROWS = 1000;
+
+  private int inserted;
+  private int duplicates;
+  private int rejected;
+  private List<Integer> duplicateRows;
+  private List<RejectedRow> rejectedRows;
+  /**
+   * Fingerprints given to the rows read so far, so identical rows keep being numbered from one
+   * chunk to the next.
+   */
+  @JsonIgnore
+  private FingerprintSet fingerprints;
+
+  @Data
+  @AllArgsConstructor
+  public static class RejectedRow {
+    private int row;
+    private String reason;
+  }
+
+  public static CsvImportReportDTO empty() {
+    return CsvImportReportDTO.builder()
+        .duplicateRows(new ArrayList<>())
+        .rejectedRows(new ArrayList<>())
+        .fingerprints(new FingerprintSet())
+        .build();
+  }
+
+  public void addInserted() {
+    inserted++;
+  }
+
+  public void addDuplicate(int row) {
+    duplicates++;
+    if (duplicateRows.size() < MAX_LISTED_ROWS) {
+      duplicateRows.add(row);
+    }
+  }
+
+  public void addRejected(int row, String reason) {
+    rejected++;
+    if (rejectedRows.size() < MAX_LISTED_ROWS) {
+      rejectedRows.add(new RejectedRow(row, reason));
+    }
+  }
+}
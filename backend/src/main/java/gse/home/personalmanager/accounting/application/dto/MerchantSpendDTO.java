@@ -0,0 +1,16 @@
+package gse.home.personalmanager.accounting.application.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * What was spent at one merchant over a range, debits only, internal transfers left out.
+ */
+@Data
+@Builder
+public class MerchantSpendDTO {
+  private Integer merchantId;
+  private String name;
+  private double spent;
+  private long count;
+}
@@ -0,0 +1,37 @@
+package gse.home.personalmanager.accounting.application.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionCategoryDTO {
+  private Integer id;
+
+  @NotBlank(message = "Title is required")
+  private String title;
+  private String description;
+  private Double expectedAmount;
+
+  /**
+   * Null for a top level category.
+   */
+  private Integer parentId;
+
+  /**
+   * Expected amount of the category and all its subcategories; read only.
+   */
+  private Double subtreeExpectedAmount;
+
+  /**
+   * Subcategories by title; read only.
+   */
+  private List<TransactionCategoryDTO> subcategories;
+}
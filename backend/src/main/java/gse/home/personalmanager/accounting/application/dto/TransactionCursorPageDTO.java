@@ -0,0 +1,19 @@
+package gse.home.personalmanager.accounting.application.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One page of transactions, newest first. Pass {@code nextDate} and {@code nextId} back as
+ * {@code afterDate} and {@code afterId} to get the following page; both are null on the last one.
+ */
+@Data
+@Builder
+public class TransactionCursorPageDTO {
+  private List<TransactionDTO> transactions;
+  private LocalDate nextDate;
+  private Integer nextId;
+}
@@ -0,0 +1,29 @@
+package gse.home.personalmanager.accounting.application.dto;
+
+import gse.home.personalmanager.core.exception.ValidationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+@Getter
+@AllArgsConstructor
+public enum TransactionExportFormat {
+  CSV(new MediaType("text", "csv"), "csv"),
+  /**
+   * One JSON object per line.
+   */
+  NDJSON(new MediaType("application", "x-ndjson"), "ndjson");
+
+  private final MediaType mediaType;
+  private final String extension;
+
+  public static TransactionExportFormat of(String name) {
+    try {
+      return valueOf(name.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new ValidationException("Unknown export format: " + name);
+    }
+  }
+}
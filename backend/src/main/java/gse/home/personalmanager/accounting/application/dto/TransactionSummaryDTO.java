@@ -12,9 +12,17 @@ import java.util.List;
 public class TransactionSummaryDTO {
   private Double totalExpense;
   private Double totalIncome;
+  /**
+   * Null for uncategorized transactions.
+   */
+  private Integer categoryId;
   private String category;
   private Integer percent;
   private Double expectedAmount;
+  private Long transactionCount;
+  /**
+   * Null in summary-only mode; page them with {@code GET /v1/transactions/by-category} instead.
+   */
   private List<TransactionDTO> transactions;
   private List<TransactionSummaryDTO> nestedTransactionSummaries;
 }
@@ -3,13 +3,18 @@ package gse.home.personalmanager.accounting.application.dto;
 import lombok.Builder;
 import lombok.Data;
 
+import java.time.LocalDate;
 import java.util.List;
 
+/**
+ * One page of the categorization inbox, newest first, paged like {@link TransactionCursorPageDTO}.
+ * {@code totalElements} is the number of uncategorized transactions left in the wallet.
+ */
 @Data
 @Builder
 public class UncategorizedTransactionDTO {
   private List<TransactionDTO> transactions;
-  private int page;
-  private int totalPage;
-  private int totalElements;
+  private long totalElements;
+  private LocalDate nextDate;
+  private Integer nextId;
 }
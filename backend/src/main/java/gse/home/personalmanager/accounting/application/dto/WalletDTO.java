@@ -1,5 +1,6 @@
 package gse.home.personalmanager.accounting.application.dto;
 
+import gse.home.personalmanager.accounting.domain.model.WalletView;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,6 +11,13 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class WalletDTO {
+
+    /**
+     * {@link #role} of the wallet owner; shared wallets carry the
+     * {@link gse.home.personalmanager.accounting.domain.model.WalletRole} granted to the caller.
+     */
+    public static final String ROLE_OWNER = WalletView.ROLE_OWNER;
+
     private Long id;
     private String name;
     private String description;
@@ -20,4 +28,8 @@ public class WalletDTO {
     private Long createdAt;
     private Long updatedAt;
     private Double balance;
+    /**
+     * The caller's access to the wallet: OWNER, WRITE or READ, null when it has none.
+     */
+    private String role;
 }
@@ -0,0 +1,47 @@
+package gse.home.personalmanager.accounting.application.listener;
+
+import gse.home.personalmanager.accounting.domain.event.BudgetLevelsChangedEvent;
+import gse.home.personalmanager.accounting.domain.model.BudgetLevel;
+import gse.home.personalmanager.accounting.domain.service.BudgetService;
+import gse.home.personalmanager.gamification.application.dto.NotificationDTO;
+import gse.home.personalmanager.gamification.application.service.NotificationService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.YearMonth;
+
+@Slf4j
+@Component
+@AllArgsConstructor
+public class BudgetAlertListener {
+
+  private final BudgetService budgetService;
+  private final NotificationService notificationService;
+
+  /**
+   * Alerts the users whose categories reached a higher budget level, once the write that spent is
+   * committed and off the request thread.
+   */
+  @Async
+  @TransactionalEventListener(fallbackExecution = true)
+  public void handleBudgetLevelsChanged(BudgetLevelsChangedEvent event) {
+    for (var status : event.getStatuses()) {
+      try {
+        var alert = budgetService.recordLevel(status).orElse(null);
+        if (alert == null) {
+          continue;
+        }
+        notificationService.sendNotificationToUser(alert.userId(),
+            NotificationDTO.budgetAlert(alert.categoryTitle(), YearMonth.from(alert.periodStart()), alert.spent(),
+                alert.budget(), alert.level() == BudgetLevel.EXCEEDED));
+      } catch (RuntimeException e) {
+        // most likely a concurrent write recorded the same level first and sent the alert
+        log.warn("Budget alert skipped for category {} of user {} in {}: {}", status.categoryId(), status.userId(),
+            status.periodStart(), e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package gse.home.personalmanager.accounting.application.listener;
+
+import gse.home.personalmanager.accounting.config.CategorizationConfig;
+import gse.home.personalmanager.accounting.domain.event.TransactionsImportedEvent;
+import gse.home.personalmanager.accounting.domain.service.AutoCategorizationService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Slf4j
+@Component
+@AllArgsConstructor
+public class TransactionImportListener {
+
+  private final AutoCategorizationService autoCategorizationService;
+  private final CategorizationConfig config;
+
+  /**
+   * Runs the categorization rules once the imported chunk is committed, off the request thread.
+   */
+  @Async
+  @TransactionalEventListener(fallbackExecution = true)
+  public void handleTransactionsImported(TransactionsImportedEvent event) {
+    if (!Boolean.TRUE.equals(config.getEnabled())) {
+      return;
+    }
+    try {
+      autoCategorizationService.categorizeImported(event.getWalletId(), event.getUserId(),
+          event.getTransactionIds());
+    } catch (RuntimeException e) {
+      // the rows stay uncategorized and can still be categorized by hand
+      log.error("Auto-categorization failed for {} transactions of wallet {}", event.getTransactionIds().size(),
+          event.getWalletId(), e);
+    }
+  }
+}
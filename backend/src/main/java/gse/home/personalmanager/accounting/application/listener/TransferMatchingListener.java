@@ -0,0 +1,37 @@
+package gse.home.personalmanager.accounting.application.listener;
+
+import gse.home.personalmanager.accounting.config.TransferMatchingConfig;
+import gse.home.personalmanager.accounting.domain.event.TransactionsImportedEvent;
+import gse.home.personalmanager.accounting.domain.service.TransferMatchingService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Slf4j
+@Component
+@AllArgsConstructor
+public class TransferMatchingListener {
+
+  private final TransferMatchingService transferMatchingService;
+  private final TransferMatchingConfig config;
+
+  /**
+   * Links the transfers of the imported chunk once it is committed, off the request thread.
+   */
+  @Async
+  @TransactionalEventListener(fallbackExecution = true)
+  public void handleTransactionsImported(TransactionsImportedEvent event) {
+    if (!Boolean.TRUE.equals(config.getEnabled())) {
+      return;
+    }
+    try {
+      transferMatchingService.matchImported(event.getUserId(), event.getTransactionIds());
+    } catch (RuntimeException e) {
+      // the transfers stay unlinked and can still be linked by hand
+      log.error("Transfer matching failed for {} transactions of wallet {}", event.getTransactionIds().size(),
+          event.getWalletId(), e);
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package gse.home.personalmanager.accounting.application.listener;
+
+import gse.home.personalmanager.accounting.domain.event.WalletDeletedEvent;
+import gse.home.personalmanager.accounting.domain.service.WalletPurgeService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Slf4j
+@Component
+@AllArgsConstructor
+public class WalletDeletedListener {
+
+  private final WalletPurgeService purgeService;
+
+  /**
+   * Purges the wallet once its deletion is committed, off the request thread.
+   */
+  @Async
+  @TransactionalEventListener(fallbackExecution = true)
+  public void handleWalletDeleted(WalletDeletedEvent event) {
+    try {
+      purgeService.purge(event.getWalletId());
+    } catch (RuntimeException e) {
+      // the wallet stays hidden and WalletPurgeJob retries
+      log.error("Could not purge deleted wallet {}", event.getWalletId(), e);
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package gse.home.personalmanager.accounting.application.mapper;
+
+import gse.home.personalmanager.accounting.application.dto.CategorizationRuleDTO;
+import gse.home.personalmanager.accounting.domain.model.CategorizationRule;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface CategorizationRuleMapper {
+
+  @Mapping(source = "category.id", target = "categoryId")
+  @Mapping(source = "category.title", target = "categoryTitle")
+  CategorizationRuleDTO toDto(CategorizationRule rule);
+}
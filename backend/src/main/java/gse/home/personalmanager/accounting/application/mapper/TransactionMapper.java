@@ -16,6 +16,8 @@ public interface TransactionMapper {
   @Mapping(source = "walletId", target = "wallet.id")
   @Mapping(target = "relatedTransaction", ignore = true)
   @Mapping(target = "user", ignore = true)
+  @Mapping(target = "importFingerprint", ignore = true)
+  @Mapping(target = "merchant", ignore = true)
   Transaction toEntity(TransactionDTO dto);
 
 }
@@ -4,6 +4,7 @@ import gse.home.personalmanager.accounting.application.dto.WalletDTO;
 import gse.home.personalmanager.accounting.application.dto.WalletPermissionDTO;
 import gse.home.personalmanager.accounting.domain.model.Wallet;
 import gse.home.personalmanager.accounting.domain.model.WalletPermission;
+import gse.home.personalmanager.accounting.domain.model.WalletView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -14,8 +15,12 @@ public interface WalletMapper {
     @Mapping(source = "owner.email", target = "ownerEmail")
     @Mapping(source = "tenant.id", target = "tenantId")
     @Mapping(source = "tenant.name", target = "tenantName")
+    @Mapping(target = "balance", ignore = true)
+    @Mapping(target = "role", ignore = true)
     WalletDTO toDto(Wallet wallet);
 
+    WalletDTO toDto(WalletView view);
+
     @Mapping(source = "wallet.id", target = "walletId")
     @Mapping(source = "wallet.name", target = "walletName")
     @Mapping(source = "user.id", target = "userId")
@@ -0,0 +1,50 @@
+package gse.home.personalmanager.accounting.application.service;
+
+import gse.home.personalmanager.accounting.domain.service.AccountingRollupService;
+import gse.home.personalmanager.accounting.domain.service.UncategorizedCountService;
+import gse.home.personalmanager.accounting.infrastructure.repository.WalletRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes every wallet's accounting rollups and uncategorized counts from its transactions when
+ * the application is started with {@code --accounting.rollup.rebuild=true}, e.g. after the first
+ * deployment of the rollup table or a manual fix in the ledger. Each wallet is rebuilt in its own transaction while
+ * holding the same lock as the writers, so the application can keep serving requests meanwhile.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = "accounting.rollup.rebuild", havingValue = "true")
+public class AccountingRollupRebuildCommand implements ApplicationRunner {
+
+  private final WalletRepository walletRepository;
+  private final AccountingRollupService rollupService;
+  private final UncategorizedCountService uncategorizedCountService;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    rebuildAll();
+  }
+
+  public void rebuildAll() {
+    int wallets = 0;
+    int days = 0;
+    int failed = 0;
+    for (Long walletId : walletRepository.findAllIds()) {
+      try {
+        days += rollupService.rebuild(walletId);
+        uncategorizedCountService.rebuild(walletId);
+        wallets++;
+      } catch (RuntimeException e) {
+        failed++;
+        log.error("Could not rebuild the rollups of wallet {}", walletId, e);
+      }
+    }
+    log.info("Accounting rollups rebuilt: {} wallets, {} daily rows, {} failed", wallets, days, failed);
+  }
+}
@@ -0,0 +1,101 @@
+package gse.home.personalmanager.accounting.application.service;
+
+import gse.home.personalmanager.accounting.application.dto.CategorizationRuleDTO;
+import gse.home.personalmanager.accounting.application.mapper.CategorizationRuleMapper;
+import gse.home.personalmanager.accounting.domain.model.CategorizationRule;
+import gse.home.personalmanager.accounting.domain.service.CategorizationRuleService;
+import gse.home.personalmanager.accounting.infrastructure.repository.CategorizationRuleRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionCategoryRepository;
+import gse.home.personalmanager.core.exception.ResourceNotFoundException;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import gse.home.personalmanager.user.infrastructure.repository.UserRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Use case service layer - manages the categorization rules of the current user
+ */
+@Service
+@Slf4j
+@AllArgsConstructor
+public class CategorizationRuleUseCaseService {
+
+  private final CategorizationRuleService ruleService;
+  private final CategorizationRuleRepository ruleRepository;
+  private final TransactionCategoryRepository categoryRepository;
+  private final UserRepository userRepository;
+  private final CategorizationRuleMapper mapper;
+
+  /**
+   * Rules of the user in the order they are tried: their own rules, then learned ones.
+   */
+  @Transactional(readOnly = true)
+  public List<CategorizationRuleDTO> getRules(Long userId) {
+    return ruleRepository.findAllByUserIdOrderByLearnedAscPriorityAscIdAsc(userId).stream()
+        .map(mapper::toDto)
+        .toList();
+  }
+
+  @Transactional
+  public CategorizationRuleDTO createRule(CategorizationRuleDTO request, Long userId) {
+    var rule = new CategorizationRule();
+    rule.setUser(getUser(userId));
+    apply(rule, request);
+    var saved = ruleService.save(rule);
+    log.info("Categorization rule created: id={}, type={} for user id={}", saved.getId(), saved.getType(), userId);
+    return mapper.toDto(saved);
+  }
+
+  /**
+   * Updates a rule. An edited learned rule becomes the user's own, so learning again keeps it.
+   */
+  @Transactional
+  public CategorizationRuleDTO updateRule(Long id, CategorizationRuleDTO request, Long userId) {
+    var rule = getRule(id, userId);
+    apply(rule, request);
+    rule.setLearned(false);
+    return mapper.toDto(ruleService.save(rule));
+  }
+
+  @Transactional
+  public void deleteRule(Long id, Long userId) {
+    ruleService.delete(getRule(id, userId));
+    log.info("Categorization rule deleted: id={} for user id={}", id, userId);
+  }
+
+  /**
+   * Replaces the learned rules of the user with rules derived from their categorized transactions.
+   */
+  @Transactional
+  public List<CategorizationRuleDTO> learnRules(Long userId) {
+    return ruleService.learnRules(getUser(userId)).stream()
+        .map(mapper::toDto)
+        .toList();
+  }
+
+  private void apply(CategorizationRule rule, CategorizationRuleDTO request) {
+    var category = categoryRepository.findById(request.getCategoryId())
+        .orElseThrow(() -> new ResourceNotFoundException("TransactionCategory", request.getCategoryId().longValue()));
+    rule.setType(request.getType());
+    rule.setPattern(request.getPattern());
+    rule.setMinAmount(request.getMinAmount());
+    rule.setMaxAmount(request.getMaxAmount());
+    rule.setCategory(category);
+    rule.setPriority(request.getPriority() == null ? 0 : request.getPriority());
+    rule.setEnabled(request.getEnabled() == null || request.getEnabled());
+  }
+
+  private CategorizationRule getRule(Long id, Long userId) {
+    return ruleRepository.findByIdAndUserId(id, userId)
+        .orElseThrow(() -> new ResourceNotFoundException("CategorizationRule", id));
+  }
+
+  private AppUser getUser(Long userId) {
+    return userRepository.findById(userId)
+        .orElseThrow(() -> new ResourceNotFoundException("User", userId));
+  }
+}
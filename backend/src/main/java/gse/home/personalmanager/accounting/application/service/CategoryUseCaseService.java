@@ -0,0 +1,69 @@
+package gse.home.personalmanager.accounting.application.service;
+
+import gse.home.personalmanager.accounting.application.dto.TransactionCategoryDTO;
+import gse.home.personalmanager.accounting.domain.model.CategoryTree;
+import gse.home.personalmanager.accounting.domain.service.CategoryService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Use case service layer - manages the transaction categories shared by all users
+ */
+@Service
+@Slf4j
+@AllArgsConstructor
+public class CategoryUseCaseService {
+
+  private final CategoryService categoryService;
+
+  /**
+   * The whole category tree, from the in-memory snapshot.
+   */
+  public List<TransactionCategoryDTO> getCategoryTree() {
+    var tree = categoryService.getTree();
+    return tree.roots().stream().map(node -> toDto(tree, node)).toList();
+  }
+
+  public TransactionCategoryDTO createCategory(TransactionCategoryDTO request) {
+    var category = categoryService.create(request.getTitle(), request.getDescription(), request.getExpectedAmount(),
+        request.getParentId());
+    log.info("Category created: id={}, parent id={}", category.getId(), request.getParentId());
+    return TransactionCategoryDTO.builder()
+        .id(category.getId())
+        .title(category.getTitle())
+        .description(category.getDescription())
+        .expectedAmount(category.getExpectedAmount())
+        .parentId(request.getParentId())
+        .build();
+  }
+
+  /**
+   * Edits a category; a new {@code parentId} moves it with its subcategories.
+   */
+  public TransactionCategoryDTO updateCategory(Integer id, TransactionCategoryDTO request) {
+    var category = categoryService.update(id, request.getTitle(), request.getDescription(),
+        request.getExpectedAmount(), request.getParentId());
+    return TransactionCategoryDTO.builder()
+        .id(category.getId())
+        .title(category.getTitle())
+        .description(category.getDescription())
+        .expectedAmount(category.getExpectedAmount())
+        .parentId(request.getParentId())
+        .build();
+  }
+
+  private static TransactionCategoryDTO toDto(CategoryTree tree, CategoryTree.Node node) {
+    return TransactionCategoryDTO.builder()
+        .id(node.id())
+        .title(node.title())
+        .description(node.description())
+        .expectedAmount(node.expectedAmount())
+        .parentId(node.parentId())
+        .subtreeExpectedAmount(node.subtreeExpectedAmount())
+        .subcategories(tree.children(node).stream().map(child -> toDto(tree, child)).toList())
+        .build();
+  }
+}
@@ -0,0 +1,53 @@
+package gse.home.personalmanager.accounting.application.service;
+
+import gse.home.personalmanager.accounting.application.dto.CsvImportReportDTO;
+import gse.home.personalmanager.accounting.config.CsvImportConfig;
+import gse.home.personalmanager.accounting.domain.service.csv.BankCsvParser;
+import gse.home.personalmanager.core.exception.ApiException;
+import gse.home.personalmanager.core.exception.ValidationException;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+
+/**
+ * Imports an uploaded bank CSV file. The file is parsed as a stream and every chunk of rows is
+ * written in its own transaction, so heap use and transaction length do not grow with the file.
+ * Re-uploading after a failure is safe: rows already imported are reported as duplicates.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class CsvImportUseCaseService {
+
+  private final CsvImportConfig config;
+  private final BankCsvParser parser;
+  private final TransactionUseCaseService transactionUseCaseService;
+
+  public CsvImportReportDTO importCSVFile(InputStream input, String profileName, Long walletId, Long userId) {
+    var profile = config.getProfile(profileName);
+    if (profile == null) {
+      throw new ValidationException("Unknown CSV import profile: " + profileName);
+    }
+    transactionUseCaseService.validateImport(walletId, userId);
+
+    var report = CsvImportReportDTO.empty();
+    try {
+      parser.parse(input, profile,
+          chunk -> transactionUseCaseService.importCSVChunk(chunk, walletId, userId, report));
+    } catch (IOException e) {
+      throw new ApiException(HttpStatus.BAD_REQUEST, "Could not read the uploaded CSV file", e);
+    }
+    log.info("CSV file imported into wallet {}: {} inserted, {} duplicates, {} rejected",
+        walletId, report.getInserted(), report.getDuplicates(), report.getRejected());
+    return report;
+  }
+
+  public Set<String> getProfileNames() {
+    return config.getProfiles().keySet();
+  }
+}
@@ -0,0 +1,40 @@
+package gse.home.personalmanager.accounting.application.service;
+
+import gse.home.personalmanager.accounting.domain.service.MerchantService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives a merchant to the transactions imported before the merchant table existed when the
+ * application is started with {@code --accounting.merchant.backfill=true}. Transactions are read
+ * by id in chunks of {@value #CHUNK_SIZE}, each in its own transaction, so the application can
+ * keep serving requests meanwhile and a restart simply goes on with the rows still missing one.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = "accounting.merchant.backfill", havingValue = "true")
+public class MerchantBackfillCommand implements ApplicationRunner {
+
+  static final int CHUNK_SIZE = 1000;
+
+  private final MerchantService merchantService;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    backfillAll();
+  }
+
+  public void backfillAll() {
+    int chunks = 0;
+    int afterId = 0;
+    while ((afterId = merchantService.backfill(afterId, CHUNK_SIZE)) != 0) {
+      chunks++;
+    }
+    log.info("Merchants backfilled in {} chunks of at most {} transactions", chunks, CHUNK_SIZE);
+  }
+}
@@ -0,0 +1,151 @@
+package gse.home.personalmanager.accounting.application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import gse.home.personalmanager.accounting.application.dto.TransactionExportFormat;
+import gse.home.personalmanager.accounting.domain.model.TransactionExportRow;
+import gse.home.personalmanager.accounting.domain.service.WalletAccessService;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.WalletRepository;
+import gse.home.personalmanager.core.exception.ForbiddenException;
+import gse.home.personalmanager.core.exception.ResourceNotFoundException;
+import gse.home.personalmanager.core.exception.ValidationException;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the transaction history of a wallet. Rows come from a database cursor and are written
+ * as they arrive, so memory use does not depend on the size of the wallet.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class TransactionExportUseCaseService {
+
+  static final String CSV_HEADER = "id,date,amount,type,label,custom_label,category,balance";
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final TransactionRepository repository;
+  private final WalletRepository walletRepository;
+  private final WalletAccessService accessService;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Checks the request and that the user can read the wallet. Done before the response starts, as
+   * errors can no longer change its status once rows are streamed.
+   */
+  @Transactional(readOnly = true)
+  public void validateExport(Long walletId, Long userId, LocalDate minDate, LocalDate maxDate) {
+    if (minDate != null && maxDate != null && minDate.isAfter(maxDate)) {
+      throw new ValidationException("minDate must not be after maxDate");
+    }
+    // from the cached access list; the wallet is only looked up to tell a missing one apart
+    if (!accessService.canRead(walletId, userId)) {
+      if (!walletRepository.existsById(walletId)) {
+        throw new ResourceNotFoundException("Wallet", walletId);
+      }
+      throw new ForbiddenException("User does not have access to this wallet");
+    }
+  }
+
+  /**
+   * Writes the transactions of the wallet, oldest first, to {@code out} without closing it.
+   * Runs in its own read-only transaction, which holds the cursor until the last row is written.
+   *
+   * @return the number of exported transactions
+   */
+  @Transactional(readOnly = true)
+  public long export(Long walletId, LocalDate minDate, LocalDate maxDate, TransactionExportFormat format,
+                     boolean gzip, OutputStream out) throws IOException {
+    var target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+    var writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+    var jsonWriter = objectMapper.writerFor(TransactionExportRow.class);
+    if (format == TransactionExportFormat.CSV) {
+      writer.write(CSV_HEADER);
+      writer.write('\n');
+    }
+
+    long count = 0;
+    try (var rows = repository.streamForExport(walletId, minDate, maxDate)) {
+      var iterator = rows.iterator();
+      while (iterator.hasNext()) {
+        var row = iterator.next();
+        if (format == TransactionExportFormat.CSV) {
+          writeCsv(writer, row);
+        } else {
+          writeJson(writer, jsonWriter, row);
+        }
+        count++;
+      }
+    }
+
+    writer.flush();
+    if (target instanceof GZIPOutputStream gzipStream) {
+      gzipStream.finish();
+    }
+    log.info("Exported {} transactions of wallet {} as {}", count, walletId, format);
+    return count;
+  }
+
+  private static void writeCsv(Writer writer, TransactionExportRow row) throws IOException {
+    writer.write(String.valueOf(row.id()));
+    writer.write(',');
+    writer.write(row.date() == null ? "" : row.date().toString());
+    writer.write(',');
+    writer.write(decimal(row.amount()));
+    writer.write(',');
+    writer.write(row.type() == null ? "" : row.type().name());
+    writer.write(',');
+    writeCsvText(writer, row.importLabel());
+    writer.write(',');
+    writeCsvText(writer, row.customLabel());
+    writer.write(',');
+    writeCsvText(writer, row.category());
+    writer.write(',');
+    writer.write(decimal(row.currentBalance()));
+    writer.write('\n');
+  }
+
+  /**
+   * Quotes a field as in RFC 4180 when it holds a separator, a quote or a line break.
+   */
+  static void writeCsvText(Writer writer, String value) throws IOException {
+    if (value == null) {
+      return;
+    }
+    boolean quote = false;
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char c = value.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) {
+      writer.write(value);
+      return;
+    }
+    writer.write('"');
+    writer.write(value.replace("\"", "\"\""));
+    writer.write('"');
+  }
+
+  private static void writeJson(Writer writer, ObjectWriter jsonWriter, TransactionExportRow row) throws IOException {
+    writer.write(jsonWriter.writeValueAsString(row));
+    writer.write('\n');
+  }
+
+  private static String decimal(Double value) {
+    // plain notation, 1.0E7 would not read back as an amount in most tools
+    return value == null ? "" : BigDecimal.valueOf(value).toPlainString();
+  }
+}
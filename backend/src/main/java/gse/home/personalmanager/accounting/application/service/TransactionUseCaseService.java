@@ -2,28 +2,77 @@ package gse.home.personalmanager.accounting.application.service;
 
 import gse.home.personalmanager.accounting.application.dto.*;
 import gse.home.personalmanager.accounting.application.mapper.TransactionMapper;
+import gse.home.personalmanager.accounting.config.SummaryConfig;
+import gse.home.personalmanager.accounting.domain.event.TransactionsImportedEvent;
+import gse.home.personalmanager.accounting.domain.model.CategoryTotals;
+import gse.home.personalmanager.accounting.domain.model.CategoryTree;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
+import gse.home.personalmanager.accounting.domain.model.TransactionTotals;
+import gse.home.personalmanager.accounting.domain.service.AccountingRollupService;
+import gse.home.personalmanager.accounting.domain.service.BudgetService;
+import gse.home.personalmanager.accounting.domain.service.CategoryService;
+import gse.home.personalmanager.accounting.domain.service.MerchantService;
+import gse.home.personalmanager.accounting.domain.service.TransactionColumnCache;
+import gse.home.personalmanager.accounting.domain.service.TransactionFingerprintIndex;
 import gse.home.personalmanager.accounting.domain.service.TransactionService;
+import gse.home.personalmanager.accounting.domain.service.UncategorizedCountService;
+import gse.home.personalmanager.accounting.domain.service.WalletBalanceService;
 import gse.home.personalmanager.accounting.domain.service.WalletService;
+import gse.home.personalmanager.accounting.domain.service.csv.BankCsvParser.ParsedCsvRow;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionBulkRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionCategoryRepository;
 import gse.home.personalmanager.accounting.infrastructure.repository.TransactionRepository;
+import gse.home.personalmanager.core.exception.ForbiddenException;
+import gse.home.personalmanager.core.exception.ValidationException;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @AllArgsConstructor
 public class TransactionUseCaseService {
 
+  static final int MAX_PAGE_SIZE = 500;
+  static final int MAX_CATEGORIZATION_SIZE = 1000;
+  static final int MAX_TOP_MERCHANTS = 100;
+  /**
+   * Cursor of the first inbox page, past any transaction date.
+   */
+  private static final LocalDate INBOX_START = LocalDate.of(9999, 12, 31);
+
   private final TransactionRepository repository;
   private final TransactionMapper mapper;
   private final TransactionService transactionService;
   private final WalletService walletService;
+  private final TransactionBulkRepository bulkRepository;
+  private final WalletBalanceService walletBalanceService;
+  private final SummaryConfig summaryConfig;
+  private final AccountingRollupService rollupService;
+  private final TransactionCategoryRepository categoryRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionFingerprintIndex fingerprintIndex;
+  private final TransactionColumnCache columnCache;
+  private final CategoryService categoryService;
+  private final BudgetService budgetService;
+  private final UncategorizedCountService uncategorizedCountService;
+  private final MerchantService merchantService;
 
   /**
    * Retrieves all transactions.
@@ -31,86 +80,425 @@ public class TransactionUseCaseService {
    * Transactions are filtered by date range, wallet (optional), and user.
    * TODO: This will need to give balance information in the future.
    * TODO: This will need to give category maximums for budgeting in the future.
-   * TODO: This will need to give percent of total per category in the future.
+   * With {@code summaryOnly} only the category totals are returned; the transactions of a category
+   * are then paged with {@link #getCategoryTransactions}. With {@code excludeTransfers} the internal
+   * transfers between the user's wallets are left out of the totals and the lists.
    */
-  public List<TransactionSummaryDTO> getAllTransactions(LocalDate minDate, LocalDate maxDate, Long walletId, Long userId) {
+  @Transactional(readOnly = true)
+  public List<TransactionSummaryDTO> getAllTransactions(LocalDate minDate, LocalDate maxDate, Long walletId, Long userId,
+                                                        boolean summaryOnly, boolean excludeTransfers) {
+    if (summaryConfig.getAggregation() != SummaryConfig.Aggregation.JAVA) {
+      var categoryTotals = sumRangeByCategory(minDate, maxDate, walletId, userId);
+      if (excludeTransfers) {
+        categoryTotals = transactionService.withoutTransfers(categoryTotals,
+            repository.sumTransfersByCategory(minDate, maxDate, walletId, userId));
+      }
+      if (summaryOnly) {
+        return transactionService.getCategorySummaries(categoryTotals);
+      }
+      var transactions = getTransactionsByDateAndWallet(minDate, maxDate, walletId, userId, excludeTransfers);
+      return transactionService.getTransactionCategoryDetails(categoryTotals, transactions);
+    }
     // Apply a cache of a few minutes to avoid hitting the database too often
-    var transactions = getTransactionsByDateAndWallet(minDate, maxDate, walletId, userId);
-    return transactionService.getTransactionCategoryDetails(transactions);
+    var transactions = getTransactionsByDateAndWallet(minDate, maxDate, walletId, userId, excludeTransfers);
+    var details = transactionService.getTransactionCategoryDetails(transactions);
+    if (summaryOnly) {
+      details.forEach(d -> d.setTransactions(null));
+    }
+    return details;
   }
 
-  public AccountingSummaryDTO getTransactionSummary(LocalDate minDate, LocalDate maxDate, Long walletId, Long userId) {
+  /**
+   * Same as {@link #getAllTransactions} with subcategories nested under their parent, the totals and
+   * expected amount of each category including those of its subcategories. The transaction lists
+   * keep each category's own transactions.
+   */
+  @Transactional(readOnly = true)
+  public List<TransactionSummaryDTO> getNestedTransactions(LocalDate minDate, LocalDate maxDate, Long walletId,
+                                                           Long userId, boolean summaryOnly, boolean excludeTransfers) {
+    var tree = categoryService.getTree();
+    var subtreeTotals = sumRangeByAncestor(minDate, maxDate, walletId, userId, tree);
+    if (excludeTransfers) {
+      subtreeTotals = transactionService.withoutTransfers(subtreeTotals,
+          tree.rollUp(repository.sumTransfersByCategory(minDate, maxDate, walletId, userId)));
+    }
+    var summaries = transactionService.getNestedCategorySummaries(subtreeTotals, tree);
+    if (!summaryOnly) {
+      transactionService.fillTransactions(summaries, getTransactionsByDateAndWallet(minDate, maxDate, walletId, userId,
+          excludeTransfers));
+    }
+    return summaries;
+  }
+
+  /**
+   * Pages the transactions of one category (null for uncategorized) newest first, by (date, id) cursor
+   * so that pages stay stable while transactions are imported.
+   */
+  @Transactional(readOnly = true)
+  public TransactionCursorPageDTO getCategoryTransactions(LocalDate minDate, LocalDate maxDate, Long walletId,
+                                                          Long userId, Integer categoryId, LocalDate afterDate,
+                                                          Integer afterId, int size) {
+    validateCursor(afterDate, afterId, size);
+    if (afterDate == null) {
+      afterDate = maxDate.plusDays(1);
+      afterId = Integer.MAX_VALUE;
+    }
+
+    // one extra row tells whether there is a next page
+    var limit = PageRequest.of(0, size + 1);
+    var transactions = categoryId == null
+        ? repository.findUncategorizedPage(minDate, maxDate, walletId, userId, afterDate, afterId, limit)
+        : repository.findCategoryPage(minDate, maxDate, walletId, userId, categoryId, afterDate, afterId, limit);
+
+    var hasMore = transactions.size() > size;
+    var page = hasMore ? transactions.subList(0, size) : transactions;
+    var last = page.isEmpty() ? null : page.get(page.size() - 1);
+    return TransactionCursorPageDTO.builder()
+        .transactions(page.stream().map(mapper::toDto).toList())
+        .nextDate(hasMore ? last.getDate() : null)
+        .nextId(hasMore ? last.getId() : null)
+        .build();
+  }
+
+  private static void validateCursor(LocalDate afterDate, Integer afterId, int size) {
+    if (size < 1 || size > MAX_PAGE_SIZE) {
+      throw new ValidationException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    if ((afterDate == null) != (afterId == null)) {
+      throw new ValidationException("afterDate and afterId must be given together");
+    }
+  }
+
+  /**
+   * The {@code limit} merchants most spent at over the range, grouped by interned merchant id.
+   */
+  public List<MerchantSpendDTO> getTopMerchants(LocalDate minDate, LocalDate maxDate, Long walletId, Long userId,
+                                                int limit) {
+    if (limit < 1 || limit > MAX_TOP_MERCHANTS) {
+      throw new ValidationException("Limit must be between 1 and " + MAX_TOP_MERCHANTS);
+    }
+    return repository.sumTopMerchants(minDate, maxDate, walletId, userId, PageRequest.of(0, limit)).stream()
+        .map(spend -> MerchantSpendDTO.builder()
+            .merchantId(spend.merchantId())
+            .name(spend.name())
+            .spent(spend.spent())
+            .count(spend.count())
+            .build())
+        .toList();
+  }
+
+  public AccountingSummaryDTO getTransactionSummary(LocalDate minDate, LocalDate maxDate, Long walletId, Long userId,
+                                                    boolean excludeTransfers) {
     // Implementation to retrieve transaction summary between minDate and maxDate
     // filtered by wallet if provided
 
-    // Apply a cache of a few minutes to avoid hitting the database too often
-    var transactions = getTransactionsByDateAndWallet(minDate, maxDate, walletId, userId);
-    
     // Get current wallet balance
     Double balance = walletId != null ? walletService.getCurrentBalance(walletId) : null;
-    
+
+    if (summaryConfig.getAggregation() != SummaryConfig.Aggregation.JAVA) {
+      var totals = sumRange(minDate, maxDate, walletId, userId);
+      if (excludeTransfers) {
+        totals = transactionService.withoutTransfers(totals,
+            repository.sumTransfersByCategory(minDate, maxDate, walletId, userId));
+      }
+      return transactionService.getTransactionSummary(totals, balance);
+    }
+
+    // Apply a cache of a few minutes to avoid hitting the database too often
+    var transactions = getTransactionsByDateAndWallet(minDate, maxDate, walletId, userId, excludeTransfers);
     return transactionService.getTransactionSummary(transactions, balance);
   }
 
+  /**
+   * Totals of the period from the configured source. The columnar cache holds single wallets, so
+   * summaries over all wallets go to the rollups.
+   */
+  private TransactionTotals sumRange(LocalDate minDate, LocalDate maxDate, Long walletId, Long userId) {
+    return switch (summaryConfig.getAggregation()) {
+      case COLUMNAR -> walletId != null
+          ? columnCache.sumRange(minDate, maxDate, walletId, userId)
+          : rollupService.sumRange(minDate, maxDate, walletId, userId);
+      case ROLLUP -> rollupService.sumRange(minDate, maxDate, walletId, userId);
+      default -> repository.sumByDateBetweenAndWalletIdAndUserId(minDate, maxDate, walletId, userId);
+    };
+  }
+
+  private List<CategoryTotals> sumRangeByCategory(LocalDate minDate, LocalDate maxDate, Long walletId, Long userId) {
+    return switch (summaryConfig.getAggregation()) {
+      case COLUMNAR -> walletId != null
+          ? columnCache.sumRangeByCategory(minDate, maxDate, walletId, userId)
+          : rollupService.sumRangeByCategory(minDate, maxDate, walletId, userId);
+      case ROLLUP -> rollupService.sumRangeByCategory(minDate, maxDate, walletId, userId);
+      default -> repository.sumByCategoryAndDateBetweenAndWalletIdAndUserId(minDate, maxDate, walletId, userId);
+    };
+  }
+
+  /**
+   * Totals per category including subcategories: one grouped query over the rollups and the closure
+   * paths, or the per-category totals of the other sources rolled up through the tree. The JAVA
+   * aggregation has no per-category totals of its own and uses the database ones.
+   */
+  private List<CategoryTotals> sumRangeByAncestor(LocalDate minDate, LocalDate maxDate, Long walletId, Long userId,
+                                                  CategoryTree tree) {
+    return switch (summaryConfig.getAggregation()) {
+      case COLUMNAR -> walletId != null
+          ? tree.rollUp(columnCache.sumRangeByCategory(minDate, maxDate, walletId, userId))
+          : rollupService.sumRangeByAncestor(minDate, maxDate, walletId, userId);
+      case ROLLUP -> rollupService.sumRangeByAncestor(minDate, maxDate, walletId, userId);
+      default -> tree.rollUp(repository.sumByCategoryAndDateBetweenAndWalletIdAndUserId(minDate, maxDate, walletId,
+          userId));
+    };
+  }
+
   private List<gse.home.personalmanager.accounting.domain.model.Transaction> getTransactionsByDateAndWallet(
-      LocalDate minDate, LocalDate maxDate, Long walletId, Long userId) {
-    return repository.findAllByDateBetweenAndWalletIdAndUserId(minDate, maxDate, walletId, userId);
+      LocalDate minDate, LocalDate maxDate, Long walletId, Long userId, boolean excludeTransfers) {
+    var transactions = repository.findAllByDateBetweenAndWalletIdAndUserId(minDate, maxDate, walletId, userId);
+    return excludeTransfers
+        ? transactions.stream().filter(transaction -> !TransactionService.isTransfer(transaction)).toList()
+        : transactions;
   }
 
-  public Integer importCSVRows(List<TransactionCSVRowDTO> csvRowDTOList, Long walletId, Long userId) {
+  /**
+   * Imports bank CSV rows into a wallet. Invalid rows are rejected up front, rows already
+   * imported into the wallet are skipped by fingerprint, and the rest are inserted in batches.
+   */
+  @Transactional
+  public CsvImportReportDTO importCSVRows(List<TransactionCSVRowDTO> csvRowDTOList, Long walletId, Long userId) {
+    validateImport(walletId, userId);
+    var report = CsvImportReportDTO.empty();
     if (csvRowDTOList == null || csvRowDTOList.isEmpty()) {
       log.warn("No rows found in the CSV");
-      return 0;
-    }
-
-    var transactions = transactionService.fromCSVRowToTransactionList(csvRowDTOList, walletId, userId);
-
-    AtomicReference<Integer> totalSaved = new AtomicReference<>(0);
-    transactions.forEach(t -> {
-      try {
-        repository.save(t);
-        totalSaved.getAndSet(totalSaved.get() + 1);
-        // for each saved transaction, publish the transactionToBeCategorized event see
-        // file auto-categorization-decision.md
-        //
-        // to be handled by the TransactionCategorizationService
-        // eventPublisher.publishEvent(new TransactionToBeCategorizedEvent(this, t));
-      } catch (Exception ignored) {
+      return report;
+    }
+
+    var rows = new ArrayList<ParsedCsvRow>(csvRowDTOList.size());
+    for (int i = 0; i < csvRowDTOList.size(); i++) {
+      rows.add(new ParsedCsvRow(i + 1, csvRowDTOList.get(i), null));
+    }
+    importCSVChunk(rows, walletId, userId, report);
+    return report;
+  }
+
+  /**
+   * Checks that the user can write to the wallet rows are imported into, before any row is read.
+   */
+  public void validateImport(Long walletId, Long userId) {
+    if (!walletService.hasWriteAccess(walletId, userId)) {
+      throw new ForbiddenException("User does not have write access to this wallet");
+    }
+  }
+
+  /**
+   * Imports one chunk of parsed rows in its own transaction and adds the outcome to {@code report}.
+   * Used by the file upload so a large export is committed chunk by chunk.
+   */
+  @Transactional
+  public void importCSVChunk(List<ParsedCsvRow> rows, Long walletId, Long userId, CsvImportReportDTO report) {
+    var validRows = new ArrayList<TransactionCSVRowDTO>(rows.size());
+    var validRowNumbers = new ArrayList<Integer>(rows.size());
+    for (var row : rows) {
+      var reason = row.error() != null ? row.error() : transactionService.validateCSVRow(row.values());
+      if (reason != null) {
+        report.addRejected(row.row(), reason);
+      } else {
+        validRows.add(row.values());
+        validRowNumbers.add(row.row());
       }
-    });
-    return totalSaved.get();
+    }
+
+    var transactions = transactionService.fromCSVRowToTransactionList(validRows, walletId, userId,
+        report.getFingerprints());
+    // rows of an overlapping re-upload are told apart by fingerprint, only new ones reach the insert
+    var known = fingerprintIndex.findKnown(walletId, transactions);
+    var fresh = new ArrayList<Transaction>(transactions.size());
+    for (int i = 0; i < known.length; i++) {
+      if (!known[i]) {
+        fresh.add(transactions.get(i));
+      }
+    }
+    merchantService.assignMerchants(fresh);
+    var inserted = bulkRepository.insertIgnoringDuplicates(fresh);
+
+    var added = new ArrayList<Transaction>(fresh.size());
+    for (int i = 0, f = 0; i < known.length; i++) {
+      if (!known[i] && inserted[f++]) {
+        report.addInserted();
+        added.add(transactions.get(i));
+      } else {
+        report.addDuplicate(validRowNumbers.get(i));
+      }
+    }
+    fingerprintIndex.onInserted(walletId, added);
+    walletBalanceService.onTransactionsAdded(walletId, added);
+    rollupService.onTransactionsAdded(walletId, added);
+    columnCache.onTransactionsAdded(walletId, added);
+    uncategorizedCountService.onTransactionsAdded(walletId, added);
+    budgetService.onTransactionsAdded(added);
+    if (!added.isEmpty()) {
+      // categorized by the rules once this chunk is committed, see auto-categorization-decision.md
+      eventPublisher.publishEvent(new TransactionsImportedEvent(this, walletId, userId,
+          added.stream().map(Transaction::getId).toList()));
+    }
+    log.debug("CSV chunk of {} rows imported into wallet {}, report so far: {} inserted, {} duplicates, {} rejected",
+        rows.size(), walletId, report.getInserted(), report.getDuplicates(), report.getRejected());
   }
 
-  public UncategorizedTransactionDTO getUncategorizedTransactions(Long walletId, Long userId, int page, int size) {
-    var transactions = repository.findAllByCategoryIsNullAndWalletIdAndUserId(walletId, userId, PageRequest.of(page, size));
-    if (transactions.isEmpty()) {
-      return null;
+  /**
+   * Pages the categorization inbox of a wallet newest first, by (date, id) cursor like
+   * {@link #getCategoryTransactions}. The total is read from the maintained counter rather than
+   * counted, so every page costs the same however large the inbox is.
+   */
+  @Transactional(readOnly = true)
+  public UncategorizedTransactionDTO getUncategorizedTransactions(Long walletId, Long userId, LocalDate afterDate,
+                                                                  Integer afterId, int size) {
+    validateCursor(afterDate, afterId, size);
+    if (afterDate == null) {
+      afterDate = INBOX_START;
+      afterId = Integer.MAX_VALUE;
     }
-    var transactionDtos = transactions.stream().map(mapper::toDto).toList();
 
+    var transactions = repository.findInboxPage(walletId, userId, afterDate, afterId, PageRequest.of(0, size + 1));
+    var hasMore = transactions.size() > size;
+    var page = hasMore ? transactions.subList(0, size) : transactions;
+    var last = page.isEmpty() ? null : page.get(page.size() - 1);
     return UncategorizedTransactionDTO.builder()
-        .transactions(transactionDtos)
-        .page(transactions.getPageable().getPageNumber())
-        .totalElements(transactions.getNumberOfElements())
-        .totalPage(transactions.getTotalPages())
+        .transactions(page.stream().map(mapper::toDto).toList())
+        .totalElements(uncategorizedCountService.getCount(walletId, userId))
+        .nextDate(hasMore ? last.getDate() : null)
+        .nextId(hasMore ? last.getId() : null)
         .build();
   }
 
-  public void updateTransactionsToCategorize(List<TransactionDTO> transactionDTOS) {
-    transactionDTOS.forEach(t -> repository.findById(t.getId())
-        .ifPresent(e -> {
-          e.setCategory(t.getCategory());
-          // This can improve to request only 1 time per similar id using a hashmap. if
-          // multiple
-          // getRelatedTransactionId in the List of transactionDtos
-          e.setRelatedTransaction(repository.findById(t.getRelatedTransactionId()).orElse(null));
-          e.setCustomLabel(t.getCustomLabel());
-          repository.save(e);
-        }));
+  /**
+   * Applies the category, custom label and related transaction of each DTO. The wallets of the
+   * targets are locked first; targets, related transactions and categories are then each loaded
+   * with one IN query, wallet write access is checked for all of them in one query, and the changes
+   * are written with one UPDATE per distinct value.
+   * Rows that fail a check are reported and skipped; the others are still applied.
+   */
+  @Transactional
+  public CategorizationReportDTO updateTransactionsToCategorize(List<TransactionDTO> transactionDTOS, Long userId) {
+    if (transactionDTOS.size() > MAX_CATEGORIZATION_SIZE) {
+      throw new ValidationException("At most " + MAX_CATEGORIZATION_SIZE + " transactions can be categorized at once");
+    }
+    // the last entry wins when an id is sent twice
+    Map<Integer, TransactionDTO> requests = new LinkedHashMap<>();
+    transactionDTOS.forEach(dto -> requests.put(dto.getId(), dto));
+
+    // the previous categories the rollups, counts and budgets move away from are read under the wallet
+    // locks, so a concurrent auto-categorization cannot change them in between
+    walletBalanceService.lockWallets(repository.findWalletIdsByIdIn(requests.keySet()));
+    var targets = byId(repository.findAllById(requests.keySet()));
+    var relatedIds = requests.values().stream()
+        .map(TransactionDTO::getRelatedTransactionId)
+        .filter(id -> id != 0)
+        .collect(Collectors.toSet());
+    var related = relatedIds.isEmpty() ? Map.<Integer, Transaction>of() : byId(repository.findAllById(relatedIds));
+    var categoryIds = requests.values().stream()
+        .map(TransactionDTO::getCategory)
+        .filter(Objects::nonNull)
+        .map(TransactionCategory::getId)
+        .collect(Collectors.toSet());
+    var categories = categoryRepository.findAllById(categoryIds).stream()
+        .collect(Collectors.toMap(TransactionCategory::getId, Function.identity()));
+    var walletIds = new HashSet<Long>();
+    targets.values().forEach(t -> walletIds.add(t.getWallet().getId()));
+    related.values().forEach(t -> walletIds.add(t.getWallet().getId()));
+    var writable = walletService.getWritableWalletIds(walletIds, userId);
+
+    // HashMaps, since null (no category, no label, no related transaction) is a valid target value
+    Map<Integer, List<Integer>> idsByCategory = new HashMap<>();
+    Map<String, List<Integer>> idsByLabel = new HashMap<>();
+    Map<Integer, List<Integer>> idsByRelated = new HashMap<>();
+    Map<Integer, Integer> newCategoryIds = new HashMap<>();
+    var recategorized = new ArrayList<Transaction>();
+
+    var report = new CategorizationReportDTO();
+    for (var request : requests.entrySet()) {
+      int id = request.getKey();
+      var dto = request.getValue();
+      var transaction = targets.get(id);
+      if (transaction == null) {
+        report.add(id, CategorizationReportDTO.Outcome.NOT_FOUND);
+        continue;
+      }
+      if (!writable.contains(transaction.getWallet().getId())) {
+        report.add(id, CategorizationReportDTO.Outcome.FORBIDDEN);
+        continue;
+      }
+      var categoryId = dto.getCategory() == null ? null : dto.getCategory().getId();
+      if (categoryId != null && !categories.containsKey(categoryId)) {
+        report.add(id, CategorizationReportDTO.Outcome.CATEGORY_NOT_FOUND);
+        continue;
+      }
+      Integer relatedId = null;
+      if (dto.getRelatedTransactionId() != 0) {
+        var relatedTransaction = related.get(dto.getRelatedTransactionId());
+        if (relatedTransaction == null) {
+          report.add(id, CategorizationReportDTO.Outcome.RELATED_NOT_FOUND);
+          continue;
+        }
+        if (!writable.contains(relatedTransaction.getWallet().getId())) {
+          report.add(id, CategorizationReportDTO.Outcome.FORBIDDEN);
+          continue;
+        }
+        relatedId = relatedTransaction.getId();
+      }
+
+      boolean changed = false;
+      var currentCategoryId = transaction.getCategory() == null ? null : transaction.getCategory().getId();
+      if (!Objects.equals(currentCategoryId, categoryId)) {
+        idsByCategory.computeIfAbsent(categoryId, k -> new ArrayList<>()).add(id);
+        newCategoryIds.put(id, categoryId);
+        recategorized.add(transaction);
+        changed = true;
+      }
+      if (!Objects.equals(transaction.getCustomLabel(), dto.getCustomLabel())) {
+        idsByLabel.computeIfAbsent(dto.getCustomLabel(), k -> new ArrayList<>()).add(id);
+        changed = true;
+      }
+      var currentRelatedId = transaction.getRelatedTransaction() == null ? null
+          : transaction.getRelatedTransaction().getId();
+      if (!Objects.equals(currentRelatedId, relatedId)) {
+        idsByRelated.computeIfAbsent(relatedId, k -> new ArrayList<>()).add(id);
+        changed = true;
+      }
+      report.add(id, changed ? CategorizationReportDTO.Outcome.UPDATED : CategorizationReportDTO.Outcome.UNCHANGED);
+    }
 
+    // rollups read the previous categories from the loaded entities, which the bulk updates leave as they were
+    rollupService.onCategoriesChanged(recategorized, newCategoryIds);
+    columnCache.onCategoriesChanged(recategorized, newCategoryIds);
+    uncategorizedCountService.onCategoriesChanged(recategorized, newCategoryIds);
+    budgetService.onCategoriesChanged(recategorized, newCategoryIds);
+    idsByCategory.forEach((categoryId, ids) ->
+        repository.updateCategory(categoryId == null ? null : categories.get(categoryId), ids));
+    idsByLabel.forEach((label, ids) -> repository.updateCustomLabel(label, ids));
+    idsByRelated.forEach((relatedId, ids) ->
+        repository.updateRelatedTransaction(relatedId == null ? null : related.get(relatedId), ids));
+    log.debug("Categorized {} transactions for user {}: {} updated, {} unchanged, {} failed", requests.size(), userId,
+        report.getUpdated(), report.getUnchanged(), report.getFailed());
+    return report;
   }
 
+  private static Map<Integer, Transaction> byId(List<Transaction> transactions) {
+    return transactions.stream().collect(Collectors.toMap(Transaction::getId, Function.identity()));
+  }
+
+  @Transactional
   public void deleteTransaction(int id) {
-    repository.deleteById(id);
+    // read under the wallet lock, so the category the deltas remove is the one being deleted
+    walletBalanceService.lockWallets(repository.findWalletIdsByIdIn(List.of(id)));
+    repository.findById(id).ifPresent(transaction -> {
+      var walletId = transaction.getWallet().getId();
+      // the other side of a matched transfer points back at this row
+      repository.unlinkRelatedTransactions(id);
+      repository.delete(transaction);
+      walletBalanceService.onTransactionRemoved(walletId, id);
+      rollupService.onTransactionsRemoved(walletId, List.of(transaction));
+      columnCache.onTransactionsRemoved(walletId, List.of(transaction));
+      uncategorizedCountService.onTransactionsRemoved(walletId, List.of(transaction));
+      budgetService.onTransactionsRemoved(List.of(transaction));
+    });
   }
 }
@@ -0,0 +1,49 @@
+package gse.home.personalmanager.accounting.application.service;
+
+import gse.home.personalmanager.accounting.domain.service.WalletBalanceService;
+import gse.home.personalmanager.accounting.infrastructure.repository.WalletRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically checks every wallet balance snapshot against the ledger and repairs the ones that
+ * drifted, e.g. after a manual fix in the database. Each wallet is checked in its own transaction.
+ * Outcomes are counted in {@code accounting.balance.reconciliation} tagged {@code outcome}.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+public class WalletBalanceReconciliationJob {
+
+  static final String METRIC_NAME = "accounting.balance.reconciliation";
+
+  private final WalletRepository walletRepository;
+  private final WalletBalanceService walletBalanceService;
+  private final MeterRegistry meterRegistry;
+
+  @Scheduled(cron = "${accounting.balance.reconciliation-cron:0 30 3 * * *}")
+  public void reconcileAll() {
+    int checked = 0;
+    int repaired = 0;
+    int failed = 0;
+    for (Long walletId : walletRepository.findAllIds()) {
+      checked++;
+      try {
+        if (walletBalanceService.reconcile(walletId)) {
+          repaired++;
+          meterRegistry.counter(METRIC_NAME, "outcome", "repaired").increment();
+        } else {
+          meterRegistry.counter(METRIC_NAME, "outcome", "ok").increment();
+        }
+      } catch (RuntimeException e) {
+        failed++;
+        meterRegistry.counter(METRIC_NAME, "outcome", "failed").increment();
+        log.error("Could not reconcile the balance of wallet {}", walletId, e);
+      }
+    }
+    log.info("Wallet balance reconciliation done: {} checked, {} repaired, {} failed", checked, repaired, failed);
+  }
+}
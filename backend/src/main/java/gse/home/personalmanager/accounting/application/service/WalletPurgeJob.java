@@ -0,0 +1,28 @@
+package gse.home.personalmanager.accounting.application.service;
+
+import gse.home.personalmanager.accounting.domain.service.WalletPurgeService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Purges the wallets left deleted but not purged: deletions from before a restart, and purges that
+ * failed. Wallets are normally purged right after their deletion by {@code WalletDeletedListener}.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+public class WalletPurgeJob {
+
+  private final WalletPurgeService purgeService;
+
+  @Scheduled(initialDelayString = "${accounting.wallet-purge.initial-delay:PT1M}",
+      fixedDelayString = "${accounting.wallet-purge.sweep-delay:PT15M}")
+  public void purgeDeleted() {
+    int purged = purgeService.purgeDeleted();
+    if (purged > 0) {
+      log.info("Wallet purge sweep done: {} deleted wallets purged", purged);
+    }
+  }
+}
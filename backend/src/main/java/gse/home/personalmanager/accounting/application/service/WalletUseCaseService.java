@@ -4,6 +4,7 @@ import gse.home.personalmanager.accounting.application.dto.*;
 import gse.home.personalmanager.accounting.application.mapper.WalletMapper;
 import gse.home.personalmanager.accounting.domain.model.Wallet;
 import gse.home.personalmanager.accounting.domain.model.WalletPermission;
+import gse.home.personalmanager.accounting.domain.model.WalletView;
 import gse.home.personalmanager.accounting.domain.service.WalletService;
 import gse.home.personalmanager.accounting.infrastructure.repository.WalletRepository;
 import gse.home.personalmanager.core.exception.ForbiddenException;
@@ -92,18 +93,15 @@ public class WalletUseCaseService {
   public WalletDTO getWallet(Long walletId, Long currentUserId) {
     log.debug("Retrieving wallet id={} for user id={}", walletId, currentUserId);
 
-    AppUser currentUser = userRepository.findById(currentUserId)
-        .orElseThrow(() -> new ResourceNotFoundException("User", currentUserId));
-
-    Wallet wallet = walletRepository.findById(walletId)
+    WalletView wallet = walletRepository.findWalletView(walletId, currentUserId)
         .orElseThrow(() -> new ResourceNotFoundException("Wallet", walletId));
 
     // Check if user has access to this wallet
-    if (!walletService.hasReadAccess(wallet, currentUser)) {
+    if (!walletService.hasReadAccess(walletId, currentUserId)) {
       throw new ForbiddenException("User does not have access to this wallet");
     }
 
-    return toDtoWithBalance(wallet);
+    return walletMapper.toDto(wallet);
   }
 
   /**
@@ -112,26 +110,19 @@ public class WalletUseCaseService {
   public List<WalletDTO> getWalletsForCurrentUser(Long currentUserId) {
     log.debug("Retrieving all wallets for user id={}", currentUserId);
 
-    AppUser currentUser = userRepository.findById(currentUserId)
-        .orElseThrow(() -> new ResourceNotFoundException("User", currentUserId));
-
-    List<Wallet> wallets = walletService.getWalletsForUser(currentUser);
-
-    return wallets.stream()
-        .map(this::toDtoWithBalance)
+    return walletService.getWalletViewsForUser(currentUserId).stream()
+        .map(walletMapper::toDto)
         .toList();
   }
 
   /**
    * Retrieves all wallets for a tenant
    */
-  public List<WalletDTO> getWalletsForTenant(Long tenantId) {
+  public List<WalletDTO> getWalletsForTenant(Long tenantId, Long currentUserId) {
     log.debug("Retrieving all wallets for tenant id={}", tenantId);
 
-    List<Wallet> wallets = walletService.getWalletsForTenant(tenantId);
-
-    return wallets.stream()
-        .map(this::toDtoWithBalance)
+    return walletService.getWalletViewsForTenant(tenantId, currentUserId).stream()
+        .map(walletMapper::toDto)
         .toList();
   }
 
@@ -229,11 +220,12 @@ public class WalletUseCaseService {
 
   /**
    * Helper method to convert a Wallet to WalletDTO with balance populated
-   * from the most recent transaction's currentBalance field.
+   * from the wallet balance snapshot. Only used on owner-only operations.
    */
   private WalletDTO toDtoWithBalance(Wallet wallet) {
     WalletDTO dto = walletMapper.toDto(wallet);
     dto.setBalance(walletService.getCurrentBalance(wallet.getId()));
+    dto.setRole(WalletDTO.ROLE_OWNER);
     return dto;
   }
 }
@@ -0,0 +1,53 @@
+package gse.home.personalmanager.accounting.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "accounting.categorization")
+public class CategorizationConfig {
+
+    /**
+     * Runs the rules on every committed import chunk.
+     */
+    private Boolean enabled = true;
+
+    /**
+     * Imported transactions loaded and updated together by the categorization stage.
+     */
+    private Integer batchSize = 1000;
+
+    private Integer maxRulesPerUser = 500;
+    private Integer maxPatternLength = 200;
+
+    /**
+     * Time the regex rules of a user may spend on one label; patterns still running count as not
+     * matching, so a backtracking pattern cannot stall the categorization executor.
+     */
+    private Duration regexBudget = Duration.ofMillis(50);
+
+    /**
+     * Heap budget of the compiled rule sets kept for all users, least recently used evicted first.
+     */
+    private Long cacheMaxBytes = 64L * 1024 * 1024;
+    private Duration cacheTtl = Duration.ofHours(1);
+
+    private Learning learning = new Learning();
+
+    @Data
+    public static class Learning {
+        /**
+         * Transactions of a merchant that must share a category before it is learned.
+         */
+        private Long minSupport = 3L;
+        /**
+         * Share of the merchant's transactions that must be in that category.
+         */
+        private Double minConfidence = 0.8;
+        private Integer maxRules = 2000;
+    }
+}
@@ -0,0 +1,18 @@
+package gse.home.personalmanager.accounting.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "accounting.category-tree")
+public class CategoryTreeConfig {
+
+    /**
+     * Bounds how long another instance may serve a category tree changed here.
+     */
+    private Duration snapshotTtl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,78 @@
+package gse.home.personalmanager.accounting.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "accounting.import")
+public class CsvImportConfig {
+
+    /**
+     * Rows parsed from an uploaded file before they are written in one transaction.
+     */
+    private Integer chunkSize = 1000;
+
+    /**
+     * Longest accepted CSV record, in characters. Guards the streaming parser against a
+     * malformed file turning into one huge field.
+     */
+    private Integer maxRecordLength = 16 * 1024;
+
+    private String defaultProfile = "default";
+
+    /**
+     * False positive rate of the per-wallet Bloom filters screening imported rows; a false positive
+     * only costs the row a database lookup.
+     */
+    private Double fingerprintFalsePositiveRate = 0.01;
+
+    /**
+     * Heap budget of the Bloom filters kept for all wallets, least recently used evicted first.
+     */
+    private Long fingerprintCacheMaxBytes = 32L * 1024 * 1024;
+    private Duration fingerprintCacheTtl = Duration.ofHours(1);
+
+    /**
+     * Bank export formats by name.
+     */
+    private Map<String, Profile> profiles = new LinkedHashMap<>(Map.of("default", new Profile()));
+
+    @Data
+    public static class Profile {
+        private Character delimiter = ';';
+        private Character quote = '"';
+        private Boolean header = true;
+        /**
+         * Lines to drop before the header, for exports starting with an account banner.
+         */
+        private Integer skipLines = 0;
+        private String dateFormat = "dd/MM/yyyy";
+        private Character decimalSeparator = ',';
+        private String encoding = "UTF-8";
+        private Columns columns = new Columns();
+    }
+
+    /**
+     * Header names, or 0-based column indexes when the profile has no header.
+     * Either {@code amount} or the {@code debit}/{@code credit} pair must be set.
+     */
+    @Data
+    public static class Columns {
+        private String date = "Date";
+        private String amount = "Montant";
+        private String debit;
+        private String credit;
+        private String description = "Libellé";
+        private String currentBalance = "Solde";
+    }
+
+    public Profile getProfile(String name) {
+        return profiles.get(name == null || name.isBlank() ? defaultProfile : name);
+    }
+}
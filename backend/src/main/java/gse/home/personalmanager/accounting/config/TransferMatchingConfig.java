@@ -0,0 +1,21 @@
+package gse.home.personalmanager.accounting.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "accounting.transfer-matching")
+public class TransferMatchingConfig {
+
+    /**
+     * Pairs the transfers between the user's wallets on every committed import chunk.
+     */
+    private Boolean enabled = true;
+
+    /**
+     * Days between the debit and the credit of a transfer, which banks may book on different days.
+     */
+    private Integer dateWindowDays = 3;
+}
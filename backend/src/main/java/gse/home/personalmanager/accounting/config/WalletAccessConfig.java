@@ -0,0 +1,23 @@
+package gse.home.personalmanager.accounting.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "accounting.wallet-access")
+public class WalletAccessConfig {
+
+    /**
+     * Wallet roles kept for all users together, the least recently used users evicted first.
+     */
+    private Long cacheMaxEntries = 200_000L;
+
+    /**
+     * Bounds how long another instance may serve a role revoked here.
+     */
+    private Duration cacheTtl = Duration.ofMinutes(10);
+}
@@ -0,0 +1,17 @@
+package gse.home.personalmanager.accounting.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "accounting.wallet-purge")
+public class WalletPurgeConfig {
+
+    /**
+     * Rows removed per DELETE statement, each in its own transaction, so a purge never holds many
+     * locks or a long transaction.
+     */
+    private Integer chunkSize = 5000;
+}
@@ -0,0 +1,22 @@
+package gse.home.personalmanager.accounting.domain.event;
+
+import gse.home.personalmanager.accounting.domain.model.BudgetStatus;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Published when a write changes the spending of budgeted categories, with their new status, so
+ * thresholds crossed are notified once the write is committed.
+ */
+@Getter
+public class BudgetLevelsChangedEvent extends ApplicationEvent {
+
+  private final List<BudgetStatus> statuses;
+
+  public BudgetLevelsChangedEvent(Object source, List<BudgetStatus> statuses) {
+    super(source);
+    this.statuses = statuses;
+  }
+}
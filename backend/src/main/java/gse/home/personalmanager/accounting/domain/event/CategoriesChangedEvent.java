@@ -0,0 +1,19 @@
+package gse.home.personalmanager.accounting.domain.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when a category is created, edited or moved, so the category tree snapshot is read
+ * again once the change is committed.
+ */
+@Getter
+public class CategoriesChangedEvent extends ApplicationEvent {
+
+  private final Integer categoryId;
+
+  public CategoriesChangedEvent(Object source, Integer categoryId) {
+    super(source);
+    this.categoryId = categoryId;
+  }
+}
@@ -0,0 +1,19 @@
+package gse.home.personalmanager.accounting.domain.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when rules of a user are created, changed, removed or learned, so that the compiled
+ * rule set of that user is rebuilt.
+ */
+@Getter
+public class CategorizationRulesChangedEvent extends ApplicationEvent {
+
+  private final Long userId;
+
+  public CategorizationRulesChangedEvent(Object source, Long userId) {
+    super(source);
+    this.userId = userId;
+  }
+}
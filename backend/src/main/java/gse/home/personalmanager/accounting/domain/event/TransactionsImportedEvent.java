@@ -0,0 +1,24 @@
+package gse.home.personalmanager.accounting.domain.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Published once per committed import chunk with the ids of the rows that were inserted.
+ */
+@Getter
+public class TransactionsImportedEvent extends ApplicationEvent {
+
+  private final Long walletId;
+  private final Long userId;
+  private final List<Integer> transactionIds;
+
+  public TransactionsImportedEvent(Object source, Long walletId, Long userId, List<Integer> transactionIds) {
+    super(source);
+    this.walletId = walletId;
+    this.userId = userId;
+    this.transactionIds = transactionIds;
+  }
+}
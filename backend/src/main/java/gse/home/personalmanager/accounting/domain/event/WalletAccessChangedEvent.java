@@ -0,0 +1,21 @@
+package gse.home.personalmanager.accounting.domain.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when who can access a wallet changes, so cached access lists are dropped once the
+ * change is committed. A null {@code userId} stands for every user of the wallet.
+ */
+@Getter
+public class WalletAccessChangedEvent extends ApplicationEvent {
+
+  private final Long walletId;
+  private final Long userId;
+
+  public WalletAccessChangedEvent(Object source, Long walletId, Long userId) {
+    super(source);
+    this.walletId = walletId;
+    this.userId = userId;
+  }
+}
@@ -0,0 +1,19 @@
+package gse.home.personalmanager.accounting.domain.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when the owner deletes a wallet, so that its rows are purged once the deletion is
+ * committed.
+ */
+@Getter
+public class WalletDeletedEvent extends ApplicationEvent {
+
+  private final Long walletId;
+
+  public WalletDeletedEvent(Object source, Long walletId) {
+    super(source);
+    this.walletId = walletId;
+  }
+}
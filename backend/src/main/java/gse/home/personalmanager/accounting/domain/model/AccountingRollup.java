@@ -0,0 +1,75 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.SQLRestriction;
+
+import java.time.LocalDate;
+
+/**
+ * Credit and debit totals of the transactions of one wallet, user and category over a day or a
+ * calendar month. Rows are kept in step with the ledger by adding deltas on every write, so range
+ * summaries read a few rollup rows instead of every transaction.
+ * <p>
+ * Primary key columns cannot be null: uncategorized transactions and transactions without a user
+ * are rolled up under {@link #NONE}.
+ */
+@Setter
+@Getter
+@Entity(name = "accounting_rollup")
+@Table(name = "accounting_rollup")
+@IdClass(AccountingRollupId.class)
+@SQLRestriction(Wallet.IN_LIVE_WALLET)
+public class AccountingRollup {
+
+  public static final int NONE = 0;
+
+  @Id
+  @Enumerated(EnumType.STRING)
+  @Column(length = 5)
+  private RollupGranularity granularity;
+  @Id
+  private Long walletId;
+  @Id
+  private Long userId;
+  @Id
+  private Integer categoryId;
+  /**
+   * The day, or the first day of the month.
+   */
+  @Id
+  private LocalDate periodStart;
+
+  private double creditTotal;
+  private long creditCount;
+  /**
+   * Sum of the absolute debit amounts, so it is positive like the summary expense.
+   */
+  private double debitTotal;
+  private long debitCount;
+
+  public static AccountingRollup of(AccountingRollupId id) {
+    var rollup = new AccountingRollup();
+    rollup.setGranularity(id.getGranularity());
+    rollup.setWalletId(id.getWalletId());
+    rollup.setUserId(id.getUserId());
+    rollup.setCategoryId(id.getCategoryId());
+    rollup.setPeriodStart(id.getPeriodStart());
+    return rollup;
+  }
+
+  /**
+   * Adds ({@code sign} 1) or removes ({@code sign} -1) a transaction from the totals.
+   */
+  public void add(Transaction transaction, int sign) {
+    double amount = transaction.getAmount() == null ? 0 : transaction.getAmount();
+    if (TransactionType.CREDIT.equals(transaction.getType())) {
+      creditTotal += sign * amount;
+      creditCount += sign;
+    } else if (TransactionType.DEBIT.equals(transaction.getType())) {
+      debitTotal += sign * Math.abs(amount);
+      debitCount += sign;
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountingRollupId implements Serializable {
+  private RollupGranularity granularity;
+  private Long walletId;
+  private Long userId;
+  private Integer categoryId;
+  private LocalDate periodStart;
+}
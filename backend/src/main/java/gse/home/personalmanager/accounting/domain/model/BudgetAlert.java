@@ -0,0 +1,34 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * The highest {@link BudgetLevel} a user was alerted at for a category in a month, so each
+ * threshold is notified once. It is lowered again when the spending drops back under a threshold,
+ * for instance after a transaction is moved to another category.
+ */
+@Setter
+@Getter
+@Entity(name = "accounting_budget_alert")
+@Table(name = "accounting_budget_alert")
+@IdClass(BudgetAlertId.class)
+public class BudgetAlert {
+
+  @Id
+  private Long userId;
+  @Id
+  private Integer categoryId;
+  /**
+   * First day of the month.
+   */
+  @Id
+  private LocalDate periodStart;
+
+  @Enumerated(EnumType.ORDINAL)
+  @Column(nullable = false, columnDefinition = "smallint")
+  private BudgetLevel level;
+}
@@ -0,0 +1,26 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+/**
+ * How much of its monthly budget a category has spent, in increasing order: alerts are sent when
+ * a category reaches a higher level than the one it was last alerted at.
+ */
+public enum BudgetLevel {
+  UNDER,
+  /**
+   * 80% of the budget spent.
+   */
+  WARNING,
+  /**
+   * The whole budget spent.
+   */
+  EXCEEDED;
+
+  static final double WARNING_RATIO = 0.8;
+
+  public static BudgetLevel of(double spent, double budget) {
+    if (spent >= budget) {
+      return EXCEEDED;
+    }
+    return spent >= budget * WARNING_RATIO ? WARNING : UNDER;
+  }
+}
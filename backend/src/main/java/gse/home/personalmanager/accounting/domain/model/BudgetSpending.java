@@ -0,0 +1,14 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+import java.time.LocalDate;
+
+/**
+ * Expense of a user in a category and its subcategories over one month, summed from the monthly
+ * rollups of all their wallets.
+ */
+public record BudgetSpending(Integer categoryId, Long userId, LocalDate periodStart, Double spent) {
+
+  public BudgetSpending {
+    spent = spent == null ? 0.0 : spent;
+  }
+}
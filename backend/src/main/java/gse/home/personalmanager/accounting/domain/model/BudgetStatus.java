@@ -0,0 +1,11 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+import java.time.LocalDate;
+
+/**
+ * Spending of a user against the budget of a category and its subcategories for one month, right
+ * after a write changed it.
+ */
+public record BudgetStatus(Long userId, Integer categoryId, String categoryTitle, LocalDate periodStart,
+                           double spent, double budget, BudgetLevel level) {
+}
@@ -0,0 +1,66 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+import gse.home.personalmanager.user.domain.model.AppUser;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+/**
+ * Assigns a category to the imported transactions of a user whose label or amount matches.
+ * When several rules match, the user's rules win over learned ones, then the lowest priority
+ * number, then the longest keyword.
+ */
+@Setter
+@Getter
+@Entity(name = "accounting_categorization_rule")
+@Table(name = "accounting_categorization_rule", indexes = {
+    @Index(name = "idx_categorization_rule_user", columnList = "user_id")
+})
+@EntityListeners(AuditingEntityListener.class)
+public class CategorizationRule {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "user_id", nullable = false)
+  private AppUser user;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private CategorizationRuleType type;
+
+  /**
+   * Keyword or regular expression, null for an amount range.
+   */
+  private String pattern;
+
+  /**
+   * Inclusive bounds on the signed amount (debits are negative), null when open.
+   */
+  private Double minAmount;
+  private Double maxAmount;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "category_id", nullable = false)
+  private TransactionCategory category;
+
+  @Column(nullable = false)
+  private int priority;
+
+  /**
+   * Derived from the user's manual categorizations; replaced each time rules are learned again.
+   * Learned keywords only match whole words.
+   */
+  @Column(nullable = false)
+  private boolean learned;
+
+  @Column(nullable = false)
+  private boolean enabled = true;
+
+  @CreatedDate
+  private Long createdAt;
+}
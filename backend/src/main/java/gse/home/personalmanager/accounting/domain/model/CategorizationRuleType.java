@@ -0,0 +1,16 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+public enum CategorizationRuleType {
+  /**
+   * The import label contains the pattern, compared case-insensitively with punctuation read as spaces.
+   */
+  KEYWORD,
+  /**
+   * The pattern is a regular expression found in the import label, case-insensitively.
+   */
+  REGEX,
+  /**
+   * Only the amount bounds are checked.
+   */
+  AMOUNT_RANGE
+}
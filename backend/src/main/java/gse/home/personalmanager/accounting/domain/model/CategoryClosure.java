@@ -0,0 +1,28 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One path of the category tree: {@code ancestorId} is {@code depth} levels above
+ * {@code descendantId}. Every category also has a path of depth 0 to itself, so "the category and
+ * everything below it" is a single join on {@code ancestorId}.
+ * <p>
+ * Rows are written by {@link gse.home.personalmanager.accounting.domain.service.CategoryService}
+ * alongside {@link TransactionCategory#getParentCategory()}, which stays the source of truth.
+ */
+@Setter
+@Getter
+@Entity(name = "accounting_category_closure")
+@Table(name = "accounting_category_closure", indexes = {
+    @Index(name = "idx_category_closure_descendant", columnList = "descendantId") })
+@IdClass(CategoryClosureId.class)
+public class CategoryClosure {
+
+  @Id
+  private Integer ancestorId;
+  @Id
+  private Integer descendantId;
+  private int depth;
+}
@@ -0,0 +1,15 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryClosureId implements Serializable {
+  private Integer ancestorId;
+  private Integer descendantId;
+}
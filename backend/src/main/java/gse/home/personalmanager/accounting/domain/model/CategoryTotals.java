@@ -0,0 +1,24 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+/**
+ * {@link TransactionTotals} of one category, summed by the database. Uncategorized transactions
+ * come back with a null {@code categoryId} and {@code title}.
+ */
+public record CategoryTotals(Integer categoryId, String title, Double expectedAmount,
+                             Double income, Double expense, Long count) {
+
+  public CategoryTotals {
+    income = income == null ? 0.0 : income;
+    expense = expense == null ? 0.0 : expense;
+    count = count == null ? 0L : count;
+  }
+
+  /**
+   * These totals without those of {@code other}, a subset of the same transactions, to the cent.
+   */
+  public CategoryTotals minus(CategoryTotals other) {
+    return new CategoryTotals(categoryId, title, expectedAmount,
+        TransactionTotals.centsDifference(income, other.income),
+        TransactionTotals.centsDifference(expense, other.expense), count - other.count);
+  }
+}
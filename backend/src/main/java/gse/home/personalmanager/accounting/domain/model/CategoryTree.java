@@ -0,0 +1,127 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the category tree, built from the categories and their
+ * {@link CategoryClosure} paths in two queries. Parents, children and ancestors are read from the
+ * paths, so the tree never walks the lazy {@link TransactionCategory#getParentCategory()} links.
+ */
+public final class CategoryTree {
+
+  private static final Comparator<Node> BY_TITLE = Comparator.comparing(Node::title,
+      Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+
+  private final Map<Integer, Node> nodes;
+  private final List<Node> roots;
+
+  private CategoryTree(Map<Integer, Node> nodes, List<Node> roots) {
+    this.nodes = nodes;
+    this.roots = roots;
+  }
+
+  public static CategoryTree of(Collection<TransactionCategory> categories, Collection<CategoryClosure> paths) {
+    Map<Integer, Integer> parents = new HashMap<>();
+    Map<Integer, List<Integer>> ancestors = new HashMap<>();
+    Map<Integer, List<Integer>> descendants = new HashMap<>();
+    for (var path : paths) {
+      if (path.getDepth() == 1) {
+        parents.put(path.getDescendantId(), path.getAncestorId());
+      }
+      ancestors.computeIfAbsent(path.getDescendantId(), k -> new ArrayList<>()).add(path.getAncestorId());
+      descendants.computeIfAbsent(path.getAncestorId(), k -> new ArrayList<>()).add(path.getDescendantId());
+    }
+
+    Map<Integer, TransactionCategory> byId = new HashMap<>();
+    categories.forEach(category -> byId.put(category.getId(), category));
+    Map<Integer, List<Integer>> children = new HashMap<>();
+    parents.forEach((child, parent) -> children.computeIfAbsent(parent, k -> new ArrayList<>()).add(child));
+
+    Map<Integer, Node> nodes = new LinkedHashMap<>();
+    for (var category : categories) {
+      int id = category.getId();
+      Double budget = null;
+      for (int descendant : descendants.getOrDefault(id, List.of(id))) {
+        var expected = byId.containsKey(descendant) ? byId.get(descendant).getExpectedAmount() : null;
+        if (expected != null) {
+          budget = budget == null ? expected : budget + expected;
+        }
+      }
+      nodes.put(id, new Node(id, category.getTitle(), category.getDescription(), category.getExpectedAmount(),
+          budget, parents.get(id), List.copyOf(ancestors.getOrDefault(id, List.of(id))),
+          List.copyOf(children.getOrDefault(id, List.of()))));
+    }
+    var roots = nodes.values().stream()
+        .filter(node -> node.parentId() == null || !nodes.containsKey(node.parentId()))
+        .sorted(BY_TITLE)
+        .toList();
+    return new CategoryTree(Map.copyOf(nodes), roots);
+  }
+
+  /**
+   * @return the category, or null when it is not in the snapshot
+   */
+  public Node get(Integer id) {
+    return id == null ? null : nodes.get(id);
+  }
+
+  public int size() {
+    return nodes.size();
+  }
+
+  /**
+   * Categories without a parent, by title.
+   */
+  public List<Node> roots() {
+    return roots;
+  }
+
+  /**
+   * Direct children of the category, by title.
+   */
+  public List<Node> children(Node node) {
+    return node.childIds().stream().map(nodes::get).sorted(BY_TITLE).toList();
+  }
+
+  /**
+   * Adds the totals of each category to the category and to each of its ancestors, as
+   * {@code AccountingRollupRepository#sumRangeByAncestor} does in the database. Expected amounts
+   * become those of whole subtrees, and uncategorized totals are kept as they are.
+   */
+  public List<CategoryTotals> rollUp(Collection<CategoryTotals> byCategory) {
+    Map<Integer, double[]> sums = new LinkedHashMap<>();
+    var result = new ArrayList<CategoryTotals>();
+    for (var totals : byCategory) {
+      var node = get(totals.categoryId());
+      if (node == null) {
+        result.add(totals);
+        continue;
+      }
+      for (int ancestor : node.ancestorIds()) {
+        var sum = sums.computeIfAbsent(ancestor, k -> new double[3]);
+        sum[0] += totals.income();
+        sum[1] += totals.expense();
+        sum[2] += totals.count();
+      }
+    }
+    sums.forEach((id, sum) -> {
+      var node = nodes.get(id);
+      result.add(new CategoryTotals(id, node.title(), node.subtreeExpectedAmount(), sum[0], sum[1], (long) sum[2]));
+    });
+    return result;
+  }
+
+  /**
+   * One category. {@code ancestorIds} includes the category itself; {@code subtreeExpectedAmount}
+   * sums the expected amounts of the category and all its descendants, null when none has one.
+   */
+  public record Node(int id, String title, String description, Double expectedAmount, Double subtreeExpectedAmount,
+                     Integer parentId, List<Integer> ancestorIds, List<Integer> childIds) {
+  }
+}
@@ -0,0 +1,7 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+/**
+ * Number of a user's transactions with a given import label in a given category.
+ */
+public record LabelCategoryCount(String label, Integer categoryId, Long count) {
+}
@@ -0,0 +1,27 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A merchant named by import labels, interned once and shared by all the transactions whose label
+ * normalizes to its name, so merchant analytics group by a small integer instead of the label.
+ */
+@Setter
+@Getter
+@Entity(name = "accounting_merchant")
+@Table(name = "accounting_merchant", uniqueConstraints = {
+    @UniqueConstraint(name = Merchant.NAME_KEY, columnNames = { "name" }) })
+public class Merchant {
+
+  public static final String NAME_KEY = "uk_merchant_name";
+  public static final int MAX_NAME_LENGTH = 100;
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private int id;
+
+  @Column(nullable = false, length = MAX_NAME_LENGTH)
+  private String name;
+}
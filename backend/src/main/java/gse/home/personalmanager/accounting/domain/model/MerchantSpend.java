@@ -0,0 +1,12 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+/**
+ * What was spent at one merchant, the debits summed by the database.
+ */
+public record MerchantSpend(Integer merchantId, String name, Double spent, Long count) {
+
+  public MerchantSpend {
+    spent = spent == null ? 0.0 : spent;
+    count = count == null ? 0L : count;
+  }
+}
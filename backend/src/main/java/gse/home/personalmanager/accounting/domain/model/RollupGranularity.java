@@ -0,0 +1,6 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+public enum RollupGranularity {
+  DAY,
+  MONTH
+}
@@ -0,0 +1,27 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * A date range split into whole calendar months, read from the {@link RollupGranularity#MONTH}
+ * rollups, and the days before and after them, read from the {@link RollupGranularity#DAY} rollups.
+ * Empty parts have a start after their end.
+ */
+public record RollupRange(LocalDate headStart, LocalDate headEnd,
+                          LocalDate firstMonth, LocalDate lastMonth,
+                          LocalDate tailStart, LocalDate tailEnd) {
+
+  public static RollupRange of(LocalDate minDate, LocalDate maxDate) {
+    var firstMonth = minDate.getDayOfMonth() == 1 ? minDate : minDate.with(TemporalAdjusters.firstDayOfNextMonth());
+    var lastMonthEnd = maxDate.equals(maxDate.with(TemporalAdjusters.lastDayOfMonth()))
+        ? maxDate : maxDate.withDayOfMonth(1).minusDays(1);
+    if (firstMonth.isAfter(lastMonthEnd)) {
+      // no whole month in the range: every day comes from the daily rollups
+      return new RollupRange(minDate, maxDate, maxDate.plusDays(1), maxDate, maxDate.plusDays(1), maxDate);
+    }
+    return new RollupRange(minDate, firstMonth.minusDays(1),
+        firstMonth, lastMonthEnd.withDayOfMonth(1),
+        lastMonthEnd.plusDays(1), maxDate);
+  }
+}
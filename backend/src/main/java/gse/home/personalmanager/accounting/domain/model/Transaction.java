@@ -4,6 +4,7 @@ import gse.home.personalmanager.user.domain.model.AppUser;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDate;
 
@@ -12,16 +13,41 @@ import java.time.LocalDate;
 @Entity(name = "accounting_transaction")
 @Table(name = "accounting_transaction", indexes = {
     @Index(name = "idx_transaction_date", columnList = "date"),
+    // Overview filters and the keyset drill-down, which sorts by (date, id) within a wallet
+    @Index(name = "idx_transaction_wallet_user_date", columnList = "wallet_id, user_id, date, id"),
 }, uniqueConstraints = {
-    @UniqueConstraint(columnNames = { "date", "description", "amount" }) })
+    // Identifies a bank row within a wallet; the bulk CSV import skips rows hitting it.
+    // NULLS NOT DISTINCT in the migrations, so rows without a balance collide too until they are fingerprinted
+    @UniqueConstraint(name = Transaction.IMPORT_KEY, columnNames = { "wallet_id", "date", "amount", "import_label",
+        "current_balance" }),
+    // Same row seen through TransactionFingerprint, which also tells apart rows without a balance
+    @UniqueConstraint(name = Transaction.FINGERPRINT_KEY, columnNames = { "wallet_id", "import_fingerprint" }) })
+@SQLRestriction(Wallet.IN_LIVE_WALLET)
 public class Transaction {
 
+  public static final String IMPORT_KEY = "uk_transaction_import_row";
+  public static final String FINGERPRINT_KEY = "uk_transaction_fingerprint";
+  public static final String ID_SEQUENCE = "accounting_transaction_seq";
+  /**
+   * Ids handed out per sequence call. The bulk import allocates ids itself and must use the
+   * same block size as Hibernate's pooled optimizer.
+   */
+  public static final int ID_ALLOCATION_SIZE = 50;
+
   @Id
-  @GeneratedValue(strategy = GenerationType.SEQUENCE)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+  @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
   private int id;
   @Temporal(TemporalType.DATE)
   private LocalDate date;
   private String importLabel;
+  /**
+   * Merchant interned from {@code importLabel} on import, see MerchantNormalizer. Null when the
+   * label names no merchant, or for older transactions until they are backfilled.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "merchant_id")
+  private Merchant merchant;
   private String customLabel;
   private Double amount;
   @Enumerated(EnumType.STRING)
@@ -39,7 +65,8 @@ public class Transaction {
    * 1 - Transaction to saving (DEBIT)
    * 2 - Transaction from saving (CREDIT but doesn't mean more money as income)
    * 3 - result of current saving is 1 minus 2.
-   *
+   * Transfers between the user's wallets are linked both ways on import, see TransferMatchingService;
+   * linked transactions can be left out of the summaries as internal transfers.
    */
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "related_transaction_id")
@@ -55,4 +82,10 @@ public class Transaction {
    * the balance after this transaction was applied.
    */
   private Double currentBalance;
+
+  /**
+   * Identity of the imported bank row within the wallet, see TransactionFingerprint. Null for
+   * transactions that were not imported until the wallet's fingerprints are backfilled.
+   */
+  private Long importFingerprint;
 }
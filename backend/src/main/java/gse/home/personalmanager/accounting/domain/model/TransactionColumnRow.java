@@ -0,0 +1,33 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+/**
+ * The fields of a transaction kept by the columnar summary cache: epoch day, id, amount in cents,
+ * type, and category and user ids, {@link AccountingRollup#NONE} when missing as in the rollups.
+ */
+public record TransactionColumnRow(int id, int day, long cents, TransactionType type, int categoryId, long userId) {
+
+  /**
+   * @return the row of the transaction, null for a transaction without a date, which no summary counts
+   */
+  public static TransactionColumnRow of(Transaction transaction) {
+    var category = transaction.getCategory();
+    return of(transaction, category == null ? AccountingRollup.NONE : category.getId());
+  }
+
+  /**
+   * Same as {@link #of(Transaction)} with another category, {@link AccountingRollup#NONE} for none.
+   */
+  public static TransactionColumnRow of(Transaction transaction, int categoryId) {
+    if (transaction.getDate() == null) {
+      return null;
+    }
+    var user = transaction.getUser();
+    return new TransactionColumnRow(transaction.getId(), (int) transaction.getDate().toEpochDay(),
+        cents(transaction.getAmount()), transaction.getType(), categoryId,
+        user == null ? AccountingRollup.NONE : user.getId());
+  }
+
+  public static long cents(Double amount) {
+    return amount == null ? 0 : Math.round(amount * 100);
+  }
+}
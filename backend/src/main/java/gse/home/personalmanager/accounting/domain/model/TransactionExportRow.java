@@ -0,0 +1,12 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+import java.time.LocalDate;
+
+/**
+ * One exported transaction, read as a projection so streaming an export never fills the
+ * persistence context. {@code category} is the category title, null when uncategorized.
+ */
+public record TransactionExportRow(Integer id, LocalDate date, Double amount, TransactionType type,
+                                   String importLabel, String customLabel, String category,
+                                   Double currentBalance) {
+}
@@ -0,0 +1,29 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+/**
+ * Income and expense of a set of transactions, summed by the database. Expense is positive.
+ */
+public record TransactionTotals(Double income, Double expense, Long count) {
+
+  public TransactionTotals {
+    income = income == null ? 0.0 : income;
+    expense = expense == null ? 0.0 : expense;
+    count = count == null ? 0L : count;
+  }
+
+  /**
+   * These totals without those of {@code other}, a subset of the same transactions, to the cent.
+   */
+  public TransactionTotals minus(TransactionTotals other) {
+    return new TransactionTotals(centsDifference(income, other.income), centsDifference(expense, other.expense),
+        count - other.count);
+  }
+
+  /**
+   * Difference of two sums of amounts, rounded to the cent so that removing every transaction
+   * leaves exactly zero.
+   */
+  static double centsDifference(double total, double subset) {
+    return Math.round((total - subset) * 100) / 100.0;
+  }
+}
@@ -0,0 +1,10 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+import java.time.LocalDate;
+
+/**
+ * A transaction not yet linked to another, as read by the transfer matching: a debit when
+ * {@code amount} is negative, a credit otherwise.
+ */
+public record TransferCandidate(int id, Long walletId, LocalDate date, double amount) {
+}
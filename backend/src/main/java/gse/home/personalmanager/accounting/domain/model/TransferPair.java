@@ -0,0 +1,8 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+/**
+ * A debit and a credit of the same amount in two wallets of a user, linked to each other through
+ * {@link Transaction#getRelatedTransaction()} as one internal transfer.
+ */
+public record TransferPair(int debitId, int creditId) {
+}
@@ -0,0 +1,27 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Number of uncategorized transactions of a user in a wallet, the size of their categorization
+ * inbox, kept in step on import, categorization and deletion so the inbox never counts its rows.
+ * Like the rollups, transactions without a date are left out and those without a user are counted
+ * under user id 0.
+ */
+@Setter
+@Getter
+@Entity(name = "accounting_uncategorized_count")
+@Table(name = "accounting_uncategorized_count")
+@IdClass(UncategorizedCountId.class)
+public class UncategorizedCount {
+
+  @Id
+  private Long walletId;
+  @Id
+  private Long userId;
+
+  @Column(nullable = false)
+  private long transactionCount;
+}
@@ -5,6 +5,7 @@ import gse.home.personalmanager.user.domain.model.Tenant;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.SQLRestriction;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -17,12 +18,21 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
     indexes = {
         @Index(name = "idx_wallet_name", columnList = "name"),
         @Index(name = "idx_wallet_owner", columnList = "owner_id"),
-        @Index(name = "idx_wallet_tenant", columnList = "tenant_id")
+        @Index(name = "idx_wallet_tenant", columnList = "tenant_id"),
+        @Index(name = "idx_wallet_deleted", columnList = "deleted_at")
     }
 )
 @EntityListeners(AuditingEntityListener.class)
+// Deleted wallets are invisible to every query until WalletPurgeService removes them
+@SQLRestriction("deleted_at is null")
 public class Wallet {
 
+    /**
+     * Restriction hiding the rows of deleted wallets, for entities with a {@code wallet_id} column.
+     */
+    public static final String IN_LIVE_WALLET =
+            "wallet_id not in (select w.id from accounting_wallets w where w.deleted_at is not null)";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -46,4 +56,10 @@ public class Wallet {
 
     @LastModifiedDate
     private Long updatedAt;
+
+    /**
+     * When the owner deleted the wallet, in epoch milliseconds. The wallet is then hidden and its
+     * rows are purged in the background; the column is the purge's to-do list across restarts.
+     */
+    private Long deletedAt;
 }
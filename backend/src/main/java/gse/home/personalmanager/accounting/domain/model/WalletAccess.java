@@ -0,0 +1,8 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+/**
+ * A wallet a user can open: owned when {@code ownerId} is the user, otherwise shared with
+ * {@code role}, null for owned wallets that are not also shared.
+ */
+public record WalletAccess(Long walletId, Long ownerId, WalletRole role) {
+}
@@ -0,0 +1,67 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Current balance of a wallet, kept in step with its transactions on every write so that wallet
+ * reads never scan the ledger. The balance is the {@code currentBalance} of the latest transaction
+ * by (date, id), as imported from the bank.
+ */
+@Setter
+@Getter
+@Entity(name = "accounting_wallet_balance")
+@Table(name = "accounting_wallet_balance")
+public class WalletBalance {
+
+  @Id
+  @Column(name = "wallet_id")
+  private Long walletId;
+
+  /**
+   * Null while the wallet has no transaction.
+   */
+  private Double balance;
+  private LocalDate asOfDate;
+  private Integer lastTransactionId;
+
+  private Long updatedAt;
+
+  public static WalletBalance empty(Long walletId) {
+    var snapshot = new WalletBalance();
+    snapshot.setWalletId(walletId);
+    snapshot.setUpdatedAt(System.currentTimeMillis());
+    return snapshot;
+  }
+
+  /**
+   * Whether {@code transaction} comes after the one this snapshot was taken from.
+   */
+  public boolean isOlderThan(Transaction transaction) {
+    if (lastTransactionId == null || asOfDate == null) {
+      return true;
+    }
+    int byDate = transaction.getDate().compareTo(asOfDate);
+    return byDate > 0 || (byDate == 0 && transaction.getId() > lastTransactionId);
+  }
+
+  public void applyLatest(Transaction transaction) {
+    balance = transaction == null ? null : transaction.getCurrentBalance();
+    asOfDate = transaction == null ? null : transaction.getDate();
+    lastTransactionId = transaction == null ? null : transaction.getId();
+    updatedAt = System.currentTimeMillis();
+  }
+
+  public boolean matches(Transaction transaction) {
+    if (transaction == null) {
+      return lastTransactionId == null && balance == null;
+    }
+    return Integer.valueOf(transaction.getId()).equals(lastTransactionId)
+        && transaction.getDate().equals(asOfDate)
+        && Objects.equals(transaction.getCurrentBalance(), balance);
+  }
+}
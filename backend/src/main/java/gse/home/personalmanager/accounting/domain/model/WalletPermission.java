@@ -4,6 +4,7 @@ import gse.home.personalmanager.user.domain.model.AppUser;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.SQLRestriction;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -21,6 +22,7 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
     }
 )
 @EntityListeners(AuditingEntityListener.class)
+@SQLRestriction(Wallet.IN_LIVE_WALLET)
 public class WalletPermission {
 
     @Id
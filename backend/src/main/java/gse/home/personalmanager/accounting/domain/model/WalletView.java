@@ -0,0 +1,12 @@
+package gse.home.personalmanager.accounting.domain.model;
+
+/**
+ * A wallet with its owner, tenant, balance snapshot and the role of the user it was read for:
+ * {@link #ROLE_OWNER}, or the name of the {@link WalletRole} granted to the user, null when the
+ * user has no access.
+ */
+public record WalletView(Long id, String name, String description, Long ownerId, String ownerEmail, Long tenantId,
+                         String tenantName, Long createdAt, Long updatedAt, Double balance, String role) {
+
+  public static final String ROLE_OWNER = "OWNER";
+}
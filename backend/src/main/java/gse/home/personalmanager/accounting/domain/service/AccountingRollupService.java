@@ -0,0 +1,145 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.domain.model.AccountingRollup;
+import gse.home.personalmanager.accounting.domain.model.AccountingRollupId;
+import gse.home.personalmanager.accounting.domain.model.CategoryTotals;
+import gse.home.personalmanager.accounting.domain.model.RollupGranularity;
+import gse.home.personalmanager.accounting.domain.model.RollupRange;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.TransactionTotals;
+import gse.home.personalmanager.accounting.infrastructure.repository.AccountingRollupBulkRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.AccountingRollupRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.WalletBalanceRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the daily and monthly {@link AccountingRollup}s of each wallet and answers range
+ * summaries from them.
+ * <p>
+ * Like {@link WalletBalanceService}, writers call in within their own transaction so the rollups
+ * commit together with the ledger change. Each change is turned into deltas for the day and the
+ * month of the transactions involved.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class AccountingRollupService {
+
+  private final AccountingRollupRepository rollupRepository;
+  private final AccountingRollupBulkRepository rollupBulkRepository;
+  private final WalletBalanceRepository balanceRepository;
+
+  public TransactionTotals sumRange(LocalDate minDate, LocalDate maxDate, Long walletId, Long userId) {
+    var range = RollupRange.of(minDate, maxDate);
+    return rollupRepository.sumRange(walletId, userId, range.headStart(), range.headEnd(),
+        range.firstMonth(), range.lastMonth(), range.tailStart(), range.tailEnd());
+  }
+
+  public List<CategoryTotals> sumRangeByCategory(LocalDate minDate, LocalDate maxDate, Long walletId, Long userId) {
+    var range = RollupRange.of(minDate, maxDate);
+    return rollupRepository.sumRangeByCategory(walletId, userId, range.headStart(), range.headEnd(),
+        range.firstMonth(), range.lastMonth(), range.tailStart(), range.tailEnd());
+  }
+
+  /**
+   * Totals of each category including its subcategories, for the categories with transactions in
+   * their subtree.
+   */
+  public List<CategoryTotals> sumRangeByAncestor(LocalDate minDate, LocalDate maxDate, Long walletId, Long userId) {
+    var range = RollupRange.of(minDate, maxDate);
+    return rollupRepository.sumRangeByAncestor(walletId, userId, range.headStart(), range.headEnd(),
+        range.firstMonth(), range.lastMonth(), range.tailStart(), range.tailEnd());
+  }
+
+  @Transactional
+  public void onTransactionsAdded(Long walletId, Collection<Transaction> added) {
+    apply(walletId, added, 1);
+  }
+
+  @Transactional
+  public void onTransactionsRemoved(Long walletId, Collection<Transaction> removed) {
+    apply(walletId, removed, -1);
+  }
+
+  /**
+   * Moves transactions between categories. {@code transactions} still carry their previous
+   * category; {@code newCategoryIds} maps each of their ids to the new category id, null for none.
+   */
+  @Transactional
+  public void onCategoriesChanged(Collection<Transaction> transactions, Map<Integer, Integer> newCategoryIds) {
+    // wallets in id order, so two bulk updates never wait on each other's locks
+    Map<Long, Map<AccountingRollupId, AccountingRollup>> deltasByWallet = new TreeMap<>();
+    for (var transaction : transactions) {
+      int previous = categoryId(transaction);
+      var next = newCategoryIds.get(transaction.getId());
+      int current = next == null ? AccountingRollup.NONE : next;
+      if (previous == current) {
+        continue;
+      }
+      var walletId = transaction.getWallet().getId();
+      var deltas = deltasByWallet.computeIfAbsent(walletId, k -> new HashMap<>());
+      addDeltas(deltas, walletId, transaction, previous, -1);
+      addDeltas(deltas, walletId, transaction, current, 1);
+    }
+    deltasByWallet.forEach((walletId, deltas) -> {
+      balanceRepository.findForUpdate(walletId);
+      rollupBulkRepository.mergeDeltas(deltas.values());
+    });
+  }
+
+  @Transactional
+  public void deleteRollups(Long walletId) {
+    rollupRepository.deleteAllByWalletId(walletId);
+  }
+
+  /**
+   * Recomputes the rollups of a wallet from its transactions.
+   *
+   * @return the number of daily rollup rows
+   */
+  @Transactional
+  public int rebuild(Long walletId) {
+    balanceRepository.findForUpdate(walletId);
+    return rollupBulkRepository.rebuildWallet(walletId);
+  }
+
+  private void apply(Long walletId, Collection<Transaction> transactions, int sign) {
+    if (transactions.isEmpty()) {
+      return;
+    }
+    // Same lock as the balance snapshot, so concurrent writers merge into the rollups one at a time
+    balanceRepository.findForUpdate(walletId);
+    Map<AccountingRollupId, AccountingRollup> deltas = new HashMap<>();
+    for (var transaction : transactions) {
+      addDeltas(deltas, walletId, transaction, categoryId(transaction), sign);
+    }
+    rollupBulkRepository.mergeDeltas(deltas.values());
+  }
+
+  private static void addDeltas(Map<AccountingRollupId, AccountingRollup> deltas, Long walletId,
+                                Transaction transaction, int categoryId, int sign) {
+    if (transaction.getDate() == null) {
+      return;
+    }
+    long userId = transaction.getUser() == null ? AccountingRollup.NONE : transaction.getUser().getId();
+    var day = new AccountingRollupId(RollupGranularity.DAY, walletId, userId, categoryId, transaction.getDate());
+    var month = new AccountingRollupId(RollupGranularity.MONTH, walletId, userId, categoryId,
+        transaction.getDate().withDayOfMonth(1));
+    deltas.computeIfAbsent(day, AccountingRollup::of).add(transaction, sign);
+    deltas.computeIfAbsent(month, AccountingRollup::of).add(transaction, sign);
+  }
+
+  private static int categoryId(Transaction transaction) {
+    return transaction.getCategory() == null ? AccountingRollup.NONE : transaction.getCategory().getId();
+  }
+}
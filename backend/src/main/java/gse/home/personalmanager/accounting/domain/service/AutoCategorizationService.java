@@ -0,0 +1,94 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.config.CategorizationConfig;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.service.categorization.CompiledRuleSet;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionCategoryRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.WalletBalanceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Import stage applying the categorization rules of a user to the transactions just imported.
+ * Matched transactions are counted in {@code accounting.categorization.auto} tagged by outcome.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class AutoCategorizationService {
+
+  static final String METRIC_NAME = "accounting.categorization.auto";
+
+  private final TransactionRepository transactionRepository;
+  private final TransactionCategoryRepository categoryRepository;
+  private final WalletBalanceRepository balanceRepository;
+  private final CategorizationRuleService ruleService;
+  private final AccountingRollupService rollupService;
+  private final TransactionColumnCache columnCache;
+  private final BudgetService budgetService;
+  private final UncategorizedCountService uncategorizedCountService;
+  private final CategorizationConfig config;
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Categorizes those of the given transactions of a wallet that are still uncategorized. Each batch
+   * is read with one query and written with one UPDATE per category; rows the user categorized in
+   * the meantime are left as they are.
+   *
+   * @return the number of transactions categorized
+   */
+  @Transactional
+  public int categorizeImported(Long walletId, Long userId, List<Integer> transactionIds) {
+    var rules = ruleService.getRuleSet(userId);
+    if (rules.isEmpty() || transactionIds.isEmpty()) {
+      return 0;
+    }
+    // same lock as the other wallet writes, so the rows read below cannot change before the updates
+    balanceRepository.findForUpdate(walletId);
+
+    int batchSize = Math.max(1, config.getBatchSize());
+    int matched = 0;
+    int unmatched = 0;
+    for (int from = 0; from < transactionIds.size(); from += batchSize) {
+      var batch = transactionIds.subList(from, Math.min(transactionIds.size(), from + batchSize));
+      var transactions = transactionRepository.findAllByIdInAndCategoryIsNull(batch);
+      int categorized = categorizeBatch(rules, transactions);
+      matched += categorized;
+      unmatched += transactions.size() - categorized;
+    }
+    meterRegistry.counter(METRIC_NAME, "outcome", "matched").increment(matched);
+    meterRegistry.counter(METRIC_NAME, "outcome", "unmatched").increment(unmatched);
+    log.debug("Auto-categorized {} of {} imported transactions in wallet {}", matched, transactionIds.size(), walletId);
+    return matched;
+  }
+
+  private int categorizeBatch(CompiledRuleSet rules, List<Transaction> transactions) {
+    Map<Integer, List<Integer>> idsByCategory = new HashMap<>();
+    Map<Integer, Integer> newCategoryIds = new HashMap<>();
+    var categorized = new ArrayList<Transaction>();
+    for (var transaction : transactions) {
+      var categoryId = rules.categorize(transaction.getImportLabel(), transaction.getAmount());
+      if (categoryId != null) {
+        idsByCategory.computeIfAbsent(categoryId, k -> new ArrayList<>()).add(transaction.getId());
+        newCategoryIds.put(transaction.getId(), categoryId);
+        categorized.add(transaction);
+      }
+    }
+    rollupService.onCategoriesChanged(categorized, newCategoryIds);
+    columnCache.onCategoriesChanged(categorized, newCategoryIds);
+    uncategorizedCountService.onCategoriesChanged(categorized, newCategoryIds);
+    budgetService.onCategoriesChanged(categorized, newCategoryIds);
+    idsByCategory.forEach((categoryId, ids) ->
+        transactionRepository.updateCategoryOfUncategorized(categoryRepository.getReferenceById(categoryId), ids));
+    return categorized.size();
+  }
+}
@@ -0,0 +1,182 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.domain.event.BudgetLevelsChangedEvent;
+import gse.home.personalmanager.accounting.domain.model.BudgetAlert;
+import gse.home.personalmanager.accounting.domain.model.BudgetAlertId;
+import gse.home.personalmanager.accounting.domain.model.BudgetLevel;
+import gse.home.personalmanager.accounting.domain.model.BudgetSpending;
+import gse.home.personalmanager.accounting.domain.model.BudgetStatus;
+import gse.home.personalmanager.accounting.domain.model.CategoryTree;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.TransactionType;
+import gse.home.personalmanager.accounting.infrastructure.repository.AccountingRollupRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.BudgetAlertRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Tracks the monthly spending of each user against the expected amount of each category, the
+ * budget of a category covering its subcategories as in the nested summaries.
+ * <p>
+ * The spending is the debit total of the monthly {@link gse.home.personalmanager.accounting.domain.model.AccountingRollup}s,
+ * which every import, categorization and deletion already updates by deltas. Writers call in right
+ * after updating the rollups, within their transaction: the months and categories they touched are
+ * read back in one indexed query, whatever the length of the month, and their
+ * {@link BudgetStatus} published. Alerts are recorded and sent once the write is committed, see
+ * {@link #recordLevel}.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class BudgetService {
+
+  private final AccountingRollupRepository rollupRepository;
+  private final BudgetAlertRepository alertRepository;
+  private final CategoryService categoryService;
+  private final ApplicationEventPublisher eventPublisher;
+
+  public void onTransactionsAdded(Collection<Transaction> added) {
+    check(added, null);
+  }
+
+  public void onTransactionsRemoved(Collection<Transaction> removed) {
+    check(removed, null);
+  }
+
+  /**
+   * Same arguments as {@link AccountingRollupService#onCategoriesChanged}.
+   */
+  public void onCategoriesChanged(Collection<Transaction> transactions, Map<Integer, Integer> newCategoryIds) {
+    check(transactions, newCategoryIds);
+  }
+
+  /**
+   * Stores the current level of the category a status is about and tells whether it is higher than
+   * the one last alerted, in which case the caller sends the returned alert. A lower level re-arms
+   * the thresholds above it.
+   * <p>
+   * Statuses are handled asynchronously and may arrive out of order, so the level is computed again
+   * from the committed rollups rather than taken from the status: a late status from an earlier
+   * write can then neither lower the level back nor alert a threshold twice.
+   *
+   * @return the current status when it reached a new level
+   */
+  @Transactional
+  public Optional<BudgetStatus> recordLevel(BudgetStatus status) {
+    var userId = status.userId();
+    var categoryId = status.categoryId();
+    var month = status.periodStart();
+    double spent = rollupRepository.sumMonthlyExpenseBySubtree(List.of(userId), List.of(categoryId), List.of(month))
+        .stream()
+        .mapToDouble(BudgetSpending::spent)
+        .sum();
+    var current = new BudgetStatus(userId, categoryId, status.categoryTitle(), month, spent, status.budget(),
+        BudgetLevel.of(spent, status.budget()));
+    if (current.level() == BudgetLevel.UNDER) {
+      alertRepository.lowerLevel(userId, categoryId, month, current.level());
+      return Optional.empty();
+    }
+    if (alertRepository.raiseLevel(userId, categoryId, month, current.level()) > 0) {
+      return Optional.of(current);
+    }
+    alertRepository.lowerLevel(userId, categoryId, month, current.level());
+    if (alertRepository.existsById(new BudgetAlertId(userId, categoryId, month))) {
+      return Optional.empty();
+    }
+    var alert = new BudgetAlert();
+    alert.setUserId(userId);
+    alert.setCategoryId(categoryId);
+    alert.setPeriodStart(month);
+    alert.setLevel(current.level());
+    alertRepository.saveAndFlush(alert);
+    return Optional.of(current);
+  }
+
+  /**
+   * @param newCategoryIds the categories the transactions move to, or null when they keep theirs
+   */
+  private void check(Collection<Transaction> transactions, Map<Integer, Integer> newCategoryIds) {
+    var tree = categoryService.getTree();
+    Set<Key> keys = new LinkedHashSet<>();
+    for (var transaction : transactions) {
+      if (transaction.getType() != TransactionType.DEBIT || transaction.getDate() == null
+          || transaction.getUser() == null) {
+        continue;
+      }
+      var userId = transaction.getUser().getId();
+      var month = transaction.getDate().withDayOfMonth(1);
+      var categoryId = transaction.getCategory() == null ? null : transaction.getCategory().getId();
+      if (newCategoryIds == null) {
+        addBudgetedKeys(keys, tree, userId, month, categoryId);
+        continue;
+      }
+      var newCategoryId = newCategoryIds.get(transaction.getId());
+      if (!Objects.equals(categoryId, newCategoryId)) {
+        addBudgetedKeys(keys, tree, userId, month, categoryId);
+        addBudgetedKeys(keys, tree, userId, month, newCategoryId);
+      }
+    }
+    if (keys.isEmpty()) {
+      return;
+    }
+
+    Set<Long> userIds = new HashSet<>();
+    Set<Integer> categoryIds = new HashSet<>();
+    Set<LocalDate> months = new HashSet<>();
+    keys.forEach(key -> {
+      userIds.add(key.userId());
+      categoryIds.add(key.categoryId());
+      months.add(key.month());
+    });
+    Map<Key, Double> spentByKey = new HashMap<>();
+    for (BudgetSpending spending : rollupRepository.sumMonthlyExpenseBySubtree(userIds, categoryIds, months)) {
+      spentByKey.put(new Key(spending.userId(), spending.categoryId(), spending.periodStart()), spending.spent());
+    }
+
+    List<BudgetStatus> statuses = new ArrayList<>(keys.size());
+    for (var key : keys) {
+      var node = tree.get(key.categoryId());
+      double budget = node.subtreeExpectedAmount();
+      double spent = spentByKey.getOrDefault(key, 0.0);
+      statuses.add(new BudgetStatus(key.userId(), key.categoryId(), node.title(), key.month(), spent, budget,
+          BudgetLevel.of(spent, budget)));
+    }
+    log.debug("Budget status of {} categories after a write: {}", statuses.size(), statuses);
+    eventPublisher.publishEvent(new BudgetLevelsChangedEvent(this, statuses));
+  }
+
+  /**
+   * The category and its ancestors that have a budget.
+   */
+  private static void addBudgetedKeys(Set<Key> keys, CategoryTree tree, Long userId, LocalDate month,
+                                      Integer categoryId) {
+    var node = tree.get(categoryId);
+    if (node == null) {
+      return;
+    }
+    for (int ancestorId : node.ancestorIds()) {
+      var budget = tree.get(ancestorId).subtreeExpectedAmount();
+      if (budget != null && budget > 0) {
+        keys.add(new Key(userId, ancestorId, month));
+      }
+    }
+  }
+
+  private record Key(Long userId, Integer categoryId, LocalDate month) {
+  }
+}
@@ -0,0 +1,169 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import gse.home.personalmanager.accounting.config.CategorizationConfig;
+import gse.home.personalmanager.accounting.domain.event.CategorizationRulesChangedEvent;
+import gse.home.personalmanager.accounting.domain.model.CategorizationRule;
+import gse.home.personalmanager.accounting.domain.model.CategorizationRuleType;
+import gse.home.personalmanager.accounting.domain.service.categorization.AhoCorasickMatcher;
+import gse.home.personalmanager.accounting.domain.service.categorization.CategorizationRuleLearner;
+import gse.home.personalmanager.accounting.domain.service.categorization.CompiledRuleSet;
+import gse.home.personalmanager.accounting.infrastructure.repository.CategorizationRuleRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionCategoryRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionRepository;
+import gse.home.personalmanager.core.exception.ValidationException;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Keeps the categorization rules of each user and their compiled form.
+ * <p>
+ * Compiled rule sets are cached per user within a heap budget and dropped once the transaction
+ * changing the rules has committed, so the import stage never compiles rules on every chunk.
+ */
+@Slf4j
+@Service
+public class CategorizationRuleService {
+
+  static final String CACHE_NAME = "accounting.categorization.rules";
+
+  private final CategorizationRuleRepository ruleRepository;
+  private final TransactionRepository transactionRepository;
+  private final TransactionCategoryRepository categoryRepository;
+  private final CategorizationConfig config;
+  private final ApplicationEventPublisher eventPublisher;
+  private final Cache<Long, CompiledRuleSet> ruleSets;
+
+  public CategorizationRuleService(CategorizationRuleRepository ruleRepository,
+                                   TransactionRepository transactionRepository,
+                                   TransactionCategoryRepository categoryRepository,
+                                   CategorizationConfig config,
+                                   ApplicationEventPublisher eventPublisher,
+                                   MeterRegistry meterRegistry) {
+    this.ruleRepository = ruleRepository;
+    this.transactionRepository = transactionRepository;
+    this.categoryRepository = categoryRepository;
+    this.config = config;
+    this.eventPublisher = eventPublisher;
+    this.ruleSets = Caffeine.newBuilder()
+        .maximumWeight(config.getCacheMaxBytes())
+        .weigher((Long userId, CompiledRuleSet rules) -> (int) Math.min(rules.estimatedSize(), Integer.MAX_VALUE))
+        .expireAfterAccess(config.getCacheTtl())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, ruleSets, CACHE_NAME);
+  }
+
+  /**
+   * The enabled rules of a user, compiled.
+   */
+  public CompiledRuleSet getRuleSet(Long userId) {
+    return ruleSets.get(userId, id -> CompiledRuleSet.compile(ruleRepository.findAllByUserIdAndEnabledTrue(id),
+        config.getRegexBudget()));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onRulesChanged(CategorizationRulesChangedEvent event) {
+    ruleSets.invalidate(event.getUserId());
+  }
+
+  /**
+   * Validates and stores a rule written by its user.
+   */
+  @Transactional
+  public CategorizationRule save(CategorizationRule rule) {
+    validate(rule);
+    if (rule.getId() == null && ruleRepository.countByUserIdAndLearnedFalse(rule.getUser().getId())
+        >= config.getMaxRulesPerUser()) {
+      throw new ValidationException("At most " + config.getMaxRulesPerUser() + " rules can be defined");
+    }
+    var saved = ruleRepository.save(rule);
+    eventPublisher.publishEvent(new CategorizationRulesChangedEvent(this, rule.getUser().getId()));
+    return saved;
+  }
+
+  @Transactional
+  public void delete(CategorizationRule rule) {
+    ruleRepository.delete(rule);
+    eventPublisher.publishEvent(new CategorizationRulesChangedEvent(this, rule.getUser().getId()));
+  }
+
+  /**
+   * Replaces the learned rules of a user with keyword rules derived from the categories of their
+   * transactions. Rules the user wrote are left alone.
+   *
+   * @return the learned rules
+   */
+  @Transactional
+  public List<CategorizationRule> learnRules(AppUser user) {
+    var learning = config.getLearning();
+    var keywords = CategorizationRuleLearner.learn(transactionRepository.countByImportLabelAndCategory(user.getId()),
+        learning.getMinSupport(), learning.getMinConfidence(), learning.getMaxRules());
+
+    ruleRepository.deleteLearnedByUserId(user.getId());
+    var rules = new ArrayList<CategorizationRule>(keywords.size());
+    for (var keyword : keywords) {
+      var rule = new CategorizationRule();
+      rule.setUser(user);
+      rule.setType(CategorizationRuleType.KEYWORD);
+      rule.setPattern(keyword.keyword());
+      rule.setCategory(categoryRepository.getReferenceById(keyword.categoryId()));
+      rule.setLearned(true);
+      rules.add(rule);
+    }
+    var saved = ruleRepository.saveAll(rules);
+    eventPublisher.publishEvent(new CategorizationRulesChangedEvent(this, user.getId()));
+    log.info("Learned {} categorization rules for user {}", saved.size(), user.getId());
+    return saved;
+  }
+
+  private void validate(CategorizationRule rule) {
+    if (rule.getType() == null) {
+      throw new ValidationException("A rule needs a type");
+    }
+    if (rule.getCategory() == null) {
+      throw new ValidationException("A rule needs a category");
+    }
+    if (rule.getMinAmount() != null && rule.getMaxAmount() != null && rule.getMinAmount() > rule.getMaxAmount()) {
+      throw new ValidationException("The minimum amount is above the maximum amount");
+    }
+    var pattern = rule.getPattern();
+    if (pattern != null && pattern.length() > config.getMaxPatternLength()) {
+      throw new ValidationException("Patterns are limited to " + config.getMaxPatternLength() + " characters");
+    }
+    switch (rule.getType()) {
+      case KEYWORD -> {
+        if (pattern == null || AhoCorasickMatcher.normalize(pattern).isEmpty()) {
+          throw new ValidationException("A keyword rule needs a keyword with letters or digits");
+        }
+      }
+      case REGEX -> {
+        if (pattern == null || pattern.isEmpty()) {
+          throw new ValidationException("A regex rule needs a pattern");
+        }
+        try {
+          CompiledRuleSet.compileRegex(pattern);
+        } catch (PatternSyntaxException e) {
+          throw new ValidationException("Invalid regular expression: " + e.getDescription());
+        }
+      }
+      case AMOUNT_RANGE -> {
+        if (rule.getMinAmount() == null && rule.getMaxAmount() == null) {
+          throw new ValidationException("An amount range rule needs a minimum or a maximum amount");
+        }
+        rule.setPattern(null);
+      }
+    }
+  }
+}
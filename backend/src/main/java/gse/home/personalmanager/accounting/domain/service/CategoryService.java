@@ -0,0 +1,131 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.config.CategoryTreeConfig;
+import gse.home.personalmanager.accounting.domain.event.CategoriesChangedEvent;
+import gse.home.personalmanager.accounting.domain.model.CategoryTree;
+import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
+import gse.home.personalmanager.accounting.infrastructure.repository.CategoryClosureRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionCategoryRepository;
+import gse.home.personalmanager.core.exception.ResourceNotFoundException;
+import gse.home.personalmanager.core.exception.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes the category tree and serves it from an immutable {@link CategoryTree} snapshot.
+ * <p>
+ * Every write keeps the {@link gse.home.personalmanager.accounting.domain.model.CategoryClosure}
+ * paths in step with {@code parentCategory} in the same transaction. The snapshot is read on first
+ * use and again once a change is committed; {@code accounting.category-tree.snapshot-ttl} bounds
+ * how long changes made by another instance are missed.
+ */
+@Slf4j
+@Service
+public class CategoryService {
+
+  private final TransactionCategoryRepository categoryRepository;
+  private final CategoryClosureRepository closureRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final long snapshotTtlNanos;
+
+  // bumped on every committed change: a snapshot read while a change commits is never kept
+  private final AtomicLong generation = new AtomicLong();
+  private volatile Snapshot snapshot;
+
+  public CategoryService(TransactionCategoryRepository categoryRepository,
+                         CategoryClosureRepository closureRepository,
+                         ApplicationEventPublisher eventPublisher,
+                         CategoryTreeConfig config) {
+    this.categoryRepository = categoryRepository;
+    this.closureRepository = closureRepository;
+    this.eventPublisher = eventPublisher;
+    this.snapshotTtlNanos = config.getSnapshotTtl().toNanos();
+  }
+
+  public CategoryTree getTree() {
+    var current = snapshot;
+    if (current != null && current.generation() == generation.get()
+        && System.nanoTime() - current.loadedAt() < snapshotTtlNanos) {
+      return current.tree();
+    }
+    long loadedGeneration = generation.get();
+    long loadedAt = System.nanoTime();
+    var tree = CategoryTree.of(categoryRepository.findAll(), closureRepository.findAll());
+    snapshot = new Snapshot(tree, loadedGeneration, loadedAt);
+    log.debug("Read the category tree: {} categories", tree.size());
+    return tree;
+  }
+
+  @Transactional
+  public TransactionCategory create(String title, String description, Double expectedAmount, Integer parentId) {
+    checkTitleIsFree(title, null);
+    var category = new TransactionCategory();
+    category.setTitle(title);
+    category.setDescription(description);
+    category.setExpectedAmount(expectedAmount);
+    category.setParentCategory(parentId == null ? null : getCategory(parentId));
+    category = categoryRepository.save(category);
+
+    closureRepository.insertSelf(category.getId());
+    if (parentId != null) {
+      closureRepository.attachSubtree(category.getId(), parentId);
+    }
+    eventPublisher.publishEvent(new CategoriesChangedEvent(this, category.getId()));
+    return category;
+  }
+
+  /**
+   * Edits a category and moves it, with its whole subtree, under {@code parentId}, null for the
+   * top level.
+   */
+  @Transactional
+  public TransactionCategory update(Integer id, String title, String description, Double expectedAmount,
+                                    Integer parentId) {
+    var category = getCategory(id);
+    checkTitleIsFree(title, id);
+    category.setTitle(title);
+    category.setDescription(description);
+    category.setExpectedAmount(expectedAmount);
+
+    var previousParentId = category.getParentCategory() == null ? null : category.getParentCategory().getId();
+    if (!Objects.equals(previousParentId, parentId)) {
+      if (parentId != null && closureRepository.existsByAncestorIdAndDescendantId(id, parentId)) {
+        throw new ValidationException("A category cannot be moved under itself or one of its subcategories");
+      }
+      category.setParentCategory(parentId == null ? null : getCategory(parentId));
+      int detached = closureRepository.detachSubtree(id);
+      int attached = parentId == null ? 0 : closureRepository.attachSubtree(id, parentId);
+      log.info("Category {} moved from {} to {}: {} paths removed, {} added", id, previousParentId, parentId,
+          detached, attached);
+    }
+    eventPublisher.publishEvent(new CategoriesChangedEvent(this, id));
+    return category;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCategoriesChanged(CategoriesChangedEvent event) {
+    generation.incrementAndGet();
+  }
+
+  private void checkTitleIsFree(String title, Integer id) {
+    categoryRepository.findByTitle(title)
+        .filter(existing -> !Objects.equals(existing.getId(), id))
+        .ifPresent(existing -> {
+          throw new ValidationException("A category titled '" + title + "' already exists");
+        });
+  }
+
+  private TransactionCategory getCategory(Integer id) {
+    return categoryRepository.findById(id)
+        .orElseThrow(() -> new ResourceNotFoundException("Category not found: " + id));
+  }
+
+  private record Snapshot(CategoryTree tree, long generation, long loadedAt) {
+  }
+}
@@ -0,0 +1,96 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.domain.model.Merchant;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.service.merchant.MerchantNormalizer;
+import gse.home.personalmanager.accounting.infrastructure.repository.MerchantBulkRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.MerchantRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns the merchants named by import labels into the shared {@link Merchant} table and sets
+ * the merchant of each imported transaction. A chunk of transactions costs one lookup per
+ * {@value #LOOKUP_SIZE} distinct names, plus one batch insert and one more lookup when some names
+ * were never seen.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class MerchantService {
+
+  /**
+   * Names looked up per query, well below the bind parameter limits of the drivers.
+   */
+  static final int LOOKUP_SIZE = 1000;
+
+  private final MerchantRepository merchantRepository;
+  private final MerchantBulkRepository merchantBulkRepository;
+
+  /**
+   * Sets the merchant of each transaction from its import label, creating the merchants not seen
+   * yet. Called before the transactions are written.
+   */
+  @Transactional
+  public void assignMerchants(List<Transaction> transactions) {
+    var names = new ArrayList<String>(transactions.size());
+    transactions.forEach(t -> names.add(MerchantNormalizer.normalize(t.getImportLabel())));
+    var merchants = intern(names);
+    for (int i = 0; i < transactions.size(); i++) {
+      transactions.get(i).setMerchant(names.get(i) == null ? null : merchants.get(names.get(i)));
+    }
+  }
+
+  /**
+   * The merchants of the given names, null ones ignored, created when missing.
+   */
+  @Transactional
+  public Map<String, Merchant> intern(Collection<String> names) {
+    var distinct = new LinkedHashSet<String>(names);
+    distinct.remove(null);
+    var merchants = find(distinct);
+    var missing = distinct.stream().filter(name -> !merchants.containsKey(name)).toList();
+    if (!missing.isEmpty()) {
+      // names a concurrent import inserted first are skipped by the insert and read back below
+      merchantBulkRepository.insertIgnoringDuplicates(missing);
+      merchants.putAll(find(missing));
+    }
+    return merchants;
+  }
+
+  /**
+   * Gives a merchant to up to {@code limit} older transactions after {@code afterId}.
+   *
+   * @return the id of the last transaction looked at, 0 when none was left
+   */
+  @Transactional
+  public int backfill(int afterId, int limit) {
+    var transactions = merchantBulkRepository.findWithoutMerchant(afterId, limit);
+    if (transactions.isEmpty()) {
+      return 0;
+    }
+    assignMerchants(transactions);
+    // labels naming no merchant stay null, the next chunk starts after them
+    merchantBulkRepository.setMerchants(transactions.stream().filter(t -> t.getMerchant() != null).toList());
+    return transactions.get(transactions.size() - 1).getId();
+  }
+
+  private Map<String, Merchant> find(Collection<String> names) {
+    Map<String, Merchant> merchants = new HashMap<>();
+    var values = new ArrayList<>(names);
+    for (int from = 0; from < values.size(); from += LOOKUP_SIZE) {
+      var slice = values.subList(from, Math.min(values.size(), from + LOOKUP_SIZE));
+      merchantRepository.findAllByNameIn(slice).forEach(merchant -> merchants.put(merchant.getName(), merchant));
+    }
+    return merchants;
+  }
+}
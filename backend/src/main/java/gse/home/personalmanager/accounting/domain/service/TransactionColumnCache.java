@@ -0,0 +1,190 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import gse.home.personalmanager.accounting.config.SummaryConfig;
+import gse.home.personalmanager.accounting.domain.event.WalletDeletedEvent;
+import gse.home.personalmanager.accounting.domain.model.AccountingRollup;
+import gse.home.personalmanager.accounting.domain.model.CategoryTotals;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
+import gse.home.personalmanager.accounting.domain.model.TransactionColumnRow;
+import gse.home.personalmanager.accounting.domain.model.TransactionTotals;
+import gse.home.personalmanager.accounting.domain.service.columnar.WalletColumns;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionBulkRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionCategoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Computes the overview totals of a wallet from its transactions held in memory as
+ * {@link WalletColumns}.
+ * <p>
+ * The columns of a wallet are read on first use, in one pass over its transactions, and kept
+ * within a heap budget. Imports, categorizations and deletions patch them once their transaction
+ * has committed, at the same places the rollups are updated. Patches are idempotent, so a patch
+ * racing a fresh read of the columns leaves them right. Columns are read again after
+ * {@code accounting.summary.column-cache-ttl} whatever the patches, which bounds how long writes
+ * made by another instance are missed.
+ */
+@Slf4j
+@Service
+public class TransactionColumnCache {
+
+  static final String CACHE_NAME = "accounting.summary.columns";
+
+  private final TransactionBulkRepository bulkRepository;
+  private final TransactionCategoryRepository categoryRepository;
+  private final Cache<Long, WalletColumns> columns;
+
+  public TransactionColumnCache(TransactionBulkRepository bulkRepository,
+                                TransactionCategoryRepository categoryRepository,
+                                SummaryConfig config,
+                                MeterRegistry meterRegistry) {
+    this.bulkRepository = bulkRepository;
+    this.categoryRepository = categoryRepository;
+    long ttl = config.getColumnCacheTtl().toNanos();
+    this.columns = Caffeine.newBuilder()
+        .maximumWeight(config.getColumnCacheMaxBytes())
+        .weigher((Long walletId, WalletColumns wallet) -> (int) Math.min(wallet.estimatedSize(), Integer.MAX_VALUE))
+        .expireAfter(new Expiry<Long, WalletColumns>() {
+          @Override
+          public long expireAfterCreate(Long walletId, WalletColumns wallet, long currentTime) {
+            return ttl;
+          }
+
+          // patches keep the expiry of the read they started from
+          @Override
+          public long expireAfterUpdate(Long walletId, WalletColumns wallet, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+
+          @Override
+          public long expireAfterRead(Long walletId, WalletColumns wallet, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, columns, CACHE_NAME);
+  }
+
+  public TransactionTotals sumRange(LocalDate minDate, LocalDate maxDate, Long walletId, Long userId) {
+    return getColumns(walletId).sum(day(minDate), day(maxDate), userId);
+  }
+
+  /**
+   * Totals per category, with the category titles and expected amounts read in one query.
+   */
+  public List<CategoryTotals> sumRangeByCategory(LocalDate minDate, LocalDate maxDate, Long walletId, Long userId) {
+    var sums = getColumns(walletId).sumByCategory(day(minDate), day(maxDate), userId);
+    var categoryIds = sums.stream()
+        .map(WalletColumns.CategorySum::categoryId)
+        .filter(id -> id != AccountingRollup.NONE)
+        .toList();
+    Map<Integer, TransactionCategory> categories = categoryIds.isEmpty() ? Map.of()
+        : categoryRepository.findAllById(categoryIds).stream()
+            .collect(Collectors.toMap(TransactionCategory::getId, Function.identity()));
+    var totals = new ArrayList<CategoryTotals>(sums.size());
+    for (var sum : sums) {
+      var category = categories.get(sum.categoryId());
+      totals.add(new CategoryTotals(category == null ? null : category.getId(),
+          category == null ? null : category.getTitle(), category == null ? null : category.getExpectedAmount(),
+          sum.income(), sum.expense(), sum.count()));
+    }
+    return totals;
+  }
+
+  public void onTransactionsAdded(Long walletId, Collection<Transaction> added) {
+    var rows = rows(added, TransactionColumnRow::of);
+    afterCommit(walletId, wallet -> wallet.withAdded(rows));
+  }
+
+  public void onTransactionsRemoved(Long walletId, Collection<Transaction> removed) {
+    var rows = rows(removed, TransactionColumnRow::of);
+    afterCommit(walletId, wallet -> wallet.withRemoved(rows));
+  }
+
+  /**
+   * Same arguments as {@link AccountingRollupService#onCategoriesChanged}.
+   */
+  public void onCategoriesChanged(Collection<Transaction> transactions, Map<Integer, Integer> newCategoryIds) {
+    Map<Long, List<Transaction>> byWallet = new HashMap<>();
+    transactions.forEach(t -> byWallet.computeIfAbsent(t.getWallet().getId(), k -> new ArrayList<>()).add(t));
+    byWallet.forEach((walletId, moved) -> {
+      var rows = rows(moved, t -> TransactionColumnRow.of(t,
+          Objects.requireNonNullElse(newCategoryIds.get(t.getId()), AccountingRollup.NONE)));
+      afterCommit(walletId, wallet -> wallet.withCategories(rows));
+    });
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onWalletDeleted(WalletDeletedEvent event) {
+    columns.invalidate(event.getWalletId());
+  }
+
+  private WalletColumns getColumns(Long walletId) {
+    return columns.get(walletId, this::load);
+  }
+
+  private WalletColumns load(Long walletId) {
+    long start = System.nanoTime();
+    var builder = WalletColumns.builder();
+    bulkRepository.forEachColumnRow(walletId, builder::add);
+    var wallet = builder.build();
+    log.debug("Read the columns of wallet {}: {} transactions, {} KB in {} ms", walletId, wallet.size(),
+        wallet.estimatedSize() / 1024, (System.nanoTime() - start) / 1_000_000);
+    return wallet;
+  }
+
+  /**
+   * Patches the columns of the wallet, if held, once the current transaction commits: before that,
+   * other readers must not see the change, and a rollback must leave the columns as they are.
+   */
+  private void afterCommit(Long walletId, UnaryOperator<WalletColumns> patch) {
+    Runnable apply = () -> columns.asMap().computeIfPresent(walletId, (id, wallet) -> patch.apply(wallet));
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      apply.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        apply.run();
+      }
+    });
+  }
+
+  private static List<TransactionColumnRow> rows(Collection<Transaction> transactions,
+                                                 Function<Transaction, TransactionColumnRow> toRow) {
+    var rows = new ArrayList<TransactionColumnRow>(transactions.size());
+    for (var transaction : transactions) {
+      var row = toRow.apply(transaction);
+      if (row != null) {
+        rows.add(row);
+      }
+    }
+    return rows;
+  }
+
+  private static int day(LocalDate date) {
+    return (int) date.toEpochDay();
+  }
+}
@@ -0,0 +1,137 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import gse.home.personalmanager.accounting.config.CsvImportConfig;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.service.fingerprint.BloomFilter;
+import gse.home.personalmanager.accounting.domain.service.fingerprint.TransactionFingerprint;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionBulkRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.WalletBalanceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Tells which imported rows a wallet already holds, by {@link TransactionFingerprint}.
+ * <p>
+ * Each wallet gets an in-memory {@link BloomFilter} of its fingerprints, built on first use. Rows
+ * the filter has never seen are new without asking the database; only the rows it may have seen,
+ * the overlap of a re-uploaded export plus about 1% of false positives, are looked up, all in one
+ * query. The database stays the reference: the filter only skips lookups, and the unique key on
+ * the fingerprint still catches what another instance inserted in the meantime.
+ * <p>
+ * Lookups are counted in {@code accounting.import.fingerprints} tagged by outcome.
+ */
+@Slf4j
+@Service
+public class TransactionFingerprintIndex {
+
+  static final String CACHE_NAME = "accounting.import.fingerprints";
+  static final String METRIC_NAME = "accounting.import.fingerprints";
+  private static final long MIN_CAPACITY = 1024;
+
+  private final TransactionBulkRepository bulkRepository;
+  private final WalletBalanceRepository balanceRepository;
+  private final CsvImportConfig config;
+  private final MeterRegistry meterRegistry;
+  private final Cache<Long, BloomFilter> filters;
+
+  public TransactionFingerprintIndex(TransactionBulkRepository bulkRepository,
+                                     WalletBalanceRepository balanceRepository,
+                                     CsvImportConfig config,
+                                     MeterRegistry meterRegistry) {
+    this.bulkRepository = bulkRepository;
+    this.balanceRepository = balanceRepository;
+    this.config = config;
+    this.meterRegistry = meterRegistry;
+    this.filters = Caffeine.newBuilder()
+        .maximumWeight(config.getFingerprintCacheMaxBytes())
+        .weigher((Long walletId, BloomFilter filter) -> (int) Math.min(filter.estimatedSize(), Integer.MAX_VALUE))
+        .expireAfterAccess(config.getFingerprintCacheTtl())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, filters, CACHE_NAME);
+  }
+
+  /**
+   * Flags the transactions already stored in the wallet. Takes the wallet lock, so imports into one
+   * wallet run one after the other and the answer holds until the caller's transaction ends.
+   *
+   * @return for each transaction, in order, whether the wallet already holds it
+   */
+  @Transactional
+  public boolean[] findKnown(Long walletId, List<Transaction> transactions) {
+    boolean[] known = new boolean[transactions.size()];
+    if (transactions.isEmpty()) {
+      return known;
+    }
+    balanceRepository.findForUpdate(walletId);
+    var filter = filters.get(walletId, this::load);
+
+    var candidates = new HashSet<Long>();
+    for (var transaction : transactions) {
+      var fingerprint = transaction.getImportFingerprint();
+      if (fingerprint != null && filter.mightContain(fingerprint)) {
+        candidates.add(fingerprint);
+      }
+    }
+    var existing = candidates.isEmpty() ? candidates : bulkRepository.findExistingFingerprints(walletId, candidates);
+    for (int i = 0; i < known.length; i++) {
+      known[i] = existing.contains(transactions.get(i).getImportFingerprint());
+    }
+
+    meterRegistry.counter(METRIC_NAME, "outcome", "new").increment(transactions.size() - candidates.size());
+    meterRegistry.counter(METRIC_NAME, "outcome", "known").increment(existing.size());
+    meterRegistry.counter(METRIC_NAME, "outcome", "false_positive").increment(candidates.size() - existing.size());
+    return known;
+  }
+
+  /**
+   * Adds the fingerprints of newly inserted transactions to the wallet's filter. A filter grown past
+   * its capacity is dropped and rebuilt at the next import.
+   */
+  public void onInserted(Long walletId, List<Transaction> inserted) {
+    var filter = filters.getIfPresent(walletId);
+    if (filter == null) {
+      return;
+    }
+    for (var transaction : inserted) {
+      if (transaction.getImportFingerprint() != null) {
+        filter.put(transaction.getImportFingerprint());
+      }
+    }
+    if (filter.isSaturated()) {
+      filters.invalidate(walletId);
+    }
+  }
+
+  /**
+   * Builds the filter of a wallet from its stored fingerprints, first fingerprinting the rows that
+   * were stored without one.
+   */
+  private BloomFilter load(Long walletId) {
+    var fingerprints = new HashSet<>(bulkRepository.findFingerprints(walletId));
+    var missing = bulkRepository.findWithoutFingerprint(walletId);
+    if (!missing.isEmpty()) {
+      for (var transaction : missing) {
+        transaction.setImportFingerprint(TransactionFingerprint.next(fingerprints, transaction.getDate(),
+            transaction.getAmount(), transaction.getImportLabel(), transaction.getCurrentBalance()));
+      }
+      bulkRepository.updateFingerprints(missing);
+      log.info("Backfilled {} transaction fingerprints of wallet {}", missing.size(), walletId);
+    }
+
+    // room to grow, so regular imports do not saturate the filter
+    var filter = new BloomFilter(Math.max(MIN_CAPACITY, 2L * fingerprints.size()),
+        config.getFingerprintFalsePositiveRate());
+    fingerprints.forEach(filter::put);
+    log.debug("Built the fingerprint filter of wallet {} over {} transactions", walletId, fingerprints.size());
+    return filter;
+  }
+}
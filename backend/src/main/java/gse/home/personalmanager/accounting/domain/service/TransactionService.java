@@ -4,9 +4,14 @@ import gse.home.personalmanager.accounting.application.dto.AccountingSummaryDTO;
 import gse.home.personalmanager.accounting.application.dto.TransactionCSVRowDTO;
 import gse.home.personalmanager.accounting.application.dto.TransactionSummaryDTO;
 import gse.home.personalmanager.accounting.application.mapper.TransactionMapper;
+import gse.home.personalmanager.accounting.domain.model.CategoryTotals;
+import gse.home.personalmanager.accounting.domain.model.CategoryTree;
 import gse.home.personalmanager.accounting.domain.model.Transaction;
 import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
+import gse.home.personalmanager.accounting.domain.model.TransactionTotals;
 import gse.home.personalmanager.accounting.domain.model.TransactionType;
+import gse.home.personalmanager.accounting.domain.service.fingerprint.FingerprintSet;
+import gse.home.personalmanager.accounting.domain.service.fingerprint.TransactionFingerprint;
 import gse.home.personalmanager.accounting.infrastructure.repository.WalletRepository;
 import gse.home.personalmanager.user.infrastructure.repository.UserRepository;
 import lombok.AllArgsConstructor;
@@ -15,6 +20,7 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
@@ -50,7 +56,7 @@ public class TransactionService {
 
     var accountSummary = new AccountingSummaryDTO(totalIncome, totalExpense, totalIncome - totalExpense, null);
 
-    // FIXME : Still need to apply the "Related Transaction"
+    // internal transfers are filtered out beforehand by the callers that exclude them, see isTransfer
 
     Map<TransactionCategory, List<Transaction>> transactionsByCategory = transactions.stream()
         .collect(Collectors.groupingBy(Transaction::getCategory));
@@ -69,7 +75,9 @@ public class TransactionService {
           .sum();
 
       var trSummary = new TransactionSummaryDTO();
+      trSummary.setCategoryId(entry.getKey().getId());
       trSummary.setCategory(entry.getKey().getTitle());
+      trSummary.setTransactionCount((long) entry.getValue().size());
       trSummary.setTransactions(entry.getValue().stream().map(mapper::toDto).toList());
       trSummary.setPercent((int) (100 - (((totalExpense - totalExpenseCategory)) / totalExpense) * 100));
       trSummary.setExpectedAmount(entry.getKey().getExpectedAmount());
@@ -101,15 +109,208 @@ public class TransactionService {
         balance);
   }
 
-  public List<Transaction> fromCSVRowToTransactionList(List<TransactionCSVRowDTO> csvRowDTOS, Long walletId, Long userId) {
+  /**
+   * Same result as {@link #getTransactionCategoryDetails(List)}, with the totals already summed by the
+   * database. {@code transactions} only fills the per-category lists.
+   */
+  public List<TransactionSummaryDTO> getTransactionCategoryDetails(List<CategoryTotals> categoryTotals,
+                                                                   List<Transaction> transactions) {
+    Map<Integer, List<Transaction>> transactionsByCategory = new HashMap<>();
+    for (var transaction : transactions) {
+      var categoryId = transaction.getCategory() == null ? null : transaction.getCategory().getId();
+      transactionsByCategory.computeIfAbsent(categoryId, k -> new ArrayList<>()).add(transaction);
+    }
+
+    var result = getCategorySummaries(categoryTotals);
+    for (var trSummary : result) {
+      trSummary.setTransactions(transactionsByCategory.getOrDefault(trSummary.getCategoryId(), List.of()).stream()
+          .map(mapper::toDto).toList());
+    }
+    return result;
+  }
+
+  /**
+   * Category totals and percentages only, without the transaction lists; those are paged
+   * separately by category.
+   */
+  public List<TransactionSummaryDTO> getCategorySummaries(List<CategoryTotals> categoryTotals) {
+    var totalExpense = categoryTotals.stream().mapToDouble(CategoryTotals::expense).sum();
+
+    List<TransactionSummaryDTO> result = new ArrayList<>(categoryTotals.size());
+    for (var totals : categoryTotals) {
+      var trSummary = new TransactionSummaryDTO();
+      trSummary.setCategoryId(totals.categoryId());
+      trSummary.setCategory(totals.title());
+      trSummary.setTransactionCount(totals.count());
+      trSummary.setPercent((int) (100 - (((totalExpense - totals.expense())) / totalExpense) * 100));
+      trSummary.setExpectedAmount(totals.expectedAmount());
+      trSummary.setTotalExpense(totals.expense());
+      trSummary.setTotalIncome(totals.income());
+      result.add(trSummary);
+    }
+    return result;
+  }
+
+  /**
+   * Whether the transaction is an internal transfer: linked to a related transaction, the other side
+   * in another wallet of the user, by hand or by {@link TransferMatchingService}.
+   */
+  public static boolean isTransfer(Transaction transaction) {
+    return transaction.getRelatedTransaction() != null;
+  }
+
+  /**
+   * Category totals without the internal transfers. {@code transfers} holds the totals of the
+   * transfers of the same transactions per category; categories left without any transaction are
+   * dropped.
+   */
+  public List<CategoryTotals> withoutTransfers(List<CategoryTotals> categoryTotals, List<CategoryTotals> transfers) {
+    if (transfers.isEmpty()) {
+      return categoryTotals;
+    }
+    Map<Integer, CategoryTotals> transfersByCategory = new HashMap<>();
+    transfers.forEach(totals -> transfersByCategory.put(totals.categoryId(), totals));
+    List<CategoryTotals> result = new ArrayList<>(categoryTotals.size());
+    for (var totals : categoryTotals) {
+      var categoryTransfers = transfersByCategory.get(totals.categoryId());
+      var remaining = categoryTransfers == null ? totals : totals.minus(categoryTransfers);
+      if (remaining.count() > 0) {
+        result.add(remaining);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Same as {@link #withoutTransfers(List, List)} for the totals of a whole period.
+   */
+  public TransactionTotals withoutTransfers(TransactionTotals totals, List<CategoryTotals> transfers) {
+    var transferTotals = new TransactionTotals(transfers.stream().mapToDouble(CategoryTotals::income).sum(),
+        transfers.stream().mapToDouble(CategoryTotals::expense).sum(),
+        transfers.stream().mapToLong(CategoryTotals::count).sum());
+    return totals.minus(transferTotals);
+  }
+
+  /**
+   * Top level category summaries, each subcategory nested under its parent. {@code subtreeTotals}
+   * holds the totals of each category including its subcategories, see
+   * {@link CategoryTree#rollUp}; percentages are of the expense of the whole period.
+   */
+  public List<TransactionSummaryDTO> getNestedCategorySummaries(List<CategoryTotals> subtreeTotals, CategoryTree tree) {
+    Map<Integer, CategoryTotals> totalsById = new HashMap<>();
+    List<CategoryTotals> topLevel = new ArrayList<>();
+    for (var totals : subtreeTotals) {
+      var node = tree.get(totals.categoryId());
+      totalsById.put(totals.categoryId(), totals);
+      if (node == null || tree.get(node.parentId()) == null) {
+        topLevel.add(totals);
+      }
+    }
+    var totalExpense = topLevel.stream().mapToDouble(CategoryTotals::expense).sum();
+
+    List<TransactionSummaryDTO> result = new ArrayList<>(topLevel.size());
+    for (var totals : topLevel) {
+      result.add(toNestedSummary(totals, tree, totalsById, totalExpense));
+    }
+    return result;
+  }
+
+  /**
+   * Fills the transaction lists of nested summaries, each category with its own transactions only.
+   */
+  public void fillTransactions(List<TransactionSummaryDTO> summaries, List<Transaction> transactions) {
+    Map<Integer, List<Transaction>> transactionsByCategory = new HashMap<>();
+    for (var transaction : transactions) {
+      var categoryId = transaction.getCategory() == null ? null : transaction.getCategory().getId();
+      transactionsByCategory.computeIfAbsent(categoryId, k -> new ArrayList<>()).add(transaction);
+    }
+    fillTransactions(summaries, transactionsByCategory);
+  }
+
+  private void fillTransactions(List<TransactionSummaryDTO> summaries,
+                                Map<Integer, List<Transaction>> transactionsByCategory) {
+    for (var trSummary : summaries) {
+      trSummary.setTransactions(transactionsByCategory.getOrDefault(trSummary.getCategoryId(), List.of()).stream()
+          .map(mapper::toDto).toList());
+      if (trSummary.getNestedTransactionSummaries() != null) {
+        fillTransactions(trSummary.getNestedTransactionSummaries(), transactionsByCategory);
+      }
+    }
+  }
+
+  private TransactionSummaryDTO toNestedSummary(CategoryTotals totals, CategoryTree tree,
+                                                Map<Integer, CategoryTotals> totalsById, double totalExpense) {
+    var trSummary = new TransactionSummaryDTO();
+    trSummary.setCategoryId(totals.categoryId());
+    trSummary.setCategory(totals.title());
+    trSummary.setTransactionCount(totals.count());
+    trSummary.setPercent((int) (100 - (((totalExpense - totals.expense())) / totalExpense) * 100));
+    trSummary.setExpectedAmount(totals.expectedAmount());
+    trSummary.setTotalExpense(totals.expense());
+    trSummary.setTotalIncome(totals.income());
+
+    var node = tree.get(totals.categoryId());
+    if (node != null) {
+      List<TransactionSummaryDTO> nested = new ArrayList<>();
+      for (var child : tree.children(node)) {
+        var childTotals = totalsById.get(child.id());
+        if (childTotals != null) {
+          nested.add(toNestedSummary(childTotals, tree, totalsById, totalExpense));
+        }
+      }
+      trSummary.setNestedTransactionSummaries(nested);
+    }
+    return trSummary;
+  }
+
+  /**
+   * Same result as {@link #getTransactionSummary(List, Double)}, from totals summed by the database.
+   */
+  public AccountingSummaryDTO getTransactionSummary(TransactionTotals totals, Double balance) {
+    return new AccountingSummaryDTO(
+        BigDecimal.valueOf(totals.income()).setScale(2, RoundingMode.CEILING).doubleValue(),
+        BigDecimal.valueOf(totals.expense()).setScale(2, RoundingMode.CEILING).doubleValue(),
+        BigDecimal.valueOf(totals.income() - totals.expense()).setScale(2, RoundingMode.CEILING).doubleValue(),
+        balance);
+  }
+
+  /**
+   * Converts the rows of one import chunk and fingerprints them after the rows of the previous
+   * chunks, whose fingerprints are in {@code fingerprints}.
+   */
+  public List<Transaction> fromCSVRowToTransactionList(List<TransactionCSVRowDTO> csvRowDTOS, Long walletId, Long userId,
+                                                       FingerprintSet fingerprints) {
     var wallet = walletRepository.findById(walletId)
         .orElseThrow(() -> new IllegalArgumentException("Wallet not found: " + walletId));
     var user = userRepository.findById(userId)
         .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
     
-    return csvRowDTOS.stream()
+    var transactions = csvRowDTOS.stream()
         .map(csvRow -> csvToTransaction(csvRow, wallet, user))
         .toList();
+    TransactionFingerprint.assign(transactions, fingerprints);
+    return transactions;
+  }
+
+  /**
+   * Checks that a CSV row can be stored.
+   *
+   * @return why the row is rejected, or null when it is valid
+   */
+  public String validateCSVRow(TransactionCSVRowDTO csvRow) {
+    if (csvRow == null) {
+      return "Empty row";
+    }
+    if (csvRow.getDate() == null) {
+      return "Missing date";
+    }
+    if (csvRow.getAmount() == null || !Double.isFinite(csvRow.getAmount())) {
+      return "Missing or invalid amount";
+    }
+    if (csvRow.getDescription() == null || csvRow.getDescription().isBlank()) {
+      return "Missing description";
+    }
+    return null;
   }
 
   private Transaction csvToTransaction(TransactionCSVRowDTO csvRowDTO, 
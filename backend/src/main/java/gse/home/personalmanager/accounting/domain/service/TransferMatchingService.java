@@ -0,0 +1,66 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.config.TransferMatchingConfig;
+import gse.home.personalmanager.accounting.domain.model.TransferCandidate;
+import gse.home.personalmanager.accounting.domain.service.transfer.TransferMatcher;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionBulkRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.WalletBalanceRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Import stage linking the transfers between the wallets of a user, so that summaries can leave
+ * them out of income and expense. See {@link TransferMatcher} for what makes a transfer.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class TransferMatchingService {
+
+  private final TransactionRepository transactionRepository;
+  private final TransactionBulkRepository bulkRepository;
+  private final WalletBalanceRepository balanceRepository;
+  private final TransferMatchingConfig config;
+
+  /**
+   * Pairs the given transactions, just imported by a user, with the user's unlinked transactions
+   * in all their wallets around the same dates.
+   *
+   * @return the number of transfers linked
+   */
+  @Transactional
+  public int matchImported(Long userId, List<Integer> transactionIds) {
+    if (transactionIds.isEmpty()) {
+      return 0;
+    }
+    var imported = transactionRepository.findTransferCandidatesByIdIn(transactionIds);
+    if (imported.isEmpty()) {
+      return 0;
+    }
+    int window = Math.max(0, config.getDateWindowDays());
+    var from = imported.stream().map(TransferCandidate::date).min(Comparator.naturalOrder()).orElseThrow()
+        .minusDays(window);
+    var to = imported.stream().map(TransferCandidate::date).max(Comparator.naturalOrder()).orElseThrow()
+        .plusDays(window);
+
+    // same lock as the other wallet writes, taken in wallet id order, then the candidates read again
+    // so that a concurrent matching of another wallet cannot link them in the meantime
+    transactionRepository.findTransferCandidates(userId, from, to).stream()
+        .map(TransferCandidate::walletId).distinct().sorted()
+        .forEach(balanceRepository::findForUpdate);
+    var candidates = transactionRepository.findTransferCandidates(userId, from, to);
+
+    var pairs = TransferMatcher.match(candidates, new HashSet<>(transactionIds), window);
+    bulkRepository.linkTransfers(pairs);
+    log.debug("Linked {} transfers among {} candidates for {} transactions imported by user {}", pairs.size(),
+        candidates.size(), transactionIds.size(), userId);
+    return pairs.size();
+  }
+}
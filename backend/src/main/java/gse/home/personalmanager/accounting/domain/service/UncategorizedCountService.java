@@ -0,0 +1,103 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.domain.model.AccountingRollup;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.UncategorizedCount;
+import gse.home.personalmanager.accounting.infrastructure.repository.UncategorizedCountRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.WalletBalanceRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the {@link UncategorizedCount} of each user in each wallet.
+ * <p>
+ * Like {@link AccountingRollupService}, writers call in within their own transaction so the counts
+ * commit together with the ledger change, and each wallet is updated under its snapshot lock.
+ */
+@Service
+@AllArgsConstructor
+public class UncategorizedCountService {
+
+  private final UncategorizedCountRepository countRepository;
+  private final WalletBalanceRepository balanceRepository;
+
+  public long getCount(Long walletId, Long userId) {
+    return countRepository.findCount(walletId, userId).orElse(0L);
+  }
+
+  @Transactional
+  public void onTransactionsAdded(Long walletId, Collection<Transaction> added) {
+    apply(walletId, added, 1);
+  }
+
+  @Transactional
+  public void onTransactionsRemoved(Long walletId, Collection<Transaction> removed) {
+    apply(walletId, removed, -1);
+  }
+
+  /**
+   * Same arguments as {@link AccountingRollupService#onCategoriesChanged}: {@code transactions}
+   * still carry their previous category.
+   */
+  @Transactional
+  public void onCategoriesChanged(Collection<Transaction> transactions, Map<Integer, Integer> newCategoryIds) {
+    // wallets in id order, so two writers never wait on each other's locks
+    Map<Long, Map<Long, Long>> deltasByWallet = new TreeMap<>();
+    for (var transaction : transactions) {
+      boolean wasUncategorized = transaction.getCategory() == null;
+      boolean isUncategorized = newCategoryIds.get(transaction.getId()) == null;
+      if (wasUncategorized != isUncategorized && transaction.getDate() != null) {
+        deltasByWallet.computeIfAbsent(transaction.getWallet().getId(), k -> new HashMap<>())
+            .merge(userId(transaction), isUncategorized ? 1L : -1L, Long::sum);
+      }
+    }
+    deltasByWallet.forEach((walletId, deltas) -> {
+      balanceRepository.findForUpdate(walletId);
+      merge(walletId, deltas);
+    });
+  }
+
+  /**
+   * Counts the uncategorized transactions of a wallet again.
+   *
+   * @return the number of users with uncategorized transactions in the wallet
+   */
+  @Transactional
+  public int rebuild(Long walletId) {
+    balanceRepository.findForUpdate(walletId);
+    countRepository.deleteAllByWalletId(walletId);
+    return countRepository.insertCounts(walletId);
+  }
+
+  private void apply(Long walletId, Collection<Transaction> transactions, long sign) {
+    Map<Long, Long> deltas = new HashMap<>();
+    for (var transaction : transactions) {
+      if (transaction.getCategory() == null && transaction.getDate() != null) {
+        deltas.merge(userId(transaction), sign, Long::sum);
+      }
+    }
+    if (deltas.isEmpty()) {
+      return;
+    }
+    balanceRepository.findForUpdate(walletId);
+    merge(walletId, deltas);
+  }
+
+  private void merge(Long walletId, Map<Long, Long> deltas) {
+    deltas.forEach((userId, delta) -> {
+      if (delta != 0) {
+        countRepository.addToCount(walletId, userId, delta);
+      }
+    });
+  }
+
+  private static long userId(Transaction transaction) {
+    return transaction.getUser() == null ? AccountingRollup.NONE : transaction.getUser().getId();
+  }
+}
@@ -0,0 +1,123 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import gse.home.personalmanager.accounting.config.WalletAccessConfig;
+import gse.home.personalmanager.accounting.domain.event.WalletAccessChangedEvent;
+import gse.home.personalmanager.accounting.domain.model.WalletAccess;
+import gse.home.personalmanager.accounting.domain.model.WalletRole;
+import gse.home.personalmanager.accounting.infrastructure.repository.WalletRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Answers which wallets a user can read or write, from a per-user access list.
+ * <p>
+ * The list maps every wallet the user owns or was shared to the user's role on it, owners holding
+ * {@link WalletRole#WRITE}. It is read in one query on first use and cached, so permission checks
+ * cost no statement. Changes to the owner or the permissions of a wallet drop the lists of the
+ * users involved once committed; see {@link WalletAccessChangedEvent}.
+ */
+@Slf4j
+@Service
+public class WalletAccessService {
+
+  static final String CACHE_NAME = "accounting.wallet.access";
+
+  private final WalletRepository walletRepository;
+  private final Cache<Long, Map<Long, WalletRole>> accessLists;
+
+  public WalletAccessService(WalletRepository walletRepository, WalletAccessConfig config,
+                             MeterRegistry meterRegistry) {
+    this.walletRepository = walletRepository;
+    this.accessLists = Caffeine.newBuilder()
+        .maximumWeight(config.getCacheMaxEntries())
+        .weigher((Long userId, Map<Long, WalletRole> roles) -> roles.size() + 1)
+        .expireAfterWrite(config.getCacheTtl())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, accessLists, CACHE_NAME);
+  }
+
+  /**
+   * The role of the user on the wallet, {@link WalletRole#WRITE} for its owner, null without access.
+   */
+  public WalletRole getRole(Long walletId, Long userId) {
+    return getAccessList(userId).get(walletId);
+  }
+
+  public boolean canRead(Long walletId, Long userId) {
+    return getRole(walletId, userId) != null;
+  }
+
+  public boolean canWrite(Long walletId, Long userId) {
+    return getRole(walletId, userId) == WalletRole.WRITE;
+  }
+
+  /**
+   * @return the ids among {@code walletIds} the user can read
+   */
+  public Set<Long> filterReadable(Long userId, Collection<Long> walletIds) {
+    return filter(userId, walletIds, false);
+  }
+
+  /**
+   * @return the ids among {@code walletIds} the user can write to
+   */
+  public Set<Long> filterWritable(Long userId, Collection<Long> walletIds) {
+    return filter(userId, walletIds, true);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onAccessChanged(WalletAccessChangedEvent event) {
+    if (event.getUserId() != null) {
+      accessLists.invalidate(event.getUserId());
+      return;
+    }
+    // every user holding the wallet, only among the cached lists
+    var users = new HashSet<Long>();
+    accessLists.asMap().forEach((userId, roles) -> {
+      if (roles.containsKey(event.getWalletId())) {
+        users.add(userId);
+      }
+    });
+    accessLists.invalidateAll(users);
+    log.debug("Dropped the wallet access lists of {} users for wallet {}", users.size(), event.getWalletId());
+  }
+
+  private Set<Long> filter(Long userId, Collection<Long> walletIds, boolean write) {
+    if (walletIds.isEmpty()) {
+      return Set.of();
+    }
+    var roles = getAccessList(userId);
+    var allowed = new HashSet<Long>();
+    for (Long walletId : walletIds) {
+      var role = roles.get(walletId);
+      if (role != null && (!write || role == WalletRole.WRITE)) {
+        allowed.add(walletId);
+      }
+    }
+    return allowed;
+  }
+
+  private Map<Long, WalletRole> getAccessList(Long userId) {
+    return accessLists.get(userId, this::load);
+  }
+
+  private Map<Long, WalletRole> load(Long userId) {
+    var roles = new HashMap<Long, WalletRole>();
+    for (WalletAccess access : walletRepository.findAccessForUser(userId)) {
+      roles.put(access.walletId(), userId.equals(access.ownerId()) ? WalletRole.WRITE : access.role());
+    }
+    return Map.copyOf(roles);
+  }
+}
@@ -0,0 +1,119 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.WalletBalance;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.WalletBalanceRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Maintains the {@link WalletBalance} snapshot of each wallet.
+ * <p>
+ * Writers call in within their own transaction, so the snapshot commits or rolls back together
+ * with the ledger change. Adding transactions only moves the snapshot forward when one of them is
+ * newer than the current one, so back-dated imports leave it alone; the ledger is only read again
+ * when the transaction the snapshot points at goes away.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class WalletBalanceService {
+
+  /**
+   * Same order as {@link TransactionRepository#findFirstByWalletIdOrderByDateDescIdDesc}.
+   */
+  private static final Comparator<Transaction> LEDGER_ORDER =
+      Comparator.comparing(Transaction::getDate).thenComparingInt(Transaction::getId);
+
+  private final WalletBalanceRepository balanceRepository;
+  private final TransactionRepository transactionRepository;
+
+  public Double getCurrentBalance(Long walletId) {
+    return balanceRepository.findById(walletId)
+        .map(WalletBalance::getBalance)
+        .orElse(null);
+  }
+
+  @Transactional
+  public void createSnapshot(Long walletId) {
+    balanceRepository.save(WalletBalance.empty(walletId));
+  }
+
+  @Transactional
+  public void onTransactionsAdded(Long walletId, List<Transaction> added) {
+    if (added.isEmpty()) {
+      return;
+    }
+    var snapshot = balanceRepository.findForUpdate(walletId).orElse(null);
+    if (snapshot == null) {
+      // Wallet created before snapshots existed and not reconciled yet
+      snapshot = WalletBalance.empty(walletId);
+      snapshot.applyLatest(latestInLedger(walletId));
+      balanceRepository.save(snapshot);
+      return;
+    }
+
+    var latest = added.stream().max(LEDGER_ORDER).orElseThrow();
+    if (snapshot.isOlderThan(latest)) {
+      snapshot.applyLatest(latest);
+      balanceRepository.save(snapshot);
+    }
+  }
+
+  /**
+   * Takes the lock writers hold on the wallets, in wallet id order, for changes that must read rows
+   * of those wallets before applying their deltas.
+   */
+  @Transactional
+  public void lockWallets(Collection<Long> walletIds) {
+    walletIds.stream().distinct().sorted().forEach(balanceRepository::findForUpdate);
+  }
+
+  @Transactional
+  public void onTransactionRemoved(Long walletId, int transactionId) {
+    var snapshot = balanceRepository.findForUpdate(walletId).orElse(null);
+    if (snapshot != null && Integer.valueOf(transactionId).equals(snapshot.getLastTransactionId())) {
+      snapshot.applyLatest(latestInLedger(walletId));
+      balanceRepository.save(snapshot);
+    }
+  }
+
+  @Transactional
+  public void deleteSnapshot(Long walletId) {
+    balanceRepository.deleteById(walletId);
+  }
+
+  /**
+   * Checks the snapshot against the ledger and repairs it if needed.
+   *
+   * @return true when the snapshot was missing or wrong
+   */
+  @Transactional
+  public boolean reconcile(Long walletId) {
+    var snapshot = balanceRepository.findForUpdate(walletId).orElse(null);
+    var latest = latestInLedger(walletId);
+    if (snapshot != null && snapshot.matches(latest)) {
+      return false;
+    }
+    log.warn("Wallet {} balance snapshot was {}, ledger says {} as of {}", walletId,
+        snapshot == null ? "missing" : snapshot.getBalance(),
+        latest == null ? null : latest.getCurrentBalance(), latest == null ? null : latest.getDate());
+    if (snapshot == null) {
+      snapshot = WalletBalance.empty(walletId);
+    }
+    snapshot.applyLatest(latest);
+    balanceRepository.save(snapshot);
+    return true;
+  }
+
+  private Transaction latestInLedger(Long walletId) {
+    return transactionRepository.findFirstByWalletIdOrderByDateDescIdDesc(walletId).orElse(null);
+  }
+}
@@ -0,0 +1,113 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.config.WalletPurgeConfig;
+import gse.home.personalmanager.accounting.infrastructure.repository.WalletPurgeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Removes the rows of deleted wallets: links from other transactions, transactions, rollups,
+ * permissions, then the balance snapshot and the wallet itself. Each step deletes bounded chunks,
+ * each in its own transaction, until nothing is left, so a wallet with years of history never
+ * holds a long transaction.
+ * <p>
+ * Progress is counted in {@code accounting.wallet.purge.rows} tagged by table, and
+ * {@code accounting.wallet.purge.pending} gauges the wallets waiting to be purged. A purge stopped
+ * by a restart resumes where it was, as the deleted wallets are read back from the database.
+ */
+@Slf4j
+@Service
+public class WalletPurgeService {
+
+  static final String ROWS_METRIC = "accounting.wallet.purge.rows";
+  static final String PENDING_METRIC = "accounting.wallet.purge.pending";
+  static final String FAILURES_METRIC = "accounting.wallet.purge.failures";
+
+  private final WalletPurgeRepository purgeRepository;
+  private final WalletPurgeConfig config;
+  private final MeterRegistry meterRegistry;
+  private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+  private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+  public WalletPurgeService(WalletPurgeRepository purgeRepository, WalletPurgeConfig config,
+                            MeterRegistry meterRegistry) {
+    this.purgeRepository = purgeRepository;
+    this.config = config;
+    this.meterRegistry = meterRegistry;
+    meterRegistry.gaugeCollectionSize(PENDING_METRIC, List.of(), pending);
+  }
+
+  /**
+   * Purges every wallet deleted so far.
+   *
+   * @return the number of wallets purged
+   */
+  public int purgeDeleted() {
+    var walletIds = purgeRepository.findDeletedWalletIds();
+    pending.addAll(walletIds);
+    int purged = 0;
+    for (Long walletId : walletIds) {
+      try {
+        if (purge(walletId)) {
+          purged++;
+        }
+      } catch (RuntimeException e) {
+        // left marked deleted, the next run starts over from the remaining rows
+        meterRegistry.counter(FAILURES_METRIC).increment();
+        log.error("Could not purge deleted wallet {}", walletId, e);
+      }
+    }
+    return purged;
+  }
+
+  /**
+   * Purges one deleted wallet.
+   *
+   * @return false when the wallet is already being purged by another thread
+   */
+  public boolean purge(Long walletId) {
+    if (!running.add(walletId)) {
+      return false;
+    }
+    pending.add(walletId);
+    try {
+      long start = System.nanoTime();
+      long unlinked = inChunks(walletId, "related_links",
+          limit -> purgeRepository.unlinkRelatedTransactions(walletId, limit));
+      long transactions = inChunks(walletId, "transactions",
+          limit -> purgeRepository.deleteTransactions(walletId, limit));
+      long rollups = inChunks(walletId, "rollups", limit -> purgeRepository.deleteRollups(walletId, limit));
+      long permissions = inChunks(walletId, "permissions",
+          limit -> purgeRepository.deletePermissions(walletId, limit));
+      purgeRepository.deleteWallet(walletId);
+      pending.remove(walletId);
+      log.info("Purged deleted wallet {} in {} ms: {} transactions, {} rollups, {} permissions, {} links unlinked",
+          walletId, (System.nanoTime() - start) / 1_000_000, transactions, rollups, permissions, unlinked);
+      return true;
+    } finally {
+      running.remove(walletId);
+    }
+  }
+
+  private long inChunks(Long walletId, String table, IntUnaryOperator deleteChunk) {
+    int chunkSize = config.getChunkSize();
+    var counter = meterRegistry.counter(ROWS_METRIC, "table", table);
+    long total = 0;
+    int removed;
+    do {
+      removed = deleteChunk.applyAsInt(chunkSize);
+      total += removed;
+      counter.increment(removed);
+      if (removed > 0) {
+        log.debug("Purging wallet {}: {} {} removed so far", walletId, total, table);
+      }
+    } while (removed >= chunkSize);
+    return total;
+  }
+}
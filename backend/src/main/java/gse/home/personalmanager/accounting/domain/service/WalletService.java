@@ -1,9 +1,11 @@
 package gse.home.personalmanager.accounting.domain.service;
 
+import gse.home.personalmanager.accounting.domain.event.WalletAccessChangedEvent;
+import gse.home.personalmanager.accounting.domain.event.WalletDeletedEvent;
 import gse.home.personalmanager.accounting.domain.model.Wallet;
 import gse.home.personalmanager.accounting.domain.model.WalletPermission;
 import gse.home.personalmanager.accounting.domain.model.WalletRole;
-import gse.home.personalmanager.accounting.infrastructure.repository.TransactionRepository;
+import gse.home.personalmanager.accounting.domain.model.WalletView;
 import gse.home.personalmanager.accounting.infrastructure.repository.WalletPermissionRepository;
 import gse.home.personalmanager.accounting.infrastructure.repository.WalletRepository;
 import gse.home.personalmanager.core.exception.ConflictException;
@@ -14,10 +16,13 @@ import gse.home.personalmanager.user.domain.model.Tenant;
 import gse.home.personalmanager.user.infrastructure.repository.TenantRepository;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Domain service layer - handles business rules for wallet management
@@ -30,7 +35,9 @@ public class WalletService {
     private final WalletRepository walletRepository;
     private final WalletPermissionRepository permissionRepository;
     private final TenantRepository tenantRepository;
-    private final TransactionRepository transactionRepository;
+    private final WalletBalanceService walletBalanceService;
+    private final WalletAccessService accessService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Creates a new wallet with the given owner
@@ -48,7 +55,10 @@ public class WalletService {
             wallet.setTenant(tenant);
         }
         
-        return walletRepository.save(wallet);
+        Wallet saved = walletRepository.save(wallet);
+        walletBalanceService.createSnapshot(saved.getId());
+        eventPublisher.publishEvent(new WalletAccessChangedEvent(this, saved.getId(), owner.getId()));
+        return saved;
     }
 
     /**
@@ -80,6 +90,8 @@ public class WalletService {
     /**
      * Deletes a wallet
      * Business rule: Only the owner can delete the wallet
+     * The wallet is marked deleted, which hides it and its rows at once; they are removed in the
+     * background by WalletPurgeService once this transaction commits.
      */
     @Transactional
     public void deleteWallet(Long walletId, AppUser currentUser) {
@@ -88,12 +100,10 @@ public class WalletService {
         
         validateOwnership(wallet, currentUser);
         
-        // Delete all permissions associated with this wallet (single query)
-
-        transactionRepository.deleteAllByWallet(wallet);
-        permissionRepository.deleteAllByWallet(wallet);
-        
-        walletRepository.delete(wallet);
+        wallet.setDeletedAt(System.currentTimeMillis());
+        walletRepository.save(wallet);
+        eventPublisher.publishEvent(new WalletDeletedEvent(this, walletId));
+        eventPublisher.publishEvent(new WalletAccessChangedEvent(this, walletId, null));
     }
 
     /**
@@ -115,6 +125,29 @@ public class WalletService {
                 .toList();
     }
 
+    /**
+     * Wallets owned by or shared with the user, with their balance and the user's role, in a
+     * single statement
+     */
+    public List<WalletView> getWalletViewsForUser(Long userId) {
+        return walletRepository.findWalletViewsForUser(userId);
+    }
+
+    /**
+     * Wallets of a tenant the user can read, with their balance and the user's role, in a single
+     * statement plus the user's cached access list
+     */
+    public List<WalletView> getWalletViewsForTenant(Long tenantId, Long userId) {
+        if (!tenantRepository.existsById(tenantId)) {
+            throw new ResourceNotFoundException("Tenant", tenantId);
+        }
+        List<WalletView> wallets = walletRepository.findWalletViewsForTenant(tenantId, userId);
+        Set<Long> readable = filterReadable(userId, wallets.stream().map(WalletView::id).toList());
+        return wallets.stream()
+                .filter(wallet -> readable.contains(wallet.id()))
+                .toList();
+    }
+
     /**
      * Retrieves all wallets for a tenant
      */
@@ -146,7 +179,9 @@ public class WalletService {
         permission.setUser(targetUser);
         permission.setRole(role);
         
-        return permissionRepository.save(permission);
+        WalletPermission saved = permissionRepository.save(permission);
+        eventPublisher.publishEvent(new WalletAccessChangedEvent(this, walletId, targetUser.getId()));
+        return saved;
     }
 
     /**
@@ -164,7 +199,9 @@ public class WalletService {
                 .orElseThrow(() -> new ResourceNotFoundException("Permission not found for this user on this wallet"));
         
         permission.setRole(role);
-        return permissionRepository.save(permission);
+        WalletPermission saved = permissionRepository.save(permission);
+        eventPublisher.publishEvent(new WalletAccessChangedEvent(this, walletId, targetUser.getId()));
+        return saved;
     }
 
     /**
@@ -179,6 +216,7 @@ public class WalletService {
         validateOwnership(wallet, currentUser);
         
         permissionRepository.deleteByWalletAndUser(wallet, targetUser);
+        eventPublisher.publishEvent(new WalletAccessChangedEvent(this, walletId, targetUser.getId()));
     }
 
     /**
@@ -195,31 +233,36 @@ public class WalletService {
     }
 
     /**
-     * Checks if the user has write access to the wallet
+     * Checks if the user has write access to the wallet (owner or WRITE permission), from the user's
+     * cached access list. Deleted wallets are not in the list.
      */
-    public boolean hasWriteAccess(Wallet wallet, AppUser user) {
-        // Owner always has write access
-        if (wallet.getOwner().getId().equals(user.getId())) {
-            return true;
-        }
-        
-        // Check if user has WRITE permission
-        return permissionRepository.findByWalletAndUser(wallet, user)
-                .map(permission -> WalletRole.WRITE.equals(permission.getRole()))
-                .orElse(false);
+    public boolean hasWriteAccess(Long walletId, Long userId) {
+        return accessService.canWrite(walletId, userId);
     }
 
     /**
-     * Checks if the user has read access to the wallet
+     * Ids among {@code walletIds} the user can write to (owner or WRITE permission), from the user's
+     * cached access list
      */
-    public boolean hasReadAccess(Wallet wallet, AppUser user) {
-        // Owner always has read access
-        if (wallet.getOwner().getId().equals(user.getId())) {
-            return true;
-        }
-        
-        // Check if user has any permission (READ or WRITE)
-        return permissionRepository.findByWalletAndUser(wallet, user).isPresent();
+    public Set<Long> getWritableWalletIds(Collection<Long> walletIds, Long userId) {
+        return accessService.filterWritable(userId, walletIds);
+    }
+
+    /**
+     * Checks if the user has read access to the wallet (owner, READ or WRITE permission), from the
+     * user's cached access list
+     */
+    public boolean hasReadAccess(Long walletId, Long userId) {
+        return accessService.canRead(walletId, userId);
+    }
+
+    /**
+     * Same check as {@link #hasReadAccess} for many wallets at once, for list endpoints.
+     *
+     * @return the ids among {@code walletIds} the user can read
+     */
+    public Set<Long> filterReadable(Long userId, Collection<Long> walletIds) {
+        return accessService.filterReadable(userId, walletIds);
     }
 
     /**
@@ -232,13 +275,10 @@ public class WalletService {
     }
 
     /**
-     * Gets the current balance for a wallet.
-     * The balance is retrieved from the most recent transaction's currentBalance field.
-     * Returns null if there are no transactions for the wallet.
+     * Gets the current balance for a wallet from its balance snapshot, without reading
+     * the transactions. Returns null if there are no transactions for the wallet.
      */
     public Double getCurrentBalance(Long walletId) {
-        return transactionRepository.findFirstByWalletIdOrderByDateDescIdDesc(walletId)
-                .map(transaction -> transaction.getCurrentBalance())
-                .orElse(null);
+        return walletBalanceService.getCurrentBalance(walletId);
     }
 }
@@ -0,0 +1,218 @@
+package gse.home.personalmanager.accounting.domain.service.categorization;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Aho-Corasick automaton over a fixed set of keywords, compiled into a dense transition table so
+ * that scanning a label costs one array read per character whatever the number of keywords.
+ * <p>
+ * Text and keywords are folded the same way: letters and digits are lower-cased, anything else is
+ * a separator and a run of separators counts as one space. The text is scanned as if it were
+ * surrounded by separators, so a keyword padded with a space on each side only matches whole words.
+ */
+public final class AhoCorasickMatcher {
+
+  private static final char SEPARATOR = ' ';
+  private static final int ROOT = 0;
+  /**
+   * Class of the characters that appear in no keyword; they always lead back to the root.
+   */
+  private static final int OTHER_CLASS = 0;
+  private static final int SEPARATOR_CLASS = 1;
+  private static final int[] NO_VALUES = new int[0];
+
+  private final int[] asciiClasses = new int[128];
+  private final Map<Character, Integer> otherClasses = new HashMap<>();
+  private final int alphabetSize;
+  private final int[] transitions;
+  /**
+   * Values of the keywords ending at each state, including through its failure links, ascending.
+   */
+  private final int[][] outputs;
+
+  /**
+   * @param keywords keywords as returned by {@link #normalize}, optionally padded with a space on each side
+   * @param values   value reported for each keyword; several keywords may share one
+   */
+  public AhoCorasickMatcher(List<String> keywords, int[] values) {
+    Map<Character, Integer> classes = new HashMap<>();
+    for (var keyword : keywords) {
+      for (int i = 0; i < keyword.length(); i++) {
+        char c = keyword.charAt(i);
+        if (c != SEPARATOR) {
+          classes.putIfAbsent(c, classes.size() + 2);
+        }
+      }
+    }
+    alphabetSize = classes.size() + 2;
+    for (char c = 0; c < 128; c++) {
+      asciiClasses[c] = Character.isLetterOrDigit(c)
+          ? classes.getOrDefault(Character.toLowerCase(c), OTHER_CLASS) : SEPARATOR_CLASS;
+    }
+    classes.forEach((c, cls) -> {
+      if (c >= 128) {
+        otherClasses.put(c, cls);
+      }
+    });
+
+    // trie, state 0 being the root; 0 also marks a missing child since the root is nobody's child
+    List<int[]> rows = new ArrayList<>();
+    List<List<Integer>> ownValues = new ArrayList<>();
+    rows.add(new int[alphabetSize]);
+    ownValues.add(new ArrayList<>());
+    for (int k = 0; k < keywords.size(); k++) {
+      var keyword = keywords.get(k);
+      if (keyword.isBlank()) {
+        continue;
+      }
+      int state = ROOT;
+      for (int i = 0; i < keyword.length(); i++) {
+        int cls = classOf(keyword.charAt(i));
+        int next = rows.get(state)[cls];
+        if (next == ROOT) {
+          next = rows.size();
+          rows.add(new int[alphabetSize]);
+          ownValues.add(new ArrayList<>());
+          rows.get(state)[cls] = next;
+        }
+        state = next;
+      }
+      ownValues.get(state).add(values[k]);
+    }
+
+    // breadth first, so the failure state of a node is complete before the node itself
+    int states = rows.size();
+    int[] fail = new int[states];
+    outputs = new int[states][];
+    outputs[ROOT] = NO_VALUES;
+    var queue = new ArrayDeque<Integer>();
+    for (int cls = 0; cls < alphabetSize; cls++) {
+      int child = rows.get(ROOT)[cls];
+      if (child != ROOT) {
+        queue.add(child);
+      }
+    }
+    while (!queue.isEmpty()) {
+      int state = queue.poll();
+      outputs[state] = merge(ownValues.get(state), outputs[fail[state]]);
+      int[] row = rows.get(state);
+      int[] failRow = rows.get(fail[state]);
+      for (int cls = 0; cls < alphabetSize; cls++) {
+        if (row[cls] != ROOT) {
+          fail[row[cls]] = failRow[cls];
+          queue.add(row[cls]);
+        } else {
+          row[cls] = failRow[cls];
+        }
+      }
+    }
+
+    transitions = new int[states * alphabetSize];
+    for (int state = 0; state < states; state++) {
+      System.arraycopy(rows.get(state), 0, transitions, state * alphabetSize, alphabetSize);
+    }
+  }
+
+  /**
+   * Folds a keyword the way labels are folded while scanning, without the surrounding separators.
+   */
+  public static String normalize(String keyword) {
+    var folded = new StringBuilder(keyword.length());
+    boolean separated = true;
+    for (int i = 0; i < keyword.length(); i++) {
+      char c = keyword.charAt(i);
+      if (Character.isLetterOrDigit(c)) {
+        folded.append(Character.toLowerCase(c));
+        separated = false;
+      } else if (!separated) {
+        folded.append(SEPARATOR);
+        separated = true;
+      }
+    }
+    return folded.toString().strip();
+  }
+
+  /**
+   * Smallest value below {@code bound} of a keyword found in {@code text} that {@code accept} allows.
+   *
+   * @return that value, or {@code bound} when there is none
+   */
+  public int best(CharSequence text, int bound, IntPredicate accept) {
+    int best = bound;
+    int state = transitions[SEPARATOR_CLASS];
+    boolean separated = true;
+    for (int i = 0, length = text.length(); i < length; i++) {
+      char c = text.charAt(i);
+      int cls = c < 128 ? asciiClasses[c] : foreignClass(c);
+      if (cls == SEPARATOR_CLASS) {
+        if (separated) {
+          continue;
+        }
+        separated = true;
+      } else {
+        separated = false;
+      }
+      state = transitions[state * alphabetSize + cls];
+      best = bestOutput(state, best, accept);
+    }
+    if (!separated) {
+      state = transitions[state * alphabetSize + SEPARATOR_CLASS];
+      best = bestOutput(state, best, accept);
+    }
+    return best;
+  }
+
+  /**
+   * Approximate heap size of the automaton in bytes.
+   */
+  public long estimatedSize() {
+    long size = 4L * transitions.length + 4L * asciiClasses.length + 64L * otherClasses.size();
+    for (int[] values : outputs) {
+      size += 16 + 4L * values.length;
+    }
+    return size;
+  }
+
+  private int bestOutput(int state, int best, IntPredicate accept) {
+    for (int value : outputs[state]) {
+      if (value >= best) {
+        break;
+      }
+      if (accept.test(value)) {
+        return value;
+      }
+    }
+    return best;
+  }
+
+  private int classOf(char c) {
+    return c == SEPARATOR ? SEPARATOR_CLASS : c < 128 ? asciiClasses[c] : otherClasses.get(c);
+  }
+
+  private int foreignClass(char c) {
+    if (!Character.isLetterOrDigit(c)) {
+      return SEPARATOR_CLASS;
+    }
+    var cls = otherClasses.get(Character.toLowerCase(c));
+    return cls == null ? OTHER_CLASS : cls;
+  }
+
+  private static int[] merge(List<Integer> own, int[] inherited) {
+    if (own.isEmpty()) {
+      return inherited;
+    }
+    var merged = new int[own.size() + inherited.length];
+    for (int i = 0; i < own.size(); i++) {
+      merged[i] = own.get(i);
+    }
+    System.arraycopy(inherited, 0, merged, own.size(), inherited.length);
+    Arrays.sort(merged);
+    return Arrays.stream(merged).distinct().toArray();
+  }
+}
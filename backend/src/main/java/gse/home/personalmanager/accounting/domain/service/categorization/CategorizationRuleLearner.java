@@ -0,0 +1,98 @@
+package gse.home.personalmanager.accounting.domain.service.categorization;
+
+import gse.home.personalmanager.accounting.domain.model.LabelCategoryCount;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Derives keyword rules from categorized transactions.
+ * <p>
+ * Each import label is reduced to a merchant key: its first significant word, plus the word right
+ * after it when that one is significant too. Bank noise such as "CB", "PRLV SEPA", dates and
+ * references is dropped. A key becomes a rule for its most frequent category when that category
+ * holds at least {@code minSupport} transactions and {@code minConfidence} of the key's total.
+ */
+public final class CategorizationRuleLearner {
+
+  private static final int MIN_WORD_LENGTH = 3;
+  private static final Set<String> NOISE = Set.of(
+      "achat", "card", "carte", "cheque", "dab", "des", "emis", "fact", "facture", "from", "inst", "les",
+      "paiement", "par", "payment", "pos", "pour", "prelevement", "prlv", "purchase", "recu", "ref", "retrait",
+      "sepa", "the", "transfer", "vir", "virement");
+
+  /**
+   * A keyword to categorize as {@code categoryId}, backed by {@code support} transactions.
+   */
+  public record LearnedKeyword(String keyword, int categoryId, long support) {
+  }
+
+  private CategorizationRuleLearner() {
+  }
+
+  /**
+   * @return the learned keywords, best supported first, at most {@code maxRules}
+   */
+  public static List<LearnedKeyword> learn(List<LabelCategoryCount> counts, long minSupport, double minConfidence,
+                                           int maxRules) {
+    Map<String, Map<Integer, Long>> countsByKey = new HashMap<>();
+    for (var count : counts) {
+      var key = merchantKey(count.label());
+      if (key != null && count.categoryId() != null) {
+        countsByKey.computeIfAbsent(key, k -> new HashMap<>()).merge(count.categoryId(), count.count(), Long::sum);
+      }
+    }
+
+    var learned = new ArrayList<LearnedKeyword>();
+    countsByKey.forEach((key, byCategory) -> {
+      long total = 0;
+      Map.Entry<Integer, Long> top = null;
+      for (var entry : byCategory.entrySet()) {
+        total += entry.getValue();
+        if (top == null || entry.getValue() > top.getValue()
+            || (entry.getValue().equals(top.getValue()) && entry.getKey() < top.getKey())) {
+          top = entry;
+        }
+      }
+      if (top.getValue() >= minSupport && top.getValue() >= minConfidence * total) {
+        learned.add(new LearnedKeyword(key, top.getKey(), top.getValue()));
+      }
+    });
+    learned.sort(Comparator.comparingLong(LearnedKeyword::support).reversed()
+        .thenComparing(LearnedKeyword::keyword));
+    return learned.size() > maxRules ? learned.subList(0, maxRules) : learned;
+  }
+
+  /**
+   * Merchant part of an import label, folded like {@link AhoCorasickMatcher#normalize}, or null when
+   * the label has no significant word.
+   */
+  public static String merchantKey(String label) {
+    if (label == null) {
+      return null;
+    }
+    var words = AhoCorasickMatcher.normalize(label).split(" ");
+    for (int i = 0; i < words.length; i++) {
+      if (isSignificant(words[i])) {
+        return i + 1 < words.length && isSignificant(words[i + 1]) ? words[i] + " " + words[i + 1] : words[i];
+      }
+    }
+    return null;
+  }
+
+  private static boolean isSignificant(String word) {
+    if (word.length() < MIN_WORD_LENGTH || NOISE.contains(word)) {
+      return false;
+    }
+    for (int i = 0; i < word.length(); i++) {
+      if (!Character.isLetter(word.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
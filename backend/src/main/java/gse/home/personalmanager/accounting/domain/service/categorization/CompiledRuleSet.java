@@ -0,0 +1,164 @@
+package gse.home.personalmanager.accounting.domain.service.categorization;
+
+import gse.home.personalmanager.accounting.domain.model.CategorizationRule;
+import gse.home.personalmanager.accounting.domain.model.CategorizationRuleType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The enabled rules of a user, ready to categorize labels without touching the database.
+ * <p>
+ * Rules are ranked once, in the order in which they win: the user's own rules before learned ones,
+ * then by priority, then longest keyword first. All keywords go into one {@link AhoCorasickMatcher}
+ * reporting ranks, so a label is scanned once whatever the number of keyword rules; regular
+ * expressions and amount ranges are only tried while they could still beat the best keyword match.
+ * <p>
+ * The regular expressions of a label share a time budget: patterns still running when it is spent,
+ * and those not tried yet, count as not matching, so a catastrophically backtracking pattern cannot
+ * hold the categorization executor.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class CompiledRuleSet {
+
+  private static final int NO_MATCH = Integer.MAX_VALUE;
+  private static final Comparator<CategorizationRule> RANKING = Comparator
+      .comparing(CategorizationRule::isLearned)
+      .thenComparingInt(CategorizationRule::getPriority)
+      .thenComparing(rule -> rule.getPattern() == null ? 0 : -rule.getPattern().length())
+      .thenComparing(CategorizationRule::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+  public static final Duration DEFAULT_REGEX_BUDGET = Duration.ofMillis(50);
+  public static final CompiledRuleSet EMPTY = compile(List.of());
+
+  private final int[] categoryIds;
+  private final double[] minAmounts;
+  private final double[] maxAmounts;
+  private final AhoCorasickMatcher keywords;
+  /**
+   * Ranks of the regex and amount range rules, ascending, and their pattern (null for a range).
+   */
+  private final int[] scanRanks;
+  private final Pattern[] scanPatterns;
+  private final long regexBudgetNanos;
+
+  private CompiledRuleSet(List<CategorizationRule> ranked, Pattern[] patterns, Duration regexBudget) {
+    regexBudgetNanos = regexBudget.toNanos();
+    int size = ranked.size();
+    categoryIds = new int[size];
+    minAmounts = new double[size];
+    maxAmounts = new double[size];
+    var keywordList = new ArrayList<String>();
+    var keywordRanks = new ArrayList<Integer>();
+    var scans = new ArrayList<Integer>();
+    for (int rank = 0; rank < size; rank++) {
+      var rule = ranked.get(rank);
+      categoryIds[rank] = rule.getCategory().getId();
+      minAmounts[rank] = rule.getMinAmount() == null ? Double.NEGATIVE_INFINITY : rule.getMinAmount();
+      maxAmounts[rank] = rule.getMaxAmount() == null ? Double.POSITIVE_INFINITY : rule.getMaxAmount();
+      if (rule.getType() == CategorizationRuleType.KEYWORD) {
+        var keyword = AhoCorasickMatcher.normalize(rule.getPattern());
+        keywordList.add(rule.isLearned() ? " " + keyword + " " : keyword);
+        keywordRanks.add(rank);
+      } else {
+        scans.add(rank);
+      }
+    }
+    keywords = new AhoCorasickMatcher(keywordList, keywordRanks.stream().mapToInt(Integer::intValue).toArray());
+    scanRanks = scans.stream().mapToInt(Integer::intValue).toArray();
+    scanPatterns = new Pattern[scanRanks.length];
+    for (int i = 0; i < scanRanks.length; i++) {
+      scanPatterns[i] = patterns[scanRanks[i]];
+    }
+  }
+
+  public static CompiledRuleSet compile(List<CategorizationRule> rules) {
+    return compile(rules, DEFAULT_REGEX_BUDGET);
+  }
+
+  /**
+   * Compiles the given rules, skipping disabled ones and keywords that fold to nothing.
+   *
+   * @param regexBudget time the regular expressions may spend on one label
+   * @throws java.util.regex.PatternSyntaxException when a regular expression is invalid
+   */
+  public static CompiledRuleSet compile(List<CategorizationRule> rules, Duration regexBudget) {
+    var ranked = rules.stream()
+        .filter(CategorizationRule::isEnabled)
+        .filter(rule -> rule.getType() != CategorizationRuleType.KEYWORD
+            || (rule.getPattern() != null && !AhoCorasickMatcher.normalize(rule.getPattern()).isEmpty()))
+        .filter(rule -> rule.getType() != CategorizationRuleType.REGEX || rule.getPattern() != null)
+        .sorted(RANKING)
+        .toList();
+    var patterns = new Pattern[ranked.size()];
+    for (int rank = 0; rank < ranked.size(); rank++) {
+      var rule = ranked.get(rank);
+      if (rule.getType() == CategorizationRuleType.REGEX) {
+        patterns[rank] = compileRegex(rule.getPattern());
+      }
+    }
+    return new CompiledRuleSet(ranked, patterns, regexBudget);
+  }
+
+  public static Pattern compileRegex(String regex) {
+    return Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+  }
+
+  /**
+   * Category of the first rule matching the transaction, or null when none does.
+   */
+  public Integer categorize(String label, Double amount) {
+    if (categoryIds.length == 0) {
+      return null;
+    }
+    double value = amount == null ? Double.NaN : amount;
+    int best = label == null ? NO_MATCH : keywords.best(label, NO_MATCH, rank -> inRange(rank, value));
+    DeadlineCharSequence text = null;
+    boolean expired = false;
+    for (int i = 0; i < scanRanks.length && scanRanks[i] < best; i++) {
+      int rank = scanRanks[i];
+      var pattern = scanPatterns[i];
+      if (!inRange(rank, value)) {
+        continue;
+      }
+      if (pattern == null) {
+        best = rank;
+      } else if (label != null && !expired) {
+        if (text == null) {
+          text = new DeadlineCharSequence(label, System.nanoTime() + regexBudgetNanos);
+        }
+        try {
+          if (pattern.matcher(text).find()) {
+            best = rank;
+          }
+        } catch (DeadlineCharSequence.Expired e) {
+          // the budget is spent: this pattern and the remaining ones count as not matching
+          expired = true;
+        }
+      }
+    }
+    return best == NO_MATCH ? null : categoryIds[best];
+  }
+
+  public boolean isEmpty() {
+    return categoryIds.length == 0;
+  }
+
+  /**
+   * Approximate heap size in bytes, used to bound the cache of compiled rule sets.
+   */
+  public long estimatedSize() {
+    return keywords.estimatedSize() + 20L * categoryIds.length + 256L * scanPatterns.length;
+  }
+
+  private boolean inRange(int rank, double amount) {
+    if (minAmounts[rank] == Double.NEGATIVE_INFINITY && maxAmounts[rank] == Double.POSITIVE_INFINITY) {
+      return true;
+    }
+    // a missing amount is NaN and fails both comparisons
+    return amount >= minAmounts[rank] && amount <= maxAmounts[rank];
+  }
+}
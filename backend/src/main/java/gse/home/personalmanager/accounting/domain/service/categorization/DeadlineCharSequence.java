@@ -0,0 +1,58 @@
+package gse.home.personalmanager.accounting.domain.service.categorization;
+
+/**
+ * A label handed to user regular expressions that stops them once a deadline has passed. The regex
+ * engine reads the input through {@link #charAt} only, so a catastrophically backtracking pattern
+ * gets an {@link Expired} after its time budget instead of holding an executor thread. The clock is
+ * read every {@value #CHECK_INTERVAL} characters read, which keeps the overhead out of the match loop.
+ */
+final class DeadlineCharSequence implements CharSequence {
+
+  private static final int CHECK_INTERVAL = 1024;
+
+  private final CharSequence text;
+  private final long deadlineNanos;
+  private int reads;
+
+  DeadlineCharSequence(CharSequence text, long deadlineNanos) {
+    this.text = text;
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  @Override
+  public char charAt(int index) {
+    if (++reads == CHECK_INTERVAL) {
+      reads = 0;
+      if (System.nanoTime() - deadlineNanos > 0) {
+        throw new Expired();
+      }
+    }
+    return text.charAt(index);
+  }
+
+  @Override
+  public int length() {
+    return text.length();
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    return new DeadlineCharSequence(text.subSequence(start, end), deadlineNanos);
+  }
+
+  @Override
+  public String toString() {
+    return text.toString();
+  }
+
+  /**
+   * The deadline passed while a pattern was reading the label. Carries no stack trace, it is
+   * expected and thrown from deep inside the regex engine.
+   */
+  static final class Expired extends RuntimeException {
+
+    Expired() {
+      super("Regular expression ran past its time budget", null, false, false);
+    }
+  }
+}
@@ -0,0 +1,388 @@
+package gse.home.personalmanager.accounting.domain.service.columnar;
+
+import gse.home.personalmanager.accounting.domain.model.AccountingRollup;
+import gse.home.personalmanager.accounting.domain.model.TransactionColumnRow;
+import gse.home.personalmanager.accounting.domain.model.TransactionTotals;
+import gse.home.personalmanager.accounting.domain.model.TransactionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The transactions of one wallet as primitive columns sorted by (day, id): epoch day, id, amount
+ * in cents, category and user as indexes into small tables of ids, and the type as two bitsets.
+ * A date range is found with two binary searches and summed in a loop over arrays, a few hundred
+ * microseconds for 100k transactions.
+ * <p>
+ * Instances are immutable: patches return a copy, so summaries read them without locking. Counts
+ * and totals follow the rollups: only credits and debits count, and the expense is positive.
+ */
+public final class WalletColumns {
+
+  private static final int NONE = AccountingRollup.NONE;
+
+  private static final Comparator<TransactionColumnRow> ORDER = Comparator.comparingInt(TransactionColumnRow::day)
+      .thenComparingInt(TransactionColumnRow::id);
+
+  private final int size;
+  private final int[] days;
+  private final int[] ids;
+  private final long[] cents;
+  private final short[] categories;
+  private final short[] users;
+  private final long[] credits;
+  private final long[] debits;
+  private final int[] categoryIds;
+  private final long[] userIds;
+
+  private WalletColumns(int size, int[] days, int[] ids, long[] cents, short[] categories, short[] users,
+                        long[] credits, long[] debits, int[] categoryIds, long[] userIds) {
+    this.size = size;
+    this.days = days;
+    this.ids = ids;
+    this.cents = cents;
+    this.categories = categories;
+    this.users = users;
+    this.credits = credits;
+    this.debits = debits;
+    this.categoryIds = categoryIds;
+    this.userIds = userIds;
+  }
+
+  /**
+   * Columns filled from rows given in (day, id) order.
+   */
+  public static Builder builder() {
+    return new Builder(1024, new int[] { NONE }, new long[] { NONE });
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Heap taken by the columns, in bytes.
+   */
+  public long estimatedSize() {
+    return 128 + 4L * days.length + 4L * ids.length + 8L * cents.length + 2L * categories.length
+        + 2L * users.length + 8L * (credits.length + debits.length) + 4L * categoryIds.length + 8L * userIds.length;
+  }
+
+  /**
+   * Totals of the transactions of a user from {@code fromDay} to {@code toDay} included.
+   */
+  public TransactionTotals sum(int fromDay, int toDay, long userId) {
+    int user = indexOf(userIds, userId);
+    long income = 0;
+    long expense = 0;
+    long count = 0;
+    if (user >= 0) {
+      int end = lowerBound(toDay + 1, Integer.MIN_VALUE);
+      for (int i = lowerBound(fromDay, Integer.MIN_VALUE); i < end; i++) {
+        if (users[i] != user) {
+          continue;
+        }
+        if (isSet(credits, i)) {
+          income += cents[i];
+          count++;
+        } else if (isSet(debits, i)) {
+          expense += Math.abs(cents[i]);
+          count++;
+        }
+      }
+    }
+    return new TransactionTotals(income / 100.0, expense / 100.0, count);
+  }
+
+  /**
+   * Same as {@link #sum} per category, for the categories with at least one transaction.
+   */
+  public List<CategorySum> sumByCategory(int fromDay, int toDay, long userId) {
+    int user = indexOf(userIds, userId);
+    if (user < 0) {
+      return List.of();
+    }
+    long[] income = new long[categoryIds.length];
+    long[] expense = new long[categoryIds.length];
+    long[] count = new long[categoryIds.length];
+    int end = lowerBound(toDay + 1, Integer.MIN_VALUE);
+    for (int i = lowerBound(fromDay, Integer.MIN_VALUE); i < end; i++) {
+      if (users[i] != user) {
+        continue;
+      }
+      int category = categories[i];
+      if (isSet(credits, i)) {
+        income[category] += cents[i];
+        count[category]++;
+      } else if (isSet(debits, i)) {
+        expense[category] += Math.abs(cents[i]);
+        count[category]++;
+      }
+    }
+    var sums = new ArrayList<CategorySum>();
+    for (int category = 0; category < categoryIds.length; category++) {
+      if (count[category] > 0) {
+        sums.add(new CategorySum(categoryIds[category], income[category] / 100.0, expense[category] / 100.0,
+            count[category]));
+      }
+    }
+    return sums;
+  }
+
+  /**
+   * Adds rows, skipping those already present, so a patch can be applied twice.
+   */
+  public WalletColumns withAdded(Collection<TransactionColumnRow> rows) {
+    var added = new ArrayList<TransactionColumnRow>(rows.size());
+    for (var row : rows) {
+      if (row != null && find(row.day(), row.id()) < 0) {
+        added.add(row);
+      }
+    }
+    if (added.isEmpty()) {
+      return this;
+    }
+    added.sort(ORDER);
+    var builder = new Builder(size + added.size(), categoryIds, userIds);
+    int i = 0;
+    int j = 0;
+    while (i < size || j < added.size()) {
+      if (j == added.size() || (i < size && compare(i, added.get(j)) < 0)) {
+        builder.copy(this, i++);
+      } else {
+        var row = added.get(j++);
+        if (builder.size == 0 || !builder.endsWith(row.day(), row.id())) {
+          builder.add(row);
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Moves rows to the category they carry. Rows not present are ignored.
+   */
+  public WalletColumns withCategories(Collection<TransactionColumnRow> rows) {
+    var tables = new Builder(0, categoryIds, userIds);
+    var next = Arrays.copyOf(categories, categories.length);
+    boolean changed = false;
+    for (var row : rows) {
+      int position = row == null ? -1 : find(row.day(), row.id());
+      if (position >= 0) {
+        next[position] = tables.categoryIndex(row.categoryId());
+        changed = true;
+      }
+    }
+    if (!changed) {
+      return this;
+    }
+    return new WalletColumns(size, days, ids, cents, next, users, credits, debits, tables.categoryTable(), userIds);
+  }
+
+  /**
+   * Removes rows. Rows not present are ignored.
+   */
+  public WalletColumns withRemoved(Collection<TransactionColumnRow> rows) {
+    var removed = new boolean[size];
+    int count = 0;
+    for (var row : rows) {
+      int position = row == null ? -1 : find(row.day(), row.id());
+      if (position >= 0 && !removed[position]) {
+        removed[position] = true;
+        count++;
+      }
+    }
+    if (count == 0) {
+      return this;
+    }
+    var builder = new Builder(size - count, categoryIds, userIds);
+    for (int i = 0; i < size; i++) {
+      if (!removed[i]) {
+        builder.copy(this, i);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return the position of the row, or -1
+   */
+  int find(int day, int id) {
+    int position = lowerBound(day, id);
+    return position < size && days[position] == day && ids[position] == id ? position : -1;
+  }
+
+  /**
+   * First position at or after (day, id).
+   */
+  private int lowerBound(int day, int id) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (days[middle] < day || (days[middle] == day && ids[middle] < id)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private int compare(int position, TransactionColumnRow row) {
+    int byDay = Integer.compare(days[position], row.day());
+    return byDay != 0 ? byDay : Integer.compare(ids[position], row.id());
+  }
+
+  private static int indexOf(long[] table, long id) {
+    for (int i = 0; i < table.length; i++) {
+      if (table[i] == id) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isSet(long[] bits, int position) {
+    return (bits[position >>> 6] & (1L << position)) != 0;
+  }
+
+  /**
+   * Totals of one category, {@link AccountingRollup#NONE} for the uncategorized transactions.
+   */
+  public record CategorySum(int categoryId, double income, double expense, long count) {
+  }
+
+  public static final class Builder {
+
+    private int size;
+    private int[] days;
+    private int[] ids;
+    private long[] cents;
+    private short[] categories;
+    private short[] users;
+    private long[] credits;
+    private long[] debits;
+    private final List<Integer> categoryIds = new ArrayList<>();
+    private final Map<Integer, Short> categoryIndexes = new HashMap<>();
+    private final List<Long> userIds = new ArrayList<>();
+    private final Map<Long, Short> userIndexes = new HashMap<>();
+
+    /**
+     * Starts from existing category and user tables, so copied rows keep their indexes.
+     */
+    private Builder(int capacity, int[] categoryTable, long[] userTable) {
+      days = new int[capacity];
+      ids = new int[capacity];
+      cents = new long[capacity];
+      categories = new short[capacity];
+      users = new short[capacity];
+      credits = new long[words(capacity)];
+      debits = new long[words(capacity)];
+      for (int categoryId : categoryTable) {
+        categoryIndex(categoryId);
+      }
+      for (long userId : userTable) {
+        userIndex(userId);
+      }
+    }
+
+    /**
+     * Appends a row, which must not come before the previous one in (day, id) order.
+     */
+    public Builder add(int id, int day, long amountCents, TransactionType type, int categoryId, long userId) {
+      if (size > 0 && (days[size - 1] > day || (days[size - 1] == day && ids[size - 1] >= id))) {
+        throw new IllegalArgumentException("Rows must be added in (day, id) order");
+      }
+      return append(id, day, amountCents, type == TransactionType.CREDIT, type == TransactionType.DEBIT,
+          categoryIndex(categoryId), userIndex(userId));
+    }
+
+    public Builder add(TransactionColumnRow row) {
+      return add(row.id(), row.day(), row.cents(), row.type(), row.categoryId(), row.userId());
+    }
+
+    public WalletColumns build() {
+      return new WalletColumns(size, Arrays.copyOf(days, size), Arrays.copyOf(ids, size), Arrays.copyOf(cents, size),
+          Arrays.copyOf(categories, size), Arrays.copyOf(users, size), Arrays.copyOf(credits, words(size)),
+          Arrays.copyOf(debits, words(size)), categoryTable(), userTable());
+    }
+
+    private void copy(WalletColumns from, int i) {
+      append(from.ids[i], from.days[i], from.cents[i], isSet(from.credits, i), isSet(from.debits, i),
+          from.categories[i], from.users[i]);
+    }
+
+    private boolean endsWith(int day, int id) {
+      return days[size - 1] == day && ids[size - 1] == id;
+    }
+
+    private Builder append(int id, int day, long amountCents, boolean credit, boolean debit, short category,
+                           short user) {
+      if (size == days.length) {
+        grow();
+      }
+      days[size] = day;
+      ids[size] = id;
+      cents[size] = amountCents;
+      categories[size] = category;
+      users[size] = user;
+      if (credit) {
+        credits[size >>> 6] |= 1L << size;
+      } else if (debit) {
+        debits[size >>> 6] |= 1L << size;
+      }
+      size++;
+      return this;
+    }
+
+    private void grow() {
+      int capacity = Math.max(16, days.length * 2);
+      days = Arrays.copyOf(days, capacity);
+      ids = Arrays.copyOf(ids, capacity);
+      cents = Arrays.copyOf(cents, capacity);
+      categories = Arrays.copyOf(categories, capacity);
+      users = Arrays.copyOf(users, capacity);
+      credits = Arrays.copyOf(credits, words(capacity));
+      debits = Arrays.copyOf(debits, words(capacity));
+    }
+
+    private short categoryIndex(int categoryId) {
+      return categoryIndexes.computeIfAbsent(categoryId, id -> {
+        categoryIds.add(id);
+        return index(categoryIds.size() - 1, "categories");
+      });
+    }
+
+    private short userIndex(long userId) {
+      return userIndexes.computeIfAbsent(userId, id -> {
+        userIds.add(id);
+        return index(userIds.size() - 1, "users");
+      });
+    }
+
+    private int[] categoryTable() {
+      return categoryIds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private long[] userTable() {
+      return userIds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static short index(int index, String table) {
+      if (index > Short.MAX_VALUE) {
+        throw new IllegalStateException("A wallet cannot hold more than " + Short.MAX_VALUE + " " + table);
+      }
+      return (short) index;
+    }
+
+    private static int words(int bits) {
+      return (bits + 63) >>> 6;
+    }
+  }
+}
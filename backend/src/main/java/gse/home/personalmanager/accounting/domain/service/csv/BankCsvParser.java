@@ -0,0 +1,218 @@
+package gse.home.personalmanager.accounting.domain.service.csv;
+
+import gse.home.personalmanager.accounting.application.dto.TransactionCSVRowDTO;
+import gse.home.personalmanager.accounting.config.CsvImportConfig;
+import gse.home.personalmanager.core.exception.ValidationException;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Turns a bank CSV export into {@link TransactionCSVRowDTO}s following a {@link CsvImportConfig.Profile}.
+ * <p>
+ * The input is read as a stream and handed over in chunks of {@code chunkSize} rows, so memory use
+ * does not depend on the file size. Rows that cannot be parsed are passed on with an error instead
+ * of failing the whole file.
+ */
+@Component
+@AllArgsConstructor
+public class BankCsvParser {
+
+  private static final Pattern NOT_NUMERIC = Pattern.compile("[^0-9+\\-.,]");
+
+  private final CsvImportConfig config;
+
+  /**
+   * A parsed record, or the reason it could not be parsed.
+   *
+   * @param row physical line of the record in the file, 1-based
+   */
+  public record ParsedCsvRow(int row, TransactionCSVRowDTO values, String error) {
+  }
+
+  public void parse(InputStream input, CsvImportConfig.Profile profile, Consumer<List<ParsedCsvRow>> chunkConsumer)
+      throws IOException {
+    var dateFormat = dateFormat(profile);
+    int chunkSize = Math.max(1, config.getChunkSize());
+
+    try (var reader = new CsvRecordReader(withoutByteOrderMark(new InputStreamReader(input, charset(profile))),
+        profile.getDelimiter(), profile.getQuote(), config.getMaxRecordLength())) {
+      for (int i = 0; i < profile.getSkipLines(); i++) {
+        reader.next();
+      }
+      var columns = resolveColumns(profile, Boolean.TRUE.equals(profile.getHeader()) ? reader.next() : null);
+
+      List<ParsedCsvRow> chunk = new ArrayList<>(chunkSize);
+      while (true) {
+        ParsedCsvRow row;
+        try {
+          var fields = reader.next();
+          if (fields == null) {
+            break;
+          }
+          row = toRow(reader.getRecordLine(), fields, columns, dateFormat, profile.getDecimalSeparator());
+        } catch (CsvFormatException e) {
+          row = new ParsedCsvRow(e.getLine(), null, e.getMessage());
+        }
+        chunk.add(row);
+        if (chunk.size() == chunkSize) {
+          chunkConsumer.accept(chunk);
+          chunk = new ArrayList<>(chunkSize);
+        }
+      }
+      if (!chunk.isEmpty()) {
+        chunkConsumer.accept(chunk);
+      }
+    }
+  }
+
+  private ParsedCsvRow toRow(int line, List<String> fields, Columns columns, DateTimeFormatter dateFormat,
+                             char decimalSeparator) {
+    try {
+      var dateValue = field(fields, columns.date());
+      var date = dateValue == null ? null : LocalDate.parse(dateValue, dateFormat);
+      Double amount;
+      if (columns.amount() >= 0) {
+        amount = parseAmount(field(fields, columns.amount()), decimalSeparator);
+      } else {
+        var debit = parseAmount(field(fields, columns.debit()), decimalSeparator);
+        var credit = parseAmount(field(fields, columns.credit()), decimalSeparator);
+        amount = debit == null && credit == null ? null
+            : (credit == null ? 0 : Math.abs(credit)) - (debit == null ? 0 : Math.abs(debit));
+      }
+      var description = field(fields, columns.description());
+      var balance = parseAmount(field(fields, columns.currentBalance()), decimalSeparator);
+      return new ParsedCsvRow(line, new TransactionCSVRowDTO(date, amount, description, balance), null);
+    } catch (DateTimeParseException e) {
+      return new ParsedCsvRow(line, null, "Invalid date '" + e.getParsedString() + "'");
+    } catch (NumberFormatException e) {
+      return new ParsedCsvRow(line, null, "Invalid amount: " + e.getMessage());
+    }
+  }
+
+  private static String field(List<String> fields, int index) {
+    if (index < 0 || index >= fields.size()) {
+      return null;
+    }
+    var value = fields.get(index).strip();
+    return value.isEmpty() ? null : value;
+  }
+
+  static Double parseAmount(String value, char decimalSeparator) {
+    if (value == null) {
+      return null;
+    }
+    var digits = NOT_NUMERIC.matcher(value).replaceAll("");
+    char grouping = decimalSeparator == ',' ? '.' : ',';
+    digits = digits.replace(String.valueOf(grouping), "").replace(decimalSeparator, '.');
+    if (digits.isEmpty()) {
+      throw new NumberFormatException("'" + value + "'");
+    }
+    try {
+      return Double.valueOf(digits);
+    } catch (NumberFormatException e) {
+      throw new NumberFormatException("'" + value + "'");
+    }
+  }
+
+  private Columns resolveColumns(CsvImportConfig.Profile profile, List<String> header) {
+    var mapping = profile.getColumns();
+    Map<String, Integer> headerIndex = new HashMap<>();
+    if (header != null) {
+      for (int i = 0; i < header.size(); i++) {
+        headerIndex.putIfAbsent(normalize(header.get(i)), i);
+      }
+    } else if (Boolean.TRUE.equals(profile.getHeader())) {
+      throw new ValidationException("The CSV file is empty");
+    }
+
+    var columns = new Columns(
+        column(mapping.getDate(), "date", true, header, headerIndex),
+        column(mapping.getAmount(), "amount", false, header, headerIndex),
+        column(mapping.getDebit(), "debit", false, header, headerIndex),
+        column(mapping.getCredit(), "credit", false, header, headerIndex),
+        column(mapping.getDescription(), "description", true, header, headerIndex),
+        column(mapping.getCurrentBalance(), "currentBalance", false, header, headerIndex));
+    if (columns.amount() < 0 && columns.debit() < 0 && columns.credit() < 0) {
+      throw new ValidationException("The CSV file has no amount column ('" + mapping.getAmount() + "')");
+    }
+    return columns;
+  }
+
+  private static int column(String name, String role, boolean required, List<String> header,
+                            Map<String, Integer> headerIndex) {
+    if (name == null || name.isBlank()) {
+      if (required) {
+        throw new ValidationException("The import profile has no " + role + " column");
+      }
+      return -1;
+    }
+    Integer index;
+    if (header != null) {
+      index = headerIndex.get(normalize(name));
+    } else {
+      try {
+        index = Integer.parseInt(name.strip());
+      } catch (NumberFormatException e) {
+        throw new ValidationException("Column '" + name + "' must be an index for a profile without header");
+      }
+    }
+    if (index == null) {
+      if (required) {
+        throw new ValidationException("The CSV file has no " + role + " column ('" + name + "')");
+      }
+      return -1;
+    }
+    return index;
+  }
+
+  private static String normalize(String headerName) {
+    return headerName.strip().toLowerCase(Locale.ROOT);
+  }
+
+  private static Reader withoutByteOrderMark(Reader reader) throws IOException {
+    var buffered = new BufferedReader(reader);
+    buffered.mark(1);
+    if (buffered.read() != '\uFEFF') {
+      buffered.reset();
+    }
+    return buffered;
+  }
+
+  private static Charset charset(CsvImportConfig.Profile profile) {
+    try {
+      return Charset.forName(profile.getEncoding());
+    } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+      throw new ValidationException("Unsupported encoding in import profile: " + profile.getEncoding());
+    }
+  }
+
+  private static DateTimeFormatter dateFormat(CsvImportConfig.Profile profile) {
+    try {
+      return DateTimeFormatter.ofPattern(profile.getDateFormat());
+    } catch (IllegalArgumentException e) {
+      throw new ValidationException("Invalid date format in import profile: " + profile.getDateFormat());
+    }
+  }
+
+  private record Columns(int date, int amount, int debit, int credit, int description, int currentBalance) {
+  }
+}
@@ -0,0 +1,17 @@
+package gse.home.personalmanager.accounting.domain.service.csv;
+
+import lombok.Getter;
+
+/**
+ * A CSV record that cannot be read. The reader has already moved past it, so parsing can go on.
+ */
+@Getter
+public class CsvFormatException extends RuntimeException {
+
+  private final int line;
+
+  public CsvFormatException(int line, String message) {
+    super(message);
+    this.line = line;
+  }
+}
@@ -0,0 +1,155 @@
+package gse.home.personalmanager.accounting.domain.service.csv;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader: one record is held in memory at a time, whatever the file size.
+ * Quoted fields may contain the delimiter, doubled quotes and line breaks.
+ */
+public class CsvRecordReader implements Closeable {
+
+  private static final int EOF = -1;
+
+  private final Reader reader;
+  private final char delimiter;
+  private final char quote;
+  private final int maxRecordLength;
+  private final StringBuilder field = new StringBuilder();
+
+  private int line = 1;
+  private int recordLine;
+  private int pushedBack = EOF - 1;
+
+  public CsvRecordReader(Reader reader, char delimiter, char quote, int maxRecordLength) {
+    this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+    this.delimiter = delimiter;
+    this.quote = quote;
+    this.maxRecordLength = maxRecordLength;
+  }
+
+  /**
+   * Reads the next record, skipping blank lines.
+   *
+   * @return the fields of the record, or null at the end of the input
+   * @throws CsvFormatException when a record is longer than the limit or a quote is not closed
+   */
+  public List<String> next() throws IOException {
+    int c = read();
+    while (c == '\r' || c == '\n') {
+      endLine(c);
+      c = read();
+    }
+    if (c == EOF) {
+      return null;
+    }
+
+    recordLine = line;
+    List<String> fields = new ArrayList<>();
+    field.setLength(0);
+    int length = 0;
+    boolean quoted = false;
+    boolean fieldStart = true;
+
+    while (true) {
+      if (++length > maxRecordLength) {
+        skipRestOfRecord(c, quoted);
+        throw new CsvFormatException(recordLine, "Record longer than " + maxRecordLength + " characters");
+      }
+      if (quoted) {
+        if (c == EOF) {
+          throw new CsvFormatException(recordLine, "Unterminated quoted field");
+        }
+        if (c == quote) {
+          int after = read();
+          if (after == quote) {
+            field.append(quote);
+          } else {
+            quoted = false;
+            c = after;
+            continue;
+          }
+        } else {
+          if (c == '\n' || (c == '\r' && peek() != '\n')) {
+            line++;
+          }
+          field.append((char) c);
+        }
+      } else if (c == quote && fieldStart) {
+        quoted = true;
+      } else if (c == delimiter) {
+        fields.add(field.toString());
+        field.setLength(0);
+        fieldStart = true;
+        c = read();
+        continue;
+      } else if (c == '\r' || c == '\n' || c == EOF) {
+        if (c != EOF) {
+          endLine(c);
+        }
+        fields.add(field.toString());
+        return fields;
+      } else {
+        field.append((char) c);
+      }
+      fieldStart = false;
+      c = read();
+    }
+  }
+
+  /**
+   * Physical line on which the last record returned by {@link #next()} started.
+   */
+  public int getRecordLine() {
+    return recordLine;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private void skipRestOfRecord(int c, boolean quoted) throws IOException {
+    while (c != EOF) {
+      if (c == quote) {
+        quoted = !quoted;
+      } else if (!quoted && (c == '\r' || c == '\n')) {
+        endLine(c);
+        return;
+      } else if (c == '\n') {
+        line++;
+      }
+      c = read();
+    }
+  }
+
+  /**
+   * Consumes the rest of a line break starting with {@code c}, which may be CRLF.
+   */
+  private void endLine(int c) throws IOException {
+    line++;
+    if (c == '\r' && peek() == '\n') {
+      read();
+    }
+  }
+
+  private int peek() throws IOException {
+    if (pushedBack < EOF) {
+      pushedBack = reader.read();
+    }
+    return pushedBack;
+  }
+
+  private int read() throws IOException {
+    if (pushedBack >= EOF) {
+      int c = pushedBack;
+      pushedBack = EOF - 1;
+      return c;
+    }
+    return reader.read();
+  }
+}
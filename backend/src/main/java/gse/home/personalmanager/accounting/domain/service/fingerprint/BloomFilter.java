@@ -0,0 +1,74 @@
+package gse.home.personalmanager.accounting.domain.service.fingerprint;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over 64-bit values that are already uniformly distributed hashes, such as
+ * {@link TransactionFingerprint}s. The probe positions are derived from the two halves of the
+ * value by double hashing, so no further hashing is done.
+ * <p>
+ * Adding and testing are lock-free; a false answer from {@link #mightContain} is definite.
+ */
+public final class BloomFilter {
+
+  private final AtomicLongArray bits;
+  private final long bitCount;
+  private final int hashCount;
+  private final long capacity;
+  private final AtomicLong size = new AtomicLong();
+
+  /**
+   * @param capacity          number of values the filter is sized for
+   * @param falsePositiveRate rate of false positives expected once {@code capacity} values were added
+   */
+  public BloomFilter(long capacity, double falsePositiveRate) {
+    if (capacity <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+      throw new IllegalArgumentException("Bloom filter capacity and false positive rate are out of range");
+    }
+    long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    this.bits = new AtomicLongArray(Math.toIntExact(Math.max(1, (optimalBits + 63) / 64)));
+    this.bitCount = 64L * bits.length();
+    this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+    this.capacity = capacity;
+  }
+
+  public void put(long value) {
+    int h1 = (int) value;
+    int h2 = (int) (value >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+      int word = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      long current = bits.get(word);
+      while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+        current = bits.get(word);
+      }
+    }
+    size.incrementAndGet();
+  }
+
+  public boolean mightContain(long value) {
+    int h1 = (int) value;
+    int h2 = (int) (value >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+      if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Whether more values were added than the filter was sized for, so false positives grow past the
+   * configured rate.
+   */
+  public boolean isSaturated() {
+    return size.get() > capacity;
+  }
+
+  public long estimatedSize() {
+    return 8L * bits.length() + 64;
+  }
+}
@@ -0,0 +1,87 @@
+package gse.home.personalmanager.accounting.domain.service.fingerprint;
+
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Identity of an imported bank row within its wallet: the first 64 bits of a SHA-256 over the
+ * date, the amount and running balance in cents, and the label with case and spacing normalized,
+ * so the same row exported twice maps to the same value even if the bank reformats it.
+ * <p>
+ * Rows that are identical on all of these (possible when the export has no balance column) are
+ * told apart by an ordinal: the k-th copy gets the k-th fingerprint, and re-importing the same
+ * export yields the same ones again. The copies are numbered across the whole file, so an import
+ * read in chunks carries a {@link FingerprintSet} from one chunk to the next.
+ */
+public final class TransactionFingerprint {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private TransactionFingerprint() {
+  }
+
+  /**
+   * Sets the fingerprints of rows imported together, numbering identical rows in order.
+   */
+  public static void assign(List<Transaction> transactions) {
+    assign(transactions, new FingerprintSet());
+  }
+
+  /**
+   * Same as {@link #assign(List)} for one chunk of a larger import, numbering identical rows after
+   * those of the previous chunks, whose fingerprints are in {@code taken}.
+   */
+  public static void assign(List<Transaction> transactions, FingerprintSet taken) {
+    for (var transaction : transactions) {
+      transaction.setImportFingerprint(next(taken::add, transaction.getDate(), transaction.getAmount(),
+          transaction.getImportLabel(), transaction.getCurrentBalance()));
+    }
+  }
+
+  /**
+   * First fingerprint of the row that is not in {@code taken}, which it is then added to.
+   */
+  public static long next(Set<Long> taken, LocalDate date, Double amount, String label, Double balance) {
+    return next(taken::add, date, amount, label, balance);
+  }
+
+  /**
+   * @param add adds a fingerprint to those taken, false when it already was
+   */
+  private static long next(LongPredicate add, LocalDate date, Double amount, String label, Double balance) {
+    long fingerprint;
+    int ordinal = 0;
+    do {
+      fingerprint = of(date, amount, label, balance, ordinal++);
+    } while (!add.test(fingerprint));
+    return fingerprint;
+  }
+
+  static long of(LocalDate date, Double amount, String label, Double balance, int ordinal) {
+    var key = date + "|" + cents(amount) + "|" + normalizeLabel(label) + "|" + cents(balance) + "|" + ordinal;
+    try {
+      var digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+      return ByteBuffer.wrap(digest).getLong();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  static String normalizeLabel(String label) {
+    return label == null ? "" : WHITESPACE.matcher(label.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+  }
+
+  private static String cents(Double value) {
+    return value == null ? "-" : String.valueOf(Math.round(value * 100));
+  }
+}
@@ -0,0 +1,75 @@
+package gse.home.personalmanager.accounting.domain.service.merchant;
+
+import gse.home.personalmanager.accounting.domain.model.Merchant;
+import gse.home.personalmanager.accounting.domain.service.categorization.AhoCorasickMatcher;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Reduces a bank import label to the merchant it names, so that "CB CARREFOUR CITY 12/03" and
+ * "CARTE X1234 13/03 CARREFOUR CITY TPE 0042" both become "CARREFOUR CITY".
+ * <p>
+ * The label is folded like {@link AhoCorasickMatcher#normalize}, then every word holding a digit
+ * is dropped (dates, amounts, card numbers, terminal ids and references) along with the word
+ * announcing it, such as "TPE" or "REF", and so are card masks such as "XXXX" and the payment
+ * words the label starts with.
+ */
+public final class MerchantNormalizer {
+
+  private static final Set<String> PAYMENT_WORDS = Set.of(
+      "achat", "card", "carte", "cb", "dab", "facture", "paiement", "par", "payment", "pos", "prelevement", "prlv",
+      "purchase", "retrait", "sepa", "vir", "virement");
+  private static final Set<String> ID_WORDS = Set.of("id", "no", "num", "ref", "term", "terminal", "tpe");
+
+  private MerchantNormalizer() {
+  }
+
+  /**
+   * @return the merchant name in upper case, at most {@link Merchant#MAX_NAME_LENGTH} characters,
+   *         or null when nothing is left of the label
+   */
+  public static String normalize(String label) {
+    if (label == null) {
+      return null;
+    }
+    var words = new ArrayList<String>();
+    var folded = AhoCorasickMatcher.normalize(label).split(" ");
+    for (int i = 0; i < folded.length; i++) {
+      var word = folded[i];
+      if (word.isEmpty() || hasDigit(word) || isCardMask(word)
+          || (ID_WORDS.contains(word) && i + 1 < folded.length && hasDigit(folded[i + 1]))
+          || (words.isEmpty() && PAYMENT_WORDS.contains(word))) {
+        continue;
+      }
+      words.add(word);
+    }
+    if (words.isEmpty()) {
+      return null;
+    }
+    var name = String.join(" ", words).toUpperCase(Locale.ROOT);
+    return name.length() > Merchant.MAX_NAME_LENGTH ? name.substring(0, Merchant.MAX_NAME_LENGTH).strip() : name;
+  }
+
+  private static boolean hasDigit(String word) {
+    for (int i = 0; i < word.length(); i++) {
+      if (Character.isDigit(word.charAt(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isCardMask(String word) {
+    if (word.length() < 2) {
+      return false;
+    }
+    for (int i = 0; i < word.length(); i++) {
+      if (word.charAt(i) != 'x') {
+        return false;
+      }
+    }
+    return true;
+  }
+}
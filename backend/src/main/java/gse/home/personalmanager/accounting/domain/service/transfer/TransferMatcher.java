@@ -0,0 +1,109 @@
+package gse.home.personalmanager.accounting.domain.service.transfer;
+
+import gse.home.personalmanager.accounting.domain.model.TransactionColumnRow;
+import gse.home.personalmanager.accounting.domain.model.TransferCandidate;
+import gse.home.personalmanager.accounting.domain.model.TransferPair;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pairs the debits and credits of a user that look like transfers between two of their wallets:
+ * same amount to the cent, opposite signs, different wallets, booked at most {@code windowDays}
+ * apart.
+ * <p>
+ * Credits are indexed by amount, each bucket sorted by date, so a debit only looks at the credits
+ * of its amount within its date window, found by binary search: matching n transactions costs
+ * O(n log n) instead of comparing every debit with every credit. Debits are taken oldest first and
+ * each gets the unpaired credit closest in date, the earliest one on a tie.
+ */
+public final class TransferMatcher {
+
+  private static final Comparator<TransferCandidate> BY_DATE = Comparator
+      .comparing(TransferCandidate::date)
+      .thenComparingInt(TransferCandidate::id);
+
+  private TransferMatcher() {
+  }
+
+  /**
+   * @param required ids of which every pair must contain one, typically the rows just imported;
+   *                 the others were already matched against everything around them
+   */
+  public static List<TransferPair> match(List<TransferCandidate> candidates, Set<Integer> required, int windowDays) {
+    Map<Long, List<TransferCandidate>> creditsByCents = new HashMap<>();
+    var debits = new ArrayList<TransferCandidate>();
+    for (var candidate : candidates) {
+      if (candidate.date() == null || candidate.amount() == 0) {
+        continue;
+      }
+      if (candidate.amount() < 0) {
+        debits.add(candidate);
+      } else {
+        creditsByCents.computeIfAbsent(cents(candidate.amount()), k -> new ArrayList<>()).add(candidate);
+      }
+    }
+    if (debits.isEmpty() || creditsByCents.isEmpty()) {
+      return List.of();
+    }
+    creditsByCents.values().forEach(bucket -> bucket.sort(BY_DATE));
+    debits.sort(BY_DATE);
+
+    Map<Long, boolean[]> pairedByCents = new HashMap<>();
+    var pairs = new ArrayList<TransferPair>();
+    for (var debit : debits) {
+      var cents = cents(debit.amount());
+      var credits = creditsByCents.get(cents);
+      if (credits == null) {
+        continue;
+      }
+      var paired = pairedByCents.computeIfAbsent(cents, k -> new boolean[credits.size()]);
+      var debitRequired = required.contains(debit.id());
+      int best = -1;
+      long bestDistance = Long.MAX_VALUE;
+      var last = debit.date().plusDays(windowDays);
+      for (int i = firstOnOrAfter(credits, debit.date().minusDays(windowDays));
+           i < credits.size() && !credits.get(i).date().isAfter(last); i++) {
+        var credit = credits.get(i);
+        if (paired[i] || credit.walletId().equals(debit.walletId())
+            || !(debitRequired || required.contains(credit.id()))) {
+          continue;
+        }
+        var distance = Math.abs(ChronoUnit.DAYS.between(debit.date(), credit.date()));
+        if (distance < bestDistance) {
+          best = i;
+          bestDistance = distance;
+        }
+      }
+      if (best >= 0) {
+        paired[best] = true;
+        pairs.add(new TransferPair(debit.id(), credits.get(best).id()));
+      }
+    }
+    return pairs;
+  }
+
+  private static int firstOnOrAfter(List<TransferCandidate> credits, LocalDate date) {
+    int low = 0;
+    int high = credits.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (credits.get(middle).date().isBefore(date)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static long cents(double amount) {
+    return Math.abs(TransactionColumnRow.cents(amount));
+  }
+}
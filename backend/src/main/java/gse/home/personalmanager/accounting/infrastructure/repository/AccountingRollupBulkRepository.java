@@ -0,0 +1,101 @@
+package gse.home.personalmanager.accounting.infrastructure.repository;
+
+import gse.home.personalmanager.accounting.domain.model.AccountingRollup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.util.Collection;
+
+/**
+ * Writes {@link AccountingRollup} rows with plain SQL: deltas are merged into the existing rows in
+ * one batch, and a wallet can be rolled up again from its transactions.
+ * <p>
+ * Callers serialize writes per wallet by locking its balance snapshot first, since two concurrent
+ * {@code MERGE}s inserting the same new row would otherwise fail on the primary key.
+ */
+@Slf4j
+@Repository
+public class AccountingRollupBulkRepository {
+
+  private static final String MERGE_DELTA = """
+      merge into accounting_rollup r
+      using (select cast(? as varchar(5)) as granularity, cast(? as bigint) as wallet_id,
+                    cast(? as bigint) as user_id, cast(? as integer) as category_id, cast(? as date) as period_start,
+                    cast(? as double precision) as credit_total, cast(? as bigint) as credit_count,
+                    cast(? as double precision) as debit_total, cast(? as bigint) as debit_count) d
+      on r.granularity = d.granularity and r.wallet_id = d.wallet_id and r.user_id = d.user_id
+         and r.category_id = d.category_id and r.period_start = d.period_start
+      when matched and r.credit_count + d.credit_count = 0 and r.debit_count + d.debit_count = 0 then delete
+      when matched then update set
+        credit_total = r.credit_total + d.credit_total, credit_count = r.credit_count + d.credit_count,
+        debit_total = r.debit_total + d.debit_total, debit_count = r.debit_count + d.debit_count
+      when not matched then insert
+        (granularity, wallet_id, user_id, category_id, period_start, credit_total, credit_count, debit_total, debit_count)
+        values (d.granularity, d.wallet_id, d.user_id, d.category_id, d.period_start,
+                d.credit_total, d.credit_count, d.debit_total, d.debit_count)""";
+
+  private static final String DELETE_WALLET = "delete from accounting_rollup where wallet_id = ?";
+
+  private static final String ROLLUP_DAYS = """
+      insert into accounting_rollup
+        (granularity, wallet_id, user_id, category_id, period_start, credit_total, credit_count, debit_total, debit_count)
+      select 'DAY', t.wallet_id, coalesce(t.user_id, 0), coalesce(t.category_id, 0), t.date,
+             coalesce(sum(case when t.type = 'CREDIT' then t.amount end), 0),
+             count(case when t.type = 'CREDIT' then 1 end),
+             coalesce(sum(case when t.type = 'DEBIT' then abs(t.amount) end), 0),
+             count(case when t.type = 'DEBIT' then 1 end)
+      from accounting_transaction t
+      where t.wallet_id = ? and t.date is not null and t.type in ('CREDIT', 'DEBIT')
+      group by t.wallet_id, coalesce(t.user_id, 0), coalesce(t.category_id, 0), t.date""";
+
+  private static final String ROLLUP_MONTHS = """
+      insert into accounting_rollup
+        (granularity, wallet_id, user_id, category_id, period_start, credit_total, credit_count, debit_total, debit_count)
+      select 'MONTH', r.wallet_id, r.user_id, r.category_id, cast(date_trunc('month', r.period_start) as date),
+             sum(r.credit_total), sum(r.credit_count), sum(r.debit_total), sum(r.debit_count)
+      from accounting_rollup r
+      where r.granularity = 'DAY' and r.wallet_id = ?
+      group by r.wallet_id, r.user_id, r.category_id, cast(date_trunc('month', r.period_start) as date)""";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public AccountingRollupBulkRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Adds each delta to the row with the same key, creating it if needed. Rows left with no
+   * transaction are removed.
+   */
+  public void mergeDeltas(Collection<AccountingRollup> deltas) {
+    if (deltas.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate(MERGE_DELTA, deltas, deltas.size(), (ps, d) -> {
+      ps.setString(1, d.getGranularity().name());
+      ps.setLong(2, d.getWalletId());
+      ps.setLong(3, d.getUserId());
+      ps.setInt(4, d.getCategoryId());
+      ps.setDate(5, Date.valueOf(d.getPeriodStart()));
+      ps.setDouble(6, d.getCreditTotal());
+      ps.setLong(7, d.getCreditCount());
+      ps.setDouble(8, d.getDebitTotal());
+      ps.setLong(9, d.getDebitCount());
+    });
+    log.debug("Merged {} rollup deltas", deltas.size());
+  }
+
+  /**
+   * Replaces the rollups of a wallet by totals computed from its transactions.
+   *
+   * @return the number of daily rows written
+   */
+  public int rebuildWallet(Long walletId) {
+    jdbcTemplate.update(DELETE_WALLET, walletId);
+    int days = jdbcTemplate.update(ROLLUP_DAYS, walletId);
+    jdbcTemplate.update(ROLLUP_MONTHS, walletId);
+    return days;
+  }
+}
@@ -0,0 +1,83 @@
+package gse.home.personalmanager.accounting.infrastructure.repository;
+
+import gse.home.personalmanager.accounting.domain.model.AccountingRollup;
+import gse.home.personalmanager.accounting.domain.model.AccountingRollupId;
+import gse.home.personalmanager.accounting.domain.model.BudgetSpending;
+import gse.home.personalmanager.accounting.domain.model.CategoryTotals;
+import gse.home.personalmanager.accounting.domain.model.TransactionTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads the rollups over a {@link gse.home.personalmanager.accounting.domain.model.RollupRange}:
+ * monthly rows for the whole months, daily rows for the edges.
+ */
+@Repository
+public interface AccountingRollupRepository extends JpaRepository<AccountingRollup, AccountingRollupId> {
+
+  String IN_RANGE = " where r.walletId = :walletId and r.userId = :userId and ("
+      + "(r.granularity = gse.home.personalmanager.accounting.domain.model.RollupGranularity.MONTH"
+      + " and r.periodStart between :firstMonth and :lastMonth)"
+      + " or (r.granularity = gse.home.personalmanager.accounting.domain.model.RollupGranularity.DAY"
+      + " and (r.periodStart between :headStart and :headEnd or r.periodStart between :tailStart and :tailEnd)))";
+
+  @Query("select new gse.home.personalmanager.accounting.domain.model.TransactionTotals("
+      + "sum(r.creditTotal), sum(r.debitTotal), sum(r.creditCount + r.debitCount)) from accounting_rollup r" + IN_RANGE)
+  TransactionTotals sumRange(@Param("walletId") Long walletId, @Param("userId") Long userId,
+                             @Param("headStart") LocalDate headStart, @Param("headEnd") LocalDate headEnd,
+                             @Param("firstMonth") LocalDate firstMonth, @Param("lastMonth") LocalDate lastMonth,
+                             @Param("tailStart") LocalDate tailStart, @Param("tailEnd") LocalDate tailEnd);
+
+  @Query("select new gse.home.personalmanager.accounting.domain.model.CategoryTotals("
+      + "c.id, c.title, c.expectedAmount, sum(r.creditTotal), sum(r.debitTotal), sum(r.creditCount + r.debitCount)) "
+      + "from accounting_rollup r left join accounting_transaction_category c on c.id = r.categoryId" + IN_RANGE
+      + " group by c.id, c.title, c.expectedAmount")
+  List<CategoryTotals> sumRangeByCategory(@Param("walletId") Long walletId, @Param("userId") Long userId,
+                                          @Param("headStart") LocalDate headStart, @Param("headEnd") LocalDate headEnd,
+                                          @Param("firstMonth") LocalDate firstMonth,
+                                          @Param("lastMonth") LocalDate lastMonth,
+                                          @Param("tailStart") LocalDate tailStart, @Param("tailEnd") LocalDate tailEnd);
+
+  /**
+   * Same as {@link #sumRangeByCategory} with the totals of every category added to each of its
+   * ancestors through the closure paths, and the expected amount summed over the subtree.
+   * Uncategorized totals come back under a null category.
+   */
+  @Query("select new gse.home.personalmanager.accounting.domain.model.CategoryTotals("
+      + "c.id, c.title, (select sum(b.expectedAmount) from accounting_category_closure bp "
+      + "join accounting_transaction_category b on b.id = bp.descendantId where bp.ancestorId = c.id), "
+      + "sum(r.creditTotal), sum(r.debitTotal), sum(r.creditCount + r.debitCount)) "
+      + "from accounting_rollup r left join accounting_category_closure p on p.descendantId = r.categoryId "
+      + "left join accounting_transaction_category c on c.id = p.ancestorId" + IN_RANGE
+      + " group by c.id, c.title")
+  List<CategoryTotals> sumRangeByAncestor(@Param("walletId") Long walletId, @Param("userId") Long userId,
+                                          @Param("headStart") LocalDate headStart, @Param("headEnd") LocalDate headEnd,
+                                          @Param("firstMonth") LocalDate firstMonth,
+                                          @Param("lastMonth") LocalDate lastMonth,
+                                          @Param("tailStart") LocalDate tailStart, @Param("tailEnd") LocalDate tailEnd);
+
+  /**
+   * Monthly expense of each user in each category and its subcategories, over all their wallets.
+   * Callers keep the combinations they asked for.
+   */
+  @Query("select new gse.home.personalmanager.accounting.domain.model.BudgetSpending("
+      + "p.ancestorId, r.userId, r.periodStart, sum(r.debitTotal)) "
+      + "from accounting_rollup r join accounting_category_closure p on p.descendantId = r.categoryId "
+      + "where r.granularity = gse.home.personalmanager.accounting.domain.model.RollupGranularity.MONTH "
+      + "and r.userId in :userIds and r.periodStart in :months and p.ancestorId in :categoryIds "
+      + "group by p.ancestorId, r.userId, r.periodStart")
+  List<BudgetSpending> sumMonthlyExpenseBySubtree(@Param("userIds") Collection<Long> userIds,
+                                                  @Param("categoryIds") Collection<Integer> categoryIds,
+                                                  @Param("months") Collection<LocalDate> months);
+
+  @Modifying
+  @Query("delete from accounting_rollup r where r.walletId = :walletId")
+  void deleteAllByWalletId(@Param("walletId") Long walletId);
+}
@@ -0,0 +1,32 @@
+package gse.home.personalmanager.accounting.infrastructure.repository;
+
+import gse.home.personalmanager.accounting.domain.model.BudgetAlert;
+import gse.home.personalmanager.accounting.domain.model.BudgetAlertId;
+import gse.home.personalmanager.accounting.domain.model.BudgetLevel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+/**
+ * Compare-and-set updates of the alert levels: of two writers reaching the same level, only one
+ * updates the row and sends the alert.
+ */
+@Repository
+public interface BudgetAlertRepository extends JpaRepository<BudgetAlert, BudgetAlertId> {
+
+  @Modifying
+  @Query("update accounting_budget_alert a set a.level = :level where a.userId = :userId "
+      + "and a.categoryId = :categoryId and a.periodStart = :periodStart and a.level < :level")
+  int raiseLevel(@Param("userId") Long userId, @Param("categoryId") Integer categoryId,
+                 @Param("periodStart") LocalDate periodStart, @Param("level") BudgetLevel level);
+
+  @Modifying
+  @Query("update accounting_budget_alert a set a.level = :level where a.userId = :userId "
+      + "and a.categoryId = :categoryId and a.periodStart = :periodStart and a.level > :level")
+  int lowerLevel(@Param("userId") Long userId, @Param("categoryId") Integer categoryId,
+                 @Param("periodStart") LocalDate periodStart, @Param("level") BudgetLevel level);
+}
@@ -0,0 +1,29 @@
+package gse.home.personalmanager.accounting.infrastructure.repository;
+
+import gse.home.personalmanager.accounting.domain.model.CategorizationRule;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CategorizationRuleRepository extends JpaRepository<CategorizationRule, Long> {
+
+  @EntityGraph(attributePaths = "category")
+  List<CategorizationRule> findAllByUserIdOrderByLearnedAscPriorityAscIdAsc(Long userId);
+
+  List<CategorizationRule> findAllByUserIdAndEnabledTrue(Long userId);
+
+  Optional<CategorizationRule> findByIdAndUserId(Long id, Long userId);
+
+  long countByUserIdAndLearnedFalse(Long userId);
+
+  @Modifying
+  @Query("delete from accounting_categorization_rule r where r.user.id = :userId and r.learned = true")
+  int deleteLearnedByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,48 @@
+package gse.home.personalmanager.accounting.infrastructure.repository;
+
+import gse.home.personalmanager.accounting.domain.model.CategoryClosure;
+import gse.home.personalmanager.accounting.domain.model.CategoryClosureId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Keeps the {@link CategoryClosure} paths in step with the category tree. A subtree is moved with
+ * {@link #detachSubtree} then {@link #attachSubtree}, whatever its size: two set-based statements.
+ */
+@Repository
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosureId> {
+
+  boolean existsByAncestorIdAndDescendantId(Integer ancestorId, Integer descendantId);
+
+  /**
+   * The path of depth 0 of a new category.
+   */
+  @Modifying
+  @Query("insert into accounting_category_closure (ancestorId, descendantId, depth) "
+      + "values (:categoryId, :categoryId, 0)")
+  void insertSelf(@Param("categoryId") Integer categoryId);
+
+  /**
+   * Removes the paths from the ancestors of the category to its subtree, keeping the paths within
+   * the subtree.
+   */
+  @Modifying
+  @Query("delete from accounting_category_closure p where p.descendantId in ("
+      + "select d.descendantId from accounting_category_closure d where d.ancestorId = :categoryId) "
+      + "and p.ancestorId not in ("
+      + "select d.descendantId from accounting_category_closure d where d.ancestorId = :categoryId)")
+  int detachSubtree(@Param("categoryId") Integer categoryId);
+
+  /**
+   * Adds the paths from the parent and its ancestors to every category of the subtree.
+   */
+  @Modifying
+  @Query("insert into accounting_category_closure (ancestorId, descendantId, depth) "
+      + "select a.ancestorId, d.descendantId, a.depth + d.depth + 1 "
+      + "from accounting_category_closure a, accounting_category_closure d "
+      + "where a.descendantId = :parentId and d.ancestorId = :categoryId")
+  int attachSubtree(@Param("categoryId") Integer categoryId, @Param("parentId") Integer parentId);
+}
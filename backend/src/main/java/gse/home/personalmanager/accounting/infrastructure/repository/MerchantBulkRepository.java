@@ -0,0 +1,67 @@
+package gse.home.personalmanager.accounting.infrastructure.repository;
+
+import gse.home.personalmanager.accounting.domain.model.Merchant;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Plain JDBC writes for the merchant dictionary: new names are inserted in one batch, skipping
+ * those a concurrent import created first through {@code ON CONFLICT DO NOTHING} on
+ * {@link Merchant#NAME_KEY}, and older transactions are given their merchant chunk by chunk.
+ */
+@Repository
+public class MerchantBulkRepository {
+
+  private static final String INSERT_IGNORING_DUPLICATES = """
+      insert into accounting_merchant (name) values (?)
+      on conflict do nothing""";
+
+  private static final String WITHOUT_MERCHANT = """
+      select id, import_label from accounting_transaction
+      where id > ? and merchant_id is null and import_label is not null
+      order by id
+      limit ?""";
+
+  private static final String SET_MERCHANT = "update accounting_transaction set merchant_id = ? where id = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public MerchantBulkRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public void insertIgnoringDuplicates(Collection<String> names) {
+    if (names.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate(INSERT_IGNORING_DUPLICATES, names, names.size(), (ps, name) -> ps.setString(1, name));
+  }
+
+  /**
+   * Up to {@code limit} transactions with a label but no merchant after {@code afterId}, by id,
+   * holding only their id and import label.
+   */
+  public List<Transaction> findWithoutMerchant(int afterId, int limit) {
+    return jdbcTemplate.query(WITHOUT_MERCHANT, (rs, rowNum) -> {
+      var transaction = new Transaction();
+      transaction.setId(rs.getInt("id"));
+      transaction.setImportLabel(rs.getString("import_label"));
+      return transaction;
+    }, afterId, limit);
+  }
+
+  public void setMerchants(List<Transaction> transactions) {
+    if (transactions.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate(SET_MERCHANT, transactions, transactions.size(), (ps, t) -> {
+      ps.setObject(1, t.getMerchant() != null ? t.getMerchant().getId() : null, Types.INTEGER);
+      ps.setInt(2, t.getId());
+    });
+  }
+}
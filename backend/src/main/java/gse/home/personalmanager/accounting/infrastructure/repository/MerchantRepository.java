@@ -0,0 +1,14 @@
+package gse.home.personalmanager.accounting.infrastructure.repository;
+
+import gse.home.personalmanager.accounting.domain.model.Merchant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MerchantRepository extends JpaRepository<Merchant, Integer> {
+
+  List<Merchant> findAllByNameIn(Collection<String> names);
+}
@@ -0,0 +1,232 @@
+package gse.home.personalmanager.accounting.infrastructure.repository;
+
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.TransactionColumnRow;
+import gse.home.personalmanager.accounting.domain.model.TransactionType;
+import gse.home.personalmanager.accounting.domain.model.TransferPair;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC writes for the CSV import, where going through the persistence context row by
+ * row costs one INSERT round trip per line and a duplicate aborts the whole flush.
+ * <p>
+ * Rows are sent in JDBC batches and duplicates are skipped by the database through
+ * {@code ON CONFLICT DO NOTHING} on {@link Transaction#IMPORT_KEY}. Ids come from the same
+ * sequence as the entity, allocated in blocks of {@link Transaction#ID_ALLOCATION_SIZE} so a
+ * 5,000 row file costs 100 sequence calls and never collides with ids handed out by Hibernate.
+ * <p>
+ * It also reads and backfills the per-wallet import fingerprints used to screen rows before they
+ * are sent, streams the rows of the columnar summary cache, and links matched transfers.
+ */
+@Slf4j
+@Repository
+public class TransactionBulkRepository {
+
+  private static final String NEXT_ID_BLOCK = "select nextval('" + Transaction.ID_SEQUENCE + "')";
+
+  private static final String INSERT_IGNORING_DUPLICATES = """
+      insert into accounting_transaction
+        (id, date, import_label, custom_label, amount, type, wallet_id, user_id, current_balance, import_fingerprint,
+         merchant_id)
+      values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+      on conflict do nothing""";
+
+  private static final String FINGERPRINTS = """
+      select import_fingerprint from accounting_transaction
+      where wallet_id = ? and import_fingerprint is not null""";
+
+  private static final String WITHOUT_FINGERPRINT = """
+      select id, date, amount, import_label, current_balance from accounting_transaction
+      where wallet_id = ? and import_fingerprint is null
+      order by id""";
+
+  private static final String COLUMN_ROWS = """
+      select id, date, amount, type, category_id, user_id from accounting_transaction
+      where wallet_id = ? and date is not null
+      order by date, id""";
+
+  private static final String SET_FINGERPRINT = "update accounting_transaction set import_fingerprint = ? where id = ?";
+
+  private static final String SET_RELATED = "update accounting_transaction set related_transaction_id = ? where id = ?";
+
+  /**
+   * Fingerprints looked up per query, well below the bind parameter limits of the drivers.
+   */
+  private static final int LOOKUP_SIZE = 1000;
+
+  private static final int COLUMN_FETCH_SIZE = 5000;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int batchSize;
+
+  public TransactionBulkRepository(JdbcTemplate jdbcTemplate,
+                                   @Value("${accounting.import.batch-size:500}") int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("accounting.import.batch-size must be positive");
+    }
+    this.jdbcTemplate = jdbcTemplate;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Inserts the transactions, skipping those already stored for the same wallet.
+   * Inserted transactions get their generated id set.
+   *
+   * @return for each transaction, in order, whether it was inserted (false for a duplicate)
+   */
+  public boolean[] insertIgnoringDuplicates(List<Transaction> transactions) {
+    boolean[] inserted = new boolean[transactions.size()];
+    if (transactions.isEmpty()) {
+      return inserted;
+    }
+
+    List<Integer> ids = allocateIds(transactions.size());
+    for (int i = 0; i < transactions.size(); i++) {
+      transactions.get(i).setId(ids.get(i));
+    }
+
+    int[][] counts = jdbcTemplate.batchUpdate(INSERT_IGNORING_DUPLICATES, transactions, batchSize, (ps, t) -> {
+      ps.setInt(1, t.getId());
+      ps.setDate(2, t.getDate() != null ? Date.valueOf(t.getDate()) : null);
+      ps.setString(3, t.getImportLabel());
+      ps.setString(4, t.getCustomLabel());
+      ps.setObject(5, t.getAmount(), Types.DOUBLE);
+      ps.setString(6, t.getType() != null ? t.getType().name() : null);
+      ps.setLong(7, t.getWallet().getId());
+      ps.setObject(8, t.getUser() != null ? t.getUser().getId() : null, Types.BIGINT);
+      ps.setObject(9, t.getCurrentBalance(), Types.DOUBLE);
+      ps.setObject(10, t.getImportFingerprint(), Types.BIGINT);
+      ps.setObject(11, t.getMerchant() != null ? t.getMerchant().getId() : null, Types.INTEGER);
+    });
+
+    int index = 0;
+    for (int[] batch : counts) {
+      for (int count : batch) {
+        // Drivers that only report SUCCESS_NO_INFO cannot tell skipped rows apart
+        inserted[index] = count > 0 || count == Statement.SUCCESS_NO_INFO;
+        if (!inserted[index]) {
+          transactions.get(index).setId(0);
+        }
+        index++;
+      }
+    }
+    log.debug("Bulk inserted {} transaction rows in batches of {}", transactions.size(), batchSize);
+    return inserted;
+  }
+
+  public List<Long> findFingerprints(Long walletId) {
+    return jdbcTemplate.queryForList(FINGERPRINTS, Long.class, walletId);
+  }
+
+  /**
+   * Which of {@code fingerprints} are already stored in the wallet, one query per
+   * {@value #LOOKUP_SIZE} values.
+   */
+  public Set<Long> findExistingFingerprints(Long walletId, Collection<Long> fingerprints) {
+    Set<Long> existing = new HashSet<>();
+    var values = new ArrayList<>(fingerprints);
+    for (int from = 0; from < values.size(); from += LOOKUP_SIZE) {
+      var slice = values.subList(from, Math.min(values.size(), from + LOOKUP_SIZE));
+      var sql = "select import_fingerprint from accounting_transaction where wallet_id = ? and import_fingerprint in ("
+          + String.join(", ", Collections.nCopies(slice.size(), "?")) + ")";
+      var args = new ArrayList<Object>(slice.size() + 1);
+      args.add(walletId);
+      args.addAll(slice);
+      existing.addAll(jdbcTemplate.queryForList(sql, Long.class, args.toArray()));
+    }
+    return existing;
+  }
+
+  /**
+   * Transactions of the wallet that have no fingerprint yet, oldest first.
+   */
+  public List<Transaction> findWithoutFingerprint(Long walletId) {
+    return jdbcTemplate.query(WITHOUT_FINGERPRINT, (rs, rowNum) -> {
+      var transaction = new Transaction();
+      transaction.setId(rs.getInt("id"));
+      var date = rs.getDate("date");
+      transaction.setDate(date != null ? date.toLocalDate() : null);
+      transaction.setAmount(rs.getObject("amount", Double.class));
+      transaction.setImportLabel(rs.getString("import_label"));
+      transaction.setCurrentBalance(rs.getObject("current_balance", Double.class));
+      return transaction;
+    }, walletId);
+  }
+
+  /**
+   * Reads the rows of the columnar summary cache of a wallet in (date, id) order, through a cursor
+   * so the wallet is never held twice in memory.
+   */
+  public void forEachColumnRow(Long walletId, Consumer<TransactionColumnRow> consumer) {
+    jdbcTemplate.query(connection -> {
+      var statement = connection.prepareStatement(COLUMN_ROWS);
+      statement.setFetchSize(COLUMN_FETCH_SIZE);
+      statement.setLong(1, walletId);
+      return statement;
+    }, (RowCallbackHandler) rs -> {
+      var type = rs.getString("type");
+      consumer.accept(new TransactionColumnRow(rs.getInt("id"), (int) rs.getDate("date").toLocalDate().toEpochDay(),
+          TransactionColumnRow.cents(rs.getObject("amount", Double.class)),
+          type == null ? null : TransactionType.valueOf(type), rs.getInt("category_id"), rs.getLong("user_id")));
+    });
+  }
+
+  /**
+   * Stores the fingerprints set on the given transactions.
+   */
+  public void updateFingerprints(List<Transaction> transactions) {
+    jdbcTemplate.batchUpdate(SET_FINGERPRINT, transactions, batchSize, (ps, t) -> {
+      ps.setLong(1, t.getImportFingerprint());
+      ps.setInt(2, t.getId());
+    });
+  }
+
+  /**
+   * Links the debit and the credit of each transfer to each other, in JDBC batches.
+   */
+  public void linkTransfers(List<TransferPair> pairs) {
+    var links = new ArrayList<int[]>(pairs.size() * 2);
+    for (var pair : pairs) {
+      links.add(new int[] { pair.debitId(), pair.creditId() });
+      links.add(new int[] { pair.creditId(), pair.debitId() });
+    }
+    jdbcTemplate.batchUpdate(SET_RELATED, links, batchSize, (ps, link) -> {
+      ps.setInt(1, link[1]);
+      ps.setInt(2, link[0]);
+    });
+  }
+
+  /**
+   * Reserves {@code count} ids. Each sequence call returns the upper bound of a block of
+   * {@link Transaction#ID_ALLOCATION_SIZE} ids, mirroring Hibernate's pooled optimizer.
+   */
+  private List<Integer> allocateIds(int count) {
+    List<Integer> ids = new ArrayList<>(count);
+    while (ids.size() < count) {
+      Long hi = jdbcTemplate.queryForObject(NEXT_ID_BLOCK, Long.class);
+      if (hi == null) {
+        throw new IllegalStateException("Sequence " + Transaction.ID_SEQUENCE + " returned no value");
+      }
+      long lo = Math.max(1, hi - Transaction.ID_ALLOCATION_SIZE + 1);
+      for (long id = lo; id <= hi && ids.size() < count; id++) {
+        ids.add(Math.toIntExact(id));
+      }
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,13 @@
+package gse.home.personalmanager.accounting.infrastructure.repository;
+
+import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TransactionCategoryRepository extends JpaRepository<TransactionCategory, Integer> {
+
+  Optional<TransactionCategory> findByTitle(String title);
+}
@@ -1,18 +1,30 @@
 package gse.home.personalmanager.accounting.infrastructure.repository;
 
+import gse.home.personalmanager.accounting.domain.model.CategoryTotals;
+import gse.home.personalmanager.accounting.domain.model.LabelCategoryCount;
+import gse.home.personalmanager.accounting.domain.model.MerchantSpend;
 import gse.home.personalmanager.accounting.domain.model.Transaction;
-import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
+import gse.home.personalmanager.accounting.domain.model.TransactionExportRow;
+import gse.home.personalmanager.accounting.domain.model.TransactionTotals;
+import gse.home.personalmanager.accounting.domain.model.TransferCandidate;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Integer> {
@@ -26,13 +38,164 @@ public interface TransactionRepository extends JpaRepository<Transaction, Intege
 
   Page<Transaction> findAllByCategoryIsNull(Pageable pageable);
 
-  Page<Transaction> findAllByCategoryIsNullAndWalletIdAndUserId(Long walletId, Long userId, Pageable pageable);
-
   /**
    * Finds the most recent transaction for a wallet based on date.
    * This is used to get the current balance from the transaction's currentBalance field.
    */
   Optional<Transaction> findFirstByWalletIdOrderByDateDescIdDesc(Long walletId);
 
-  void deleteAllByWallet(Wallet wallet);
+  String INCOME = "sum(case when t.type = gse.home.personalmanager.accounting.domain.model.TransactionType.CREDIT "
+      + "then t.amount else 0 end)";
+  String EXPENSE = "sum(case when t.type = gse.home.personalmanager.accounting.domain.model.TransactionType.DEBIT "
+      + "then abs(t.amount) else 0 end)";
+  String IN_RANGE = " where t.date between :minDate and :maxDate and t.wallet.id = :walletId and t.user.id = :userId";
+
+  /**
+   * Same filter as {@link #findAllByDateBetweenAndWalletIdAndUserId}, summed in a single row.
+   */
+  @Query("select new gse.home.personalmanager.accounting.domain.model.TransactionTotals("
+      + INCOME + ", " + EXPENSE + ", count(t)) from accounting_transaction t" + IN_RANGE)
+  TransactionTotals sumByDateBetweenAndWalletIdAndUserId(@Param("minDate") LocalDate minDate,
+      @Param("maxDate") LocalDate maxDate, @Param("walletId") Long walletId, @Param("userId") Long userId);
+
+  /**
+   * Same filter as {@link #findAllByDateBetweenAndWalletIdAndUserId}, one row per category.
+   */
+  @Query("select new gse.home.personalmanager.accounting.domain.model.CategoryTotals("
+      + "c.id, c.title, c.expectedAmount, " + INCOME + ", " + EXPENSE + ", count(t)) "
+      + "from accounting_transaction t left join t.category c" + IN_RANGE
+      + " group by c.id, c.title, c.expectedAmount")
+  List<CategoryTotals> sumByCategoryAndDateBetweenAndWalletIdAndUserId(@Param("minDate") LocalDate minDate,
+      @Param("maxDate") LocalDate maxDate, @Param("walletId") Long walletId, @Param("userId") Long userId);
+
+  /**
+   * Same filter as {@link #findAllByDateBetweenAndWalletIdAndUserId} restricted to the internal
+   * transfers, the transactions linked to a related one, one row per category.
+   */
+  @Query("select new gse.home.personalmanager.accounting.domain.model.CategoryTotals("
+      + "c.id, c.title, c.expectedAmount, " + INCOME + ", " + EXPENSE + ", count(t)) "
+      + "from accounting_transaction t left join t.category c" + IN_RANGE + " and t.relatedTransaction is not null"
+      + " group by c.id, c.title, c.expectedAmount")
+  List<CategoryTotals> sumTransfersByCategory(@Param("minDate") LocalDate minDate,
+      @Param("maxDate") LocalDate maxDate, @Param("walletId") Long walletId, @Param("userId") Long userId);
+
+  /**
+   * The merchants most spent at over the range, by their interned id; internal transfers are left
+   * out. The page size is the number of merchants.
+   */
+  @Query("select new gse.home.personalmanager.accounting.domain.model.MerchantSpend("
+      + "m.id, m.name, sum(abs(t.amount)), count(t)) from accounting_transaction t join t.merchant m" + IN_RANGE
+      + " and t.type = gse.home.personalmanager.accounting.domain.model.TransactionType.DEBIT"
+      + " and t.relatedTransaction is null group by m.id, m.name order by sum(abs(t.amount)) desc, m.id")
+  List<MerchantSpend> sumTopMerchants(@Param("minDate") LocalDate minDate, @Param("maxDate") LocalDate maxDate,
+      @Param("walletId") Long walletId, @Param("userId") Long userId, Pageable pageable);
+
+  /**
+   * Transactions that are neither linked to another nor the target of a link.
+   */
+  String TRANSFER_CANDIDATES = "select new gse.home.personalmanager.accounting.domain.model.TransferCandidate("
+      + "t.id, t.wallet.id, t.date, t.amount) from accounting_transaction t "
+      + "where t.relatedTransaction is null and t.date is not null and t.amount <> 0 "
+      + "and not exists (select r.id from accounting_transaction r where r.relatedTransaction = t)";
+
+  @Query(TRANSFER_CANDIDATES + " and t.id in :ids")
+  List<TransferCandidate> findTransferCandidatesByIdIn(@Param("ids") Collection<Integer> ids);
+
+  @Query(TRANSFER_CANDIDATES + " and t.user.id = :userId and t.date between :minDate and :maxDate")
+  List<TransferCandidate> findTransferCandidates(@Param("userId") Long userId, @Param("minDate") LocalDate minDate,
+      @Param("maxDate") LocalDate maxDate);
+
+  /**
+   * Keyset condition for pages sorted newest first: rows strictly after the ({@code afterDate},
+   * {@code afterId}) cursor. The first page passes a cursor past {@code maxDate}.
+   */
+  String AFTER_CURSOR = " and (t.date < :afterDate or (t.date = :afterDate and t.id < :afterId))"
+      + " order by t.date desc, t.id desc";
+
+  @Query("select t from accounting_transaction t" + IN_RANGE + " and t.category.id = :categoryId" + AFTER_CURSOR)
+  List<Transaction> findCategoryPage(@Param("minDate") LocalDate minDate, @Param("maxDate") LocalDate maxDate,
+      @Param("walletId") Long walletId, @Param("userId") Long userId, @Param("categoryId") Integer categoryId,
+      @Param("afterDate") LocalDate afterDate, @Param("afterId") Integer afterId, Pageable pageable);
+
+  @Query("select t from accounting_transaction t" + IN_RANGE + " and t.category is null" + AFTER_CURSOR)
+  List<Transaction> findUncategorizedPage(@Param("minDate") LocalDate minDate, @Param("maxDate") LocalDate maxDate,
+      @Param("walletId") Long walletId, @Param("userId") Long userId,
+      @Param("afterDate") LocalDate afterDate, @Param("afterId") Integer afterId, Pageable pageable);
+
+  /**
+   * The categorization inbox of a user in a wallet, all dates; served by the partial index on the
+   * uncategorized rows, so a page costs the same however many there are.
+   */
+  @Query("select t from accounting_transaction t where t.wallet.id = :walletId and t.user.id = :userId"
+      + " and t.category is null" + AFTER_CURSOR)
+  List<Transaction> findInboxPage(@Param("walletId") Long walletId, @Param("userId") Long userId,
+      @Param("afterDate") LocalDate afterDate, @Param("afterId") Integer afterId, Pageable pageable);
+
+  @Modifying
+  @Query("update accounting_transaction t set t.category = :category where t.id in :ids")
+  int updateCategory(@Param("category") TransactionCategory category, @Param("ids") Collection<Integer> ids);
+
+  /**
+   * Sets the category of those of {@code ids} that are still uncategorized, so the import stage
+   * never overrides a category the user picked in the meantime.
+   */
+  @Modifying
+  @Query("update accounting_transaction t set t.category = :category where t.id in :ids and t.category is null")
+  int updateCategoryOfUncategorized(@Param("category") TransactionCategory category,
+      @Param("ids") Collection<Integer> ids);
+
+  List<Transaction> findAllByIdInAndCategoryIsNull(Collection<Integer> ids);
+
+  /**
+   * Wallets of the transactions in id order, read without loading the rows so that their wallets
+   * can be locked before the rows are.
+   */
+  @Query("select distinct t.wallet.id from accounting_transaction t where t.id in :ids order by t.wallet.id")
+  List<Long> findWalletIdsByIdIn(@Param("ids") Collection<Integer> ids);
+
+  /**
+   * How often each import label of a user was put in each category; the input of rule learning.
+   */
+  @Query("select new gse.home.personalmanager.accounting.domain.model.LabelCategoryCount("
+      + "t.importLabel, t.category.id, count(t)) from accounting_transaction t "
+      + "where t.user.id = :userId and t.category is not null and t.importLabel is not null "
+      + "group by t.importLabel, t.category.id")
+  List<LabelCategoryCount> countByImportLabelAndCategory(@Param("userId") Long userId);
+
+  /**
+   * Rows fetched per round trip by export cursors.
+   */
+  int EXPORT_FETCH_SIZE = 1000;
+
+  /**
+   * Transactions of a wallet oldest first, optionally within a date range, read through a database
+   * cursor: the caller must consume and close the stream within a transaction.
+   */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+  @Query("select new gse.home.personalmanager.accounting.domain.model.TransactionExportRow("
+      + "t.id, t.date, t.amount, t.type, t.importLabel, t.customLabel, c.title, t.currentBalance) "
+      + "from accounting_transaction t left join t.category c where t.wallet.id = :walletId "
+      + "and (:minDate is null or t.date >= :minDate) and (:maxDate is null or t.date <= :maxDate) "
+      + "order by t.date, t.id")
+  Stream<TransactionExportRow> streamForExport(@Param("walletId") Long walletId, @Param("minDate") LocalDate minDate,
+      @Param("maxDate") LocalDate maxDate);
+
+  @Modifying
+  @Query("update accounting_transaction t set t.customLabel = :customLabel where t.id in :ids")
+  int updateCustomLabel(@Param("customLabel") String customLabel, @Param("ids") Collection<Integer> ids);
+
+  @Modifying
+  @Query("update accounting_transaction t set t.relatedTransaction = :related where t.id in :ids")
+  int updateRelatedTransaction(@Param("related") Transaction related, @Param("ids") Collection<Integer> ids);
+
+  /**
+   * Drops the links pointing at the transaction, so it can be deleted; also reaches rows of
+   * soft-deleted wallets, which the entity restriction would skip.
+   */
+  @Modifying
+  @Query(nativeQuery = true, value = "update accounting_transaction set related_transaction_id = null "
+      + "where related_transaction_id = :id")
+  int unlinkRelatedTransactions(@Param("id") Integer id);
 }
@@ -0,0 +1,53 @@
+package gse.home.personalmanager.accounting.infrastructure.repository;
+
+import gse.home.personalmanager.accounting.domain.model.UncategorizedCount;
+import gse.home.personalmanager.accounting.domain.model.UncategorizedCountId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Callers lock the balance snapshot of the wallet first, like for the rollups, since two
+ * concurrent {@code MERGE}s inserting the same new row would otherwise fail on the primary key.
+ */
+@Repository
+public interface UncategorizedCountRepository extends JpaRepository<UncategorizedCount, UncategorizedCountId> {
+
+  @Query("select c.transactionCount from accounting_uncategorized_count c "
+      + "where c.walletId = :walletId and c.userId = :userId")
+  Optional<Long> findCount(@Param("walletId") Long walletId, @Param("userId") Long userId);
+
+  /**
+   * Adds {@code delta} to the count, creating the row if needed; a row dropping to zero is removed.
+   */
+  @Modifying
+  @Query(nativeQuery = true, value = """
+      merge into accounting_uncategorized_count c
+      using (select cast(:walletId as bigint) as wallet_id, cast(:userId as bigint) as user_id,
+                    cast(:delta as bigint) as delta) d
+      on c.wallet_id = d.wallet_id and c.user_id = d.user_id
+      when matched and c.transaction_count + d.delta = 0 then delete
+      when matched then update set transaction_count = c.transaction_count + d.delta
+      when not matched then insert (wallet_id, user_id, transaction_count) values (d.wallet_id, d.user_id, d.delta)""")
+  int addToCount(@Param("walletId") Long walletId, @Param("userId") Long userId, @Param("delta") long delta);
+
+  @Modifying
+  @Query("delete from accounting_uncategorized_count c where c.walletId = :walletId")
+  int deleteAllByWalletId(@Param("walletId") Long walletId);
+
+  /**
+   * Counts the uncategorized transactions of a wallet again; run after {@link #deleteAllByWalletId}.
+   */
+  @Modifying
+  @Query(nativeQuery = true, value = """
+      insert into accounting_uncategorized_count (wallet_id, user_id, transaction_count)
+      select t.wallet_id, coalesce(t.user_id, 0), count(*)
+      from accounting_transaction t
+      where t.wallet_id = :walletId and t.category_id is null and t.date is not null
+      group by t.wallet_id, coalesce(t.user_id, 0)""")
+  int insertCounts(@Param("walletId") Long walletId);
+}
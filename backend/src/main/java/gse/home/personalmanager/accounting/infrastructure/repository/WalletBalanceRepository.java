@@ -0,0 +1,22 @@
+package gse.home.personalmanager.accounting.infrastructure.repository;
+
+import gse.home.personalmanager.accounting.domain.model.WalletBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface WalletBalanceRepository extends JpaRepository<WalletBalance, Long> {
+
+  /**
+   * Locks the snapshot row so concurrent imports into the same wallet apply one after the other.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select b from accounting_wallet_balance b where b.walletId = :walletId")
+  Optional<WalletBalance> findForUpdate(@Param("walletId") Long walletId);
+}
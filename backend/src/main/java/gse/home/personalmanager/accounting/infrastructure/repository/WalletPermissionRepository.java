@@ -15,5 +15,4 @@ public interface WalletPermissionRepository extends JpaRepository<WalletPermissi
     List<WalletPermission> findAllByUser(AppUser user);
     Optional<WalletPermission> findByWalletAndUser(Wallet wallet, AppUser user);
     void deleteByWalletAndUser(Wallet wallet, AppUser user);
-    void deleteAllByWallet(Wallet wallet);
 }
@@ -0,0 +1,83 @@
+package gse.home.personalmanager.accounting.infrastructure.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Set-based removal of the rows of deleted wallets, a bounded chunk per statement. Every statement
+ * is idempotent, so a purge interrupted at any point is resumed by running it again.
+ * <p>
+ * Goes through JDBC because the entities hide the rows of deleted wallets.
+ */
+@Repository
+public class WalletPurgeRepository {
+
+  private static final String DELETED_WALLETS = """
+      select id from accounting_wallets where deleted_at is not null order by deleted_at, id""";
+
+  // Links into the wallet are dropped first, from any wallet, so deleting chunks never hits the self reference
+  private static final String UNLINK_RELATED_TRANSACTIONS = """
+      update accounting_transaction set related_transaction_id = null
+      where id in (
+        select t.id from accounting_transaction t
+        join accounting_transaction r on r.id = t.related_transaction_id
+        where r.wallet_id = ? limit ?)""";
+
+  private static final String DELETE_TRANSACTIONS = """
+      delete from accounting_transaction
+      where id in (select id from accounting_transaction where wallet_id = ? limit ?)""";
+
+  private static final String DELETE_ROLLUPS = """
+      delete from accounting_rollup
+      where (granularity, wallet_id, user_id, category_id, period_start) in (
+        select granularity, wallet_id, user_id, category_id, period_start from accounting_rollup
+        where wallet_id = ? limit ?)""";
+
+  private static final String DELETE_PERMISSIONS = """
+      delete from accounting_wallet_permissions
+      where id in (select id from accounting_wallet_permissions where wallet_id = ? limit ?)""";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public WalletPurgeRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Wallets deleted but not purged yet, oldest deletion first.
+   */
+  public List<Long> findDeletedWalletIds() {
+    return jdbcTemplate.queryForList(DELETED_WALLETS, Long.class);
+  }
+
+  /**
+   * @return the number of transactions, of any wallet, whose link into the wallet was dropped
+   */
+  public int unlinkRelatedTransactions(Long walletId, int limit) {
+    return jdbcTemplate.update(UNLINK_RELATED_TRANSACTIONS, walletId, limit);
+  }
+
+  public int deleteTransactions(Long walletId, int limit) {
+    return jdbcTemplate.update(DELETE_TRANSACTIONS, walletId, limit);
+  }
+
+  public int deleteRollups(Long walletId, int limit) {
+    return jdbcTemplate.update(DELETE_ROLLUPS, walletId, limit);
+  }
+
+  public int deletePermissions(Long walletId, int limit) {
+    return jdbcTemplate.update(DELETE_PERMISSIONS, walletId, limit);
+  }
+
+  /**
+   * Removes the balance snapshot and the wallet itself, once nothing references it anymore.
+   */
+  @Transactional
+  public void deleteWallet(Long walletId) {
+    jdbcTemplate.update("delete from accounting_wallet_balance where wallet_id = ?", walletId);
+    jdbcTemplate.update("delete from accounting_wallets where id = ? and deleted_at is not null", walletId);
+  }
+}
@@ -1,15 +1,60 @@
 package gse.home.personalmanager.accounting.infrastructure.repository;
 
 import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.domain.model.WalletAccess;
+import gse.home.personalmanager.accounting.domain.model.WalletView;
 import gse.home.personalmanager.user.domain.model.AppUser;
 import gse.home.personalmanager.user.domain.model.Tenant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface WalletRepository extends JpaRepository<Wallet, Long> {
+
+    /**
+     * Wallet with its owner, tenant, balance snapshot and the role of :userId, in one statement.
+     * Field order follows the {@link WalletView} components.
+     */
+    String WALLET_VIEW = "select new gse.home.personalmanager.accounting.domain.model.WalletView("
+            + "w.id, w.name, w.description, o.id, o.email, t.id, t.name, w.createdAt, w.updatedAt, b.balance, "
+            + "case when o.id = :userId then '" + WalletView.ROLE_OWNER + "' "
+            + "when p.role = gse.home.personalmanager.accounting.domain.model.WalletRole.WRITE then 'WRITE' "
+            + "when p.role = gse.home.personalmanager.accounting.domain.model.WalletRole.READ then 'READ' end) "
+            + "from accounting_wallets w "
+            + "join w.owner o "
+            + "left join w.tenant t "
+            + "left join accounting_wallet_balance b on b.walletId = w.id "
+            + "left join accounting_wallet_permissions p on p.wallet = w and p.user.id = :userId ";
+
     List<Wallet> findAllByOwner(AppUser owner);
     List<Wallet> findAllByTenant(Tenant tenant);
+
+    @Query("select w.id from accounting_wallets w order by w.id")
+    List<Long> findAllIds();
+
+    /**
+     * Wallets owned by or shared with the user.
+     */
+    @Query(WALLET_VIEW + "where o.id = :userId or p.id is not null order by w.id")
+    List<WalletView> findWalletViewsForUser(@Param("userId") Long userId);
+
+    @Query(WALLET_VIEW + "where t.id = :tenantId order by w.id")
+    List<WalletView> findWalletViewsForTenant(@Param("tenantId") Long tenantId, @Param("userId") Long userId);
+
+    @Query(WALLET_VIEW + "where w.id = :walletId")
+    Optional<WalletView> findWalletView(@Param("walletId") Long walletId, @Param("userId") Long userId);
+
+    /**
+     * Wallets :userId owns or holds a permission on, with the owner and the permission's role.
+     */
+    @Query("select new gse.home.personalmanager.accounting.domain.model.WalletAccess(w.id, w.owner.id, p.role) "
+            + "from accounting_wallets w "
+            + "left join accounting_wallet_permissions p on p.wallet = w and p.user.id = :userId "
+            + "where w.owner.id = :userId or p.id is not null")
+    List<WalletAccess> findAccessForUser(@Param("userId") Long userId);
 }
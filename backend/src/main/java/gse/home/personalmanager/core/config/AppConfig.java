@@ -7,9 +7,11 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
 @EnableAsync
+@EnableScheduling
 @EnableFeignClients(basePackages = "gse.home.personalmanager")
 @EnableJpaRepositories(basePackages = {
         "gse.home.personalmanager.todo.infrastructure.repository",
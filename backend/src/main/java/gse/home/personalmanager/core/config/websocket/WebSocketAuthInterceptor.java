@@ -1,62 +1,78 @@
 package gse.home.personalmanager.core.config.websocket;
 
-import gse.home.personalmanager.user.application.service.UserAuthService;
-import gse.home.personalmanager.user.domain.model.AppUser;
+import gse.home.personalmanager.security.FirebaseTokenAuthenticator;
+import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
-import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
-import java.security.Principal;
-import java.util.List;
-
+/**
+ * Authenticates STOMP sessions with the same Firebase ID token as the REST API.
+ * <p>
+ * The token is read from the {@code Authorization} header of the CONNECT frame and resolved
+ * through {@link FirebaseTokenAuthenticator}, so a reconnect with a token seen before costs
+ * neither a signature check nor a user lookup. The resulting principal is set once on CONNECT;
+ * Spring keeps it for the rest of the session, so SUBSCRIBE and SEND frames only check that it
+ * is there.
+ */
 @Slf4j
 @Component
 @AllArgsConstructor
 public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
-    private final UserAuthService userAuthService;
+    private final FirebaseTokenAuthenticator tokenAuthenticator;
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
         StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
 
-        if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
-            // Extract user ID from the connect headers
-            List<String> userIdHeaders = accessor.getNativeHeader("userId");
-
-            if (userIdHeaders != null && !userIdHeaders.isEmpty()) {
-                String firebaseUid = userIdHeaders.get(0);
-                log.info("WebSocket CONNECT from Firebase UID: {}", firebaseUid);
-
-                // Look up or create the user by Firebase UID
-                // Note: We don't have email in WebSocket headers, but UserAuthService will handle null email
-                AppUser user = userAuthService.findOrCreateByFirebaseUid(firebaseUid, null);
-
-                if (user != null) {
-                    // Create a principal with the database user ID
-                    Principal principal = new UsernamePasswordAuthenticationToken(
-                            user.getId().toString(),
-                            null,
-                            List.of()
-                    );
-                    accessor.setUser(principal);
-                    log.info("WebSocket user authenticated: Firebase UID {} -> User ID {}", firebaseUid, user.getId());
-                    log.info("Principal name set to: {}", principal.getName());
-                } else {
-                    log.warn("Failed to create/find user for Firebase UID: {}", firebaseUid);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        switch (accessor.getCommand()) {
+            case CONNECT -> {
+                WebSocketPrincipal principal = authenticate(accessor.getFirstNativeHeader("Authorization"));
+                accessor.setUser(principal);
+                log.debug("WebSocket session {} authenticated as user {}", accessor.getSessionId(), principal.getName());
+            }
+            case SUBSCRIBE, SEND -> {
+                if (accessor.getUser() == null) {
+                    throw new AccessDeniedException("WebSocket session is not authenticated");
                 }
-            } else {
-                log.warn("No userId header in WebSocket CONNECT");
+            }
+            default -> {
             }
         }
 
         return message;
     }
+
+    private WebSocketPrincipal authenticate(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            log.warn("No bearer token in WebSocket CONNECT");
+            throw new BadCredentialsException("Missing bearer token");
+        }
+
+        Authentication auth;
+        try {
+            auth = tokenAuthenticator.authenticate(authorization.substring(7));
+        } catch (Exception e) {
+            log.warn("Rejected WebSocket CONNECT: {}", e.getMessage());
+            throw new BadCredentialsException("Invalid or expired token", e);
+        }
+
+        if (!(auth.getPrincipal() instanceof AppUserPrincipal user)) {
+            throw new BadCredentialsException("Unexpected principal type");
+        }
+        return new WebSocketPrincipal(user);
+    }
 }
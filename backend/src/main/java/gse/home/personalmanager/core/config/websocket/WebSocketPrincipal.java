@@ -0,0 +1,17 @@
+package gse.home.personalmanager.core.config.websocket;
+
+import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
+
+import java.security.Principal;
+
+/**
+ * Principal bound to a STOMP session on CONNECT. Named after the database user id so that
+ * {@code convertAndSendToUser(userId.toString(), ...)} reaches the user's sessions.
+ */
+public record WebSocketPrincipal(AppUserPrincipal user) implements Principal {
+
+    @Override
+    public String getName() {
+        return String.valueOf(user.id());
+    }
+}
@@ -0,0 +1,261 @@
+package gse.home.personalmanager.core.utils;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Caches the Firebase signing certificates published at the Google x509 metadata URL.
+ * <p>
+ * Each certificate is parsed once into an {@link RSAPublicKey} and a ready {@link JWTVerifier}
+ * keyed by {@code kid}. The key set is kept for the Cache-Control max-age of the metadata
+ * response and refreshed in the background shortly before it expires. An unknown {@code kid}
+ * triggers a single-flight refetch: concurrent callers wait for the same download instead of
+ * each opening their own connection.
+ */
+@Slf4j
+@Component
+public class FirebaseKeyStore {
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+    private static final TypeReference<Map<String, String>> CERTS_TYPE = new TypeReference<>() {
+    };
+
+    private final String projectId;
+    private final URI metadataUri;
+    private final Duration refreshMargin;
+    private final Duration minRefetchInterval;
+    private final Duration defaultMaxAge;
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final ScheduledExecutorService refresher;
+
+    private volatile KeySet keys;
+    private ScheduledFuture<?> scheduledRefresh;
+
+    public FirebaseKeyStore(@Value("${firebase.project-id}") String projectId,
+                            @Value("${firebase.certs.url:https://www.googleapis.com/robot/v1/metadata/x509/securetoken@system.gserviceaccount.com}") String metadataUrl,
+                            @Value("${firebase.certs.refresh-margin:PT5M}") Duration refreshMargin,
+                            @Value("${firebase.certs.min-refetch-interval:PT30S}") Duration minRefetchInterval,
+                            @Value("${firebase.certs.default-max-age:PT1H}") Duration defaultMaxAge,
+                            @Value("${firebase.certs.timeout:PT5S}") Duration timeout) {
+        this.projectId = projectId;
+        this.metadataUri = URI.create(metadataUrl);
+        this.refreshMargin = refreshMargin;
+        this.minRefetchInterval = minRefetchInterval;
+        this.defaultMaxAge = defaultMaxAge;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "firebase-key-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the verifier for the given key id, fetching the key set when it is missing,
+     * expired, or does not know the key id yet.
+     */
+    public JWTVerifier getVerifier(String kid) {
+        if (kid == null) {
+            throw new JWTVerificationException("Token has no kid header");
+        }
+
+        KeySet current = keys;
+        if (current == null || current.isExpired()) {
+            current = refresh(current);
+        }
+
+        KeyEntry entry = current.entries().get(kid);
+        if (entry == null && !current.fetchedAt().plus(minRefetchInterval).isAfter(Instant.now())) {
+            // Google may have rotated keys before our max-age ran out
+            current = refresh(current);
+            entry = current.entries().get(kid);
+        }
+
+        if (entry == null) {
+            throw new JWTVerificationException("No public key found for kid: " + kid);
+        }
+        return entry.verifier();
+    }
+
+    /**
+     * Returns the cached public key for the given key id, or null when it is not known.
+     */
+    public RSAPublicKey getPublicKey(String kid) {
+        KeySet current = keys;
+        if (current == null) {
+            return null;
+        }
+        KeyEntry entry = current.entries().get(kid);
+        return entry != null ? entry.publicKey() : null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Fetches a new key set unless another thread already replaced {@code seen} while we were
+     * waiting for the lock, in which case that result is reused.
+     */
+    private KeySet refresh(KeySet seen) {
+        refreshLock.lock();
+        try {
+            KeySet current = keys;
+            if (current != seen && current != null && !current.isExpired()) {
+                return current;
+            }
+            try {
+                KeySet fresh = fetchKeys();
+                keys = fresh;
+                scheduleRefresh(fresh);
+                log.debug("Loaded {} Firebase signing keys, valid until {}", fresh.entries().size(), fresh.expiresAt());
+                return fresh;
+            } catch (RuntimeException e) {
+                if (current == null) {
+                    throw e;
+                }
+                // Keep serving the previous keys for a short grace period rather than failing
+                // (or refetching on) every request while the endpoint is unavailable
+                log.warn("Failed to refresh Firebase signing keys, keeping {} cached keys: {}",
+                        current.entries().size(), e.getMessage());
+                KeySet extended = new KeySet(current.entries(), Instant.now(), Instant.now().plus(minRefetchInterval));
+                keys = extended;
+                scheduleRetry();
+                return extended;
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private KeySet fetchKeys() {
+        HttpRequest request = HttpRequest.newBuilder(metadataUri).GET().build();
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not fetch Firebase signing keys", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fetching Firebase signing keys", e);
+        }
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Firebase key endpoint returned HTTP " + response.statusCode());
+        }
+
+        Map<String, String> certs;
+        try {
+            certs = objectMapper.readValue(response.body(), CERTS_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Malformed Firebase key response", e);
+        }
+
+        Map<String, KeyEntry> entries = new HashMap<>(certs.size());
+        certs.forEach((kid, pem) -> {
+            RSAPublicKey publicKey = parseCertificate(pem);
+            JWTVerifier verifier = JWT.require(Algorithm.RSA256(publicKey, null))
+                    .withAudience(projectId)
+                    .withIssuer("https://securetoken.google.com/" + projectId)
+                    .build();
+            entries.put(kid, new KeyEntry(publicKey, verifier));
+        });
+
+        Instant now = Instant.now();
+        Duration maxAge = response.headers().firstValue("Cache-Control")
+                .flatMap(FirebaseKeyStore::parseMaxAge)
+                .orElse(defaultMaxAge);
+        return new KeySet(Map.copyOf(entries), now, now.plus(maxAge));
+    }
+
+    private void scheduleRefresh(KeySet keySet) {
+        Duration untilExpiry = Duration.between(Instant.now(), keySet.expiresAt());
+        Duration delay = untilExpiry.minus(refreshMargin);
+        if (delay.isNegative() || delay.isZero()) {
+            // Too short-lived to refresh ahead of time; the next request refetches instead
+            return;
+        }
+        schedule(delay);
+    }
+
+    private void scheduleRetry() {
+        schedule(minRefetchInterval);
+    }
+
+    private void schedule(Duration delay) {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        scheduledRefresh = refresher.schedule(() -> {
+            try {
+                refresh(keys);
+            } catch (RuntimeException e) {
+                log.warn("Background refresh of Firebase signing keys failed: {}", e.getMessage());
+            }
+        }, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    static Optional<Duration> parseMaxAge(String cacheControl) {
+        Matcher matcher = MAX_AGE.matcher(cacheControl);
+        return matcher.find() ? Optional.of(Duration.ofSeconds(Long.parseLong(matcher.group(1)))) : Optional.empty();
+    }
+
+    private static RSAPublicKey parseCertificate(String certPem) {
+        String body = certPem.replace("-----BEGIN CERTIFICATE-----", "")
+                .replace("-----END CERTIFICATE-----", "")
+                .replaceAll("\\s+", "");
+        try {
+            byte[] decoded = Base64.getDecoder().decode(body);
+            CertificateFactory cf = CertificateFactory.getInstance("X.509");
+            X509Certificate cert = (X509Certificate) cf.generateCertificate(new ByteArrayInputStream(decoded));
+            return (RSAPublicKey) cert.getPublicKey();
+        } catch (CertificateException | IllegalArgumentException | ClassCastException e) {
+            throw new IllegalStateException("Invalid Firebase signing certificate", e);
+        }
+    }
+
+    private record KeyEntry(RSAPublicKey publicKey, JWTVerifier verifier) {
+    }
+
+    private record KeySet(Map<String, KeyEntry> entries, Instant fetchedAt, Instant expiresAt) {
+        boolean isExpired() {
+            return !Instant.now().isBefore(expiresAt);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package gse.home.personalmanager.core.utils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lets at most one log line through per interval for a noisy event, and counts the ones it
+ * suppressed so the line that does get logged can report them.
+ * <p>
+ * Lock-free: callers that are not sampled only bump a {@link LongAdder}.
+ */
+public class LogSampler {
+
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong nextLogAt;
+    private final LongAdder suppressed = new LongAdder();
+
+    public LogSampler(Duration interval) {
+        this(interval, System::nanoTime);
+    }
+
+    LogSampler(Duration interval, LongSupplier nanoClock) {
+        this.intervalNanos = interval.toNanos();
+        this.nanoClock = nanoClock;
+        this.nextLogAt = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Returns the number of events suppressed since the last sampled one when this event
+     * should be logged, or -1 when it should be dropped.
+     */
+    public long sample() {
+        long now = nanoClock.getAsLong();
+        long next = nextLogAt.get();
+        if (now - next >= 0 && nextLogAt.compareAndSet(next, now + intervalNanos)) {
+            return suppressed.sumThenReset();
+        }
+        suppressed.increment();
+        return -1;
+    }
+}
@@ -6,6 +6,6 @@ import lombok.experimental.UtilityClass;
 @UtilityClass
 public class UserUtils {
     public static Long getUserId(AppUserPrincipal userPrincipal) {
-        return userPrincipal.getUser().getId();
+        return userPrincipal.id();
     }
 }
@@ -23,7 +23,7 @@ public class GamificationController {
     private final GamificationUseCaseService useCaseService;
 
     private static Long getUserId(AppUserPrincipal userPrincipal) {
-        return userPrincipal.getUser().getId();
+        return userPrincipal.id();
     }
 
     @GetMapping("/profile")
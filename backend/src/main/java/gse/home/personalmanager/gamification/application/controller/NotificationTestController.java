@@ -21,7 +21,7 @@ public class NotificationTestController {
 
     @PostMapping("/test")
     public ResponseEntity<String> sendTestNotification(@AuthenticationPrincipal AppUserPrincipal principal) {
-        Long userId = principal.getUser().getId();
+        Long userId = principal.id();
         log.info("Test notification requested by user {}", userId);
         
         NotificationDTO testNotification = NotificationDTO.essenceGained(50, "Test source");
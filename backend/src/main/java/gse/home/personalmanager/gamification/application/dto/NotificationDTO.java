@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 
 @Data
 @NoArgsConstructor
@@ -79,4 +80,18 @@ public class NotificationDTO {
         notification.setRead(false);
         return notification;
     }
+
+    public static NotificationDTO budgetAlert(String categoryTitle, YearMonth month, double spent, double budget,
+                                              boolean exceeded) {
+        NotificationDTO notification = new NotificationDTO();
+        notification.setId(java.util.UUID.randomUUID().toString());
+        notification.setType(exceeded ? NotificationType.BUDGET_EXCEEDED : NotificationType.BUDGET_WARNING);
+        notification.setTitle(exceeded ? "Budget Exceeded!" : "Budget Almost Spent");
+        notification.setMessage(String.format("%s: %.2f spent of %.2f in %s (%d%%)", categoryTitle, spent, budget,
+                month, Math.round(spent * 100 / budget)));
+        notification.setIcon(exceeded ? "🚨" : "⚠️");
+        notification.setTimestamp(LocalDateTime.now());
+        notification.setRead(false);
+        return notification;
+    }
 }
@@ -4,5 +4,7 @@ public enum NotificationType {
     ESSENCE_GAINED,
     LEVEL_UP,
     ACHIEVEMENT_UNLOCKED,
-    REWARD_UNLOCKED
+    REWARD_UNLOCKED,
+    BUDGET_WARNING,
+    BUDGET_EXCEEDED
 }
@@ -0,0 +1,106 @@
+package gse.home.personalmanager.security;
+
+import com.auth0.jwt.exceptions.AlgorithmMismatchException;
+import com.auth0.jwt.exceptions.InvalidClaimException;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the stages of bearer-token authentication.
+ * <p>
+ * {@code auth.stage} is a timer per {@link Stage} with a percentile histogram (and p50/p95/p99
+ * gauges for {@code /actuator/metrics}); {@code auth.failures} counts rejected tokens by stage
+ * and reason. Stages served from the token cache are not timed, so the timers describe the
+ * cost of a cache miss.
+ */
+@Component
+public class AuthenticationMetrics {
+
+    static final String STAGE_TIMER = "auth.stage";
+    static final String FAILURE_COUNTER = "auth.failures";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Stage, Timer> timers = new EnumMap<>(Stage.class);
+
+    public AuthenticationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Stage stage : Stage.values()) {
+            timers.put(stage, Timer.builder(STAGE_TIMER)
+                    .description("Time spent in each bearer-token authentication stage")
+                    .tag("stage", stage.tagValue())
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .minimumExpectedValue(Duration.ofNanos(500))
+                    .maximumExpectedValue(Duration.ofSeconds(5))
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}, a {@link System#nanoTime()} reading.
+     */
+    public void record(Stage stage, long startNanos) {
+        timers.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a rejected token and returns the reason it was filed under.
+     */
+    public String recordFailure(Stage stage, Throwable error) {
+        String reason = reason(stage, error);
+        Counter.builder(FAILURE_COUNTER)
+                .description("Bearer tokens rejected, by stage and reason")
+                .tag("stage", stage.tagValue())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return reason;
+    }
+
+    static String reason(Stage stage, Throwable error) {
+        return switch (stage) {
+            case EXTRACTION -> "malformed_header";
+            case KEY_RESOLUTION -> {
+                if (error instanceof JWTDecodeException) {
+                    yield "malformed_token";
+                }
+                yield error instanceof JWTVerificationException ? "unknown_key" : "key_fetch_failed";
+            }
+            case SIGNATURE_VERIFICATION -> {
+                if (error instanceof TokenExpiredException) {
+                    yield "expired";
+                } else if (error instanceof SignatureVerificationException) {
+                    yield "bad_signature";
+                } else if (error instanceof AlgorithmMismatchException) {
+                    yield "algorithm_mismatch";
+                } else if (error instanceof InvalidClaimException) {
+                    yield "invalid_claims";
+                }
+                yield "invalid_token";
+            }
+            case USER_RESOLUTION -> "user_resolution_failed";
+        };
+    }
+
+    public enum Stage {
+        EXTRACTION,
+        KEY_RESOLUTION,
+        SIGNATURE_VERIFICATION,
+        USER_RESOLUTION;
+
+        String tagValue() {
+            return name().toLowerCase();
+        }
+    }
+}
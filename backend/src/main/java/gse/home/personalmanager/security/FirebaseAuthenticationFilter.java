@@ -1,74 +1,67 @@
 package gse.home.personalmanager.security;
 
-import com.auth0.jwt.interfaces.DecodedJWT;
+import com.auth0.jwt.exceptions.JWTVerificationException;
 import gse.home.personalmanager.core.exception.FirebaseAuthException;
-import gse.home.personalmanager.core.utils.JwtUtils;
-import gse.home.personalmanager.user.application.service.UserAuthService;
-import gse.home.personalmanager.user.domain.model.AppUser;
-import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
+import gse.home.personalmanager.core.utils.LogSampler;
+import gse.home.personalmanager.security.AuthenticationMetrics.Stage;
 import jakarta.annotation.Nonnull;
 import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
 
 
+@Slf4j
 @Component
 public class FirebaseAuthenticationFilter extends OncePerRequestFilter {
-    private final JwtUtils jwtUtils;
-    private final UserAuthService userAuthService;
+    private final FirebaseTokenAuthenticator tokenAuthenticator;
+    private final AuthenticationMetrics metrics;
 
-    public FirebaseAuthenticationFilter(JwtUtils jwtUtils, UserAuthService userAuthService) {
-        this.jwtUtils = jwtUtils;
-        this.userAuthService = userAuthService;
+    // Both happen on every anonymous or attacking request, so only a sample is logged
+    private final LogSampler missingTokenLog = new LogSampler(Duration.ofMinutes(1));
+    private final LogSampler rejectedTokenLog = new LogSampler(Duration.ofSeconds(10));
+
+    public FirebaseAuthenticationFilter(FirebaseTokenAuthenticator tokenAuthenticator, AuthenticationMetrics metrics) {
+        this.tokenAuthenticator = tokenAuthenticator;
+        this.metrics = metrics;
     }
 
     @Override
     protected void doFilterInternal(@Nonnull HttpServletRequest request,
                                     @Nonnull HttpServletResponse response,
-                                    @Nonnull FilterChain filterChain) throws IOException {
-        try {
-            // 1. Extract token from Authorization header
-            String token = extractToken(request);
-
-            if (token != null) {
-                // 2. Verify with Firebase Admin SDK
-                DecodedJWT decodedToken = jwtUtils.validateToken(token);
-
-                // 3. Extract user info
-                String firebaseUid = decodedToken.getSubject();
-                String email = decodedToken.getClaim("email").asString();
-
-                // 4. Load or create user in your database
-                AppUser user = userAuthService.findOrCreateByFirebaseUid(firebaseUid, email);
+                                    @Nonnull FilterChain filterChain) throws ServletException, IOException {
+        // 1. Extract token from Authorization header
+        long start = System.nanoTime();
+        String token = extractToken(request);
+        metrics.record(Stage.EXTRACTION, start);
 
-                // 5. Create Spring Security authentication
-                AppUserPrincipal principal = new AppUserPrincipal(user);
-                Authentication auth = new UsernamePasswordAuthenticationToken(
-                        principal,
-                        null,
-                        principal.getAuthorities()  // Roles: ROLE_USER, ROLE_ADMIN
-                );
+        if (token != null) {
+            try {
+                // 2. Verify the token and resolve the user (cached per token)
+                Authentication auth = tokenAuthenticator.authenticate(token);
 
-                // 6. Set in SecurityContext
+                // 3. Set in SecurityContext
                 SecurityContextHolder.getContext().setAuthentication(auth);
+            } catch (FirebaseAuthException | JWTVerificationException e) {
+                // Token invalid/expired
+                logRejected(request, e);
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                response.getWriter().write("Invalid or expired token");
+                return;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
             }
-
-            filterChain.doFilter(request, response);
-
-        } catch (FirebaseAuthException e) {
-            // Token invalid/expired
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            response.getWriter().write("Invalid or expired token");
-        } catch (Exception e) {
-            throw new RuntimeException(e);
         }
+
+        filterChain.doFilter(request, response);
     }
 
     private String extractToken(HttpServletRequest request) {
@@ -76,7 +69,29 @@ public class FirebaseAuthenticationFilter extends OncePerRequestFilter {
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7);
         }
-        System.out.println("No token found in Authorization header");
+        if (bearerToken != null && !bearerToken.isEmpty()) {
+            metrics.recordFailure(Stage.EXTRACTION, null);
+        }
+        if (log.isDebugEnabled()) {
+            long suppressed = missingTokenLog.sample();
+            if (suppressed >= 0) {
+                log.atDebug()
+                        .addKeyValue("path", request.getRequestURI())
+                        .addKeyValue("suppressed", suppressed)
+                        .log("No bearer token in Authorization header");
+            }
+        }
         return null;
     }
+
+    private void logRejected(HttpServletRequest request, Exception e) {
+        long suppressed = rejectedTokenLog.sample();
+        if (suppressed >= 0) {
+            log.atInfo()
+                    .addKeyValue("path", request.getRequestURI())
+                    .addKeyValue("error", e.getClass().getSimpleName())
+                    .addKeyValue("suppressed", suppressed)
+                    .log("Rejected bearer token: {}", e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,129 @@
+package gse.home.personalmanager.security;
+
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import gse.home.personalmanager.core.utils.JwtUtils;
+import gse.home.personalmanager.security.AuthenticationMetrics.Stage;
+import gse.home.personalmanager.user.application.service.UserAuthService;
+import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
+import lombok.AllArgsConstructor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Turns a Firebase ID token into an {@link Authentication}, shared by the HTTP filter and the
+ * WebSocket CONNECT interceptor. A token is verified and its user resolved only the first time
+ * it is seen; later calls are served from {@link TokenAuthenticationCache}. Concurrent first
+ * uses of the same token, e.g. a reconnect storm after a deploy, wait for a single verification.
+ */
+@Component
+@AllArgsConstructor
+public class FirebaseTokenAuthenticator {
+
+    private final JwtUtils jwtUtils;
+    private final UserAuthService userAuthService;
+    private final TokenAuthenticationCache tokenCache;
+    private final AuthenticationMetrics metrics;
+    private final ConcurrentMap<String, CompletableFuture<Authentication>> inFlight = new ConcurrentHashMap<>();
+
+    public Authentication authenticate(String token) throws Exception {
+        // Reuse a previous verification of the same token (no crypto, no SQL)
+        Authentication cached = tokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<Authentication> mine = new CompletableFuture<>();
+        CompletableFuture<Authentication> pending = inFlight.putIfAbsent(token, mine);
+        if (pending != null) {
+            return await(pending);
+        }
+        try {
+            // Another thread may have finished verifying between our cache miss and putIfAbsent
+            Authentication auth = tokenCache.get(token);
+            if (auth == null) {
+                auth = verify(token);
+            }
+            mine.complete(auth);
+            return auth;
+        } catch (Exception e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(token, mine);
+        }
+    }
+
+    private Authentication verify(String token) throws Exception {
+        // Verify with Firebase signing keys
+        DecodedJWT decodedToken = validate(token);
+
+        // Extract user info
+        String firebaseUid = decodedToken.getSubject();
+        String email = decodedToken.getClaim("email").asString();
+
+        // Load or create user in your database (cached by firebaseUid)
+        long start = System.nanoTime();
+        AppUserPrincipal principal;
+        try {
+            principal = userAuthService.loadPrincipal(firebaseUid, email);
+        } catch (RuntimeException e) {
+            metrics.recordFailure(Stage.USER_RESOLUTION, e);
+            throw e;
+        } finally {
+            metrics.record(Stage.USER_RESOLUTION, start);
+        }
+
+        // Create Spring Security authentication
+        Authentication auth = new UsernamePasswordAuthenticationToken(
+                principal,
+                null,
+                principal.getAuthorities()  // Roles: ROLE_USER, ROLE_ADMIN
+        );
+
+        tokenCache.put(token, auth, decodedToken.getExpiresAtAsInstant());
+        return auth;
+    }
+
+    private DecodedJWT validate(String token) {
+        long start = System.nanoTime();
+        DecodedJWT unverified;
+        JWTVerifier verifier;
+        try {
+            unverified = jwtUtils.decode(token);
+            verifier = jwtUtils.resolveVerifier(unverified);
+        } catch (RuntimeException e) {
+            metrics.recordFailure(Stage.KEY_RESOLUTION, e);
+            throw e;
+        } finally {
+            metrics.record(Stage.KEY_RESOLUTION, start);
+        }
+
+        start = System.nanoTime();
+        try {
+            return verifier.verify(unverified);
+        } catch (RuntimeException e) {
+            metrics.recordFailure(Stage.SIGNATURE_VERIFICATION, e);
+            throw e;
+        } finally {
+            metrics.record(Stage.SIGNATURE_VERIFICATION, start);
+        }
+    }
+
+    private static Authentication await(CompletableFuture<Authentication> pending) throws Exception {
+        try {
+            return pending.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
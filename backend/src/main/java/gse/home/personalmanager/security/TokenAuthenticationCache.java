@@ -0,0 +1,122 @@
+package gse.home.personalmanager.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import gse.home.personalmanager.user.domain.event.UserChangedEvent;
+import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Bounded cache of already verified bearer tokens.
+ * <p>
+ * The SPA sends the same Firebase ID token for up to an hour, so once a token has passed
+ * signature verification and user resolution the resulting {@link Authentication} is kept
+ * until the token's {@code exp}. Entries are keyed by a SHA-256 digest of the token so the
+ * raw credential is never held as a map key, and the cache is size-bounded so a flood of
+ * distinct tokens evicts the least recently used ones.
+ * <p>
+ * Hit, miss and eviction counts are published as the {@code cache.*} meters tagged
+ * {@code cache=auth.tokens}.
+ */
+@Component
+public class TokenAuthenticationCache {
+
+    static final String CACHE_NAME = "auth.tokens";
+
+    private final Cache<String, CachedAuthentication> cache;
+
+    public TokenAuthenticationCache(MeterRegistry meterRegistry,
+                                    @Value("${security.token-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached authentication for this token, or null when it has not been
+     * verified yet or has expired.
+     */
+    public Authentication get(String token) {
+        CachedAuthentication cached = cache.getIfPresent(digest(token));
+        if (cached == null || !Instant.now().isBefore(cached.expiresAt())) {
+            return null;
+        }
+        return cached.authentication();
+    }
+
+    /**
+     * Caches a verified token until its expiry. Tokens without an expiry are not cached.
+     */
+    public void put(String token, Authentication authentication, Instant expiresAt) {
+        if (expiresAt == null || !Instant.now().isBefore(expiresAt)) {
+            return;
+        }
+        cache.put(digest(token), new CachedAuthentication(authentication, expiresAt));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Drops the tokens of a user whose role, tag or tenant changed, so the next request
+     * resolves a fresh principal instead of serving the stale one until the token expires.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        Long userId = event.getUserId();
+        cache.asMap().values().removeIf(cached ->
+                cached.authentication().getPrincipal() instanceof AppUserPrincipal principal
+                        && userId != null && userId.equals(principal.id()));
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CachedAuthentication(Authentication authentication, Instant expiresAt) {
+    }
+
+    private static class UntilTokenExpiry implements Expiry<String, CachedAuthentication> {
+        @Override
+        public long expireAfterCreate(String key, CachedAuthentication value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
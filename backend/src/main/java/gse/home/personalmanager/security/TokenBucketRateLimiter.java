@@ -0,0 +1,86 @@
+package gse.home.personalmanager.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets keyed by caller, refilled continuously at {@code capacity / refillPeriod}.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the instant (in {@link System#nanoTime()}
+ * units) at which it will be full again, so taking tokens is one CAS with no lock. Buckets live
+ * in a size-bounded Caffeine cache and are dropped once idle for a full refill period, at which
+ * point they would be full anyway.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long capacity;
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBucketRateLimiter(long capacity, Duration refillPeriod, long maxBuckets) {
+        this(capacity, refillPeriod, maxBuckets, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(long capacity, Duration refillPeriod, long maxBuckets, LongSupplier nanoClock) {
+        if (capacity <= 0 || refillPeriod.isZero() || refillPeriod.isNegative()) {
+            throw new IllegalArgumentException("Rate limit capacity and refill period must be positive");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = Math.max(1, refillPeriod.toNanos() / capacity);
+        this.burstNanos = nanosPerToken * capacity;
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(Duration.ofNanos(burstNanos))
+                .build();
+    }
+
+    /**
+     * Takes {@code cost} tokens from the bucket of {@code key} if it holds that many.
+     * A cost above the capacity is charged as a full bucket.
+     */
+    public Decision tryAcquire(String key, int cost) {
+        long now = nanoClock.getAsLong();
+        long charge = Math.min(Math.max(cost, 1), capacity) * nanosPerToken;
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now));
+
+        while (true) {
+            long fullAt = bucket.get();
+            long base = Math.max(fullAt, now);
+            long newFullAt = base + charge;
+            long debt = newFullAt - now;
+
+            if (debt > burstNanos) {
+                return new Decision(false, capacity, remaining(base - now),
+                        Duration.ofNanos(base - now), Duration.ofNanos(debt - burstNanos));
+            }
+            if (bucket.compareAndSet(fullAt, newFullAt)) {
+                return new Decision(true, capacity, remaining(debt), Duration.ofNanos(debt), Duration.ZERO);
+            }
+        }
+    }
+
+    long bucketCount() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    private long remaining(long debtNanos) {
+        return (burstNanos - debtNanos) / nanosPerToken;
+    }
+
+    /**
+     * Outcome of a {@link #tryAcquire} call.
+     *
+     * @param resetAfter time until the bucket is full again
+     * @param retryAfter time until the rejected request would fit, zero when allowed
+     */
+    public record Decision(boolean allowed, long limit, long remaining, Duration resetAfter, Duration retryAfter) {
+    }
+}
@@ -0,0 +1,131 @@
+package gse.home.personalmanager.security;
+
+import gse.home.personalmanager.security.config.RateLimitProperties;
+import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Per-user rate limiting, placed right after {@link FirebaseAuthenticationFilter} so buckets are
+ * keyed by the authenticated user id rather than the client IP. Unauthenticated calls fall back
+ * to a bucket per remote address.
+ * <p>
+ * Every response carries {@code RateLimit-Limit}, {@code RateLimit-Remaining} and
+ * {@code RateLimit-Reset} headers; rejected requests get a 429 with {@code Retry-After}.
+ * Decisions are counted in {@code ratelimit.requests} tagged by outcome and by the matching cost
+ * rule path, or {@code other} for every other request.
+ */
+public class UserRateLimitFilter extends OncePerRequestFilter {
+
+    static final String METRIC_NAME = "ratelimit.requests";
+
+    /**
+     * Route tag for requests no cost rule matches; tagging them by path would let clients grow
+     * one counter per distinct URL.
+     */
+    static final String OTHER_ROUTE = "other";
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final List<PathPattern> urlPatterns;
+    private final List<CostRule> costRules;
+
+    public UserRateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.rateLimiter = new TokenBucketRateLimiter(
+                properties.getCapacity(), properties.getRefillPeriod(), properties.getMaxBuckets());
+        this.meterRegistry = meterRegistry;
+        this.enabled = Boolean.TRUE.equals(properties.getEnabled());
+        this.urlPatterns = properties.getUrlPatterns().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+        this.costRules = properties.getCosts().stream()
+                .map(cost -> new CostRule(cost.getMethod(),
+                        PathPatternParser.defaultInstance.parse(cost.getPath()),
+                        cost.getWeight()))
+                .toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@Nonnull HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        PathContainer path = PathContainer.parsePath(pathOf(request));
+        return urlPatterns.stream().noneMatch(pattern -> pattern.matches(path));
+    }
+
+    @Override
+    protected void doFilterInternal(@Nonnull HttpServletRequest request,
+                                    @Nonnull HttpServletResponse response,
+                                    @Nonnull FilterChain filterChain) throws ServletException, IOException {
+        String path = pathOf(request);
+        CostRule rule = findRule(request.getMethod(), PathContainer.parsePath(path));
+        String route = rule != null ? rule.path().getPatternString() : OTHER_ROUTE;
+        int cost = rule != null ? rule.weight() : 1;
+
+        TokenBucketRateLimiter.Decision decision = rateLimiter.tryAcquire(bucketKey(request), cost);
+
+        response.setHeader("RateLimit-Limit", String.valueOf(decision.limit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(ceilSeconds(decision.resetAfter())));
+        counter(route, decision.allowed()).increment();
+
+        if (!decision.allowed()) {
+            response.setHeader("Retry-After", String.valueOf(ceilSeconds(decision.retryAfter())));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.getWriter().write("Too many requests");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private CostRule findRule(String method, PathContainer path) {
+        for (CostRule rule : costRules) {
+            if ((rule.method() == null || rule.method().equalsIgnoreCase(method)) && rule.path().matches(path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static String bucketKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof AppUserPrincipal principal) {
+            return "user:" + principal.id();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private Counter counter(String route, boolean allowed) {
+        return meterRegistry.counter(METRIC_NAME, "route", route, "outcome", allowed ? "allowed" : "rejected");
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static long ceilSeconds(Duration duration) {
+        return (duration.toMillis() + 999) / 1000;
+    }
+
+    private record CostRule(String method, PathPattern path, int weight) {
+    }
+}
@@ -0,0 +1,40 @@
+package gse.home.personalmanager.security.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "security.rate-limit")
+public class RateLimitProperties {
+
+    private Boolean enabled = true;
+    private List<String> urlPatterns = new ArrayList<>(List.of("/v1/**"));
+
+    /**
+     * Tokens per user bucket, refilled evenly over {@link #refillPeriod}.
+     */
+    private Long capacity = 200L;
+    private Duration refillPeriod = Duration.ofSeconds(60);
+    private Long maxBuckets = 100_000L;
+
+    /**
+     * Requests that take more than one token, first match wins.
+     */
+    private List<Cost> costs = new ArrayList<>();
+
+    @Data
+    public static class Cost {
+        /**
+         * HTTP method, or null for any method.
+         */
+        private String method;
+        private String path;
+        private Integer weight = 1;
+    }
+}
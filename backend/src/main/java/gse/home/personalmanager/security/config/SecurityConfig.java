@@ -1,6 +1,7 @@
 package gse.home.personalmanager.security.config;
 
 import gse.home.personalmanager.security.FirebaseAuthenticationFilter;
+import gse.home.personalmanager.security.UserRateLimitFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -23,9 +24,11 @@ import java.util.List;
 public class SecurityConfig {
 
     private final FirebaseAuthenticationFilter firebaseAuthFilter;
+    private final UserRateLimitFilter rateLimitFilter;
 
-    public SecurityConfig(FirebaseAuthenticationFilter firebaseAuthFilter) {
+    public SecurityConfig(FirebaseAuthenticationFilter firebaseAuthFilter, UserRateLimitFilter rateLimitFilter) {
         this.firebaseAuthFilter = firebaseAuthFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     @Bean
@@ -54,7 +57,9 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
                 // Add Firebase filter before Spring's default auth filter
-                .addFilterBefore(firebaseAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(firebaseAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // Rate limit per authenticated user, so it must run once the principal is known
+                .addFilterAfter(rateLimitFilter, FirebaseAuthenticationFilter.class);
 
         return http.build();
     }
@@ -74,6 +79,7 @@ public class SecurityConfig {
         ));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(List.of("*"));
+        configuration.setExposedHeaders(List.of("RateLimit-Limit", "RateLimit-Remaining", "RateLimit-Reset", "Retry-After"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
@@ -19,7 +19,7 @@ public class TodoController {
     TodoUseCaseService useCaseService;
 
     private static Long getUserId(AppUserPrincipal userPrincipal) {
-        return userPrincipal.getUser().getId();
+        return userPrincipal.id();
     }
 
     @GetMapping
@@ -41,7 +41,7 @@ public class TodoGroupUseCaseService {
 
     public Long getUserId() {
         var principal = (AppUserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        return principal.getUser().getId();
+        return principal.id();
     }
 
     public AppUser getUserReference() {
@@ -19,7 +19,7 @@ public class UserController {
 
     @PutMapping("/me")
     public ResponseEntity<Void> updateUserIdentity(@AuthenticationPrincipal AppUserPrincipal principal, @RequestBody UserIdentityDto identityDto) {
-        var firebaseUid = principal.getUser().getFirebaseUid();
+        var firebaseUid = principal.firebaseUid();
         log.info("Request to update user identity with firebase id: {} and user tag:{}", firebaseUid, identityDto.userTag());
         useCaseService.updateUserTag(firebaseUid, identityDto);
         return ResponseEntity.ok(null);
@@ -27,7 +27,7 @@ public class UserController {
 
     @GetMapping("/me")
     public ResponseEntity<UserIdentityDto> getUserIdentity(@AuthenticationPrincipal AppUserPrincipal principal) {
-        var firebaseUid = principal.getUser().getFirebaseUid();
+        var firebaseUid = principal.firebaseUid();
         log.info("Request to get user identity with firebase id: {}", firebaseUid);
         return ResponseEntity.ok(useCaseService.getUserIdentity(firebaseUid));
     }
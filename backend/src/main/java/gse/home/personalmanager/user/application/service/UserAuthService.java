@@ -1,24 +1,86 @@
 package gse.home.personalmanager.user.application.service;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import gse.home.personalmanager.user.domain.event.UserChangedEvent;
 import gse.home.personalmanager.user.domain.model.AppUser;
+import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
 import gse.home.personalmanager.user.infrastructure.repository.UserRepository;
 import jakarta.transaction.Transactional;
-import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
+
+@Slf4j
 @Service
-@AllArgsConstructor
 public class UserAuthService {
 
     private final UserRepository userRepository;
 
+    /**
+     * Principals by firebaseUid. Concurrent misses for the same uid share a single load,
+     * and entries are dropped when the user row changes (see {@link #onUserChanged}).
+     */
+    private final Cache<String, AppUserPrincipal> principalCache;
+
+    public UserAuthService(UserRepository userRepository,
+                           @Value("${security.principal-cache.max-size:10000}") long maxSize,
+                           @Value("${security.principal-cache.ttl:PT30M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.principalCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
     @Transactional
     public AppUser findOrCreateByFirebaseUid(String firebaseUid, String email) {
         return userRepository.findByFirebaseUid(firebaseUid)
                 .orElseGet(() -> createNewUser(firebaseUid, email));
     }
 
+    /**
+     * Returns the authentication snapshot for a Firebase user, creating the user on first login.
+     * Served from memory after the first call, so the request path issues no SQL.
+     */
+    public AppUserPrincipal loadPrincipal(String firebaseUid, String email) {
+        return principalCache.get(firebaseUid, uid -> loadOrCreatePrincipal(uid, email));
+    }
+
+    public void evictPrincipal(String firebaseUid) {
+        if (firebaseUid != null) {
+            principalCache.invalidate(firebaseUid);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        log.debug("Evicting cached principal for user id={}", event.getUserId());
+        evictPrincipal(event.getFirebaseUid());
+    }
+
+    /**
+     * Not transactional on purpose: when another node wins the race to insert the same uid,
+     * our insert fails on uk_users_firebase_uid and we read the winner's row in a fresh
+     * transaction instead of failing the login.
+     */
+    private AppUserPrincipal loadOrCreatePrincipal(String firebaseUid, String email) {
+        return userRepository.findPrincipalByFirebaseUid(firebaseUid)
+                .orElseGet(() -> {
+                    try {
+                        return new AppUserPrincipal(createNewUser(firebaseUid, email));
+                    } catch (DataIntegrityViolationException e) {
+                        log.debug("User {} was created concurrently, reading it back", firebaseUid);
+                        return userRepository.findPrincipalByFirebaseUid(firebaseUid).orElseThrow(() -> e);
+                    }
+                });
+    }
+
     private AppUser createNewUser(String firebaseUid, String email) {
         AppUser user = new AppUser();
         user.setFirebaseUid(firebaseUid);
@@ -27,4 +89,4 @@ public class UserAuthService {
 
         return userRepository.save(user);
     }
-}
\ No newline at end of file
+}
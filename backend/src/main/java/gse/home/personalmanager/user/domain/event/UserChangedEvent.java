@@ -0,0 +1,21 @@
+package gse.home.personalmanager.user.domain.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when a user row is updated or removed (role, tag, tenant, ...),
+ * so that cached authentication data for that user can be dropped.
+ */
+@Getter
+public class UserChangedEvent extends ApplicationEvent {
+
+    private final Long userId;
+    private final String firebaseUid;
+
+    public UserChangedEvent(Object source, Long userId, String firebaseUid) {
+        super(source);
+        this.userId = userId;
+        this.firebaseUid = firebaseUid;
+    }
+}
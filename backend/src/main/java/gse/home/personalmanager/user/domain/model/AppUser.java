@@ -1,5 +1,6 @@
 package gse.home.personalmanager.user.domain.model;
 
+import gse.home.personalmanager.user.infrastructure.listener.AppUserChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.springframework.data.annotation.CreatedDate;
@@ -11,7 +12,7 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 @Table(name = "users", uniqueConstraints = {
     @UniqueConstraint(columnNames = "firebaseUid", name = "uk_users_firebase_uid")
 })
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, AppUserChangeListener.class})
 public class AppUser {
 
     @Id
@@ -1,7 +1,6 @@
 package gse.home.personalmanager.user.domain.model;
 
 
-import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -9,18 +8,27 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
 import java.util.List;
 
-@Getter
-public class AppUserPrincipal implements UserDetails {
-
-    private final AppUser user;
+/**
+ * Immutable snapshot of the authenticated user.
+ * <p>
+ * Holds only the identifiers needed on the request path so it can be cached and shared
+ * between threads, unlike the {@link AppUser} entity whose lazy {@code tenant} would
+ * trigger extra queries. Load the entity from the repository when you need to modify it.
+ */
+public record AppUserPrincipal(Long id, String firebaseUid, String email, String role, Long tenantId)
+        implements UserDetails {
 
     public AppUserPrincipal(AppUser user) {
-        this.user = user;
+        this(user.getId(),
+                user.getFirebaseUid(),
+                user.getEmail(),
+                user.getRole(),
+                user.getTenant() != null ? user.getTenant().getId() : null);
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority(user.getRole()));
+        return List.of(new SimpleGrantedAuthority(role));
     }
 
     @Override
@@ -30,7 +38,7 @@ public class AppUserPrincipal implements UserDetails {
 
     @Override
     public String getUsername() {
-        return user.getEmail();
+        return email;
     }
 
     @Override
@@ -53,4 +61,4 @@ public class AppUserPrincipal implements UserDetails {
         return true;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package gse.home.personalmanager.user.infrastructure.listener;
+
+import gse.home.personalmanager.user.domain.event.UserChangedEvent;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener turning every flushed change to {@link AppUser} into a
+ * {@link UserChangedEvent}. Hibernate resolves it through the Spring bean container.
+ */
+@Component
+@AllArgsConstructor
+public class AppUserChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(AppUser user) {
+        eventPublisher.publishEvent(new UserChangedEvent(this, user.getId(), user.getFirebaseUid()));
+    }
+}
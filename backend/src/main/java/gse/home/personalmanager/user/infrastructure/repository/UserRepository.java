@@ -1,7 +1,10 @@
 package gse.home.personalmanager.user.infrastructure.repository;
 
 import gse.home.personalmanager.user.domain.model.AppUser;
+import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,4 +13,11 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<AppUser, Long> {
     Optional<AppUser> findByFirebaseUid(String firebaseUid);
-}
\ No newline at end of file
+
+    /**
+     * Reads the authentication snapshot of a user without loading the entity or its tenant.
+     */
+    @Query("select new gse.home.personalmanager.user.domain.model.AppUserPrincipal(u.id, u.firebaseUid, u.email, u.role, u.tenant.id) "
+            + "from AppUser u where u.firebaseUid = :firebaseUid")
+    Optional<AppUserPrincipal> findPrincipalByFirebaseUid(@Param("firebaseUid") String firebaseUid);
+}
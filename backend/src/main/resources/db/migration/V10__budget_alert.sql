@@ -0,0 +1,19 @@
+-- Accounting: budget alerts
+-- Version: 10
+-- Description: Highest budget level (0 under, 1 at 80%, 2 exceeded) each user was alerted at for a
+-- category and month, raised by compare-and-set so concurrent writers send each alert once, and
+-- lowered again when the spending drops. The spending itself is read from the monthly rollups.
+
+CREATE TABLE IF NOT EXISTS accounting_budget_alert (
+    user_id BIGINT NOT NULL,
+    category_id INTEGER NOT NULL,
+    period_start DATE NOT NULL,
+    level SMALLINT NOT NULL,
+    PRIMARY KEY (user_id, category_id, period_start),
+    CONSTRAINT fk_budget_alert_category FOREIGN KEY (category_id)
+        REFERENCES accounting_transaction_category(id) ON DELETE CASCADE
+);
+
+-- Budget checks read the monthly rollups of a user across all wallets
+CREATE INDEX IF NOT EXISTS idx_rollup_month_user_category
+    ON accounting_rollup (user_id, period_start, category_id) WHERE granularity = 'MONTH';
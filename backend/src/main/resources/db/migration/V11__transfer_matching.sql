@@ -0,0 +1,12 @@
+-- Accounting: internal transfers
+-- Version: 11
+-- Description: TransferMatchingService links the debit and the credit of a transfer between two
+-- wallets of a user through related_transaction_id, both ways. Summaries that exclude transfers
+-- subtract the linked transactions of the range, and the matching skips those already linked or
+-- targeted by a link; only the linked transactions are indexed for both.
+
+CREATE INDEX IF NOT EXISTS idx_transaction_transfer_wallet_user_date
+    ON accounting_transaction (wallet_id, user_id, date) WHERE related_transaction_id IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_transaction_related
+    ON accounting_transaction (related_transaction_id) WHERE related_transaction_id IS NOT NULL;
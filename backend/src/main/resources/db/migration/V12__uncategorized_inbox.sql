@@ -0,0 +1,26 @@
+-- Accounting: categorization inbox
+-- Version: 12
+-- Description: Number of uncategorized transactions of each user in each wallet, maintained by
+-- UncategorizedCountService on import, categorization and deletion so the inbox reads its total
+-- instead of counting. The inbox pages are read by (date, id) cursor from a partial index holding
+-- only the uncategorized rows, so every page costs the same however large the inbox grows.
+
+CREATE TABLE IF NOT EXISTS accounting_uncategorized_count (
+    wallet_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    PRIMARY KEY (wallet_id, user_id),
+    CONSTRAINT fk_uncategorized_count_wallet FOREIGN KEY (wallet_id)
+        REFERENCES accounting_wallets(id) ON DELETE CASCADE
+);
+
+-- Backfill from the ledger; same query as UncategorizedCountRepository#insertCounts
+INSERT INTO accounting_uncategorized_count (wallet_id, user_id, transaction_count)
+SELECT t.wallet_id, COALESCE(t.user_id, 0), COUNT(*)
+FROM accounting_transaction t
+WHERE t.category_id IS NULL AND t.date IS NOT NULL
+GROUP BY t.wallet_id, COALESCE(t.user_id, 0)
+ON CONFLICT DO NOTHING;
+
+CREATE INDEX IF NOT EXISTS idx_transaction_uncategorized
+    ON accounting_transaction (wallet_id, user_id, date DESC, id DESC) WHERE category_id IS NULL;
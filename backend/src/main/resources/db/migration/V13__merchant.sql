@@ -0,0 +1,19 @@
+-- Accounting: merchant dictionary
+-- Version: 13
+-- Description: Merchants named by the import labels, normalized by MerchantNormalizer (dates, card
+-- numbers, terminal ids and payment words stripped) and interned once by MerchantService on
+-- import. Transactions keep their raw import_label, which the import key, the fingerprints, the
+-- categorization rules and the export rely on, and point at their merchant through merchant_id,
+-- which merchant analytics group by. Transactions imported before are given their merchant by
+-- starting the application once with --accounting.merchant.backfill=true.
+
+CREATE TABLE IF NOT EXISTS accounting_merchant (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    CONSTRAINT uk_merchant_name UNIQUE (name)
+);
+
+ALTER TABLE accounting_transaction ADD COLUMN IF NOT EXISTS merchant_id INTEGER;
+
+ALTER TABLE accounting_transaction
+    ADD CONSTRAINT fk_transaction_merchant FOREIGN KEY (merchant_id) REFERENCES accounting_merchant(id);
@@ -0,0 +1,35 @@
+-- Accounting: per-wallet import uniqueness key
+-- Version: 2
+-- Description: The former unique constraint referenced a non-existent "description" column and was
+-- never created. The bulk CSV import relies on this key for INSERT ... ON CONFLICT DO NOTHING.
+-- Rows without a balance are compared like any other value (NULLS NOT DISTINCT, PostgreSQL 15+),
+-- otherwise re-imports of exports without a balance column would never be deduped.
+
+-- Duplicates to drop: every copy of a row but the oldest one
+CREATE TEMPORARY TABLE duplicate_transaction AS
+SELECT t.id, min(d.id) AS kept_id
+FROM accounting_transaction t
+JOIN accounting_transaction d
+  ON t.wallet_id = d.wallet_id
+ AND t.date = d.date
+ AND t.amount = d.amount
+ AND t.import_label = d.import_label
+ AND t.current_balance IS NOT DISTINCT FROM d.current_balance
+ AND t.id > d.id
+GROUP BY t.id;
+
+-- Links to a dropped copy move to the kept one, unless that would link the kept row to itself
+UPDATE accounting_transaction t
+SET related_transaction_id = CASE WHEN dup.kept_id = t.id THEN NULL ELSE dup.kept_id END
+FROM duplicate_transaction dup
+WHERE t.related_transaction_id = dup.id;
+
+DELETE FROM accounting_transaction t
+USING duplicate_transaction dup
+WHERE t.id = dup.id;
+
+DROP TABLE duplicate_transaction;
+
+ALTER TABLE accounting_transaction
+    ADD CONSTRAINT uk_transaction_import_row
+    UNIQUE NULLS NOT DISTINCT (wallet_id, date, amount, import_label, current_balance);
@@ -0,0 +1,26 @@
+-- Accounting: materialized wallet balance
+-- Version: 3
+-- Description: Current balance of each wallet, maintained on every transaction write so that
+-- wallet reads no longer look up the latest transaction.
+
+CREATE TABLE IF NOT EXISTS accounting_wallet_balance (
+    wallet_id BIGINT PRIMARY KEY,
+    balance DOUBLE PRECISION,
+    as_of_date DATE,
+    last_transaction_id INTEGER,
+    updated_at BIGINT,
+    CONSTRAINT fk_wallet_balance_wallet FOREIGN KEY (wallet_id) REFERENCES accounting_wallets(id) ON DELETE CASCADE
+);
+
+-- Backfill from the latest transaction of each wallet, by (date, id)
+INSERT INTO accounting_wallet_balance (wallet_id, balance, as_of_date, last_transaction_id, updated_at)
+SELECT w.id, t.current_balance, t.date, t.id, (EXTRACT(EPOCH FROM now()) * 1000)::BIGINT
+FROM accounting_wallets w
+LEFT JOIN LATERAL (
+    SELECT id, date, current_balance
+    FROM accounting_transaction
+    WHERE wallet_id = w.id
+    ORDER BY date DESC, id DESC
+    LIMIT 1
+) t ON TRUE
+ON CONFLICT (wallet_id) DO NOTHING;
@@ -0,0 +1,41 @@
+-- Accounting: daily and monthly rollups
+-- Version: 4
+-- Description: Credit and debit totals per wallet, user, category and day or month, maintained on
+-- every transaction write so that range summaries no longer scan the ledger.
+-- Uncategorized transactions are rolled up under category_id 0.
+
+CREATE TABLE IF NOT EXISTS accounting_rollup (
+    granularity VARCHAR(5) NOT NULL CHECK (granularity IN ('DAY', 'MONTH')),
+    wallet_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    category_id INTEGER NOT NULL,
+    period_start DATE NOT NULL,
+    credit_total DOUBLE PRECISION NOT NULL,
+    credit_count BIGINT NOT NULL,
+    debit_total DOUBLE PRECISION NOT NULL,
+    debit_count BIGINT NOT NULL,
+    PRIMARY KEY (granularity, wallet_id, user_id, category_id, period_start),
+    CONSTRAINT fk_rollup_wallet FOREIGN KEY (wallet_id) REFERENCES accounting_wallets(id) ON DELETE CASCADE
+);
+
+-- Backfill from the ledger; same queries as AccountingRollupBulkRepository#rebuildWallet
+INSERT INTO accounting_rollup
+    (granularity, wallet_id, user_id, category_id, period_start, credit_total, credit_count, debit_total, debit_count)
+SELECT 'DAY', t.wallet_id, COALESCE(t.user_id, 0), COALESCE(t.category_id, 0), t.date,
+       COALESCE(SUM(CASE WHEN t.type = 'CREDIT' THEN t.amount END), 0),
+       COUNT(CASE WHEN t.type = 'CREDIT' THEN 1 END),
+       COALESCE(SUM(CASE WHEN t.type = 'DEBIT' THEN ABS(t.amount) END), 0),
+       COUNT(CASE WHEN t.type = 'DEBIT' THEN 1 END)
+FROM accounting_transaction t
+WHERE t.date IS NOT NULL AND t.type IN ('CREDIT', 'DEBIT')
+GROUP BY t.wallet_id, COALESCE(t.user_id, 0), COALESCE(t.category_id, 0), t.date
+ON CONFLICT DO NOTHING;
+
+INSERT INTO accounting_rollup
+    (granularity, wallet_id, user_id, category_id, period_start, credit_total, credit_count, debit_total, debit_count)
+SELECT 'MONTH', r.wallet_id, r.user_id, r.category_id, CAST(DATE_TRUNC('month', r.period_start) AS DATE),
+       SUM(r.credit_total), SUM(r.credit_count), SUM(r.debit_total), SUM(r.debit_count)
+FROM accounting_rollup r
+WHERE r.granularity = 'DAY'
+GROUP BY r.wallet_id, r.user_id, r.category_id, CAST(DATE_TRUNC('month', r.period_start) AS DATE)
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,7 @@
+-- Accounting: index for the overview and the per-category drill-down
+-- Version: 5
+-- Description: Both filter on wallet, user and a date range; the drill-down pages by (date, id)
+-- newest first, which this index serves without sorting.
+
+CREATE INDEX IF NOT EXISTS idx_transaction_wallet_user_date
+    ON accounting_transaction (wallet_id, user_id, date, id);
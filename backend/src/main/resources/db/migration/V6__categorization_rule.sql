@@ -0,0 +1,22 @@
+-- Accounting: categorization rules
+-- Version: 6
+-- Description: Keyword, regex and amount range rules assigning a category to imported transactions,
+-- either written by the user or learned from their manual categorizations.
+
+CREATE TABLE IF NOT EXISTS accounting_categorization_rule (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    type VARCHAR(255) NOT NULL CHECK (type IN ('KEYWORD', 'REGEX', 'AMOUNT_RANGE')),
+    pattern VARCHAR(255),
+    min_amount DOUBLE PRECISION,
+    max_amount DOUBLE PRECISION,
+    category_id INTEGER NOT NULL,
+    priority INTEGER NOT NULL,
+    learned BOOLEAN NOT NULL,
+    enabled BOOLEAN NOT NULL,
+    created_at BIGINT,
+    CONSTRAINT fk_categorization_rule_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT fk_categorization_rule_category FOREIGN KEY (category_id) REFERENCES accounting_transaction_category(id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_categorization_rule_user ON accounting_categorization_rule (user_id);
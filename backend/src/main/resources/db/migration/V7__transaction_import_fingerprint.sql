@@ -0,0 +1,23 @@
+-- Accounting: per-wallet import fingerprint
+-- Version: 7
+-- Description: Identifies an imported row by a 64-bit hash of its date, amount, normalized label and
+-- balance, numbered when several rows are identical. Unlike uk_transaction_import_row it also dedupes
+-- rows without a balance and labels that only differ in case or spacing.
+-- Existing rows are fingerprinted by the application the first time their wallet receives an import,
+-- so no backfill is needed here; uk_transaction_import_row is kept as a second safety net for rows
+-- with a balance and rows not yet fingerprinted. Fingerprinted rows without a balance are left to
+-- uk_transaction_fingerprint: identical ones are legitimate there and carry distinct ordinals.
+
+ALTER TABLE accounting_transaction
+    ADD COLUMN IF NOT EXISTS import_fingerprint BIGINT;
+
+-- NULLs are distinct, so rows not yet fingerprinted do not collide
+ALTER TABLE accounting_transaction
+    ADD CONSTRAINT uk_transaction_fingerprint UNIQUE (wallet_id, import_fingerprint);
+
+ALTER TABLE accounting_transaction
+    DROP CONSTRAINT uk_transaction_import_row;
+
+CREATE UNIQUE INDEX uk_transaction_import_row
+    ON accounting_transaction (wallet_id, date, amount, import_label, current_balance) NULLS NOT DISTINCT
+    WHERE current_balance IS NOT NULL OR import_fingerprint IS NULL;
@@ -0,0 +1,11 @@
+-- Accounting: deleted wallets purged in the background
+-- Version: 8
+-- Description: Deleting a wallet now only sets deleted_at, which hides the wallet, its transactions,
+-- rollups and permissions from the application at once. WalletPurgeService then removes the rows in
+-- bounded chunks and finally the wallet itself; the marked wallets are its to-do list across restarts.
+
+ALTER TABLE accounting_wallets
+    ADD COLUMN IF NOT EXISTS deleted_at BIGINT;
+
+-- Only the few wallets waiting for their purge are indexed
+CREATE INDEX IF NOT EXISTS idx_wallet_deleted ON accounting_wallets (deleted_at) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,31 @@
+-- Accounting: category hierarchy as a closure table
+-- Version: 9
+-- Description: One row per (ancestor, descendant) pair of the category tree, depth 0 for each
+-- category itself, maintained by CategoryService next to parent_category_id. Summaries join the
+-- rollups to it to add the totals of subcategories to every ancestor in a single grouped query.
+
+CREATE TABLE IF NOT EXISTS accounting_category_closure (
+    ancestor_id INTEGER NOT NULL,
+    descendant_id INTEGER NOT NULL,
+    depth INTEGER NOT NULL,
+    PRIMARY KEY (ancestor_id, descendant_id),
+    CONSTRAINT fk_category_closure_ancestor FOREIGN KEY (ancestor_id)
+        REFERENCES accounting_transaction_category(id) ON DELETE CASCADE,
+    CONSTRAINT fk_category_closure_descendant FOREIGN KEY (descendant_id)
+        REFERENCES accounting_transaction_category(id) ON DELETE CASCADE
+);
+
+-- The rollups join on the descendant
+CREATE INDEX IF NOT EXISTS idx_category_closure_descendant ON accounting_category_closure (descendant_id);
+
+-- Backfill from parent_category_id
+INSERT INTO accounting_category_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE paths (ancestor_id, descendant_id, depth) AS (
+    SELECT id, id, 0 FROM accounting_transaction_category
+    UNION ALL
+    SELECT p.ancestor_id, c.id, p.depth + 1
+    FROM paths p
+    JOIN accounting_transaction_category c ON c.parent_category_id = p.descendant_id
+)
+SELECT ancestor_id, descendant_id, depth FROM paths
+ON CONFLICT DO NOTHING;
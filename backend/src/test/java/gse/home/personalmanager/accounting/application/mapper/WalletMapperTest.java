@@ -5,6 +5,7 @@ import gse.home.personalmanager.accounting.application.dto.WalletPermissionDTO;
 import gse.home.personalmanager.accounting.domain.model.Wallet;
 import gse.home.personalmanager.accounting.domain.model.WalletPermission;
 import gse.home.personalmanager.accounting.domain.model.WalletRole;
+import gse.home.personalmanager.accounting.domain.model.WalletView;
 import gse.home.personalmanager.unit.UnitTestBase;
 import gse.home.personalmanager.user.domain.model.AppUser;
 import gse.home.personalmanager.user.domain.model.Tenant;
@@ -84,6 +85,20 @@ class WalletMapperTest extends UnitTestBase {
         assertThat(result.getTenantName()).isNull();
     }
 
+    @Test
+    void toDto_withView_shouldMapBalanceAndRole() {
+        // Given
+        WalletView view = new WalletView(1L, "Test Wallet", "Test Description", 2L, "owner@test.com", 3L,
+                "Test Tenant", 1000L, 2000L, 120.5, "WRITE");
+
+        // When
+        WalletDTO result = walletMapper.toDto(view);
+
+        // Then
+        assertThat(result).isEqualTo(new WalletDTO(1L, "Test Wallet", "Test Description", 2L, "owner@test.com", 3L,
+                "Test Tenant", 1000L, 2000L, 120.5, "WRITE"));
+    }
+
     @Test
     void toDto_withPermission_shouldMapCorrectly() {
         // Given
@@ -0,0 +1,44 @@
+package gse.home.personalmanager.accounting.application.service;
+
+import gse.home.personalmanager.accounting.config.CsvImportConfig;
+import gse.home.personalmanager.accounting.domain.service.csv.BankCsvParser;
+import gse.home.personalmanager.core.exception.ForbiddenException;
+import gse.home.personalmanager.unit.UnitTestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class CsvImportUseCaseServiceTest extends UnitTestBase {
+
+  @Mock
+  private BankCsvParser parser;
+
+  @Mock
+  private TransactionUseCaseService transactionUseCaseService;
+
+  private CsvImportUseCaseService csvImportUseCaseService;
+
+  @BeforeEach
+  void setUp() {
+    csvImportUseCaseService = new CsvImportUseCaseService(new CsvImportConfig(), parser, transactionUseCaseService);
+  }
+
+  @Test
+  void importCSVFile_intoAWalletTheUserCannotWrite_shouldBeForbiddenBeforeParsing() {
+    var file = new ByteArrayInputStream("Date;Montant;Libellé;Solde\n02/01/2025;-10,00;Coffee;90,00\n"
+        .getBytes(StandardCharsets.UTF_8));
+    doThrow(new ForbiddenException("User does not have write access to this wallet"))
+        .when(transactionUseCaseService).validateImport(1L, 3L);
+
+    assertThatThrownBy(() -> csvImportUseCaseService.importCSVFile(file, null, 1L, 3L))
+        .isInstanceOf(ForbiddenException.class);
+    verifyNoInteractions(parser);
+    verify(transactionUseCaseService, never()).importCSVChunk(any(), any(), any(), any());
+  }
+}
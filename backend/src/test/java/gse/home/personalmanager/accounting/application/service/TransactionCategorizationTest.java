@@ -0,0 +1,194 @@
+package gse.home.personalmanager.accounting.application.service;
+
+import gse.home.personalmanager.accounting.application.dto.CategorizationReportDTO;
+import gse.home.personalmanager.accounting.application.dto.CategorizationReportDTO.Outcome;
+import gse.home.personalmanager.accounting.application.dto.TransactionDTO;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
+import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.domain.model.WalletPermission;
+import gse.home.personalmanager.accounting.domain.model.WalletRole;
+import gse.home.personalmanager.accounting.domain.service.CategoryService;
+import gse.home.personalmanager.accounting.domain.service.WalletAccessService;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionRepository;
+import gse.home.personalmanager.accounting.test.AccountingFixture;
+import gse.home.personalmanager.accounting.test.AccountingJpaTest;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk categorization: per-id outcomes, and a statement count that depends on the distinct values
+ * written rather than on the number of rows.
+ */
+@AccountingJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(TransactionUseCaseTestConfiguration.class)
+class TransactionCategorizationTest {
+
+  @Autowired
+  private TransactionUseCaseService useCaseService;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private WalletAccessService accessService;
+
+  @Autowired
+  private CategoryService categoryService;
+
+  @Autowired
+  private AccountingFixture fixture;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private AppUser caller;
+  private AppUser otherUser;
+  private Wallet wallet;
+  private TransactionCategory groceries;
+  private TransactionCategory leisure;
+
+  @BeforeEach
+  void setUp() {
+    caller = fixture.user("categorize-caller");
+    otherUser = fixture.user("categorize-other");
+    wallet = fixture.wallet("Checking", caller);
+    groceries = fixture.category("Groceries");
+    leisure = fixture.category("Leisure");
+    entityManager.flush();
+  }
+
+  @Test
+  void updateTransactionsToCategorize_shouldRunConstantStatementsWhateverTheRowCount() {
+    // the caller's wallet access list and the category tree are read once, then cached
+    accessService.canWrite(wallet.getId(), caller.getId());
+    categoryService.getTree();
+    var few = transactions(wallet, 10);
+    long fewStatements = statementsFor(() -> useCaseService.updateTransactionsToCategorize(requests(few), caller.getId()));
+
+    var many = transactions(wallet, 300);
+    long manyStatements = statementsFor(() -> useCaseService.updateTransactionsToCategorize(requests(many),
+        caller.getId()));
+
+    // includes reading the targets' wallet ids and locking those wallets before the targets are read
+    assertThat(manyStatements).isEqualTo(fewStatements).isLessThanOrEqualTo(12);
+    entityManager.clear();
+    assertThat(transactionRepository.findAllById(many.stream().map(Transaction::getId).toList()))
+        .allSatisfy(t -> {
+          assertThat(t.getCategory().getId()).isEqualTo(t.getId() % 2 == 0 ? groceries.getId() : leisure.getId());
+          assertThat(t.getCustomLabel()).isEqualTo("Label " + t.getId() % 3);
+        });
+  }
+
+  @Test
+  void updateTransactionsToCategorize_shouldReportOutcomePerId() {
+    var own = transactions(wallet, 3);
+    var readOnlyWallet = fixture.wallet("Read only", otherUser);
+    share(readOnlyWallet, WalletRole.READ);
+    var foreign = transactions(readOnlyWallet, 1).get(0);
+    var writableWallet = fixture.wallet("Writable", otherUser);
+    share(writableWallet, WalletRole.WRITE);
+    var shared = transactions(writableWallet, 1).get(0);
+
+    var unknownCategory = new TransactionCategory();
+    unknownCategory.setId(999_999);
+    var requests = List.of(
+        request(own.get(0), groceries, "Bread", 0),
+        request(own.get(1), unknownCategory, "", 0),
+        request(own.get(2), null, own.get(2).getCustomLabel(), 0),
+        request(shared, leisure, "Cinema", own.get(0).getId()),
+        request(foreign, groceries, "", 0),
+        request(own.get(0), groceries, "Bread", 424_242),
+        missing(123_456));
+
+    CategorizationReportDTO report = useCaseService.updateTransactionsToCategorize(requests, caller.getId());
+
+    // own.get(0) is sent twice: the last request wins and keeps the first position
+    assertThat(report.getResults()).containsExactly(
+        new CategorizationReportDTO.Result(own.get(0).getId(), Outcome.RELATED_NOT_FOUND),
+        new CategorizationReportDTO.Result(own.get(1).getId(), Outcome.CATEGORY_NOT_FOUND),
+        new CategorizationReportDTO.Result(own.get(2).getId(), Outcome.UNCHANGED),
+        new CategorizationReportDTO.Result(shared.getId(), Outcome.UPDATED),
+        new CategorizationReportDTO.Result(foreign.getId(), Outcome.FORBIDDEN),
+        new CategorizationReportDTO.Result(123_456, Outcome.NOT_FOUND));
+    assertThat(report.getUpdated()).isEqualTo(1);
+    assertThat(report.getUnchanged()).isEqualTo(1);
+    assertThat(report.getFailed()).isEqualTo(4);
+
+    entityManager.clear();
+    var updated = transactionRepository.findById(shared.getId()).orElseThrow();
+    assertThat(updated.getCategory().getId()).isEqualTo(leisure.getId());
+    assertThat(updated.getCustomLabel()).isEqualTo("Cinema");
+    assertThat(updated.getRelatedTransaction().getId()).isEqualTo(own.get(0).getId());
+    assertThat(transactionRepository.findById(foreign.getId()).orElseThrow().getCategory()).isNull();
+  }
+
+  private List<TransactionDTO> requests(List<Transaction> transactions) {
+    return transactions.stream()
+        .map(t -> request(t, t.getId() % 2 == 0 ? groceries : leisure, "Label " + t.getId() % 3, 0))
+        .toList();
+  }
+
+  private static TransactionDTO request(Transaction transaction, TransactionCategory category, String label,
+                                        int relatedId) {
+    var dto = new TransactionDTO();
+    dto.setId(transaction.getId());
+    dto.setCategory(category);
+    dto.setCustomLabel(label);
+    dto.setRelatedTransactionId(relatedId);
+    return dto;
+  }
+
+  private static TransactionDTO missing(int id) {
+    var dto = new TransactionDTO();
+    dto.setId(id);
+    return dto;
+  }
+
+  private long statementsFor(Supplier<?> call) {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    entityManager.flush();
+    entityManager.clear();
+    statistics.clear();
+    call.get();
+    entityManager.flush();
+    return statistics.getPrepareStatementCount();
+  }
+
+  private List<Transaction> transactions(Wallet target, int count) {
+    var transactions = new ArrayList<Transaction>();
+    for (int i = 0; i < count; i++) {
+      transactions.add(fixture.transaction(target, LocalDate.of(2025, 1, 1).plusDays(i % 60), -1.0 - i));
+    }
+    transactionRepository.saveAll(transactions);
+    entityManager.flush();
+    return transactions;
+  }
+
+  private void share(Wallet target, WalletRole role) {
+    var permission = new WalletPermission();
+    permission.setWallet(target);
+    permission.setUser(caller);
+    permission.setRole(role);
+    entityManager.persist(permission);
+  }
+}
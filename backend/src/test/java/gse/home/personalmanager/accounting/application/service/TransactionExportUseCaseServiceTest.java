@@ -0,0 +1,232 @@
+package gse.home.personalmanager.accounting.application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gse.home.personalmanager.accounting.application.dto.TransactionExportFormat;
+import gse.home.personalmanager.accounting.config.WalletAccessConfig;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.domain.service.WalletAccessService;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionBulkRepository;
+import gse.home.personalmanager.accounting.test.AccountingFixture;
+import gse.home.personalmanager.accounting.test.AccountingJpaTest;
+import gse.home.personalmanager.core.exception.ForbiddenException;
+import gse.home.personalmanager.core.exception.ResourceNotFoundException;
+import gse.home.personalmanager.core.exception.ValidationException;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Exports are read through a cursor and written as they go. The database is file based with a small
+ * page cache and keeps few result rows in memory ({@code MAX_MEMORY_ROWS}), as PostgreSQL does with
+ * a fetch size, so the heap measured here is the application's own. The heap checks write 100k and a
+ * million rows and only run with {@code -Dbenchmark=true}.
+ */
+@AccountingJpaTest
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:file:./target/h2/exportdb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;MAX_MEMORY_ROWS=1000;CACHE_SIZE=1024",
+    "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=INFO" })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ TransactionExportUseCaseService.class, WalletAccessService.class, WalletAccessConfig.class })
+class TransactionExportUseCaseServiceTest {
+
+  private static final LocalDate DATE = LocalDate.of(2025, 1, 1);
+
+  @Autowired
+  private TransactionExportUseCaseService exportService;
+
+  @Autowired
+  private TransactionBulkRepository bulkRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private AccountingFixture fixture;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private AppUser user;
+  private Wallet wallet;
+
+  @BeforeEach
+  void setUp() {
+    user = fixture.user("export-user");
+    wallet = fixture.wallet("Checking", user);
+    entityManager.flush();
+  }
+
+  @Test
+  void export_asCsv_shouldWriteRowsOldestFirstAndQuoteText() throws IOException {
+    var groceries = fixture.category("Groceries, food");
+    entityManager.flush();
+    var rows = new ArrayList<Transaction>();
+    rows.add(transaction(DATE.plusDays(2), -12.5, "CB \"SUPER\" MARKET", 100.0));
+    rows.add(transaction(DATE, 12_000_000.0, "Salary", 12_000_112.5));
+    rows.add(transaction(DATE.plusDays(40), -1.0, "Out of range", null));
+    bulkRepository.insertIgnoringDuplicates(rows);
+    entityManager.getEntityManager().createQuery("update accounting_transaction t set t.category = :c where t.id = :id")
+        .setParameter("c", groceries).setParameter("id", rows.get(0).getId()).executeUpdate();
+
+    var out = new ByteArrayOutputStream();
+    long count = exportService.export(wallet.getId(), DATE, DATE.plusDays(30), TransactionExportFormat.CSV, false, out);
+
+    assertThat(count).isEqualTo(2);
+    assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+        "id,date,amount,type,label,custom_label,category,balance\n"
+            + rows.get(1).getId() + ",2025-01-01,12000000,CREDIT,Salary,,,12000112.5\n"
+            + rows.get(0).getId() + ",2025-01-03,-12.5,DEBIT,\"CB \"\"SUPER\"\" MARKET\",,\"Groceries, food\",100.0\n");
+  }
+
+  @Test
+  void export_asGzippedNdjson_shouldWriteOneObjectPerLine() throws IOException {
+    bulkRepository.insertIgnoringDuplicates(new ArrayList<>(List.of(
+        transaction(DATE, -3.0, "Bakery", null),
+        transaction(DATE.plusDays(1), -4.0, "Bakery", 96.0))));
+
+    var out = new ByteArrayOutputStream();
+    exportService.export(wallet.getId(), null, null, TransactionExportFormat.NDJSON, true, out);
+
+    String content;
+    try (var in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+      content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    var lines = content.split("\n");
+    assertThat(content).endsWith("\n");
+    assertThat(lines).hasSize(2);
+    var first = objectMapper.readTree(lines[0]);
+    assertThat(first.get("date").asText()).isEqualTo("2025-01-01");
+    assertThat(first.get("amount").asDouble()).isEqualTo(-3.0);
+    assertThat(first.get("importLabel").asText()).isEqualTo("Bakery");
+    assertThat(first.get("currentBalance").isNull()).isTrue();
+    assertThat(objectMapper.readTree(lines[1]).get("currentBalance").asDouble()).isEqualTo(96.0);
+  }
+
+  @Test
+  void validateExport_shouldRejectStrangersAndInvertedRanges() {
+    var stranger = fixture.user("export-stranger");
+
+    exportService.validateExport(wallet.getId(), user.getId(), null, null);
+    assertThatThrownBy(() -> exportService.validateExport(wallet.getId(), stranger.getId(), null, null))
+        .isInstanceOf(ForbiddenException.class);
+    assertThatThrownBy(() -> exportService.validateExport(wallet.getId() + 1000, user.getId(), null, null))
+        .isInstanceOf(ResourceNotFoundException.class);
+    assertThatThrownBy(() -> exportService.validateExport(wallet.getId(), user.getId(), DATE, DATE.minusDays(1)))
+        .isInstanceOf(ValidationException.class);
+    assertThatThrownBy(() -> TransactionExportFormat.of("xml")).isInstanceOf(ValidationException.class);
+    assertThat(TransactionExportFormat.of("ndjson")).isEqualTo(TransactionExportFormat.NDJSON);
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  void export_shouldKeepHeapFlatWhateverTheNumberOfRows() throws IOException {
+    assertRetainedHeapBounded(100_000, 8);
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  void benchmark_exportAMillionRows() throws IOException {
+    assertRetainedHeapBounded(1_000_000, 8);
+  }
+
+  /**
+   * Exports {@code rows} transactions while sampling the heap left after a full collection every
+   * half megabyte written, and checks it does not grow by more than {@code maxGrowthMb} from the
+   * first sample to the last: memory must not depend on the number of rows streamed so far. Holding
+   * 100k rows, even as small projections, would take tens of megabytes.
+   */
+  private void assertRetainedHeapBounded(int rows, int maxGrowthMb) throws IOException {
+    insert(rows);
+    // warms up the query plan and the JDBC statement caches
+    exportService.export(wallet.getId(), DATE, DATE, TransactionExportFormat.CSV, false, OutputStream.nullOutputStream());
+    var sink = new SamplingOutputStream();
+
+    long start = System.nanoTime();
+    long count = exportService.export(wallet.getId(), null, null, TransactionExportFormat.CSV, false, sink);
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    long growth = sink.peak - sink.first;
+    System.out.printf("exported %,d rows (%,d bytes) in %.1f s, retained heap %,d KB at first sample, "
+        + "growth %,d KB over %d samples%n", count, sink.written, seconds, sink.first / 1024, growth / 1024,
+        sink.samples);
+    assertThat(count).isEqualTo(rows);
+    assertThat(sink.samples).isGreaterThan(5);
+    assertThat(growth).isLessThan(maxGrowthMb * 1024L * 1024);
+  }
+
+  private void insert(int rows) {
+    for (int from = 0; from < rows; from += 10_000) {
+      var chunk = new ArrayList<Transaction>();
+      for (int i = from; i < Math.min(rows, from + 10_000); i++) {
+        chunk.add(transaction(DATE.plusDays(i / 100), -(i % 5_000) / 100.0, "CB MERCHANT " + i, 1_000.0 + i));
+      }
+      bulkRepository.insertIgnoringDuplicates(chunk);
+    }
+    entityManager.clear();
+  }
+
+  private static long retainedHeap() {
+    var runtime = Runtime.getRuntime();
+    System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static class SamplingOutputStream extends OutputStream {
+    private static final long SAMPLE_BYTES = 512 * 1024;
+    private long written;
+    private long nextSample = SAMPLE_BYTES;
+    private long first;
+    private long peak;
+    private int samples;
+
+    @Override
+    public void write(int b) {
+      count(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      count(len);
+    }
+
+    private void count(int length) {
+      written += length;
+      if (written >= nextSample) {
+        nextSample += SAMPLE_BYTES;
+        long retained = retainedHeap();
+        first = samples == 0 ? retained : first;
+        peak = Math.max(peak, retained);
+        samples++;
+      }
+    }
+  }
+
+  private Transaction transaction(LocalDate date, double amount, String label, Double balance) {
+    var transaction = fixture.transaction(wallet, date, amount);
+    transaction.setImportLabel(label);
+    transaction.setCurrentBalance(balance);
+    return transaction;
+  }
+}
@@ -2,18 +2,35 @@ package gse.home.personalmanager.accounting.application.service;
 
 import gse.home.personalmanager.accounting.application.dto.*;
 import gse.home.personalmanager.accounting.application.mapper.TransactionMapper;
+import gse.home.personalmanager.accounting.domain.event.TransactionsImportedEvent;
 import gse.home.personalmanager.accounting.domain.model.Transaction;
 import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
 import gse.home.personalmanager.accounting.domain.model.TransactionType;
+import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.domain.service.AccountingRollupService;
+import gse.home.personalmanager.accounting.domain.service.BudgetService;
+import gse.home.personalmanager.accounting.domain.service.MerchantService;
+import gse.home.personalmanager.accounting.domain.service.TransactionColumnCache;
+import gse.home.personalmanager.accounting.domain.service.TransactionFingerprintIndex;
 import gse.home.personalmanager.accounting.domain.service.TransactionService;
+import gse.home.personalmanager.accounting.domain.service.UncategorizedCountService;
+import gse.home.personalmanager.accounting.domain.service.WalletBalanceService;
+import gse.home.personalmanager.accounting.domain.service.WalletService;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionBulkRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionCategoryRepository;
 import gse.home.personalmanager.accounting.infrastructure.repository.TransactionRepository;
+import gse.home.personalmanager.core.exception.ForbiddenException;
+import gse.home.personalmanager.core.exception.ValidationException;
 import gse.home.personalmanager.unit.UnitTestBase;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
@@ -22,6 +39,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -37,8 +55,208 @@ class TransactionUseCaseServiceTest extends UnitTestBase {
   @Mock
   private TransactionService transactionService;
 
+  @Mock
+  private TransactionBulkRepository bulkRepository;
+
+  @Mock
+  private WalletBalanceService walletBalanceService;
+
+  @Mock
+  private AccountingRollupService rollupService;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Mock
+  private TransactionFingerprintIndex fingerprintIndex;
+
+  @Mock
+  private TransactionColumnCache columnCache;
+
+  @Mock
+  private BudgetService budgetService;
+
+  @Mock
+  private UncategorizedCountService uncategorizedCountService;
+
+  @Mock
+  private MerchantService merchantService;
+
+  @Mock
+  private WalletService walletService;
+
+  @Mock
+  private TransactionCategoryRepository categoryRepository;
+
   @InjectMocks
   private TransactionUseCaseService transactionUseCaseService;
+
+  @Test
+  void importCSVRows_shouldReportInsertedDuplicateAndRejectedRows() {
+    var rows = List.of(
+        new TransactionCSVRowDTO(LocalDate.of(2025, 1, 2), -10.0, "Coffee", 90.0),
+        new TransactionCSVRowDTO(null, -5.0, "No date", 85.0),
+        new TransactionCSVRowDTO(LocalDate.of(2025, 1, 3), -20.0, "Groceries", 65.0),
+        new TransactionCSVRowDTO(LocalDate.of(2025, 1, 4), 100.0, "Salary", 165.0));
+    when(walletService.hasWriteAccess(1L, 2L)).thenReturn(true);
+    when(transactionService.validateCSVRow(any())).thenReturn(null, "Missing date", null, null);
+    var transactions = List.of(new Transaction(), new Transaction(), new Transaction());
+    transactions.get(0).setId(10);
+    transactions.get(2).setId(12);
+    when(transactionService.fromCSVRowToTransactionList(eq(List.of(rows.get(0), rows.get(2), rows.get(3))), eq(1L),
+        eq(2L), any()))
+        .thenReturn(transactions);
+    when(fingerprintIndex.findKnown(1L, transactions)).thenReturn(new boolean[3]);
+    when(bulkRepository.insertIgnoringDuplicates(transactions)).thenReturn(new boolean[] { true, false, true });
+
+    var report = transactionUseCaseService.importCSVRows(rows, 1L, 2L);
+
+    assertThat(report.getInserted()).isEqualTo(2);
+    assertThat(report.getDuplicates()).isEqualTo(1);
+    assertThat(report.getDuplicateRows()).containsExactly(3);
+    assertThat(report.getRejected()).isEqualTo(1);
+    assertThat(report.getRejectedRows()).containsExactly(new CsvImportReportDTO.RejectedRow(2, "Missing date"));
+    verify(repository, never()).save(any());
+    verify(walletBalanceService).onTransactionsAdded(1L, List.of(transactions.get(0), transactions.get(2)));
+    verify(rollupService).onTransactionsAdded(1L, List.of(transactions.get(0), transactions.get(2)));
+    verify(columnCache).onTransactionsAdded(1L, List.of(transactions.get(0), transactions.get(2)));
+    var event = ArgumentCaptor.forClass(TransactionsImportedEvent.class);
+    verify(eventPublisher).publishEvent(event.capture());
+    assertThat(event.getValue().getWalletId()).isEqualTo(1L);
+    assertThat(event.getValue().getUserId()).isEqualTo(2L);
+    assertThat(event.getValue().getTransactionIds()).containsExactly(10, 12);
+    verify(fingerprintIndex).onInserted(1L, List.of(transactions.get(0), transactions.get(2)));
+  }
+
+  @Test
+  void importCSVRows_shouldOnlyInsertRowsUnknownToTheFingerprintIndex() {
+    var rows = List.of(
+        new TransactionCSVRowDTO(LocalDate.of(2025, 1, 2), -10.0, "Coffee", 90.0),
+        new TransactionCSVRowDTO(LocalDate.of(2025, 1, 3), -20.0, "Groceries", 70.0),
+        new TransactionCSVRowDTO(LocalDate.of(2025, 1, 4), 100.0, "Salary", 170.0));
+    when(walletService.hasWriteAccess(1L, 2L)).thenReturn(true);
+    var transactions = List.of(new Transaction(), new Transaction(), new Transaction());
+    when(transactionService.fromCSVRowToTransactionList(eq(rows), eq(1L), eq(2L), any())).thenReturn(transactions);
+    when(fingerprintIndex.findKnown(1L, transactions)).thenReturn(new boolean[] { true, false, true });
+    when(bulkRepository.insertIgnoringDuplicates(List.of(transactions.get(1)))).thenReturn(new boolean[] { true });
+
+    var report = transactionUseCaseService.importCSVRows(rows, 1L, 2L);
+
+    assertThat(report.getInserted()).isEqualTo(1);
+    assertThat(report.getDuplicateRows()).containsExactly(1, 3);
+    verify(fingerprintIndex).onInserted(1L, List.of(transactions.get(1)));
+    verify(walletBalanceService).onTransactionsAdded(1L, List.of(transactions.get(1)));
+  }
+
+  @Test
+  void importCSVRows_withNoRows_shouldReturnEmptyReport() {
+    when(walletService.hasWriteAccess(1L, 2L)).thenReturn(true);
+    var report = transactionUseCaseService.importCSVRows(Collections.emptyList(), 1L, 2L);
+
+    assertThat(report.getInserted()).isZero();
+    assertThat(report.getDuplicateRows()).isEmpty();
+    assertThat(report.getRejectedRows()).isEmpty();
+    verifyNoInteractions(bulkRepository, eventPublisher);
+  }
+
+  @Test
+  void importCSVRows_intoAWalletTheUserCannotWrite_shouldBeForbidden() {
+    var rows = List.of(new TransactionCSVRowDTO(LocalDate.of(2025, 1, 2), -10.0, "Coffee", 90.0));
+    when(walletService.hasWriteAccess(1L, 3L)).thenReturn(false);
+
+    assertThatThrownBy(() -> transactionUseCaseService.importCSVRows(rows, 1L, 3L))
+        .isInstanceOf(ForbiddenException.class);
+    verifyNoInteractions(transactionService, bulkRepository, eventPublisher);
+  }
+
+  @Test
+  void updateTransactionsToCategorize_shouldLockTheWalletsBeforeReadingTheTargets() {
+    var target = transaction(5, LocalDate.of(2025, 1, 5));
+    target.setWallet(wallet(1L));
+    var request = new TransactionDTO();
+    request.setId(5);
+    when(repository.findWalletIdsByIdIn(any())).thenReturn(List.of(1L));
+    when(repository.findAllById(any())).thenReturn(List.of(target));
+
+    transactionUseCaseService.updateTransactionsToCategorize(List.of(request), 2L);
+
+    var order = inOrder(walletBalanceService, repository);
+    order.verify(walletBalanceService).lockWallets(List.of(1L));
+    order.verify(repository).findAllById(any());
+  }
+
+  @Test
+  void deleteTransaction_shouldLockTheWalletBeforeReadingTheRow() {
+    var target = transaction(5, LocalDate.of(2025, 1, 5));
+    target.setWallet(wallet(1L));
+    when(repository.findWalletIdsByIdIn(List.of(5))).thenReturn(List.of(1L));
+    when(repository.findById(5)).thenReturn(Optional.of(target));
+
+    transactionUseCaseService.deleteTransaction(5);
+
+    var order = inOrder(walletBalanceService, repository);
+    order.verify(walletBalanceService).lockWallets(List.of(1L));
+    order.verify(repository).findById(5);
+    order.verify(repository).delete(target);
+    verify(rollupService).onTransactionsRemoved(1L, List.of(target));
+  }
+
+  @Test
+  void getCategoryTransactions_shouldReturnCursorOfLastRowWhenThereIsAnotherPage() {
+    var minDate = LocalDate.of(2025, 1, 1);
+    var maxDate = LocalDate.of(2025, 1, 31);
+    var rows = List.of(transaction(3, LocalDate.of(2025, 1, 20)), transaction(2, LocalDate.of(2025, 1, 20)),
+        transaction(1, LocalDate.of(2025, 1, 5)));
+    when(repository.findCategoryPage(minDate, maxDate, 1L, 2L, 7, maxDate.plusDays(1), Integer.MAX_VALUE,
+        PageRequest.of(0, 3))).thenReturn(rows);
+    when(mapper.toDto(any(Transaction.class))).thenReturn(new TransactionDTO());
+
+    var page = transactionUseCaseService.getCategoryTransactions(minDate, maxDate, 1L, 2L, 7, null, null, 2);
+
+    assertThat(page.getTransactions()).hasSize(2);
+    assertThat(page.getNextDate()).isEqualTo(LocalDate.of(2025, 1, 20));
+    assertThat(page.getNextId()).isEqualTo(2);
+  }
+
+  @Test
+  void getCategoryTransactions_onLastPage_shouldReturnNoCursor() {
+    var minDate = LocalDate.of(2025, 1, 1);
+    var maxDate = LocalDate.of(2025, 1, 31);
+    when(repository.findUncategorizedPage(minDate, maxDate, 1L, 2L, LocalDate.of(2025, 1, 20), 2,
+        PageRequest.of(0, 3))).thenReturn(List.of(transaction(1, LocalDate.of(2025, 1, 5))));
+
+    var page = transactionUseCaseService.getCategoryTransactions(minDate, maxDate, 1L, 2L, null,
+        LocalDate.of(2025, 1, 20), 2, 2);
+
+    assertThat(page.getTransactions()).hasSize(1);
+    assertThat(page.getNextDate()).isNull();
+    assertThat(page.getNextId()).isNull();
+  }
+
+  @Test
+  void getCategoryTransactions_withHalfCursor_shouldThrow() {
+    var minDate = LocalDate.of(2025, 1, 1);
+
+    assertThatThrownBy(() -> transactionUseCaseService.getCategoryTransactions(minDate, minDate, 1L, 2L, 7,
+        minDate, null, 10)).isInstanceOf(ValidationException.class);
+    assertThatThrownBy(() -> transactionUseCaseService.getCategoryTransactions(minDate, minDate, 1L, 2L, 7,
+        null, null, 0)).isInstanceOf(ValidationException.class);
+    verifyNoInteractions(repository);
+  }
+
+  private static Transaction transaction(int id, LocalDate date) {
+    var transaction = new Transaction();
+    transaction.setId(id);
+    transaction.setDate(date);
+    return transaction;
+  }
+
+  private static Wallet wallet(Long id) {
+    var wallet = new Wallet();
+    wallet.setId(id);
+    return wallet;
+  }
+
   /*
    * 
    * private Transaction createTransaction(int id) {
@@ -0,0 +1,33 @@
+package gse.home.personalmanager.accounting.application.service;
+
+import gse.home.personalmanager.accounting.application.mapper.TransactionMapperImpl;
+import gse.home.personalmanager.accounting.config.CategoryTreeConfig;
+import gse.home.personalmanager.accounting.config.CsvImportConfig;
+import gse.home.personalmanager.accounting.config.SummaryConfig;
+import gse.home.personalmanager.accounting.config.WalletAccessConfig;
+import gse.home.personalmanager.accounting.domain.service.BudgetService;
+import gse.home.personalmanager.accounting.domain.service.CategoryService;
+import gse.home.personalmanager.accounting.domain.service.MerchantService;
+import gse.home.personalmanager.accounting.domain.service.TransactionColumnCache;
+import gse.home.personalmanager.accounting.domain.service.TransactionFingerprintIndex;
+import gse.home.personalmanager.accounting.domain.service.TransactionService;
+import gse.home.personalmanager.accounting.domain.service.UncategorizedCountService;
+import gse.home.personalmanager.accounting.domain.service.WalletAccessService;
+import gse.home.personalmanager.accounting.domain.service.WalletBalanceService;
+import gse.home.personalmanager.accounting.domain.service.WalletService;
+import gse.home.personalmanager.accounting.infrastructure.repository.MerchantBulkRepository;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * {@link TransactionUseCaseService} and the beans it writes through, on top of
+ * {@code @AccountingJpaTest}.
+ */
+@TestConfiguration
+@Import({ TransactionUseCaseService.class, TransactionService.class, TransactionMapperImpl.class, WalletService.class,
+    WalletAccessService.class, WalletAccessConfig.class, WalletBalanceService.class, SummaryConfig.class,
+    TransactionFingerprintIndex.class, TransactionColumnCache.class, CategoryService.class, CategoryTreeConfig.class,
+    BudgetService.class, UncategorizedCountService.class, MerchantService.class, MerchantBulkRepository.class,
+    CsvImportConfig.class })
+class TransactionUseCaseTestConfiguration {
+}
@@ -0,0 +1,177 @@
+package gse.home.personalmanager.accounting.application.service;
+
+import gse.home.personalmanager.accounting.application.dto.TransactionDTO;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
+import gse.home.personalmanager.accounting.domain.model.TransactionType;
+import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.domain.service.UncategorizedCountService;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionRepository;
+import gse.home.personalmanager.accounting.test.AccountingFixture;
+import gse.home.personalmanager.accounting.test.AccountingJpaTest;
+import gse.home.personalmanager.core.exception.ValidationException;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The categorization inbox walks the uncategorized rows by cursor, and its total follows imports,
+ * categorizations and deletions without counting. Deleting one side of a transfer unlinks the other.
+ */
+@AccountingJpaTest
+@Import(TransactionUseCaseTestConfiguration.class)
+class UncategorizedInboxTest {
+
+  private static final LocalDate DATE = LocalDate.of(2025, 2, 1);
+
+  @Autowired
+  private TransactionUseCaseService useCaseService;
+
+  @Autowired
+  private UncategorizedCountService countService;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private AccountingFixture fixture;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private AppUser user;
+  private AppUser otherUser;
+  private Wallet wallet;
+  private TransactionCategory groceries;
+  private int rows;
+
+  @BeforeEach
+  void setUp() {
+    user = fixture.user("inbox-user");
+    otherUser = fixture.user("inbox-other");
+    wallet = fixture.wallet("Checking", user);
+    groceries = fixture.category("Groceries");
+  }
+
+  @Test
+  void getUncategorizedTransactions_shouldWalkEveryUncategorizedRowNewestFirst() {
+    var uncategorized = new ArrayList<Transaction>();
+    for (int i = 0; i < 7; i++) {
+      // two rows per day, so pages also break between rows of the same date
+      uncategorized.add(transaction(user, null, i / 2));
+    }
+    add(uncategorized);
+    add(List.of(transaction(user, groceries, 1), transaction(otherUser, null, 1)));
+
+    var expected = uncategorized.stream()
+        .sorted(Comparator.comparing(Transaction::getDate).thenComparing(Transaction::getId).reversed())
+        .map(Transaction::getId)
+        .toList();
+    var seen = new ArrayList<Integer>();
+    LocalDate afterDate = null;
+    Integer afterId = null;
+    int pages = 0;
+    do {
+      var page = useCaseService.getUncategorizedTransactions(wallet.getId(), user.getId(), afterDate, afterId, 3);
+      assertThat(page.getTotalElements()).isEqualTo(7);
+      page.getTransactions().forEach(t -> seen.add(t.getId()));
+      afterDate = page.getNextDate();
+      afterId = page.getNextId();
+      pages++;
+    } while (afterDate != null);
+
+    assertThat(pages).isEqualTo(3);
+    assertThat(seen).containsExactlyElementsOf(expected);
+    assertThatThrownBy(() -> useCaseService.getUncategorizedTransactions(wallet.getId(), user.getId(), DATE, null, 3))
+        .isInstanceOf(ValidationException.class);
+  }
+
+  @Test
+  void totalElements_shouldFollowCategorizationsAndDeletions() {
+    var transactions = new ArrayList<Transaction>();
+    for (int i = 0; i < 5; i++) {
+      transactions.add(transaction(user, null, i));
+    }
+    add(transactions);
+    add(List.of(transaction(otherUser, null, 0), transaction(user, groceries, 0)));
+    assertThat(total()).isEqualTo(5);
+
+    useCaseService.updateTransactionsToCategorize(List.of(request(transactions.get(0), groceries),
+        request(transactions.get(1), groceries)), user.getId());
+    entityManager.flush();
+    entityManager.clear();
+    assertThat(total()).isEqualTo(3);
+
+    var categorized = transactionRepository.findById(transactions.get(0).getId()).orElseThrow();
+    useCaseService.updateTransactionsToCategorize(List.of(request(categorized, null)), user.getId());
+    entityManager.flush();
+    assertThat(total()).isEqualTo(4);
+
+    useCaseService.deleteTransaction(transactions.get(4).getId());
+    entityManager.flush();
+    assertThat(total()).isEqualTo(3);
+    assertThat(countService.getCount(wallet.getId(), otherUser.getId())).isEqualTo(1);
+
+    // counting again from the ledger agrees with the maintained counts
+    assertThat(countService.rebuild(wallet.getId())).isEqualTo(2);
+    assertThat(total()).isEqualTo(3);
+    assertThat(countService.getCount(wallet.getId(), otherUser.getId())).isEqualTo(1);
+  }
+
+  @Test
+  void deleteTransaction_shouldUnlinkTheOtherSideOfATransfer() {
+    var outgoing = transaction(user, null, 0);
+    var incoming = transaction(user, null, 0);
+    incoming.setAmount(-outgoing.getAmount());
+    incoming.setType(TransactionType.CREDIT);
+    add(List.of(outgoing, incoming));
+    outgoing.setRelatedTransaction(incoming);
+    incoming.setRelatedTransaction(outgoing);
+    entityManager.flush();
+    entityManager.clear();
+
+    useCaseService.deleteTransaction(outgoing.getId());
+    entityManager.flush();
+    entityManager.clear();
+
+    assertThat(transactionRepository.findById(outgoing.getId())).isEmpty();
+    assertThat(transactionRepository.findById(incoming.getId()).orElseThrow().getRelatedTransaction()).isNull();
+    assertThat(total()).isEqualTo(1);
+  }
+
+  private long total() {
+    return useCaseService.getUncategorizedTransactions(wallet.getId(), user.getId(), null, null, 1).getTotalElements();
+  }
+
+  private void add(List<Transaction> transactions) {
+    transactions.forEach(entityManager::persist);
+    entityManager.flush();
+    countService.onTransactionsAdded(wallet.getId(), transactions);
+  }
+
+  private static TransactionDTO request(Transaction transaction, TransactionCategory category) {
+    var dto = new TransactionDTO();
+    dto.setId(transaction.getId());
+    dto.setCategory(category);
+    dto.setCustomLabel(transaction.getCustomLabel());
+    return dto;
+  }
+
+  private Transaction transaction(AppUser owner, TransactionCategory category, int day) {
+    var transaction = fixture.transaction(wallet, DATE.plusDays(day), -10.0 - day, category);
+    transaction.setImportLabel("Row " + rows++);
+    transaction.setUser(owner);
+    return transaction;
+  }
+}
@@ -5,6 +5,7 @@ import gse.home.personalmanager.accounting.application.mapper.WalletMapper;
 import gse.home.personalmanager.accounting.domain.model.Wallet;
 import gse.home.personalmanager.accounting.domain.model.WalletPermission;
 import gse.home.personalmanager.accounting.domain.model.WalletRole;
+import gse.home.personalmanager.accounting.domain.model.WalletView;
 import gse.home.personalmanager.accounting.domain.service.WalletService;
 import gse.home.personalmanager.accounting.infrastructure.repository.WalletRepository;
 import gse.home.personalmanager.core.exception.ForbiddenException;
@@ -147,10 +148,10 @@ class WalletUseCaseServiceTest extends UnitTestBase {
     @Test
     void getWallet_withAccess_shouldReturnWallet() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
-        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet));
-        when(walletService.hasReadAccess(wallet, currentUser)).thenReturn(true);
-        when(walletMapper.toDto(wallet)).thenReturn(walletDTO);
+        WalletView view = view("READ");
+        when(walletRepository.findWalletView(1L, 1L)).thenReturn(Optional.of(view));
+        when(walletService.hasReadAccess(1L, 1L)).thenReturn(true);
+        when(walletMapper.toDto(view)).thenReturn(walletDTO);
 
         // When
         WalletDTO result = walletUseCaseService.getWallet(1L, 1L);
@@ -158,15 +159,14 @@ class WalletUseCaseServiceTest extends UnitTestBase {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(1L);
-        verify(walletService).hasReadAccess(wallet, currentUser);
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     void getWallet_withoutAccess_shouldThrowSecurityException() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
-        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet));
-        when(walletService.hasReadAccess(wallet, currentUser)).thenReturn(false);
+        when(walletRepository.findWalletView(1L, 1L)).thenReturn(Optional.of(view(null)));
+        when(walletService.hasReadAccess(1L, 1L)).thenReturn(false);
 
         // When & Then
         assertThatThrownBy(() -> walletUseCaseService.getWallet(1L, 1L))
@@ -177,8 +177,7 @@ class WalletUseCaseServiceTest extends UnitTestBase {
     @Test
     void getWallet_whenNotFound_shouldThrowException() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
-        when(walletRepository.findById(999L)).thenReturn(Optional.empty());
+        when(walletRepository.findWalletView(999L, 1L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> walletUseCaseService.getWallet(999L, 1L))
@@ -189,9 +188,9 @@ class WalletUseCaseServiceTest extends UnitTestBase {
     @Test
     void getWalletsForCurrentUser_shouldReturnUserWallets() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
-        when(walletService.getWalletsForUser(currentUser)).thenReturn(List.of(wallet));
-        when(walletMapper.toDto(wallet)).thenReturn(walletDTO);
+        WalletView view = view(WalletView.ROLE_OWNER);
+        when(walletService.getWalletViewsForUser(1L)).thenReturn(List.of(view));
+        when(walletMapper.toDto(view)).thenReturn(walletDTO);
 
         // When
         List<WalletDTO> result = walletUseCaseService.getWalletsForCurrentUser(1L);
@@ -204,15 +203,16 @@ class WalletUseCaseServiceTest extends UnitTestBase {
     @Test
     void getWalletsForTenant_shouldReturnTenantWallets() {
         // Given
-        when(walletService.getWalletsForTenant(1L)).thenReturn(List.of(wallet));
-        when(walletMapper.toDto(wallet)).thenReturn(walletDTO);
+        WalletView view = view(WalletView.ROLE_OWNER);
+        when(walletService.getWalletViewsForTenant(1L, 1L)).thenReturn(List.of(view));
+        when(walletMapper.toDto(view)).thenReturn(walletDTO);
 
         // When
-        List<WalletDTO> result = walletUseCaseService.getWalletsForTenant(1L);
+        List<WalletDTO> result = walletUseCaseService.getWalletsForTenant(1L, 1L);
 
         // Then
         assertThat(result).hasSize(1);
-        verify(walletService).getWalletsForTenant(1L);
+        verify(walletService).getWalletViewsForTenant(1L, 1L);
     }
 
     @Test
@@ -327,4 +327,9 @@ class WalletUseCaseServiceTest extends UnitTestBase {
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getWalletId()).isEqualTo(1L);
     }
+
+    private static WalletView view(String role) {
+        return new WalletView(1L, "Test Wallet", "Test Description", 1L, "current@test.com", null, null, null, null,
+                null, role);
+    }
 }
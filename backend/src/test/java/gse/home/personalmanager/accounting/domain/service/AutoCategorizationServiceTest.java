@@ -0,0 +1,187 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.config.CategorizationConfig;
+import gse.home.personalmanager.accounting.config.CategoryTreeConfig;
+import gse.home.personalmanager.accounting.config.SummaryConfig;
+import gse.home.personalmanager.accounting.domain.model.CategorizationRule;
+import gse.home.personalmanager.accounting.domain.model.CategorizationRuleType;
+import gse.home.personalmanager.accounting.domain.model.CategoryTotals;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
+import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.infrastructure.repository.CategorizationRuleRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionBulkRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionRepository;
+import gse.home.personalmanager.accounting.test.AccountingFixture;
+import gse.home.personalmanager.accounting.test.AccountingJpaTest;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * The import stage applies the user's rules to freshly imported rows and keeps the rollups in step;
+ * learned rules come from the user's own categorizations.
+ */
+@AccountingJpaTest
+@Import({ AutoCategorizationService.class, CategorizationRuleService.class, CategorizationConfig.class,
+    TransactionColumnCache.class, SummaryConfig.class, BudgetService.class, CategoryService.class,
+    CategoryTreeConfig.class, UncategorizedCountService.class })
+class AutoCategorizationServiceTest {
+
+  private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+  private static final LocalDate TO = LocalDate.of(2025, 12, 31);
+
+  @Autowired
+  private AutoCategorizationService autoCategorizationService;
+
+  @Autowired
+  private CategorizationRuleService ruleService;
+
+  @Autowired
+  private CategorizationRuleRepository ruleRepository;
+
+  @Autowired
+  private AccountingRollupService rollupService;
+
+  @Autowired
+  private TransactionBulkRepository bulkRepository;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private AccountingFixture fixture;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private AppUser user;
+  private Wallet wallet;
+  private TransactionCategory groceries;
+  private TransactionCategory leisure;
+  private TransactionCategory utilities;
+  private TransactionCategory salary;
+
+  @BeforeEach
+  void setUp() {
+    user = fixture.user("auto-categorization");
+    wallet = fixture.wallet("Checking", user);
+    groceries = fixture.category("Groceries");
+    leisure = fixture.category("Leisure");
+    utilities = fixture.category("Utilities");
+    salary = fixture.category("Salary");
+    entityManager.flush();
+  }
+
+  @Test
+  void categorizeImported_shouldApplyTheFirstMatchingRuleAndKeepTheRollupsInStep() {
+    rule(user, CategorizationRuleType.KEYWORD, "carrefour", null, null, groceries, 0);
+    rule(user, CategorizationRuleType.REGEX, "^PRLV .*\\bEDF\\b", null, null, utilities, 0);
+    rule(user, CategorizationRuleType.AMOUNT_RANGE, null, 1000.0, null, salary, 0);
+    rule(user, CategorizationRuleType.KEYWORD, "amazon", null, -100.0, leisure, 0);
+    rule(user, CategorizationRuleType.KEYWORD, "amazon", null, null, groceries, 5);
+    rule(fixture.user("someone-else"), CategorizationRuleType.KEYWORD, "unknown", null, null, leisure, 0);
+    var manual = transaction("CARREFOUR MARKET", -12.0, leisure);
+    var imported = importTransactions(List.of(
+        transaction("CB CARREFOUR CITY 12/03", -25.0, null),
+        transaction("PRLV SEPA EDF CLIENTS", -80.0, null),
+        transaction("VIR SALAIRE ACME", 2500.0, null),
+        transaction("AMAZON MKTP", -150.0, null),
+        transaction("Amazon.fr", -20.0, null),
+        transaction("Unknown shop", -10.0, null)));
+    var ids = new ArrayList<>(imported.stream().map(Transaction::getId).toList());
+    ids.add(importTransactions(List.of(manual)).get(0).getId());
+
+    int categorized = autoCategorizationService.categorizeImported(wallet.getId(), user.getId(), ids);
+    entityManager.flush();
+    entityManager.clear();
+
+    assertThat(categorized).isEqualTo(5);
+    assertThat(transactionRepository.findAllById(ids).stream().sorted(Comparator.comparing(Transaction::getId)))
+        .extracting(t -> t.getCategory() == null ? null : t.getCategory().getId())
+        .containsExactly(groceries.getId(), utilities.getId(), salary.getId(), leisure.getId(), groceries.getId(),
+            null, leisure.getId());
+    assertThat(sorted(rollupService.sumRangeByCategory(FROM, TO, wallet.getId(), user.getId()))).isEqualTo(
+        sorted(transactionRepository.sumByCategoryAndDateBetweenAndWalletIdAndUserId(FROM, TO, wallet.getId(),
+            user.getId())));
+  }
+
+  @Test
+  void learnRules_shouldReplaceLearnedRulesFromManualCategories() {
+    var userRule = rule(user, CategorizationRuleType.KEYWORD, "boulangerie", null, null, groceries, 0);
+    var manual = new ArrayList<Transaction>();
+    for (int i = 1; i <= 3; i++) {
+      manual.add(transaction("CB CARREFOUR 0" + i + "/02", -10.0 * i, groceries));
+      manual.add(transaction("CB SNCF INTERNET 0" + i + "/02", -30.0, leisure));
+    }
+    manual.add(transaction("CB SNCF INTERNET 04/02", -30.0, utilities));
+    manual.add(transaction("NETFLIX.COM", -13.0, leisure));
+    manual.add(transaction("NETFLIX.COM 2", -13.0, leisure));
+    transactionRepository.saveAll(manual);
+
+    ruleService.learnRules(user);
+    var learned = ruleService.learnRules(user);
+    entityManager.flush();
+    entityManager.clear();
+
+    assertThat(learned).extracting(CategorizationRule::getPattern).containsExactly("carrefour");
+    assertThat(ruleRepository.findAllByUserIdOrderByLearnedAscPriorityAscIdAsc(user.getId()))
+        .extracting(CategorizationRule::getId, CategorizationRule::isLearned)
+        .containsExactly(tuple(userRule.getId(), false), tuple(learned.get(0).getId(), true));
+
+    var imported = importTransactions(List.of(transaction("CARREFOUR EXPRESS", -5.0, null)));
+    autoCategorizationService.categorizeImported(wallet.getId(), user.getId(), List.of(imported.get(0).getId()));
+    entityManager.clear();
+    assertThat(transactionRepository.findById(imported.get(0).getId()).orElseThrow().getCategory().getId())
+        .isEqualTo(groceries.getId());
+  }
+
+  private List<Transaction> importTransactions(List<Transaction> transactions) {
+    bulkRepository.insertIgnoringDuplicates(transactions);
+    for (var transaction : transactions) {
+      if (transaction.getCategory() != null) {
+        transactionRepository.updateCategory(transaction.getCategory(), List.of(transaction.getId()));
+      }
+    }
+    rollupService.onTransactionsAdded(wallet.getId(), transactions);
+    entityManager.flush();
+    return transactions;
+  }
+
+  private static List<CategoryTotals> sorted(List<CategoryTotals> totals) {
+    return totals.stream()
+        .sorted(Comparator.comparing(CategoryTotals::categoryId, Comparator.nullsFirst(Comparator.naturalOrder())))
+        .toList();
+  }
+
+  private Transaction transaction(String label, double amount, TransactionCategory category) {
+    var date = LocalDate.of(2025, 2, 1).plusDays(Math.abs(label.hashCode()) % 20);
+    var transaction = fixture.transaction(wallet, date, amount, category);
+    transaction.setImportLabel(label);
+    return transaction;
+  }
+
+  private CategorizationRule rule(AppUser owner, CategorizationRuleType type, String pattern, Double minAmount,
+                                  Double maxAmount, TransactionCategory category, int priority) {
+    var rule = new CategorizationRule();
+    rule.setUser(owner);
+    rule.setType(type);
+    rule.setPattern(pattern);
+    rule.setMinAmount(minAmount);
+    rule.setMaxAmount(maxAmount);
+    rule.setCategory(category);
+    rule.setPriority(priority);
+    return ruleService.save(rule);
+  }
+}
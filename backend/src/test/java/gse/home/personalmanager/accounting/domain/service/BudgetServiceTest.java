@@ -0,0 +1,184 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.config.CategoryTreeConfig;
+import gse.home.personalmanager.accounting.domain.event.BudgetLevelsChangedEvent;
+import gse.home.personalmanager.accounting.domain.event.CategoriesChangedEvent;
+import gse.home.personalmanager.accounting.domain.model.BudgetLevel;
+import gse.home.personalmanager.accounting.domain.model.BudgetStatus;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
+import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionBulkRepository;
+import gse.home.personalmanager.accounting.test.AccountingFixture;
+import gse.home.personalmanager.accounting.test.AccountingJpaTest;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the budget status published after each write against the monthly rollups, and that each
+ * threshold is recorded once per month until the spending drops under it, in whatever order the
+ * statuses arrive.
+ */
+@AccountingJpaTest
+@RecordApplicationEvents
+@Import({ BudgetService.class, CategoryService.class, CategoryTreeConfig.class })
+class BudgetServiceTest {
+
+  private static final LocalDate MONTH = LocalDate.of(2025, 5, 1);
+
+  @Autowired
+  private BudgetService budgetService;
+
+  @Autowired
+  private CategoryService categoryService;
+
+  @Autowired
+  private AccountingRollupService rollupService;
+
+  @Autowired
+  private TransactionBulkRepository bulkRepository;
+
+  @Autowired
+  private AccountingFixture fixture;
+
+  @Autowired
+  private ApplicationEvents events;
+
+  private AppUser user;
+  private Wallet wallet;
+  private TransactionCategory home;
+  private TransactionCategory energy;
+  private TransactionCategory leisure;
+
+  @BeforeEach
+  void setUp() {
+    home = categoryService.create("Home", null, 150.0, null);
+    energy = categoryService.create("Energy", null, 50.0, home.getId());
+    leisure = categoryService.create("Leisure", null, null, null);
+    // the test transaction never commits: stand in for the commit of the changes above
+    categoryService.onCategoriesChanged(new CategoriesChangedEvent(this, null));
+
+    user = fixture.user("budget-user");
+    wallet = fixture.wallet("Checking", user);
+  }
+
+  @Test
+  void onTransactionsAdded_shouldPublishTheLevelOfEveryBudgetedAncestor() {
+    add(transaction(energy, -30.0, 2), transaction(home, -20.0, 3));
+    assertThat(lastStatuses()).containsExactlyInAnyOrder(
+        status(home, 50.0, 200.0, BudgetLevel.UNDER),
+        status(energy, 30.0, 50.0, BudgetLevel.UNDER));
+
+    add(transaction(energy, -12.0, 20));
+    assertThat(lastStatuses()).containsExactlyInAnyOrder(
+        status(home, 62.0, 200.0, BudgetLevel.UNDER),
+        status(energy, 42.0, 50.0, BudgetLevel.WARNING));
+
+    add(transaction(energy, -110.0, 21), transaction(energy, 500.0, 22));
+    assertThat(lastStatuses()).containsExactlyInAnyOrder(
+        status(home, 172.0, 200.0, BudgetLevel.WARNING),
+        status(energy, 152.0, 50.0, BudgetLevel.EXCEEDED));
+  }
+
+  @Test
+  void writes_outsideBudgetedCategories_shouldPublishNothing() {
+    add(transaction(leisure, -300.0, 2), transaction(null, -300.0, 2), transaction(energy, 300.0, 2));
+
+    assertThat(events.stream(BudgetLevelsChangedEvent.class)).isEmpty();
+  }
+
+  @Test
+  void onCategoriesChanged_shouldCheckBothTheOldAndTheNewCategories() {
+    var transaction = transaction(energy, -45.0, 2);
+    add(transaction);
+    assertThat(lastStatuses()).contains(status(energy, 45.0, 50.0, BudgetLevel.WARNING));
+
+    rollupService.onCategoriesChanged(List.of(transaction), Map.of(transaction.getId(), leisure.getId()));
+    budgetService.onCategoriesChanged(List.of(transaction), Map.of(transaction.getId(), leisure.getId()));
+
+    assertThat(lastStatuses()).containsExactlyInAnyOrder(
+        status(home, 0.0, 200.0, BudgetLevel.UNDER),
+        status(energy, 0.0, 50.0, BudgetLevel.UNDER));
+  }
+
+  @Test
+  void recordLevel_shouldAlertEachThresholdOnceUntilTheSpendingDrops() {
+    var status = status(energy, 0.0, 50.0, BudgetLevel.UNDER);
+    assertThat(budgetService.recordLevel(status)).isEmpty();
+
+    add(transaction(energy, -42.0, 2));
+    assertThat(budgetService.recordLevel(status)).contains(status(energy, 42.0, 50.0, BudgetLevel.WARNING));
+    assertThat(budgetService.recordLevel(status)).isEmpty();
+
+    var exceeding = transaction(energy, -18.0, 3);
+    add(exceeding);
+    assertThat(budgetService.recordLevel(status)).contains(status(energy, 60.0, 50.0, BudgetLevel.EXCEEDED));
+    assertThat(budgetService.recordLevel(status)).isEmpty();
+
+    // dropping back under the threshold re-arms it
+    remove(exceeding);
+    assertThat(budgetService.recordLevel(status)).isEmpty();
+    add(transaction(energy, -9.0, 4));
+    assertThat(budgetService.recordLevel(status)).contains(status(energy, 51.0, 50.0, BudgetLevel.EXCEEDED));
+  }
+
+  @Test
+  void recordLevel_withStatusesInReverseOrder_shouldAlertEachThresholdOnce() {
+    add(transaction(energy, -42.0, 2));
+    var warning = lastStatus(energy);
+    add(transaction(energy, -18.0, 3));
+    var exceeded = lastStatus(energy);
+    assertThat(warning.level()).isEqualTo(BudgetLevel.WARNING);
+    assertThat(exceeded.level()).isEqualTo(BudgetLevel.EXCEEDED);
+
+    assertThat(budgetService.recordLevel(exceeded)).contains(exceeded);
+    // the warning of the earlier write arrives last: it neither alerts nor lowers the level
+    assertThat(budgetService.recordLevel(warning)).isEmpty();
+
+    add(transaction(energy, -5.0, 4));
+    assertThat(budgetService.recordLevel(lastStatus(energy))).isEmpty();
+  }
+
+  private void add(Transaction... transactions) {
+    var added = List.of(transactions);
+    bulkRepository.insertIgnoringDuplicates(added);
+    rollupService.onTransactionsAdded(wallet.getId(), added);
+    budgetService.onTransactionsAdded(added);
+  }
+
+  private void remove(Transaction transaction) {
+    rollupService.onTransactionsRemoved(wallet.getId(), List.of(transaction));
+  }
+
+  private BudgetStatus lastStatus(TransactionCategory category) {
+    return lastStatuses().stream()
+        .filter(status -> status.categoryId().equals(category.getId()))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private List<BudgetStatus> lastStatuses() {
+    var published = events.stream(BudgetLevelsChangedEvent.class).toList();
+    assertThat(published).isNotEmpty();
+    return published.get(published.size() - 1).getStatuses();
+  }
+
+  private BudgetStatus status(TransactionCategory category, double spent, double budget, BudgetLevel level) {
+    return new BudgetStatus(user.getId(), category.getId(), category.getTitle(), MONTH, spent, budget, level);
+  }
+
+  private Transaction transaction(TransactionCategory category, double amount, int day) {
+    return fixture.transaction(wallet, MONTH.plusDays(day), amount, category);
+  }
+}
@@ -0,0 +1,186 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.config.CategoryTreeConfig;
+import gse.home.personalmanager.accounting.domain.event.CategoriesChangedEvent;
+import gse.home.personalmanager.accounting.domain.model.CategoryClosure;
+import gse.home.personalmanager.accounting.domain.model.CategoryTotals;
+import gse.home.personalmanager.accounting.domain.model.CategoryTree;
+import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
+import gse.home.personalmanager.accounting.infrastructure.repository.CategoryClosureRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionBulkRepository;
+import gse.home.personalmanager.accounting.test.AccountingFixture;
+import gse.home.personalmanager.accounting.test.AccountingJpaTest;
+import gse.home.personalmanager.core.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that the closure paths follow every category change, and that summaries rolled up through
+ * them in the database match those rolled up through the in-memory tree.
+ */
+@AccountingJpaTest
+@Import({ CategoryService.class, CategoryTreeConfig.class })
+class CategoryServiceTest {
+
+  private static final LocalDate DATE = LocalDate.of(2025, 5, 1);
+
+  @Autowired
+  private CategoryService categoryService;
+
+  @Autowired
+  private CategoryClosureRepository closureRepository;
+
+  @Autowired
+  private AccountingRollupService rollupService;
+
+  @Autowired
+  private TransactionBulkRepository bulkRepository;
+
+  @Autowired
+  private AccountingFixture fixture;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private TransactionCategory home;
+  private TransactionCategory energy;
+  private TransactionCategory power;
+  private TransactionCategory leisure;
+
+  @BeforeEach
+  void setUp() {
+    home = categoryService.create("Home", null, 1000.0, null);
+    energy = categoryService.create("Energy", null, 150.0, home.getId());
+    power = categoryService.create("Power", "Electricity", 100.0, energy.getId());
+    leisure = categoryService.create("Leisure", null, null, null);
+    // the test transaction never commits: stand in for the commit of the changes above
+    categoryService.onCategoriesChanged(new CategoriesChangedEvent(this, null));
+  }
+
+  @Test
+  void paths_shouldFollowCreatesAndMoves() {
+    assertThat(paths()).isEqualTo(pathsFromParents());
+    assertThat(paths()).contains(path(home, power, 2));
+
+    categoryService.update(energy.getId(), "Energy", null, 150.0, leisure.getId());
+
+    assertThat(paths()).isEqualTo(pathsFromParents());
+    assertThat(paths()).contains(path(leisure, power, 2)).doesNotContain(path(home, power, 2));
+
+    categoryService.update(energy.getId(), "Energy", null, 150.0, null);
+
+    assertThat(paths()).isEqualTo(pathsFromParents());
+    assertThat(paths()).filteredOn(path -> path.startsWith(home.getId() + ">")).containsExactly(path(home, home, 0));
+  }
+
+  @Test
+  void update_shouldRejectCycles() {
+    assertThatThrownBy(() -> categoryService.update(home.getId(), "Home", null, null, power.getId()))
+        .isInstanceOf(ValidationException.class);
+    assertThatThrownBy(() -> categoryService.update(home.getId(), "Home", null, null, home.getId()))
+        .isInstanceOf(ValidationException.class);
+    assertThatThrownBy(() -> categoryService.create("Power", null, null, null))
+        .isInstanceOf(ValidationException.class);
+  }
+
+  @Test
+  void tree_shouldBeReadAgainOnceAChangeIsCommitted() {
+    var tree = categoryService.getTree();
+
+    assertThat(tree.roots()).extracting(CategoryTree.Node::title).containsExactly("Home", "Leisure");
+    var homeNode = tree.get(home.getId());
+    assertThat(tree.children(homeNode)).extracting(CategoryTree.Node::title).containsExactly("Energy");
+    assertThat(homeNode.subtreeExpectedAmount()).isEqualTo(1250.0);
+    assertThat(tree.get(power.getId()).ancestorIds()).containsExactlyInAnyOrder(home.getId(), energy.getId(),
+        power.getId());
+
+    categoryService.update(energy.getId(), "Energy", null, 150.0, leisure.getId());
+    assertThat(categoryService.getTree()).isSameAs(tree);
+
+    categoryService.onCategoriesChanged(new CategoriesChangedEvent(this, energy.getId()));
+    var moved = categoryService.getTree();
+    assertThat(moved.get(leisure.getId()).subtreeExpectedAmount()).isEqualTo(250.0);
+    assertThat(moved.get(home.getId()).subtreeExpectedAmount()).isEqualTo(1000.0);
+  }
+
+  @Test
+  void sumRangeByAncestor_shouldMatchTheTreeRollUp() {
+    var user = fixture.user("hierarchy-user");
+    var wallet = fixture.wallet("Checking", user);
+
+    var transactions = List.of(
+        fixture.transaction(wallet, DATE, -40.0, power),
+        fixture.transaction(wallet, DATE.plusDays(40), -10.5, power),
+        fixture.transaction(wallet, DATE.plusDays(3), -20.0, energy),
+        fixture.transaction(wallet, DATE.plusDays(60), -5.0, home),
+        fixture.transaction(wallet, DATE.plusDays(9), 12.0, leisure),
+        fixture.transaction(wallet, DATE.plusDays(9), -3.0, null));
+    bulkRepository.insertIgnoringDuplicates(transactions);
+    rollupService.onTransactionsAdded(wallet.getId(), transactions);
+    entityManager.flush();
+    var tree = categoryService.getTree();
+
+    var from = DATE.plusDays(2);
+    var to = DATE.plusDays(75);
+    var inDatabase = rollupService.sumRangeByAncestor(from, to, wallet.getId(), user.getId());
+    var inMemory = tree.rollUp(rollupService.sumRangeByCategory(from, to, wallet.getId(), user.getId()));
+
+    assertThat(inDatabase).containsExactlyInAnyOrderElementsOf(inMemory);
+    assertThat(inDatabase).containsExactlyInAnyOrder(
+        new CategoryTotals(home.getId(), "Home", 1250.0, 0.0, 35.5, 3L),
+        new CategoryTotals(energy.getId(), "Energy", 250.0, 0.0, 30.5, 2L),
+        new CategoryTotals(power.getId(), "Power", 100.0, 0.0, 10.5, 1L),
+        new CategoryTotals(leisure.getId(), "Leisure", null, 12.0, 0.0, 1L),
+        new CategoryTotals(null, null, null, 0.0, 3.0, 1L));
+  }
+
+  private Set<String> paths() {
+    entityManager.flush();
+    entityManager.clear();
+    var paths = new HashSet<String>();
+    for (CategoryClosure path : closureRepository.findAll()) {
+      paths.add(path.getAncestorId() + ">" + path.getDescendantId() + "@" + path.getDepth());
+    }
+    return paths;
+  }
+
+  /**
+   * The paths recomputed by walking the parent links of every category.
+   */
+  private Set<String> pathsFromParents() {
+    Map<Integer, Integer> parents = new HashMap<>();
+    for (var category : entityManager.getEntityManager()
+        .createQuery("select c from accounting_transaction_category c", TransactionCategory.class).getResultList()) {
+      parents.put(category.getId(), category.getParentCategory() == null ? null : category.getParentCategory().getId());
+    }
+    var paths = new HashSet<String>();
+    for (var id : parents.keySet()) {
+      var ancestors = new ArrayList<Integer>();
+      for (Integer current = id; current != null; current = parents.get(current)) {
+        ancestors.add(current);
+      }
+      for (int depth = 0; depth < ancestors.size(); depth++) {
+        paths.add(ancestors.get(depth) + ">" + id + "@" + depth);
+      }
+    }
+    return paths;
+  }
+
+  private static String path(TransactionCategory ancestor, TransactionCategory descendant, int depth) {
+    return ancestor.getId() + ">" + descendant.getId() + "@" + depth;
+  }
+}
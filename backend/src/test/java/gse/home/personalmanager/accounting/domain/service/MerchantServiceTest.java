@@ -0,0 +1,220 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.domain.model.MerchantSpend;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.infrastructure.repository.MerchantBulkRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.MerchantRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionBulkRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionRepository;
+import gse.home.personalmanager.accounting.test.AccountingFixture;
+import gse.home.personalmanager.accounting.test.AccountingJpaTest;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Noisy import labels share one interned merchant, and merchant spend is ranked by merchant id.
+ * Run with {@code -Dbenchmark=true} to also compare the label and merchant id columns on a
+ * generated ledger: bytes per row and top merchants grouped by label versus by id.
+ */
+@AccountingJpaTest
+@Import({ MerchantService.class, MerchantBulkRepository.class })
+class MerchantServiceTest {
+
+  private static final LocalDate DATE = LocalDate.of(2025, 4, 1);
+
+  @Autowired
+  private MerchantService merchantService;
+
+  @Autowired
+  private MerchantRepository merchantRepository;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private TransactionBulkRepository bulkRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private AccountingFixture fixture;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private AppUser user;
+  private Wallet wallet;
+
+  @BeforeEach
+  void setUp() {
+    user = fixture.user("merchant-user");
+    wallet = fixture.wallet("Checking", user);
+  }
+
+  @Test
+  void assignMerchants_shouldInternEachMerchantOnce() {
+    var first = List.of(
+        transaction("CB CARREFOUR CITY 12/03", -12.0, 0),
+        transaction("CARTE X1234 13/03 CARREFOUR CITY TPE 004217", -30.0, 1),
+        transaction("PRLV SEPA EDF CLIENTS", -80.0, 2),
+        transaction("CB 14/03", -5.0, 3));
+    importTransactions(first);
+    var second = List.of(transaction("PAIEMENT PAR CARTE XXXX 9876 CARREFOUR CITY 20/03", -8.0, 4));
+    importTransactions(second);
+
+    entityManager.clear();
+    var carrefour = merchantId(first.get(0));
+    assertThat(merchantId(first.get(1))).isEqualTo(carrefour);
+    assertThat(merchantId(second.get(0))).isEqualTo(carrefour);
+    assertThat(merchantId(first.get(2))).isNotNull().isNotEqualTo(carrefour);
+    assertThat(merchantId(first.get(3))).isNull();
+    assertThat(merchantRepository.findAll()).extracting("name")
+        .containsExactlyInAnyOrder("CARREFOUR CITY", "EDF CLIENTS");
+  }
+
+  @Test
+  void sumTopMerchants_shouldRankTheMerchantsBySpend() {
+    importTransactions(List.of(
+        transaction("CB CARREFOUR CITY 12/03", -12.0, 0),
+        transaction("CB CARREFOUR CITY 15/03", -30.0, 1),
+        transaction("CB CARREFOUR CITY 16/03", 100.0, 1),
+        transaction("PRLV SEPA EDF CLIENTS", -80.0, 2),
+        transaction("CB BOULANGERIE 17/03", -3.5, 3),
+        transaction("CB BOULANGERIE 18/03", -3.5, 40)));
+    var savings = fixture.wallet("Savings", user);
+    var elsewhere = transaction("CB BOULANGERIE 19/03", -500.0, 3);
+    elsewhere.setWallet(savings);
+    importTransactions(List.of(elsewhere));
+
+    var top = transactionRepository.sumTopMerchants(DATE, DATE.plusDays(30), wallet.getId(), user.getId(),
+        PageRequest.of(0, 2));
+
+    assertThat(top).extracting(MerchantSpend::name, MerchantSpend::spent, MerchantSpend::count)
+        .containsExactly(
+            tuple("EDF CLIENTS", 80.0, 1L),
+            tuple("CARREFOUR CITY", 42.0, 2L));
+  }
+
+  @Test
+  void backfill_shouldGiveOlderTransactionsTheirMerchant() {
+    var older = List.of(
+        transaction("CB CARREFOUR CITY 12/03", -12.0, 0),
+        transaction("CB 13/03", -1.0, 1),
+        transaction("CARTE X1234 CARREFOUR CITY", -30.0, 2),
+        transaction("VIR SALAIRE ACME", 2500.0, 3));
+    older.forEach(entityManager::persist);
+    entityManager.flush();
+
+    int chunks = 0;
+    for (int afterId = merchantService.backfill(0, 2); afterId != 0; afterId = merchantService.backfill(afterId, 2)) {
+      chunks++;
+    }
+
+    entityManager.clear();
+    assertThat(chunks).isEqualTo(2);
+    assertThat(merchantId(older.get(0))).isNotNull().isEqualTo(merchantId(older.get(2)));
+    assertThat(merchantId(older.get(1))).isNull();
+    assertThat(merchantId(older.get(3))).isNotNull();
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  void benchmark_labelVersusMerchantId() {
+    int rows = 200_000;
+    var random = new Random(11);
+    var names = new ArrayList<String>();
+    for (int i = 0; i < 500; i++) {
+      names.add(randomWord(random) + " " + randomWord(random));
+    }
+    for (int from = 0; from < rows; from += 5_000) {
+      var chunk = new ArrayList<Transaction>();
+      for (int i = from; i < from + 5_000; i++) {
+        chunk.add(transaction(noisyLabel(random, names.get(random.nextInt(names.size()))),
+            -(1 + random.nextInt(20_000)) / 100.0, random.nextInt(365)));
+      }
+      importTransactions(chunk);
+    }
+    entityManager.clear();
+
+    var labels = jdbcTemplate.queryForMap("select count(distinct import_label) as distinct_labels, "
+        + "avg(octet_length(import_label)) as label_bytes from accounting_transaction where wallet_id = ?",
+        wallet.getId());
+    System.out.printf("%,d rows: %s distinct labels averaging %s bytes, %,d merchants referenced by a 4 byte id%n",
+        rows, labels.get("distinct_labels"), labels.get("label_bytes"), merchantRepository.count());
+
+    var byLabel = "select import_label, sum(abs(amount)) as spent, count(*) from accounting_transaction "
+        + "where wallet_id = ? and user_id = ? and date between ? and ? and type = 'DEBIT' "
+        + "group by import_label order by spent desc limit 10";
+    var from = DATE;
+    for (int run = 0; run < 5; run++) {
+      // a different range each run, so the database cannot answer from a cached result
+      var to = DATE.plusDays(365 - run);
+      long labelNanos = time(() -> jdbcTemplate.queryForList(byLabel, wallet.getId(), user.getId(), from, to));
+      long merchantNanos = time(() -> transactionRepository.sumTopMerchants(from, to, wallet.getId(), user.getId(),
+          PageRequest.of(0, 10)));
+      System.out.printf("run %d: top 10 by label %.1f ms, by merchant id %.1f ms%n", run, labelNanos / 1e6,
+          merchantNanos / 1e6);
+    }
+  }
+
+  private static long time(Supplier<?> query) {
+    long start = System.nanoTime();
+    query.get();
+    return System.nanoTime() - start;
+  }
+
+  private static String noisyLabel(Random random, String merchant) {
+    var day = String.format("%02d/%02d", 1 + random.nextInt(28), 1 + random.nextInt(12));
+    return switch (random.nextInt(3)) {
+      case 0 -> "CB " + merchant + " " + day;
+      case 1 -> String.format("CARTE X%04d %s %s TPE %06d", random.nextInt(10_000), day, merchant,
+          random.nextInt(1_000_000));
+      default -> String.format("PAIEMENT PAR CARTE XXXX XXXX XXXX %04d %s %s", random.nextInt(10_000), merchant, day);
+    };
+  }
+
+  private static String randomWord(Random random) {
+    var word = new StringBuilder();
+    for (int i = 0, length = 4 + random.nextInt(6); i < length; i++) {
+      word.append((char) ('A' + random.nextInt(26)));
+    }
+    return word.toString();
+  }
+
+  private Integer merchantId(Transaction transaction) {
+    var stored = transactionRepository.findById(transaction.getId()).orElseThrow();
+    return stored.getMerchant() == null ? null : stored.getMerchant().getId();
+  }
+
+  /**
+   * The import path: merchants first, then the bulk insert.
+   */
+  private void importTransactions(List<Transaction> transactions) {
+    merchantService.assignMerchants(transactions);
+    bulkRepository.insertIgnoringDuplicates(transactions);
+  }
+
+  private Transaction transaction(String label, double amount, int day) {
+    var transaction = fixture.transaction(wallet, DATE.plusDays(day), amount);
+    transaction.setImportLabel(label);
+    return transaction;
+  }
+}
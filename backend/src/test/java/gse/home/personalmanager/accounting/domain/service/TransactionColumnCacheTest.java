@@ -0,0 +1,215 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.config.SummaryConfig;
+import gse.home.personalmanager.accounting.domain.model.CategoryTotals;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
+import gse.home.personalmanager.accounting.domain.model.TransactionTotals;
+import gse.home.personalmanager.accounting.domain.model.TransactionType;
+import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionBulkRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionRepository;
+import gse.home.personalmanager.accounting.test.AccountingFixture;
+import gse.home.personalmanager.accounting.test.AccountingJpaTest;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the columnar summaries against the rollups, and that patches only show once committed.
+ * Run with {@code -Dbenchmark=true -Djacoco.skip=true} to also time both against the SQL aggregation
+ * over 100k rows; coverage probes in the scan loop would triple its time.
+ */
+@AccountingJpaTest
+@TestPropertySource(properties = { "spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=INFO" })
+@Import({ TransactionColumnCache.class, SummaryConfig.class })
+class TransactionColumnCacheTest {
+
+  private static final LocalDate DATE = LocalDate.of(2024, 1, 1);
+
+  @Autowired
+  private TransactionColumnCache columnCache;
+
+  @Autowired
+  private AccountingRollupService rollupService;
+
+  @Autowired
+  private TransactionBulkRepository bulkRepository;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private AccountingFixture fixture;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private AppUser user;
+  private AppUser otherUser;
+  private Wallet wallet;
+  private List<TransactionCategory> categories;
+
+  @BeforeEach
+  void setUp() {
+    user = fixture.user("columns-user");
+    otherUser = fixture.user("columns-other");
+    wallet = fixture.wallet("Checking", user);
+    categories = List.of(fixture.category("Groceries"), fixture.category("Rent"), fixture.category("Salary"));
+    entityManager.flush();
+  }
+
+  @Test
+  void sums_shouldMatchTheRollups() {
+    insert(3_000, new Random(7));
+
+    var random = new Random(11);
+    for (int i = 0; i < 30; i++) {
+      var from = DATE.plusDays(random.nextInt(400));
+      var to = from.plusDays(random.nextInt(90));
+      assertThat(columnCache.sumRange(from, to, wallet.getId(), user.getId()))
+          .isEqualTo(rollupService.sumRange(from, to, wallet.getId(), user.getId()));
+      assertThat(columnCache.sumRangeByCategory(from, to, wallet.getId(), user.getId()))
+          .containsExactlyInAnyOrderElementsOf(withTransactions(
+              rollupService.sumRangeByCategory(from, to, wallet.getId(), user.getId())));
+    }
+    assertThat(columnCache.sumRangeByCategory(DATE, DATE.plusYears(2), wallet.getId(), user.getId()))
+        .extracting(CategoryTotals::title).containsExactlyInAnyOrder(null, "Groceries", "Rent", "Salary");
+  }
+
+  @Test
+  void patches_shouldApplyOnceTheTransactionCommits() {
+    var transactions = insert(20, new Random(3));
+    var year = DATE.plusYears(2);
+    var before = columnCache.sumRange(DATE, year, wallet.getId(), user.getId());
+    var removed = transactions.stream().filter(t -> t.getUser() == user).findFirst().orElseThrow();
+    var added = transaction(DATE.plusDays(3), 40.5, user);
+    added.setId(1_000_000);
+
+    columnCache.onTransactionsRemoved(wallet.getId(), List.of(removed));
+    columnCache.onTransactionsAdded(wallet.getId(), List.of(added));
+    columnCache.onCategoriesChanged(List.of(added), Map.of(added.getId(), categories.get(2).getId()));
+
+    // still the committed state: the patches wait for the commit
+    assertThat(columnCache.sumRange(DATE, year, wallet.getId(), user.getId())).isEqualTo(before);
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+    var after = columnCache.sumRange(DATE, year, wallet.getId(), user.getId());
+    var removedIncome = removed.getType() == TransactionType.CREDIT ? removed.getAmount() : 0.0;
+    var removedExpense = removed.getType() == TransactionType.DEBIT ? -removed.getAmount() : 0.0;
+    assertThat(after).isEqualTo(new TransactionTotals(before.income() - removedIncome + 40.5,
+        before.expense() - removedExpense, before.count()));
+    assertThat(columnCache.sumRangeByCategory(DATE.plusDays(3), DATE.plusDays(3), wallet.getId(), user.getId()))
+        .anySatisfy(totals -> {
+          assertThat(totals.title()).isEqualTo("Salary");
+          assertThat(totals.income()).isGreaterThanOrEqualTo(40.5);
+        });
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  void benchmark_rangeSummariesOver100kTransactions() {
+    insert(100_000, new Random(1));
+    var random = new Random(5);
+    var ranges = new ArrayList<LocalDate[]>();
+    for (int i = 0; i < 200; i++) {
+      var from = DATE.plusDays(random.nextInt(300));
+      ranges.add(new LocalDate[] { from, from.plusDays(30 + random.nextInt(365)) });
+    }
+
+    double totals = time(ranges, r -> () -> columnCache.sumRange(r[0], r[1], wallet.getId(), user.getId()));
+    double columnar = time(ranges, r -> () -> columnCache.sumRangeByCategory(r[0], r[1], wallet.getId(), user.getId()));
+    double rollups = time(ranges, r -> () -> rollupService.sumRangeByCategory(r[0], r[1], wallet.getId(), user.getId()));
+    double database = time(ranges, r -> () -> transactionRepository.sumByCategoryAndDateBetweenAndWalletIdAndUserId(
+        r[0], r[1], wallet.getId(), user.getId()));
+
+    System.out.printf("summary over 100k transactions: columnar totals %.3f ms, by category %.3f ms, "
+        + "rollups %.3f ms, SQL %.3f ms per range%n", totals, columnar, rollups, database);
+    assertThat(totals).isLessThan(1.0);
+    assertThat(columnar).isLessThan(rollups).isLessThan(database);
+  }
+
+  /**
+   * Average milliseconds per range, after warm-up passes letting the JIT compile the query.
+   */
+  private double time(List<LocalDate[]> ranges, Function<LocalDate[], Supplier<?>> query) {
+    for (int pass = 0; pass < 5; pass++) {
+      ranges.forEach(range -> query.apply(range).get());
+    }
+    long start = System.nanoTime();
+    for (var range : ranges) {
+      assertThat(query.apply(range).get()).isNotNull();
+    }
+    return (System.nanoTime() - start) / 1e6 / ranges.size();
+  }
+
+  /**
+   * Inserts transactions over about 14 months for two users, a quarter uncategorized, through the
+   * same bulk path as the import, and updates the rollups. Amounts are exact in binary, so rollup
+   * and column totals compare equal.
+   */
+  private List<Transaction> insert(int count, Random random) {
+    var transactions = new ArrayList<Transaction>(count);
+    for (int i = 0; i < count; i++) {
+      var credit = random.nextInt(5) == 0;
+      var amount = (1 + random.nextInt(2_000)) / 2.0;
+      transactions.add(transaction(DATE.plusDays(random.nextInt(420)), credit ? amount : -amount,
+          random.nextInt(4) == 0 ? otherUser : user));
+    }
+    for (int from = 0; from < count; from += 10_000) {
+      bulkRepository.insertIgnoringDuplicates(transactions.subList(from, Math.min(count, from + 10_000)));
+    }
+    rollupService.onTransactionsAdded(wallet.getId(), transactions);
+
+    Map<Integer, List<Integer>> idsByCategory = new HashMap<>();
+    Map<Integer, Integer> newCategoryIds = new HashMap<>();
+    for (var transaction : transactions) {
+      int pick = random.nextInt(categories.size() + 1);
+      if (pick < categories.size()) {
+        var categoryId = categories.get(pick).getId();
+        idsByCategory.computeIfAbsent(categoryId, k -> new ArrayList<>()).add(transaction.getId());
+        newCategoryIds.put(transaction.getId(), categoryId);
+      }
+    }
+    rollupService.onCategoriesChanged(transactions, newCategoryIds);
+    idsByCategory.forEach((categoryId, ids) -> {
+      for (int from = 0; from < ids.size(); from += 10_000) {
+        transactionRepository.updateCategory(entityManager.find(TransactionCategory.class, categoryId),
+            ids.subList(from, Math.min(ids.size(), from + 10_000)));
+      }
+    });
+    entityManager.clear();
+    return transactions;
+  }
+
+  /**
+   * Rollup rows can sum to nothing; the columns only report categories with transactions.
+   */
+  private static List<CategoryTotals> withTransactions(List<CategoryTotals> totals) {
+    return totals.stream().filter(t -> t.count() > 0).toList();
+  }
+
+  private Transaction transaction(LocalDate date, double amount, AppUser owner) {
+    var transaction = fixture.transaction(wallet, date, amount);
+    transaction.setUser(owner);
+    return transaction;
+  }
+}
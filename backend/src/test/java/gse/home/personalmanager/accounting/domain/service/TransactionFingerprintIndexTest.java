@@ -0,0 +1,118 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.config.CsvImportConfig;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.domain.service.fingerprint.TransactionFingerprint;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionBulkRepository;
+import gse.home.personalmanager.accounting.test.AccountingFixture;
+import gse.home.personalmanager.accounting.test.AccountingJpaTest;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Re-uploading an overlapping export only looks up the overlap, and rows stored before fingerprints
+ * existed are fingerprinted when their wallet is first screened.
+ */
+@AccountingJpaTest
+@Import({ TransactionFingerprintIndex.class, CsvImportConfig.class })
+class TransactionFingerprintIndexTest {
+
+  private static final LocalDate DATE = LocalDate.of(2025, 4, 1);
+
+  @Autowired
+  private TransactionFingerprintIndex fingerprintIndex;
+
+  @Autowired
+  private TransactionBulkRepository bulkRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private AccountingFixture fixture;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private AppUser user;
+  private Wallet wallet;
+
+  @BeforeEach
+  void setUp() {
+    user = fixture.user("fingerprint-user");
+    wallet = fixture.wallet("Checking", user);
+    entityManager.flush();
+  }
+
+  @Test
+  void findKnown_shouldBackfillStoredRowsAndFlagTheOverlapOfAReupload() {
+    // stored before fingerprints existed, including two identical rows of an export without balance
+    bulkRepository.insertIgnoringDuplicates(new ArrayList<>(List.of(
+        transaction(0, "CB BAKERY", -3.0, null),
+        transaction(0, "CB BAKERY", -3.0, null),
+        transaction(1, "Rent", -500.0, 1200.0))));
+
+    var upload = new ArrayList<Transaction>();
+    upload.add(transaction(0, "cb  bakery", -3.0, null));
+    upload.add(transaction(0, "CB BAKERY", -3.0, null));
+    upload.add(transaction(1, "RENT", -500.0, 1200.0));
+    for (int i = 0; i < 50; i++) {
+      upload.add(transaction(2 + i, "New row " + i, -1.0 - i, null));
+    }
+    TransactionFingerprint.assign(upload);
+    double knownBefore = count("known");
+    double newBefore = count("new");
+    double falsePositivesBefore = count("false_positive");
+
+    var known = fingerprintIndex.findKnown(wallet.getId(), upload);
+
+    assertThat(bulkRepository.findWithoutFingerprint(wallet.getId())).isEmpty();
+    assertThat(known[0]).isTrue();
+    assertThat(known[1]).isTrue();
+    assertThat(known[2]).isTrue();
+    for (int i = 3; i < known.length; i++) {
+      assertThat(known[i]).isFalse();
+    }
+    assertThat(count("known") - knownBefore).isEqualTo(3);
+    assertThat(count("new") - newBefore + count("false_positive") - falsePositivesBefore).isEqualTo(50);
+    assertThat(count("new") - newBefore).isGreaterThanOrEqualTo(45);
+  }
+
+  @Test
+  void onInserted_shouldMakeFreshRowsKnownToTheNextImport() {
+    var first = new ArrayList<>(List.of(transaction(0, "Coffee", -2.0, 10.0), transaction(1, "Coffee", -2.0, 8.0)));
+    TransactionFingerprint.assign(first);
+    assertThat(fingerprintIndex.findKnown(wallet.getId(), first)).containsExactly(false, false);
+    bulkRepository.insertIgnoringDuplicates(first);
+    fingerprintIndex.onInserted(wallet.getId(), first);
+
+    var again = new ArrayList<>(List.of(transaction(1, "Coffee", -2.0, 8.0), transaction(2, "Coffee", -2.0, 6.0)));
+    TransactionFingerprint.assign(again);
+
+    assertThat(fingerprintIndex.findKnown(wallet.getId(), again)).containsExactly(true, false);
+  }
+
+  private double count(String outcome) {
+    var counter = meterRegistry.find("accounting.import.fingerprints").tag("outcome", outcome).counter();
+    return counter == null ? 0 : counter.count();
+  }
+
+  private Transaction transaction(int day, String label, double amount, Double balance) {
+    var transaction = fixture.transaction(wallet, DATE.plusDays(day), amount);
+    transaction.setImportLabel(label);
+    transaction.setCurrentBalance(balance);
+    return transaction;
+  }
+}
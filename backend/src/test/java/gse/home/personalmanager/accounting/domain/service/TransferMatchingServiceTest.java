@@ -0,0 +1,138 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.application.mapper.TransactionMapperImpl;
+import gse.home.personalmanager.accounting.config.TransferMatchingConfig;
+import gse.home.personalmanager.accounting.domain.model.CategoryTotals;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
+import gse.home.personalmanager.accounting.domain.model.TransactionTotals;
+import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionRepository;
+import gse.home.personalmanager.accounting.test.AccountingFixture;
+import gse.home.personalmanager.accounting.test.AccountingJpaTest;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that imported transfers are linked both ways across the user's wallets, and that the
+ * summaries without transfers match the transactions left once the linked ones are filtered out.
+ */
+@AccountingJpaTest
+@Import({ TransferMatchingService.class, TransferMatchingConfig.class, TransactionService.class,
+    TransactionMapperImpl.class })
+class TransferMatchingServiceTest {
+
+  private static final LocalDate DATE = LocalDate.of(2025, 6, 1);
+
+  @Autowired
+  private TransferMatchingService transferMatchingService;
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private AccountingRollupService rollupService;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private AccountingFixture fixture;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private AppUser user;
+  private Wallet checking;
+  private Wallet savings;
+  private TransactionCategory savingsCategory;
+  private TransactionCategory groceries;
+
+  @BeforeEach
+  void setUp() {
+    user = fixture.user("transfer-user");
+    checking = fixture.wallet("Checking", user);
+    savings = fixture.wallet("Savings", user);
+    savingsCategory = fixture.category("Savings");
+    groceries = fixture.category("Groceries");
+  }
+
+  @Test
+  void matchImported_shouldLinkBothSidesOnceAcrossWallets() {
+    var toSavings = transaction(checking, savingsCategory, -300.0, 0);
+    var groceriesRun = transaction(checking, groceries, -42.5, 1);
+    var sameWalletRefund = transaction(checking, groceries, 42.5, 1);
+    add(checking, toSavings, groceriesRun, sameWalletRefund);
+    var fromChecking = transaction(savings, savingsCategory, 300.0, 2);
+    add(savings, fromChecking);
+
+    assertThat(transferMatchingService.matchImported(user.getId(), List.of(fromChecking.getId()))).isEqualTo(1);
+    assertThat(transferMatchingService.matchImported(user.getId(), List.of(fromChecking.getId(),
+        groceriesRun.getId(), sameWalletRefund.getId()))).isZero();
+
+    entityManager.clear();
+    assertThat(related(toSavings)).isEqualTo(fromChecking.getId());
+    assertThat(related(fromChecking)).isEqualTo(toSavings.getId());
+    assertThat(related(groceriesRun)).isNull();
+    assertThat(related(sameWalletRefund)).isNull();
+  }
+
+  @Test
+  void summariesWithoutTransfers_shouldMatchTheFilteredTransactions() {
+    var toSavings = transaction(checking, savingsCategory, -300.0, 0);
+    add(checking, toSavings, transaction(checking, groceries, -42.5, 1), transaction(checking, savingsCategory,
+        -20.0, 3), transaction(checking, null, 1500.0, 4));
+    var fromChecking = transaction(savings, savingsCategory, 300.0, 1);
+    add(savings, fromChecking);
+    transferMatchingService.matchImported(user.getId(), List.of(toSavings.getId(), fromChecking.getId()));
+    entityManager.clear();
+
+    var from = DATE;
+    var to = DATE.plusDays(10);
+    var transfers = transactionRepository.sumTransfersByCategory(from, to, checking.getId(), user.getId());
+    var byCategory = transactionService.withoutTransfers(
+        rollupService.sumRangeByCategory(from, to, checking.getId(), user.getId()), transfers);
+    var totals = transactionService.withoutTransfers(
+        rollupService.sumRange(from, to, checking.getId(), user.getId()), transfers);
+
+    var remaining = transactionRepository.findAllByDateBetweenAndWalletIdAndUserId(from, to, checking.getId(),
+        user.getId()).stream().filter(t -> !TransactionService.isTransfer(t)).toList();
+    assertThat(remaining).hasSize(3);
+    assertThat(transactionService.getTransactionSummary(totals, null))
+        .isEqualTo(transactionService.getTransactionSummary(remaining, null));
+    assertThat(byCategory).containsExactlyInAnyOrder(
+        new CategoryTotals(savingsCategory.getId(), "Savings", null, 0.0, 20.0, 1L),
+        new CategoryTotals(groceries.getId(), "Groceries", null, 0.0, 42.5, 1L),
+        new CategoryTotals(null, null, null, 1500.0, 0.0, 1L));
+
+    var savingsOnly = transactionService.withoutTransfers(
+        rollupService.sumRange(from, to, savings.getId(), user.getId()),
+        transactionRepository.sumTransfersByCategory(from, to, savings.getId(), user.getId()));
+    assertThat(savingsOnly).isEqualTo(new TransactionTotals(0.0, 0.0, 0L));
+  }
+
+  private Integer related(Transaction transaction) {
+    var stored = transactionRepository.findById(transaction.getId()).orElseThrow();
+    return stored.getRelatedTransaction() == null ? null : stored.getRelatedTransaction().getId();
+  }
+
+  private void add(Wallet wallet, Transaction... transactions) {
+    var added = List.of(transactions);
+    added.forEach(entityManager::persist);
+    entityManager.flush();
+    rollupService.onTransactionsAdded(wallet.getId(), added);
+  }
+
+  private Transaction transaction(Wallet wallet, TransactionCategory category, double amount, int day) {
+    return fixture.transaction(wallet, DATE.plusDays(day), amount, category);
+  }
+}
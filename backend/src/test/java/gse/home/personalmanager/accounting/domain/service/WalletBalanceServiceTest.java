@@ -0,0 +1,117 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.WalletBalance;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.WalletBalanceRepository;
+import gse.home.personalmanager.unit.UnitTestBase;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WalletBalanceServiceTest extends UnitTestBase {
+
+  @Mock
+  private WalletBalanceRepository balanceRepository;
+
+  @Mock
+  private TransactionRepository transactionRepository;
+
+  @InjectMocks
+  private WalletBalanceService walletBalanceService;
+
+  @Test
+  void onTransactionsAdded_shouldMoveSnapshotToNewestTransaction() {
+    var snapshot = snapshot(transaction(10, LocalDate.of(2025, 1, 10), 500.0));
+    when(balanceRepository.findForUpdate(1L)).thenReturn(Optional.of(snapshot));
+
+    walletBalanceService.onTransactionsAdded(1L, List.of(
+        transaction(11, LocalDate.of(2025, 1, 12), 450.0),
+        transaction(12, LocalDate.of(2025, 1, 11), 470.0),
+        transaction(13, LocalDate.of(2025, 1, 12), 420.0)));
+
+    assertThat(snapshot.getBalance()).isEqualTo(420.0);
+    assertThat(snapshot.getAsOfDate()).isEqualTo(LocalDate.of(2025, 1, 12));
+    assertThat(snapshot.getLastTransactionId()).isEqualTo(13);
+    verify(balanceRepository).save(snapshot);
+    verifyNoInteractions(transactionRepository);
+  }
+
+  @Test
+  void onTransactionsAdded_withBackDatedRows_shouldKeepSnapshot() {
+    var snapshot = snapshot(transaction(10, LocalDate.of(2025, 1, 10), 500.0));
+    when(balanceRepository.findForUpdate(1L)).thenReturn(Optional.of(snapshot));
+
+    walletBalanceService.onTransactionsAdded(1L, List.of(transaction(50, LocalDate.of(2024, 12, 1), 900.0)));
+
+    assertThat(snapshot.getBalance()).isEqualTo(500.0);
+    verify(balanceRepository, never()).save(any());
+  }
+
+  @Test
+  void onTransactionRemoved_ofLatest_shouldFallBackToLedger() {
+    var snapshot = snapshot(transaction(10, LocalDate.of(2025, 1, 10), 500.0));
+    var previous = transaction(9, LocalDate.of(2025, 1, 9), 520.0);
+    when(balanceRepository.findForUpdate(1L)).thenReturn(Optional.of(snapshot));
+    when(transactionRepository.findFirstByWalletIdOrderByDateDescIdDesc(1L)).thenReturn(Optional.of(previous));
+
+    walletBalanceService.onTransactionRemoved(1L, 10);
+
+    assertThat(snapshot.getBalance()).isEqualTo(520.0);
+    assertThat(snapshot.getLastTransactionId()).isEqualTo(9);
+  }
+
+  @Test
+  void onTransactionRemoved_ofOlderTransaction_shouldNotReadLedger() {
+    when(balanceRepository.findForUpdate(1L))
+        .thenReturn(Optional.of(snapshot(transaction(10, LocalDate.of(2025, 1, 10), 500.0))));
+
+    walletBalanceService.onTransactionRemoved(1L, 3);
+
+    verifyNoInteractions(transactionRepository);
+  }
+
+  @Test
+  void reconcile_shouldRepairDriftedSnapshot() {
+    var latest = transaction(10, LocalDate.of(2025, 1, 10), 500.0);
+    var snapshot = snapshot(latest);
+    snapshot.setBalance(1.0);
+    when(balanceRepository.findForUpdate(1L)).thenReturn(Optional.of(snapshot));
+    when(transactionRepository.findFirstByWalletIdOrderByDateDescIdDesc(1L)).thenReturn(Optional.of(latest));
+
+    assertThat(walletBalanceService.reconcile(1L)).isTrue();
+    assertThat(snapshot.getBalance()).isEqualTo(500.0);
+    assertThat(walletBalanceService.reconcile(1L)).isFalse();
+  }
+
+  @Test
+  void reconcile_shouldCreateMissingSnapshot() {
+    when(balanceRepository.findForUpdate(2L)).thenReturn(Optional.empty());
+    when(transactionRepository.findFirstByWalletIdOrderByDateDescIdDesc(2L)).thenReturn(Optional.empty());
+
+    assertThat(walletBalanceService.reconcile(2L)).isTrue();
+    verify(balanceRepository).save(argThat(b -> b.getWalletId().equals(2L) && b.getBalance() == null));
+  }
+
+  private static WalletBalance snapshot(Transaction latest) {
+    var snapshot = WalletBalance.empty(1L);
+    snapshot.applyLatest(latest);
+    return snapshot;
+  }
+
+  private static Transaction transaction(int id, LocalDate date, double balance) {
+    var transaction = new Transaction();
+    transaction.setId(id);
+    transaction.setDate(date);
+    transaction.setCurrentBalance(balance);
+    return transaction;
+  }
+}
@@ -0,0 +1,166 @@
+package gse.home.personalmanager.accounting.domain.service;
+
+import gse.home.personalmanager.accounting.config.WalletPurgeConfig;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.domain.model.WalletPermission;
+import gse.home.personalmanager.accounting.domain.model.WalletRole;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionBulkRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.WalletPermissionRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.WalletPurgeRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.WalletRepository;
+import gse.home.personalmanager.accounting.test.AccountingFixture;
+import gse.home.personalmanager.accounting.test.AccountingJpaTest;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A deleted wallet disappears from every read at once, and its rows are then removed chunk by chunk
+ * (two rows per statement here), resuming after an interruption.
+ */
+@AccountingJpaTest
+@TestPropertySource(properties = "accounting.wallet-purge.chunk-size=2")
+@Import({ WalletPurgeService.class, WalletPurgeRepository.class, WalletPurgeConfig.class })
+class WalletPurgeServiceTest {
+
+  private static final LocalDate DATE = LocalDate.of(2025, 3, 1);
+
+  @Autowired
+  private WalletPurgeService purgeService;
+
+  @Autowired
+  private WalletPurgeRepository purgeRepository;
+
+  @Autowired
+  private AccountingRollupService rollupService;
+
+  @Autowired
+  private TransactionBulkRepository bulkRepository;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private WalletRepository walletRepository;
+
+  @Autowired
+  private WalletPermissionRepository permissionRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private AccountingFixture fixture;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private AppUser owner;
+  private AppUser reader;
+  private Wallet deleted;
+  private Wallet kept;
+  private Transaction transfer;
+
+  @BeforeEach
+  void setUp() {
+    owner = fixture.user("purge-owner");
+    reader = fixture.user("purge-reader");
+    deleted = fixture.wallet("Old checking", owner);
+    kept = fixture.wallet("Savings", owner);
+    permission(deleted);
+    permission(kept);
+
+    var rows = new ArrayList<Transaction>();
+    for (int i = 0; i < 7; i++) {
+      rows.add(fixture.transaction(deleted, DATE.plusDays(i), -10.0 - i));
+    }
+    insert(deleted, rows);
+    transfer = fixture.transaction(kept, DATE, 10.0);
+    insert(kept, new ArrayList<>(List.of(transfer, fixture.transaction(kept, DATE.plusDays(1), 5.0))));
+    // links inside the deleted wallet and from the kept one into it
+    transactionRepository.updateRelatedTransaction(rows.get(0), List.of(rows.get(1).getId(), transfer.getId()));
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  void markDeleted_shouldHideTheWalletAndItsRowsFromReads() {
+    markDeleted(deleted);
+
+    assertThat(walletRepository.findById(deleted.getId())).isEmpty();
+    assertThat(walletRepository.findWalletView(deleted.getId(), owner.getId())).isEmpty();
+    assertThat(walletRepository.findWalletViewsForUser(owner.getId())).extracting("id").containsExactly(kept.getId());
+    assertThat(walletRepository.findAllIds()).containsExactly(kept.getId());
+    assertThat(permissionRepository.findAllByUser(reader)).extracting(p -> p.getWallet().getId())
+        .containsExactly(kept.getId());
+    assertThat(transactionRepository.findAllByDateBetweenAndWalletId(DATE, DATE.plusDays(30), deleted.getId())).isEmpty();
+    assertThat(rollupService.sumRangeByCategory(DATE, DATE.plusDays(30), deleted.getId(), owner.getId())).isEmpty();
+    assertThat(transactionRepository.findAllByDateBetweenAndWalletId(DATE, DATE.plusDays(30), kept.getId())).hasSize(2);
+  }
+
+  @Test
+  void purge_shouldRemoveEveryRowInChunksAndResumeAfterAnInterruption() {
+    markDeleted(deleted);
+    // a previous run stopped after its first chunks
+    purgeRepository.unlinkRelatedTransactions(deleted.getId(), 2);
+    purgeRepository.deleteTransactions(deleted.getId(), 2);
+
+    assertThat(purgeService.purgeDeleted()).isEqualTo(1);
+
+    assertThat(count("accounting_transaction", deleted.getId())).isZero();
+    assertThat(count("accounting_rollup", deleted.getId())).isZero();
+    assertThat(count("accounting_wallet_permissions", deleted.getId())).isZero();
+    assertThat(count("accounting_wallet_balance", deleted.getId())).isZero();
+    assertThat(jdbcTemplate.queryForObject("select count(*) from accounting_wallets where id = ?", Long.class,
+        deleted.getId())).isZero();
+    assertThat(purgeRepository.findDeletedWalletIds()).isEmpty();
+
+    assertThat(count("accounting_transaction", kept.getId())).isEqualTo(2);
+    assertThat(count("accounting_rollup", kept.getId())).isPositive();
+    assertThat(count("accounting_wallet_permissions", kept.getId())).isEqualTo(1);
+    entityManager.clear();
+    assertThat(transactionRepository.findById(transfer.getId()).orElseThrow().getRelatedTransaction()).isNull();
+    assertThat(meterRegistry.counter("accounting.wallet.purge.rows", "table", "transactions").count()).isEqualTo(5);
+    assertThat(meterRegistry.get("accounting.wallet.purge.pending").gauge().value()).isZero();
+  }
+
+  private void markDeleted(Wallet wallet) {
+    jdbcTemplate.update("update accounting_wallets set deleted_at = ? where id = ?", System.currentTimeMillis(),
+        wallet.getId());
+    entityManager.clear();
+  }
+
+  private long count(String table, Long walletId) {
+    return jdbcTemplate.queryForObject("select count(*) from " + table + " where wallet_id = ?", Long.class, walletId);
+  }
+
+  private void insert(Wallet wallet, List<Transaction> rows) {
+    bulkRepository.insertIgnoringDuplicates(rows);
+    rollupService.onTransactionsAdded(wallet.getId(), rows);
+  }
+
+  private void permission(Wallet wallet) {
+    var permission = new WalletPermission();
+    permission.setWallet(wallet);
+    permission.setUser(reader);
+    permission.setRole(WalletRole.READ);
+    entityManager.persist(permission);
+  }
+}
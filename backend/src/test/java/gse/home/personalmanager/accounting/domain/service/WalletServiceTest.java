@@ -1,8 +1,13 @@
 package gse.home.personalmanager.accounting.domain.service;
 
+import gse.home.personalmanager.accounting.config.WalletAccessConfig;
+import gse.home.personalmanager.accounting.domain.event.WalletAccessChangedEvent;
+import gse.home.personalmanager.accounting.domain.event.WalletDeletedEvent;
 import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.domain.model.WalletAccess;
 import gse.home.personalmanager.accounting.domain.model.WalletPermission;
 import gse.home.personalmanager.accounting.domain.model.WalletRole;
+import gse.home.personalmanager.accounting.domain.model.WalletView;
 import gse.home.personalmanager.accounting.infrastructure.repository.WalletPermissionRepository;
 import gse.home.personalmanager.accounting.infrastructure.repository.WalletRepository;
 import gse.home.personalmanager.core.exception.ConflictException;
@@ -12,10 +17,13 @@ import gse.home.personalmanager.unit.UnitTestBase;
 import gse.home.personalmanager.user.domain.model.AppUser;
 import gse.home.personalmanager.user.domain.model.Tenant;
 import gse.home.personalmanager.user.infrastructure.repository.TenantRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
@@ -36,7 +44,12 @@ class WalletServiceTest extends UnitTestBase {
     @Mock
     private TenantRepository tenantRepository;
 
-    @InjectMocks
+    @Mock
+    private WalletBalanceService walletBalanceService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private WalletService walletService;
 
     private AppUser owner;
@@ -46,6 +59,11 @@ class WalletServiceTest extends UnitTestBase {
 
     @BeforeEach
     void setUp() {
+        WalletAccessService accessService = new WalletAccessService(walletRepository, new WalletAccessConfig(),
+                new SimpleMeterRegistry());
+        walletService = new WalletService(walletRepository, permissionRepository, tenantRepository,
+                walletBalanceService, accessService, eventPublisher);
+
         owner = new AppUser();
         owner.setId(1L);
         owner.setEmail("owner@test.com");
@@ -76,6 +94,7 @@ class WalletServiceTest extends UnitTestBase {
         // Then
         assertThat(result).isNotNull();
         verify(walletRepository).save(any(Wallet.class));
+        verify(walletBalanceService).createSnapshot(1L);
     }
 
     @Test
@@ -130,7 +149,7 @@ class WalletServiceTest extends UnitTestBase {
     }
 
     @Test
-    void deleteWallet_byOwner_shouldDeleteSuccessfully() {
+    void deleteWallet_byOwner_shouldMarkDeletedAndRequestPurge() {
         // Given
         when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet));
 
@@ -138,8 +157,15 @@ class WalletServiceTest extends UnitTestBase {
         walletService.deleteWallet(1L, owner);
 
         // Then
-        verify(walletRepository).delete(wallet);
-        verify(permissionRepository).deleteAllByWallet(wallet);
+        assertThat(wallet.getDeletedAt()).isNotNull();
+        verify(walletRepository).save(wallet);
+        verify(walletRepository, never()).delete(any());
+        var events = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues().get(0)).isInstanceOfSatisfying(WalletDeletedEvent.class,
+                deleted -> assertThat(deleted.getWalletId()).isEqualTo(1L));
+        assertThat(events.getAllValues().get(1)).isInstanceOfSatisfying(WalletAccessChangedEvent.class,
+                changed -> assertThat(changed.getUserId()).isNull());
     }
 
     @Test
@@ -247,42 +273,43 @@ class WalletServiceTest extends UnitTestBase {
 
         // Then
         verify(permissionRepository).deleteByWalletAndUser(wallet, otherUser);
+        var event = ArgumentCaptor.forClass(WalletAccessChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getWalletId()).isEqualTo(1L);
+        assertThat(event.getValue().getUserId()).isEqualTo(2L);
     }
 
     @Test
-    void hasWriteAccess_forOwner_shouldReturnTrue() {
+    void getWritableWalletIds_forOwner_shouldReturnTrue() {
+        // Given
+        when(walletRepository.findAccessForUser(1L)).thenReturn(List.of(new WalletAccess(1L, 1L, null)));
+
         // When
-        boolean result = walletService.hasWriteAccess(wallet, owner);
+        boolean result = walletService.getWritableWalletIds(List.of(1L), 1L).contains(1L);
 
         // Then
         assertThat(result).isTrue();
     }
 
     @Test
-    void hasWriteAccess_forUserWithWritePermission_shouldReturnTrue() {
+    void getWritableWalletIds_forUserWithWritePermission_shouldReturnTrue() {
         // Given
-        WalletPermission permission = new WalletPermission();
-        permission.setRole(WalletRole.WRITE);
-
-        when(permissionRepository.findByWalletAndUser(wallet, otherUser)).thenReturn(Optional.of(permission));
+        when(walletRepository.findAccessForUser(2L)).thenReturn(List.of(new WalletAccess(1L, 1L, WalletRole.WRITE)));
 
         // When
-        boolean result = walletService.hasWriteAccess(wallet, otherUser);
+        boolean result = walletService.getWritableWalletIds(List.of(1L), 2L).contains(1L);
 
         // Then
         assertThat(result).isTrue();
     }
 
     @Test
-    void hasWriteAccess_forUserWithReadPermission_shouldReturnFalse() {
+    void getWritableWalletIds_forUserWithReadPermission_shouldReturnFalse() {
         // Given
-        WalletPermission permission = new WalletPermission();
-        permission.setRole(WalletRole.READ);
-
-        when(permissionRepository.findByWalletAndUser(wallet, otherUser)).thenReturn(Optional.of(permission));
+        when(walletRepository.findAccessForUser(2L)).thenReturn(List.of(new WalletAccess(1L, 1L, WalletRole.READ)));
 
         // When
-        boolean result = walletService.hasWriteAccess(wallet, otherUser);
+        boolean result = walletService.getWritableWalletIds(List.of(1L), 2L).contains(1L);
 
         // Then
         assertThat(result).isFalse();
@@ -290,8 +317,11 @@ class WalletServiceTest extends UnitTestBase {
 
     @Test
     void hasReadAccess_forOwner_shouldReturnTrue() {
+        // Given
+        when(walletRepository.findAccessForUser(1L)).thenReturn(List.of(new WalletAccess(1L, 1L, null)));
+
         // When
-        boolean result = walletService.hasReadAccess(wallet, owner);
+        boolean result = walletService.hasReadAccess(1L, 1L);
 
         // Then
         assertThat(result).isTrue();
@@ -300,11 +330,10 @@ class WalletServiceTest extends UnitTestBase {
     @Test
     void hasReadAccess_forUserWithPermission_shouldReturnTrue() {
         // Given
-        WalletPermission permission = new WalletPermission();
-        when(permissionRepository.findByWalletAndUser(wallet, otherUser)).thenReturn(Optional.of(permission));
+        when(walletRepository.findAccessForUser(2L)).thenReturn(List.of(new WalletAccess(1L, 1L, WalletRole.READ)));
 
         // When
-        boolean result = walletService.hasReadAccess(wallet, otherUser);
+        boolean result = walletService.hasReadAccess(1L, 2L);
 
         // Then
         assertThat(result).isTrue();
@@ -313,12 +342,53 @@ class WalletServiceTest extends UnitTestBase {
     @Test
     void hasReadAccess_forUserWithoutPermission_shouldReturnFalse() {
         // Given
-        when(permissionRepository.findByWalletAndUser(wallet, otherUser)).thenReturn(Optional.empty());
+        when(walletRepository.findAccessForUser(2L)).thenReturn(List.of());
 
         // When
-        boolean result = walletService.hasReadAccess(wallet, otherUser);
+        boolean result = walletService.hasReadAccess(1L, 2L);
 
         // Then
         assertThat(result).isFalse();
     }
+
+    @Test
+    void getWalletViewsForTenant_shouldOnlyListReadableWallets() {
+        // Given
+        when(tenantRepository.existsById(1L)).thenReturn(true);
+        when(walletRepository.findWalletViewsForTenant(1L, 2L)).thenReturn(List.of(
+                tenantWallet(1L, "READ"), tenantWallet(2L, null), tenantWallet(3L, WalletView.ROLE_OWNER)));
+        when(walletRepository.findAccessForUser(2L)).thenReturn(List.of(
+                new WalletAccess(1L, 1L, WalletRole.READ),
+                new WalletAccess(3L, 2L, null)));
+
+        // When
+        List<WalletView> result = walletService.getWalletViewsForTenant(1L, 2L);
+
+        // Then
+        assertThat(result).extracting(WalletView::id).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void filterReadable_shouldReadTheAccessListOnceForManyChecks() {
+        // Given
+        when(walletRepository.findAccessForUser(2L)).thenReturn(List.of(
+                new WalletAccess(1L, 1L, WalletRole.READ),
+                new WalletAccess(3L, 2L, null),
+                new WalletAccess(4L, 1L, WalletRole.WRITE)));
+
+        // When
+        var readable = walletService.filterReadable(2L, List.of(1L, 2L, 3L, 4L));
+        var writable = walletService.getWritableWalletIds(List.of(1L, 2L, 3L, 4L), 2L);
+
+        // Then
+        assertThat(readable).containsExactlyInAnyOrder(1L, 3L, 4L);
+        assertThat(writable).containsExactlyInAnyOrder(3L, 4L);
+        verify(walletRepository, times(1)).findAccessForUser(2L);
+        verifyNoInteractions(permissionRepository);
+    }
+
+    private static WalletView tenantWallet(Long id, String role) {
+        return new WalletView(id, "Wallet " + id, null, 1L, "owner@test.com", 1L, "Test Tenant", null, null, null,
+                role);
+    }
 }
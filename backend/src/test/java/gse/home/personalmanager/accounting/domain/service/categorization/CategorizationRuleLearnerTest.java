@@ -0,0 +1,43 @@
+package gse.home.personalmanager.accounting.domain.service.categorization;
+
+import gse.home.personalmanager.accounting.domain.model.LabelCategoryCount;
+import gse.home.personalmanager.accounting.domain.service.categorization.CategorizationRuleLearner.LearnedKeyword;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategorizationRuleLearnerTest {
+
+  @Test
+  void merchantKey_shouldDropBankNoiseDatesAndReferences() {
+    assertThat(CategorizationRuleLearner.merchantKey("CB CARREFOUR 12/03 CARTE 4974XXXX1234")).isEqualTo("carrefour");
+    assertThat(CategorizationRuleLearner.merchantKey("PRLV SEPA EDF CLIENTS PARTICULIERS")).isEqualTo("edf clients");
+    assertThat(CategorizationRuleLearner.merchantKey("PAIEMENT PAR CARTE SNCF-VOYAGES")).isEqualTo("sncf voyages");
+    assertThat(CategorizationRuleLearner.merchantKey("AMAZON*MKTP FR")).isEqualTo("amazon mktp");
+    assertThat(CategorizationRuleLearner.merchantKey("CB 12/03 42")).isNull();
+    assertThat(CategorizationRuleLearner.merchantKey(null)).isNull();
+  }
+
+  @Test
+  void learn_shouldKeepMerchantsWithEnoughSupportAndConfidence() {
+    var counts = List.of(
+        new LabelCategoryCount("CB CARREFOUR 01/02", 1, 2L),
+        new LabelCategoryCount("CB CARREFOUR 03/02", 1, 2L),
+        new LabelCategoryCount("CB CARREFOUR 04/02", 2, 1L),
+        new LabelCategoryCount("CB SNCF 01/02", 3, 3L),
+        new LabelCategoryCount("CB SNCF 02/02", 4, 2L),
+        new LabelCategoryCount("NETFLIX", 5, 2L),
+        new LabelCategoryCount("VIR LOYER", 6, 9L));
+
+    assertThat(CategorizationRuleLearner.learn(counts, 3, 0.8, 10)).containsExactly(
+        new LearnedKeyword("loyer", 6, 9),
+        new LearnedKeyword("carrefour", 1, 4));
+    assertThat(CategorizationRuleLearner.learn(counts, 3, 0.8, 1)).containsExactly(
+        new LearnedKeyword("loyer", 6, 9));
+    assertThat(CategorizationRuleLearner.learn(counts, 2, 0.5, 10))
+        .extracting(LearnedKeyword::keyword)
+        .containsExactly("loyer", "carrefour", "sncf", "netflix");
+  }
+}
@@ -0,0 +1,170 @@
+package gse.home.personalmanager.accounting.domain.service.categorization;
+
+import gse.home.personalmanager.accounting.domain.model.CategorizationRule;
+import gse.home.personalmanager.accounting.domain.model.CategorizationRuleType;
+import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Run with {@code -Dbenchmark=true} to also measure labels categorized per second.
+ */
+class CompiledRuleSetTest {
+
+  private long nextId = 1;
+
+  @Test
+  void matcher_shouldReportOverlappingKeywordsAndFoldCaseAndPunctuation() {
+    var matcher = new AhoCorasickMatcher(List.of("he", "she", "his", "hers", "amazon mktp", " sncf "),
+        new int[] { 3, 1, 4, 2, 5, 6 });
+
+    assertThat(matcher.best("USHERS", Integer.MAX_VALUE, value -> true)).isEqualTo(1);
+    assertThat(matcher.best("ushers", Integer.MAX_VALUE, value -> value != 1)).isEqualTo(2);
+    assertThat(matcher.best("ushers", 2, value -> true)).isEqualTo(1);
+    assertThat(matcher.best("ushers", 1, value -> true)).isEqualTo(1);
+    assertThat(matcher.best("CB AMAZON*MKTP  12/03", Integer.MAX_VALUE, value -> true)).isEqualTo(5);
+    assertThat(matcher.best("PRLV SNCF", Integer.MAX_VALUE, value -> true)).isEqualTo(6);
+    assertThat(matcher.best("sncf-voyages", Integer.MAX_VALUE, value -> true)).isEqualTo(6);
+    assertThat(matcher.best("SNCFVOYAGES", Integer.MAX_VALUE, value -> true)).isEqualTo(Integer.MAX_VALUE);
+    assertThat(matcher.best("Café", Integer.MAX_VALUE, value -> true)).isEqualTo(Integer.MAX_VALUE);
+  }
+
+  @Test
+  void normalize_shouldLowerCaseAndCollapseSeparators() {
+    assertThat(AhoCorasickMatcher.normalize("  Amazon*MKTP -- FR ")).isEqualTo("amazon mktp fr");
+    assertThat(AhoCorasickMatcher.normalize("Crédit Agricole")).isEqualTo("crédit agricole");
+    assertThat(AhoCorasickMatcher.normalize("***")).isEmpty();
+  }
+
+  @Test
+  void categorize_shouldPickTheFirstRuleInRankOrder() {
+    var rules = CompiledRuleSet.compile(List.of(
+        rule(CategorizationRuleType.KEYWORD, "amazon", null, null, 10, 5, false),
+        rule(CategorizationRuleType.KEYWORD, "amazon prime", null, null, 11, 5, false),
+        rule(CategorizationRuleType.KEYWORD, "amazon", null, -100.0, 12, 1, false),
+        rule(CategorizationRuleType.REGEX, "^prlv .*edf", null, null, 13, 0, false),
+        rule(CategorizationRuleType.AMOUNT_RANGE, null, 1000.0, null, 14, 3, false),
+        rule(CategorizationRuleType.KEYWORD, "salaire", null, null, 15, 9, false),
+        rule(CategorizationRuleType.KEYWORD, "carrefour", null, null, 16, 0, true),
+        rule(CategorizationRuleType.KEYWORD, "carrefour market", null, null, 17, 9, false)));
+
+    assertThat(rules.categorize("AMAZON PRIME FR", -6.99)).isEqualTo(11);
+    assertThat(rules.categorize("Amazon.fr", -20.0)).isEqualTo(10);
+    assertThat(rules.categorize("Amazon.fr", -150.0)).isEqualTo(12);
+    assertThat(rules.categorize("PRLV SEPA EDF", -80.0)).isEqualTo(13);
+    assertThat(rules.categorize("VIR SALAIRE", 2500.0)).isEqualTo(14);
+    assertThat(rules.categorize("VIR SALAIRE", 900.0)).isEqualTo(15);
+    assertThat(rules.categorize("CB CARREFOUR MARKET", -30.0)).isEqualTo(17);
+    assertThat(rules.categorize("CB CARREFOUR CITY", -30.0)).isEqualTo(16);
+    assertThat(rules.categorize("CARREFOURCITY", -30.0)).isNull();
+    assertThat(rules.categorize("Amazon.fr", null)).isEqualTo(10);
+    assertThat(rules.categorize(null, 2500.0)).isEqualTo(14);
+    assertThat(rules.categorize("Unknown", -5.0)).isNull();
+  }
+
+  @Test
+  void categorize_shouldStopBacktrackingPatternsAtTheRegexBudget() {
+    var rules = CompiledRuleSet.compile(List.of(
+        rule(CategorizationRuleType.REGEX, "(.*a){12}$", null, null, 10, 0, false),
+        rule(CategorizationRuleType.REGEX, "!$", null, null, 11, 1, false),
+        rule(CategorizationRuleType.AMOUNT_RANGE, null, null, 0.0, 12, 2, false)), Duration.ofMillis(20));
+    var label = "a".repeat(40) + "!";
+
+    long start = System.nanoTime();
+    var categoryId = rules.categorize(label, -5.0);
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    assertThat(categoryId).isEqualTo(12);
+    assertThat(rules.categorize("a".repeat(12), -5.0)).isEqualTo(10);
+    assertThat(rules.categorize("b!", -5.0)).isEqualTo(11);
+  }
+
+  @Test
+  void compile_shouldSkipDisabledRulesAndEmptyKeywords() {
+    var disabled = rule(CategorizationRuleType.KEYWORD, "amazon", null, null, 10, 0, false);
+    disabled.setEnabled(false);
+    var rules = CompiledRuleSet.compile(List.of(disabled,
+        rule(CategorizationRuleType.KEYWORD, "---", null, null, 11, 0, false)));
+
+    assertThat(rules.isEmpty()).isTrue();
+    assertThat(rules.categorize("amazon ---", -1.0)).isNull();
+    assertThat(CompiledRuleSet.EMPTY.categorize("anything", 1.0)).isNull();
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  void benchmark_labelsPerSecond() {
+    var random = new Random(42);
+    var merchants = new ArrayList<String>();
+    var rules = new ArrayList<CategorizationRule>();
+    for (int i = 0; i < 2_000; i++) {
+      var merchant = word(random) + (i % 3 == 0 ? " " + word(random) : "");
+      merchants.add(merchant);
+      rules.add(rule(CategorizationRuleType.KEYWORD, merchant, null, null, i % 40, i % 7, i % 2 == 0));
+    }
+    for (int i = 0; i < 10; i++) {
+      rules.add(rule(CategorizationRuleType.REGEX, "^prlv sepa " + word(random), null, null, 40 + i, 10, false));
+      rules.add(rule(CategorizationRuleType.AMOUNT_RANGE, null, 1000.0 * (i + 1), null, 50 + i, 10, false));
+    }
+    long compileStart = System.nanoTime();
+    var compiled = CompiledRuleSet.compile(rules);
+    System.out.printf("compiled %d rules in %d ms, ~%d KB%n", rules.size(),
+        (System.nanoTime() - compileStart) / 1_000_000, compiled.estimatedSize() / 1024);
+
+    var labels = new String[100_000];
+    var amounts = new double[labels.length];
+    for (int i = 0; i < labels.length; i++) {
+      var merchant = i % 4 == 0 ? word(random) : merchants.get(random.nextInt(merchants.size()));
+      labels[i] = "CB " + merchant.toUpperCase() + " " + (random.nextInt(28) + 1) + "/0" + (random.nextInt(9) + 1)
+          + " CARTE 4974XXXXXXXX" + random.nextInt(10_000);
+      amounts[i] = Math.round((random.nextDouble() * 400 - 300) * 100) / 100.0;
+    }
+
+    double best = 0;
+    for (int run = 0; run < 10; run++) {
+      int matched = 0;
+      long start = System.nanoTime();
+      for (int i = 0; i < labels.length; i++) {
+        if (compiled.categorize(labels[i], amounts[i]) != null) {
+          matched++;
+        }
+      }
+      double perSecond = labels.length / ((System.nanoTime() - start) / 1e9);
+      best = Math.max(best, perSecond);
+      System.out.printf("run %d: %,.0f labels/s, %d matched%n", run, perSecond, matched);
+    }
+    assertThat(best).isGreaterThan(200_000);
+  }
+
+  private static String word(Random random) {
+    var word = new StringBuilder();
+    int length = 4 + random.nextInt(6);
+    for (int i = 0; i < length; i++) {
+      word.append((char) ('a' + random.nextInt(26)));
+    }
+    return word.toString();
+  }
+
+  private CategorizationRule rule(CategorizationRuleType type, String pattern, Double minAmount, Double maxAmount,
+                                  int categoryId, int priority, boolean learned) {
+    var category = new TransactionCategory();
+    category.setId(categoryId);
+    var rule = new CategorizationRule();
+    rule.setId(nextId++);
+    rule.setType(type);
+    rule.setPattern(pattern);
+    rule.setMinAmount(minAmount);
+    rule.setMaxAmount(maxAmount);
+    rule.setCategory(category);
+    rule.setPriority(priority);
+    rule.setLearned(learned);
+    return rule;
+  }
+}
@@ -0,0 +1,129 @@
+package gse.home.personalmanager.accounting.domain.service.columnar;
+
+import gse.home.personalmanager.accounting.domain.model.TransactionColumnRow;
+import gse.home.personalmanager.accounting.domain.model.TransactionTotals;
+import gse.home.personalmanager.accounting.domain.model.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WalletColumnsTest {
+
+  private static final int DAY = 20_000;
+
+  @Test
+  void sums_shouldMatchAPlainLoopOverTheRows() {
+    var random = new Random(42);
+    var rows = new ArrayList<TransactionColumnRow>();
+    for (int id = 1; id <= 5_000; id++) {
+      var type = switch (random.nextInt(10)) {
+        case 0 -> null;
+        case 1, 2, 3 -> TransactionType.CREDIT;
+        default -> TransactionType.DEBIT;
+      };
+      long cents = random.nextInt(100_000) * (type == TransactionType.DEBIT ? -1L : 1L);
+      rows.add(new TransactionColumnRow(id, DAY + random.nextInt(400), cents, type, random.nextInt(6),
+          1 + random.nextInt(2)));
+    }
+    var columns = build(rows);
+
+    for (int i = 0; i < 50; i++) {
+      int from = DAY - 10 + random.nextInt(420);
+      int to = from + random.nextInt(120);
+      long user = 1 + random.nextInt(3);
+      assertThat(columns.sum(from, to, user)).isEqualTo(expectedSum(rows, from, to, user, -1));
+      var byCategory = columns.sumByCategory(from, to, user);
+      for (var sum : byCategory) {
+        var expected = expectedSum(rows, from, to, user, sum.categoryId());
+        assertThat(new TransactionTotals(sum.income(), sum.expense(), sum.count())).isEqualTo(expected);
+      }
+      assertThat(byCategory.stream().mapToLong(WalletColumns.CategorySum::count).sum())
+          .isEqualTo(expectedSum(rows, from, to, user, -1).count());
+    }
+  }
+
+  @Test
+  void withAdded_shouldMergeInOrderAndSkipRowsAlreadyPresent() {
+    var columns = build(List.of(row(1, DAY, 1_000), row(3, DAY + 2, -500)));
+
+    var patch = List.of(row(2, DAY + 1, 250), row(4, DAY, -100), row(3, DAY + 2, -500));
+    var patched = columns.withAdded(patch);
+
+    assertThat(patched.size()).isEqualTo(4);
+    assertThat(patched.withAdded(patch)).isSameAs(patched);
+    assertThat(patched.find(DAY, 4)).isEqualTo(1);
+    assertThat(patched.sum(DAY, DAY + 1, 7)).isEqualTo(new TransactionTotals(12.5, 1.0, 3L));
+    assertThat(columns.size()).isEqualTo(2);
+  }
+
+  @Test
+  void withCategories_shouldMoveRowsBetweenCategories() {
+    var columns = build(List.of(row(1, DAY, -1_000), row(2, DAY, -2_000), row(3, DAY + 1, -4_000)));
+
+    var patched = columns.withCategories(List.of(
+        new TransactionColumnRow(2, DAY, -2_000, TransactionType.DEBIT, 12, 7),
+        new TransactionColumnRow(9, DAY, -2_000, TransactionType.DEBIT, 12, 7)));
+
+    assertThat(patched.sumByCategory(DAY, DAY + 1, 7)).containsExactly(
+        new WalletColumns.CategorySum(0, 0.0, 50.0, 2),
+        new WalletColumns.CategorySum(12, 0.0, 20.0, 1));
+    assertThat(columns.sumByCategory(DAY, DAY + 1, 7)).containsExactly(new WalletColumns.CategorySum(0, 0.0, 70.0, 3));
+  }
+
+  @Test
+  void withRemoved_shouldDropOnlyThePresentRows() {
+    var columns = build(List.of(row(1, DAY, 1_000), row(2, DAY + 1, -300), row(3, DAY + 2, 200)));
+
+    var patched = columns.withRemoved(List.of(row(2, DAY + 1, -300), row(8, DAY, 0)));
+
+    assertThat(patched.size()).isEqualTo(2);
+    assertThat(patched.sum(DAY, DAY + 2, 7)).isEqualTo(new TransactionTotals(12.0, 0.0, 2L));
+    assertThat(patched.withRemoved(List.of(row(2, DAY + 1, -300)))).isSameAs(patched);
+  }
+
+  @Test
+  void builder_shouldRejectRowsOutOfOrder() {
+    var builder = WalletColumns.builder().add(row(5, DAY + 1, 100));
+
+    assertThatThrownBy(() -> builder.add(row(6, DAY, 100))).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> builder.add(row(5, DAY + 1, 100))).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static WalletColumns build(List<TransactionColumnRow> rows) {
+    var builder = WalletColumns.builder();
+    rows.stream()
+        .sorted(Comparator.comparingInt(TransactionColumnRow::day).thenComparingInt(TransactionColumnRow::id))
+        .forEach(builder::add);
+    return builder.build();
+  }
+
+  private static TransactionColumnRow row(int id, int day, long cents) {
+    return new TransactionColumnRow(id, day, cents, cents < 0 ? TransactionType.DEBIT : TransactionType.CREDIT, 0, 7);
+  }
+
+  /**
+   * Totals of the rows in range, of one category or of all with {@code categoryId} -1.
+   */
+  private static TransactionTotals expectedSum(List<TransactionColumnRow> rows, int from, int to, long user,
+                                               int categoryId) {
+    var totals = new TreeMap<String, Long>();
+    for (var row : rows) {
+      if (row.day() < from || row.day() > to || row.userId() != user
+          || (categoryId >= 0 && row.categoryId() != categoryId) || row.type() == null) {
+        continue;
+      }
+      var key = row.type() == TransactionType.CREDIT ? "income" : "expense";
+      totals.merge(key, Math.abs(row.cents()), Long::sum);
+      totals.merge("count", 1L, Long::sum);
+    }
+    return new TransactionTotals(totals.getOrDefault("income", 0L) / 100.0,
+        totals.getOrDefault("expense", 0L) / 100.0, totals.getOrDefault("count", 0L));
+  }
+}
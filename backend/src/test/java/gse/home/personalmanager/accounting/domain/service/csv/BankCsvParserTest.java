@@ -0,0 +1,121 @@
+package gse.home.personalmanager.accounting.domain.service.csv;
+
+import gse.home.personalmanager.accounting.config.CsvImportConfig;
+import gse.home.personalmanager.accounting.domain.service.csv.BankCsvParser.ParsedCsvRow;
+import gse.home.personalmanager.core.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BankCsvParserTest {
+
+  private CsvImportConfig config;
+  private BankCsvParser parser;
+
+  @BeforeEach
+  void setUp() {
+    config = new CsvImportConfig();
+    config.setChunkSize(2);
+    parser = new BankCsvParser(config);
+  }
+
+  @Test
+  void parse_withDefaultProfile_shouldMapColumnsByHeaderAndChunkRows() throws IOException {
+    var csv = "\uFEFFDate;Libellé;Montant;Solde\n"
+        + "02/01/2025;Coffee;-3,50;1 246,50\n"
+        + "03/01/2025;\"Rent; January\";-1.200,00;46,50\n"
+        + "04/01/2025;Salary;+2500;2546,50\n";
+
+    var chunks = parse(csv, config.getProfile(null), StandardCharsets.UTF_8);
+
+    assertThat(chunks).hasSize(2);
+    assertThat(chunks.get(0)).hasSize(2);
+    var rows = chunks.stream().flatMap(List::stream).toList();
+    assertThat(rows).extracting(ParsedCsvRow::row).containsExactly(2, 3, 4);
+    assertThat(rows).extracting(ParsedCsvRow::error).containsOnlyNulls();
+    assertThat(rows.get(0).values().getDate()).isEqualTo(LocalDate.of(2025, 1, 2));
+    assertThat(rows.get(0).values().getAmount()).isEqualTo(-3.5);
+    assertThat(rows.get(0).values().getCurrentBalance()).isEqualTo(1246.5);
+    assertThat(rows.get(1).values().getDescription()).isEqualTo("Rent; January");
+    assertThat(rows.get(1).values().getAmount()).isEqualTo(-1200.0);
+    assertThat(rows.get(2).values().getAmount()).isEqualTo(2500.0);
+  }
+
+  @Test
+  void parse_withDebitCreditProfile_shouldDecodeEncodingAndComputeAmount() throws IOException {
+    var profile = new CsvImportConfig.Profile();
+    profile.setEncoding("ISO-8859-1");
+    profile.setSkipLines(1);
+    profile.getColumns().setAmount(null);
+    profile.getColumns().setDebit("Débit");
+    profile.getColumns().setCredit("Crédit");
+    var csv = "Compte courant n°123\n"
+        + "Date;Libellé;Débit;Crédit;Solde\n"
+        + "05/02/2025;Café;12,30;;87,70\n"
+        + "06/02/2025;Virement reçu;;100,00;187,70\n";
+
+    var rows = parse(csv, profile, StandardCharsets.ISO_8859_1).stream().flatMap(List::stream).toList();
+
+    assertThat(rows).extracting(r -> r.values().getDescription()).containsExactly("Café", "Virement reçu");
+    assertThat(rows).extracting(r -> r.values().getAmount()).containsExactly(-12.3, 100.0);
+  }
+
+  @Test
+  void parse_withoutHeader_shouldUseColumnIndexes() throws IOException {
+    var profile = new CsvImportConfig.Profile();
+    profile.setHeader(false);
+    profile.setDelimiter(',');
+    profile.setDecimalSeparator('.');
+    profile.setDateFormat("yyyy-MM-dd");
+    profile.getColumns().setDate("0");
+    profile.getColumns().setDescription("1");
+    profile.getColumns().setAmount("2");
+    profile.getColumns().setCurrentBalance(null);
+
+    var rows = parse("2025-03-01,Book,\"-1,234.56\"\n", profile, StandardCharsets.UTF_8).get(0);
+
+    assertThat(rows.get(0).values().getAmount()).isEqualTo(-1234.56);
+    assertThat(rows.get(0).values().getCurrentBalance()).isNull();
+  }
+
+  @Test
+  void parse_shouldReportUnparseableRowsAndGoOn() throws IOException {
+    var csv = "Date;Libellé;Montant;Solde\n"
+        + "2025/01/02;Bad date;-1;10\n"
+        + "03/01/2025;Bad amount;abc;10\n"
+        + "04/01/2025;Fine;-1;9\n";
+
+    var rows = parse(csv, config.getProfile(null), StandardCharsets.UTF_8).stream().flatMap(List::stream).toList();
+
+    assertThat(rows).extracting(ParsedCsvRow::error)
+        .containsExactly("Invalid date '2025/01/02'", "Invalid amount: 'abc'", null);
+  }
+
+  @Test
+  void parse_withMissingRequiredColumn_shouldFailBeforeReadingRows() {
+    var csv = "Date;Amount\n01/01/2025;-1\n";
+
+    assertThatThrownBy(() -> parse(csv, config.getProfile(null), StandardCharsets.UTF_8))
+        .isInstanceOf(ValidationException.class)
+        .hasMessageContaining("description");
+  }
+
+  private List<List<ParsedCsvRow>> parse(String csv, CsvImportConfig.Profile profile,
+                                         Charset charset) throws IOException {
+    List<List<ParsedCsvRow>> chunks = new ArrayList<>();
+    InputStream input = new ByteArrayInputStream(csv.getBytes(charset));
+    parser.parse(input, profile, chunk -> chunks.add(List.copyOf(chunk)));
+    return chunks;
+  }
+}
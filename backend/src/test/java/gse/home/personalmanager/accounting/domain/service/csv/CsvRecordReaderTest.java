@@ -0,0 +1,52 @@
+package gse.home.personalmanager.accounting.domain.service.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvRecordReaderTest {
+
+  @Test
+  void next_shouldSplitQuotedFieldsAndTrackLines() throws IOException {
+    var csv = "a;b;c\r\n\"x;y\";\"say \"\"hi\"\"\";\"two\nlines\"\r\n\r\nlast;;\n";
+    try (var reader = new CsvRecordReader(new StringReader(csv), ';', '"', 1000)) {
+      assertThat(reader.next()).containsExactly("a", "b", "c");
+      assertThat(reader.getRecordLine()).isEqualTo(1);
+
+      assertThat(reader.next()).containsExactly("x;y", "say \"hi\"", "two\nlines");
+      assertThat(reader.getRecordLine()).isEqualTo(2);
+
+      assertThat(reader.next()).containsExactly("last", "", "");
+      assertThat(reader.getRecordLine()).isEqualTo(5);
+
+      assertThat(reader.next()).isNull();
+    }
+  }
+
+  @Test
+  void next_shouldRejectOversizedRecordAndResumeOnNextLine() throws IOException {
+    var csv = "short;row\n" + "x".repeat(50) + ";\"quoted\nstill\"\nafter;row";
+    try (var reader = new CsvRecordReader(new StringReader(csv), ';', '"', 20)) {
+      assertThat(reader.next()).containsExactly("short", "row");
+      assertThatThrownBy(reader::next)
+          .isInstanceOf(CsvFormatException.class)
+          .extracting("line").isEqualTo(2);
+      assertThat(reader.next()).isEqualTo(List.of("after", "row"));
+      assertThat(reader.getRecordLine()).isEqualTo(4);
+    }
+  }
+
+  @Test
+  void next_shouldRejectUnterminatedQuote() throws IOException {
+    try (var reader = new CsvRecordReader(new StringReader("ok\n\"never closed"), ';', '"', 1000)) {
+      assertThat(reader.next()).containsExactly("ok");
+      assertThatThrownBy(reader::next).isInstanceOf(CsvFormatException.class);
+      assertThat(reader.next()).isNull();
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package gse.home.personalmanager.accounting.domain.service.fingerprint;
+
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionFingerprintTest {
+
+  private static final LocalDate DATE = LocalDate.of(2025, 3, 14);
+
+  @Test
+  void of_shouldIgnoreLabelCaseAndSpacingButNotAmountsOrBalance() {
+    long fingerprint = TransactionFingerprint.of(DATE, -12.5, "CB CARREFOUR  12/03", 100.0, 0);
+
+    assertThat(TransactionFingerprint.of(DATE, -12.5, " cb carrefour 12/03 ", 100.0, 0)).isEqualTo(fingerprint);
+    assertThat(TransactionFingerprint.of(DATE, -12.500000001, "CB CARREFOUR 12/03", 100.0, 0)).isEqualTo(fingerprint);
+    assertThat(TransactionFingerprint.of(DATE, -12.51, "CB CARREFOUR 12/03", 100.0, 0)).isNotEqualTo(fingerprint);
+    assertThat(TransactionFingerprint.of(DATE, -12.5, "CB CARREFOUR 12/03", null, 0)).isNotEqualTo(fingerprint);
+    assertThat(TransactionFingerprint.of(DATE.plusDays(1), -12.5, "CB CARREFOUR 12/03", 100.0, 0))
+        .isNotEqualTo(fingerprint);
+  }
+
+  @Test
+  void assign_shouldNumberIdenticalRowsTheSameWayOnEveryImport() {
+    var first = List.of(transaction("Bakery"), transaction("Bakery"), transaction("Rent"));
+    var again = List.of(transaction("BAKERY"), transaction("Rent"), transaction("bakery"));
+
+    TransactionFingerprint.assign(first);
+    TransactionFingerprint.assign(again);
+
+    assertThat(new HashSet<>(first.stream().map(Transaction::getImportFingerprint).toList())).hasSize(3);
+    assertThat(again).extracting(Transaction::getImportFingerprint).containsExactly(
+        first.get(0).getImportFingerprint(), first.get(2).getImportFingerprint(), first.get(1).getImportFingerprint());
+  }
+
+  @Test
+  void assign_shouldNumberIdenticalRowsAcrossTheChunksOfOneImport() {
+    var whole = List.of(transaction("Rent"), transaction("Bakery"), transaction("Bakery"));
+    var firstChunk = List.of(transaction("Rent"), transaction("Bakery"));
+    var secondChunk = List.of(transaction("Bakery"));
+
+    TransactionFingerprint.assign(whole);
+    var taken = new FingerprintSet();
+    TransactionFingerprint.assign(firstChunk, taken);
+    TransactionFingerprint.assign(secondChunk, taken);
+
+    assertThat(secondChunk.get(0).getImportFingerprint()).isNotEqualTo(firstChunk.get(1).getImportFingerprint());
+    assertThat(List.of(firstChunk.get(0), firstChunk.get(1), secondChunk.get(0)))
+        .extracting(Transaction::getImportFingerprint)
+        .containsExactlyElementsOf(whole.stream().map(Transaction::getImportFingerprint).toList());
+    assertThat(taken.size()).isEqualTo(3);
+  }
+
+  @Test
+  void fingerprintSet_shouldKeepItsValuesWhileGrowing() {
+    var set = new FingerprintSet();
+    for (long i = 0; i < 5_000; i++) {
+      assertThat(set.add(i * 0x9E3779B97F4A7C15L)).isTrue();
+    }
+    for (long i = 0; i < 5_000; i++) {
+      assertThat(set.add(i * 0x9E3779B97F4A7C15L)).isFalse();
+    }
+    assertThat(set.size()).isEqualTo(5_000);
+  }
+
+  @Test
+  void next_shouldSkipTakenFingerprints() {
+    var taken = new HashSet<Long>();
+    long first = TransactionFingerprint.next(taken, DATE, -3.0, "Bakery", null);
+    long second = TransactionFingerprint.next(taken, DATE, -3.0, "Bakery", null);
+
+    assertThat(first).isEqualTo(TransactionFingerprint.of(DATE, -3.0, "Bakery", null, 0));
+    assertThat(second).isEqualTo(TransactionFingerprint.of(DATE, -3.0, "Bakery", null, 1));
+    assertThat(taken).containsExactlyInAnyOrder(first, second);
+  }
+
+  @Test
+  void bloomFilter_shouldHoldAddedValuesAndStayNearItsFalsePositiveRate() {
+    var filter = new BloomFilter(10_000, 0.01);
+    for (int i = 0; i < 10_000; i++) {
+      filter.put(TransactionFingerprint.of(DATE, (double) i, "added", null, 0));
+    }
+    int falsePositives = 0;
+    for (int i = 0; i < 10_000; i++) {
+      assertThat(filter.mightContain(TransactionFingerprint.of(DATE, (double) i, "added", null, 0))).isTrue();
+      if (filter.mightContain(TransactionFingerprint.of(DATE, (double) i, "other", null, 0))) {
+        falsePositives++;
+      }
+    }
+
+    assertThat(falsePositives).isLessThan(200);
+    assertThat(filter.isSaturated()).isFalse();
+    filter.put(42L);
+    assertThat(filter.isSaturated()).isTrue();
+  }
+
+  private static Transaction transaction(String label) {
+    var transaction = new Transaction();
+    transaction.setDate(DATE);
+    transaction.setAmount(-3.0);
+    transaction.setImportLabel(label);
+    return transaction;
+  }
+}
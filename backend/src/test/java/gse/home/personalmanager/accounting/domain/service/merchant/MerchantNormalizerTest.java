@@ -0,0 +1,33 @@
+package gse.home.personalmanager.accounting.domain.service.merchant;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MerchantNormalizerTest {
+
+  @Test
+  void normalize_shouldStripDatesCardNumbersAndTerminalIds() {
+    assertThat(MerchantNormalizer.normalize("CB CARREFOUR CITY 12/03")).isEqualTo("CARREFOUR CITY");
+    assertThat(MerchantNormalizer.normalize("CARTE X1234 13/03/25 CARREFOUR CITY TPE 004217"))
+        .isEqualTo("CARREFOUR CITY");
+    assertThat(MerchantNormalizer.normalize("PAIEMENT PAR CARTE XXXX XXXX XXXX 5678 Carrefour  City 2025-03-14"))
+        .isEqualTo("CARREFOUR CITY");
+    assertThat(MerchantNormalizer.normalize("CB*4512 SNCF INTERNET REF 9F3K2LQ")).isEqualTo("SNCF INTERNET");
+  }
+
+  @Test
+  void normalize_shouldOnlyDropPaymentWordsBeforeTheMerchant() {
+    assertThat(MerchantNormalizer.normalize("PRLV SEPA EDF CLIENTS")).isEqualTo("EDF CLIENTS");
+    assertThat(MerchantNormalizer.normalize("VIR SALAIRE ACME")).isEqualTo("SALAIRE ACME");
+    assertThat(MerchantNormalizer.normalize("CB BAR PAR AVION")).isEqualTo("BAR PAR AVION");
+  }
+
+  @Test
+  void normalize_shouldReturnNullWhenNoMerchantIsLeft() {
+    assertThat(MerchantNormalizer.normalize(null)).isNull();
+    assertThat(MerchantNormalizer.normalize("  ")).isNull();
+    assertThat(MerchantNormalizer.normalize("CB 12/03 X1234")).isNull();
+    assertThat(MerchantNormalizer.normalize("X".repeat(5) + " " + "A".repeat(300))).hasSize(100);
+  }
+}
@@ -0,0 +1,149 @@
+package gse.home.personalmanager.accounting.domain.service.transfer;
+
+import gse.home.personalmanager.accounting.domain.model.TransferCandidate;
+import gse.home.personalmanager.accounting.domain.model.TransferPair;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Run with {@code -Dbenchmark=true} to also measure candidates matched per second.
+ */
+class TransferMatcherTest {
+
+  private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+  private static final long CHECKING = 1L;
+  private static final long SAVINGS = 2L;
+  private static final long CARD = 3L;
+
+  @Test
+  void match_shouldPairOppositeAmountsInOtherWalletsWithinTheWindow() {
+    var candidates = List.of(
+        candidate(1, CHECKING, 0, -200.0),
+        candidate(2, SAVINGS, 1, 200.0),
+        // same wallet
+        candidate(3, CHECKING, 0, -50.0),
+        candidate(4, CHECKING, 0, 50.0),
+        // too far apart
+        candidate(5, CHECKING, 0, -75.0),
+        candidate(6, SAVINGS, 4, 75.0),
+        // one cent off
+        candidate(7, CHECKING, 0, -19.99),
+        candidate(8, SAVINGS, 0, 20.0),
+        // same sign
+        candidate(9, CHECKING, 0, 30.0),
+        candidate(10, SAVINGS, 0, 30.0));
+
+    assertThat(TransferMatcher.match(candidates, ids(candidates), 3)).containsExactly(new TransferPair(1, 2));
+  }
+
+  @Test
+  void match_shouldGiveEachDebitTheClosestFreeCredit() {
+    var candidates = List.of(
+        candidate(1, CHECKING, 0, -100.0),
+        candidate(2, CHECKING, 2, -100.0),
+        candidate(3, SAVINGS, -2, 100.0),
+        candidate(4, SAVINGS, 1, 100.0),
+        candidate(5, CARD, 1, 100.0));
+
+    // the oldest debit goes first and takes the first of the two closest credits
+    assertThat(TransferMatcher.match(candidates, ids(candidates), 3))
+        .containsExactly(new TransferPair(1, 4), new TransferPair(2, 5));
+  }
+
+  @Test
+  void match_shouldOnlyPairRequiredCandidates() {
+    var candidates = List.of(
+        candidate(1, CHECKING, 0, -40.0),
+        candidate(2, SAVINGS, 0, 40.0),
+        candidate(3, CHECKING, 5, -60.0),
+        candidate(4, SAVINGS, 5, 60.0));
+
+    assertThat(TransferMatcher.match(candidates, Set.of(4), 3)).containsExactly(new TransferPair(3, 4));
+    assertThat(TransferMatcher.match(candidates, Set.of(), 3)).isEmpty();
+  }
+
+  @Test
+  void match_shouldAgreeWithComparingEveryPair() {
+    var random = new Random(42);
+    var candidates = randomCandidates(random, 3000, 40);
+
+    assertThat(TransferMatcher.match(candidates, ids(candidates), 3))
+        .containsExactlyElementsOf(matchEveryPair(candidates, 3));
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  void benchmark_candidatesPerSecond() {
+    var random = new Random(7);
+    for (int size : new int[] { 10_000, 100_000, 1_000_000 }) {
+      var candidates = randomCandidates(random, size, 5000);
+      var required = ids(candidates);
+      for (int run = 0; run < 3; run++) {
+        long start = System.nanoTime();
+        var pairs = TransferMatcher.match(candidates, required, 3);
+        double perSecond = size / ((System.nanoTime() - start) / 1e9);
+        System.out.printf("%,d candidates, run %d: %,.0f candidates/s, %d pairs%n", size, run, perSecond,
+            pairs.size());
+      }
+    }
+  }
+
+  /**
+   * The same greedy choice as the matcher, each debit compared with every credit.
+   */
+  private static List<TransferPair> matchEveryPair(List<TransferCandidate> candidates, int windowDays) {
+    var byDate = Comparator.comparing(TransferCandidate::date).thenComparingInt(TransferCandidate::id);
+    var debits = candidates.stream().filter(c -> c.amount() < 0).sorted(byDate).toList();
+    var credits = candidates.stream().filter(c -> c.amount() > 0).sorted(byDate).toList();
+    var paired = new HashSet<Integer>();
+    var pairs = new ArrayList<TransferPair>();
+    for (var debit : debits) {
+      TransferCandidate best = null;
+      long bestDistance = Long.MAX_VALUE;
+      for (var credit : credits) {
+        var distance = Math.abs(ChronoUnit.DAYS.between(debit.date(), credit.date()));
+        if (!paired.contains(credit.id()) && !credit.walletId().equals(debit.walletId())
+            && Math.round(credit.amount() * 100) == Math.round(-debit.amount() * 100)
+            && distance <= windowDays && distance < bestDistance) {
+          best = credit;
+          bestDistance = distance;
+        }
+      }
+      if (best != null) {
+        paired.add(best.id());
+        pairs.add(new TransferPair(debit.id(), best.id()));
+      }
+    }
+    return pairs;
+  }
+
+  private static List<TransferCandidate> randomCandidates(Random random, int size, int amounts) {
+    var candidates = new ArrayList<TransferCandidate>(size);
+    for (int id = 1; id <= size; id++) {
+      var cents = 100 + random.nextInt(amounts);
+      candidates.add(candidate(id, 1L + random.nextInt(3), random.nextInt(365),
+          (random.nextBoolean() ? cents : -cents) / 100.0));
+    }
+    return candidates;
+  }
+
+  private static Set<Integer> ids(List<TransferCandidate> candidates) {
+    return candidates.stream().map(TransferCandidate::id).collect(Collectors.toSet());
+  }
+
+  private static TransferCandidate candidate(int id, long walletId, int day, double amount) {
+    return new TransferCandidate(id, walletId, DAY.plusDays(day), amount);
+  }
+}
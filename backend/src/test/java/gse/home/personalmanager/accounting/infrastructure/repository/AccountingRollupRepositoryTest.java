@@ -0,0 +1,164 @@
+package gse.home.personalmanager.accounting.infrastructure.repository;
+
+import gse.home.personalmanager.accounting.domain.model.AccountingRollup;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
+import gse.home.personalmanager.accounting.domain.model.TransactionTotals;
+import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.domain.service.AccountingRollupService;
+import gse.home.personalmanager.accounting.test.AccountingFixture;
+import gse.home.personalmanager.accounting.test.AccountingJpaTest;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * Checks that incrementally maintained rollups match both a rebuild and a sum over the ledger.
+ */
+@AccountingJpaTest
+class AccountingRollupRepositoryTest {
+
+  @Autowired
+  private AccountingRollupService rollupService;
+
+  @Autowired
+  private AccountingRollupRepository rollupRepository;
+
+  @Autowired
+  private TransactionBulkRepository bulkRepository;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private AccountingFixture fixture;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private AppUser user;
+  private Wallet wallet;
+  private TransactionCategory groceries;
+
+  @BeforeEach
+  void setUp() {
+    user = fixture.user("rollup-user");
+    wallet = fixture.wallet("Checking", user);
+    groceries = fixture.category("Groceries");
+    entityManager.flush();
+  }
+
+  @Test
+  void incrementalRollups_shouldMatchRebuild() {
+    var transactions = importTransactions();
+    var removed = transactions.get(3);
+    transactionRepository.deleteById(removed.getId());
+    rollupService.onTransactionsRemoved(wallet.getId(), List.of(removed));
+    var recategorized = transactions.get(0);
+    var newCategoryIds = new HashMap<Integer, Integer>();
+    newCategoryIds.put(recategorized.getId(), null);
+    rollupService.onCategoriesChanged(List.of(recategorized), newCategoryIds);
+    transactionRepository.updateCategory(null, List.of(recategorized.getId()));
+    entityManager.flush();
+    entityManager.clear();
+
+    var incremental = snapshot();
+    rollupService.rebuild(wallet.getId());
+    entityManager.clear();
+
+    assertThat(snapshot()).isEqualTo(incremental);
+  }
+
+  @Test
+  void sumRange_shouldCombineMonthsAndEdgeDaysLikeTheLedger() {
+    importTransactions();
+    entityManager.flush();
+
+    var ranges = List.of(
+        List.of(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31)),
+        List.of(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 3, 10)),
+        List.of(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28)),
+        List.of(LocalDate.of(2025, 2, 10), LocalDate.of(2025, 2, 20)),
+        List.of(LocalDate.of(2025, 1, 31), LocalDate.of(2025, 2, 1)));
+    for (var range : ranges) {
+      var fromRollups = rollupService.sumRange(range.get(0), range.get(1), wallet.getId(), user.getId());
+      var fromLedger = transactionRepository.sumByDateBetweenAndWalletIdAndUserId(range.get(0), range.get(1),
+          wallet.getId(), user.getId());
+      assertSameTotals(fromRollups, fromLedger);
+    }
+  }
+
+  @Test
+  void sumRangeByCategory_shouldGroupUncategorizedTransactions() {
+    importTransactions();
+    entityManager.flush();
+
+    var byCategory = rollupService.sumRangeByCategory(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31),
+        wallet.getId(), user.getId());
+
+    assertThat(byCategory).hasSize(2);
+    var uncategorized = byCategory.stream().filter(c -> c.categoryId() == null).findFirst().orElseThrow();
+    assertThat(uncategorized.income()).isCloseTo(2000.0, offset(1e-9));
+    assertThat(uncategorized.expense()).isCloseTo(80.0, offset(1e-9));
+    var categorized = byCategory.stream().filter(c -> c.categoryId() != null).findFirst().orElseThrow();
+    assertThat(categorized.title()).isEqualTo("Groceries");
+    assertThat(categorized.expense()).isCloseTo(57.5, offset(1e-9));
+  }
+
+  @Test
+  void onTransactionsRemoved_shouldDropEmptyRows() {
+    var transactions = importTransactions();
+
+    rollupService.onTransactionsRemoved(wallet.getId(), transactions);
+    entityManager.clear();
+
+    assertThat(rollupRepository.findAll()).isEmpty();
+  }
+
+  private List<Transaction> importTransactions() {
+    var transactions = new ArrayList<Transaction>(List.of(
+        fixture.transaction(wallet, LocalDate.of(2025, 1, 15), -12.5, groceries),
+        fixture.transaction(wallet, LocalDate.of(2025, 1, 31), 2000.0, null),
+        fixture.transaction(wallet, LocalDate.of(2025, 2, 1), -45.0, groceries),
+        fixture.transaction(wallet, LocalDate.of(2025, 2, 14), -30.0, null),
+        fixture.transaction(wallet, LocalDate.of(2025, 2, 14), -50.0, null),
+        fixture.transaction(wallet, LocalDate.of(2025, 3, 10), 15.0, groceries)));
+    bulkRepository.insertIgnoringDuplicates(transactions);
+    // imported rows are uncategorized; categorize some like the categorize screen does
+    for (var transaction : transactions) {
+      if (transaction.getCategory() != null) {
+        transactionRepository.save(transaction);
+      }
+    }
+    rollupService.onTransactionsAdded(wallet.getId(), transactions);
+    entityManager.flush();
+    return transactions;
+  }
+
+  private List<String> snapshot() {
+    return rollupRepository.findAll().stream()
+        .sorted(Comparator.comparing(AccountingRollup::getGranularity)
+            .thenComparing(AccountingRollup::getPeriodStart)
+            .thenComparing(AccountingRollup::getCategoryId))
+        .map(r -> r.getGranularity() + " " + r.getPeriodStart() + " " + r.getCategoryId() + " "
+            + r.getCreditTotal() + "/" + r.getCreditCount() + " " + r.getDebitTotal() + "/" + r.getDebitCount())
+        .toList();
+  }
+
+  private static void assertSameTotals(TransactionTotals actual, TransactionTotals expected) {
+    assertThat(actual.income()).isCloseTo(expected.income(), offset(1e-9));
+    assertThat(actual.expense()).isCloseTo(expected.expense(), offset(1e-9));
+    assertThat(actual.count()).isEqualTo(expected.count());
+  }
+}
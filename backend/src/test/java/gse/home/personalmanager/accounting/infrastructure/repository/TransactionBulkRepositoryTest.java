@@ -0,0 +1,98 @@
+package gse.home.personalmanager.accounting.infrastructure.repository;
+
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.test.AccountingFixture;
+import gse.home.personalmanager.accounting.test.AccountingJpaTest;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the bulk insert against H2 in PostgreSQL mode, which understands
+ * {@code ON CONFLICT DO NOTHING} like the production database.
+ */
+@AccountingJpaTest
+@TestPropertySource(properties = "accounting.import.batch-size=3")
+class TransactionBulkRepositoryTest {
+
+  @Autowired
+  private TransactionBulkRepository bulkRepository;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private AccountingFixture fixture;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private Wallet wallet;
+  private AppUser user;
+
+  @BeforeEach
+  void setUp() {
+    user = fixture.user("bulk-import-user");
+    wallet = fixture.wallet("Checking", user);
+    entityManager.flush();
+  }
+
+  @Test
+  void insertIgnoringDuplicates_shouldInsertAcrossBatchesAndAssignIds() {
+    var transactions = new ArrayList<Transaction>();
+    for (int i = 0; i < 7; i++) {
+      transactions.add(transaction(LocalDate.of(2025, 1, 1).plusDays(i), -10.0 - i, "Row " + i, 100.0 - i));
+    }
+
+    var inserted = bulkRepository.insertIgnoringDuplicates(transactions);
+
+    assertThat(inserted).containsOnly(true);
+    assertThat(transactionRepository.count()).isEqualTo(7);
+    var ids = new HashSet<Integer>();
+    transactions.forEach(t -> ids.add(t.getId()));
+    assertThat(ids).hasSize(7).doesNotContain(0);
+  }
+
+  @Test
+  void insertIgnoringDuplicates_shouldSkipRowsAlreadyImportedAndRepeatedInFile() {
+    var date = LocalDate.of(2025, 2, 1);
+    bulkRepository.insertIgnoringDuplicates(new ArrayList<>(List.of(transaction(date, -42.5, "Rent", 500.0))));
+
+    var inserted = bulkRepository.insertIgnoringDuplicates(new ArrayList<>(List.of(
+        transaction(date, -42.5, "Rent", 500.0),
+        transaction(date, -3.0, "Bakery", 497.0),
+        transaction(date, -3.0, "Bakery", 497.0))));
+
+    assertThat(inserted).containsExactly(false, true, false);
+    assertThat(transactionRepository.count()).isEqualTo(2);
+  }
+
+  @Test
+  void insertIgnoringDuplicates_shouldNotCollideWithIdsFromHibernate() {
+    var viaJpa = transactionRepository.saveAndFlush(transaction(LocalDate.of(2025, 3, 1), -1.0, "Saved by JPA", 1.0));
+
+    var bulk = transaction(LocalDate.of(2025, 3, 2), -2.0, "Bulk", -1.0);
+    bulkRepository.insertIgnoringDuplicates(new ArrayList<>(List.of(bulk)));
+
+    var next = transactionRepository.saveAndFlush(transaction(LocalDate.of(2025, 3, 3), -3.0, "Saved later", -4.0));
+    assertThat(new HashSet<>(List.of(viaJpa.getId(), bulk.getId(), next.getId()))).hasSize(3);
+  }
+
+  private Transaction transaction(LocalDate date, double amount, String label, double balance) {
+    var transaction = fixture.transaction(wallet, date, amount);
+    transaction.setImportLabel(label);
+    transaction.setCurrentBalance(balance);
+    return transaction;
+  }
+}
@@ -0,0 +1,242 @@
+package gse.home.personalmanager.accounting.infrastructure.repository;
+
+import gse.home.personalmanager.accounting.application.dto.TransactionDTO;
+import gse.home.personalmanager.accounting.application.dto.TransactionSummaryDTO;
+import gse.home.personalmanager.accounting.application.mapper.TransactionMapperImpl;
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
+import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.domain.service.TransactionService;
+import gse.home.personalmanager.accounting.test.AccountingFixture;
+import gse.home.personalmanager.accounting.test.AccountingJpaTest;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * Checks that the grouped summary queries give the same overview as summing the loaded transactions,
+ * and that the per-category keyset pages are stable.
+ * Run with {@code -Dbenchmark=true} to also time both paths on a large wallet.
+ */
+@AccountingJpaTest
+@Import({ TransactionService.class, TransactionMapperImpl.class })
+class TransactionRepositoryTest {
+
+  private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+  private static final LocalDate TO = LocalDate.of(2025, 12, 31);
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private TransactionBulkRepository bulkRepository;
+
+  @Autowired
+  private TransactionService transactionService;
+
+  @Autowired
+  private AccountingFixture fixture;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private AppUser user;
+  private Wallet wallet;
+  private TransactionCategory groceries;
+  private TransactionCategory salary;
+
+  @BeforeEach
+  void setUp() {
+    user = fixture.user("summary-user");
+    wallet = fixture.wallet("Checking", user);
+
+    groceries = category("Groceries", 300.0);
+    salary = category("Salary", null);
+    entityManager.flush();
+  }
+
+  @Test
+  void summaryQueries_shouldMatchJavaAggregation() {
+    transactionRepository.saveAll(List.of(
+        fixture.transaction(wallet, LocalDate.of(2025, 1, 3), -12.35, groceries),
+        fixture.transaction(wallet, LocalDate.of(2025, 1, 9), -40.10, groceries),
+        fixture.transaction(wallet, LocalDate.of(2025, 1, 31), 2100.00, salary),
+        fixture.transaction(wallet, LocalDate.of(2025, 2, 2), 15.50, groceries),
+        fixture.transaction(wallet, LocalDate.of(2024, 12, 31), -999.0, groceries)));
+    entityManager.flush();
+    entityManager.clear();
+
+    assertSamePaths();
+
+    var totals = transactionRepository.sumByDateBetweenAndWalletIdAndUserId(FROM, TO, wallet.getId(), user.getId());
+    assertThat(totals.income()).isCloseTo(2115.50, offset(1e-9));
+    assertThat(totals.expense()).isCloseTo(52.45, offset(1e-9));
+    assertThat(totals.count()).isEqualTo(4);
+  }
+
+  @Test
+  void summaryQueries_shouldReturnZerosForAnEmptyPeriod() {
+    var totals = transactionRepository.sumByDateBetweenAndWalletIdAndUserId(FROM, TO, wallet.getId(), user.getId());
+
+    assertThat(totals.income()).isZero();
+    assertThat(totals.expense()).isZero();
+    assertThat(transactionRepository.sumByCategoryAndDateBetweenAndWalletIdAndUserId(FROM, TO, wallet.getId(),
+        user.getId())).isEmpty();
+  }
+
+  @Test
+  void categoryQuery_shouldGroupUncategorizedTransactions() {
+    transactionRepository.saveAll(List.of(
+        fixture.transaction(wallet, LocalDate.of(2025, 3, 1), -5.0, null),
+        fixture.transaction(wallet, LocalDate.of(2025, 3, 2), -15.0, null),
+        fixture.transaction(wallet, LocalDate.of(2025, 3, 3), -30.0, groceries)));
+    entityManager.flush();
+
+    var details = transactionService.getTransactionCategoryDetails(
+        transactionRepository.sumByCategoryAndDateBetweenAndWalletIdAndUserId(FROM, TO, wallet.getId(), user.getId()),
+        transactionRepository.findAllByDateBetweenAndWalletIdAndUserId(FROM, TO, wallet.getId(),
+            user.getId()));
+
+    var uncategorized = details.stream().filter(d -> d.getCategory() == null).findFirst().orElseThrow();
+    assertThat(uncategorized.getTotalExpense()).isEqualTo(20.0);
+    assertThat(uncategorized.getTransactions()).hasSize(2);
+    assertThat(uncategorized.getPercent()).isEqualTo(40);
+  }
+
+  @Test
+  void categoryPages_shouldWalkEveryTransactionOnceNewestFirst() {
+    var saved = new ArrayList<Transaction>();
+    for (int i = 0; i < 7; i++) {
+      // several transactions share a date, so the id has to break ties
+      saved.add(fixture.transaction(wallet, LocalDate.of(2025, 4, 1 + i / 3), -1.0 - i, groceries));
+    }
+    saved.add(fixture.transaction(wallet, LocalDate.of(2025, 4, 2), -50.0, null));
+    transactionRepository.saveAll(saved);
+    entityManager.flush();
+
+    var seen = new ArrayList<Integer>();
+    LocalDate afterDate = TO.plusDays(1);
+    Integer afterId = Integer.MAX_VALUE;
+    while (true) {
+      var page = transactionRepository.findCategoryPage(FROM, TO, wallet.getId(), user.getId(), groceries.getId(),
+          afterDate, afterId, PageRequest.of(0, 3));
+      if (page.isEmpty()) {
+        break;
+      }
+      page.forEach(t -> seen.add(t.getId()));
+      var last = page.get(page.size() - 1);
+      afterDate = last.getDate();
+      afterId = last.getId();
+    }
+
+    var expected = saved.stream().filter(t -> t.getCategory() != null)
+        .sorted(Comparator.comparing(Transaction::getDate).thenComparing(Transaction::getId).reversed())
+        .map(Transaction::getId).toList();
+    assertThat(seen).containsExactlyElementsOf(expected);
+    assertThat(transactionRepository.findUncategorizedPage(FROM, TO, wallet.getId(), user.getId(), TO.plusDays(1),
+        Integer.MAX_VALUE, PageRequest.of(0, 10))).hasSize(1);
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  void benchmark_databaseAggregationAgainstJava() {
+    var random = new Random(42);
+    var categories = List.of(groceries, salary, category("Rent", 900.0), category("Leisure", 150.0));
+    entityManager.flush();
+    for (int batch = 0; batch < 20; batch++) {
+      var transactions = new ArrayList<Transaction>();
+      for (int i = 0; i < 5_000; i++) {
+        var amount = Math.round((random.nextDouble() * 400 - 300) * 100) / 100.0;
+        var transaction = fixture.transaction(wallet, FROM.plusDays(random.nextInt(365)), amount, null);
+        transaction.setImportLabel("Row " + batch + "-" + i);
+        transactions.add(transaction);
+      }
+      bulkRepository.insertIgnoringDuplicates(transactions);
+    }
+    // the bulk insert leaves imported rows uncategorized
+    for (int i = 0; i < categories.size(); i++) {
+      entityManager.getEntityManager()
+          .createNativeQuery("update accounting_transaction set category_id = :category where mod(id, :count) = :index")
+          .setParameter("category", categories.get(i).getId())
+          .setParameter("count", categories.size())
+          .setParameter("index", i)
+          .executeUpdate();
+    }
+    entityManager.clear();
+
+    for (int run = 0; run < 3; run++) {
+      var java = time("java summary", () -> transactionService.getTransactionSummary(
+          transactionRepository.findAllByDateBetweenAndWalletIdAndUserId(FROM, TO, wallet.getId(), user.getId()), null));
+      var database = time("database summary", () -> transactionService.getTransactionSummary(
+          transactionRepository.sumByDateBetweenAndWalletIdAndUserId(FROM, TO, wallet.getId(), user.getId()), null));
+      // summation order differs between the two, which may move the rounded net by a cent
+      assertThat(database.getIncome()).isCloseTo(java.getIncome(), offset(0.011));
+      assertThat(database.getExpense()).isCloseTo(java.getExpense(), offset(0.011));
+      assertThat(database.getNet()).isCloseTo(java.getNet(), offset(0.011));
+      time("java category details", () -> transactionService.getTransactionCategoryDetails(
+          transactionRepository.findAllByDateBetweenAndWalletIdAndUserId(FROM, TO, wallet.getId(), user.getId())));
+      time("database category details", () -> transactionService.getTransactionCategoryDetails(
+          transactionRepository.sumByCategoryAndDateBetweenAndWalletIdAndUserId(FROM, TO, wallet.getId(), user.getId()),
+          transactionRepository.findAllByDateBetweenAndWalletIdAndUserId(FROM, TO, wallet.getId(),
+              user.getId())));
+      entityManager.clear();
+    }
+  }
+
+  private void assertSamePaths() {
+    var loaded = transactionRepository.findAllByDateBetweenAndWalletIdAndUserId(FROM, TO, wallet.getId(), user.getId());
+    var totals = transactionRepository.sumByDateBetweenAndWalletIdAndUserId(FROM, TO, wallet.getId(), user.getId());
+    assertThat(transactionService.getTransactionSummary(totals, 10.0))
+        .isEqualTo(transactionService.getTransactionSummary(loaded, 10.0));
+
+    var fromJava = sorted(transactionService.getTransactionCategoryDetails(loaded));
+    var fromDatabase = sorted(transactionService.getTransactionCategoryDetails(
+        transactionRepository.sumByCategoryAndDateBetweenAndWalletIdAndUserId(FROM, TO, wallet.getId(), user.getId()),
+        transactionRepository.findAllByDateBetweenAndWalletIdAndUserId(FROM, TO, wallet.getId(),
+            user.getId())));
+    assertThat(fromDatabase).hasSameSizeAs(fromJava);
+    for (int i = 0; i < fromJava.size(); i++) {
+      var expected = fromJava.get(i);
+      var actual = fromDatabase.get(i);
+      assertThat(actual.getCategory()).isEqualTo(expected.getCategory());
+      assertThat(actual.getPercent()).isEqualTo(expected.getPercent());
+      assertThat(actual.getExpectedAmount()).isEqualTo(expected.getExpectedAmount());
+      assertThat(actual.getTotalExpense()).isCloseTo(expected.getTotalExpense(), offset(1e-9));
+      assertThat(actual.getTotalIncome()).isCloseTo(expected.getTotalIncome(), offset(1e-9));
+      assertThat(actual.getTransactions()).extracting(TransactionDTO::getId)
+          .containsExactlyInAnyOrderElementsOf(expected.getTransactions().stream().map(TransactionDTO::getId).toList());
+    }
+  }
+
+  private static List<TransactionSummaryDTO> sorted(List<TransactionSummaryDTO> details) {
+    return details.stream().sorted(Comparator.comparing(TransactionSummaryDTO::getCategory)).toList();
+  }
+
+  private static <T> T time(String label, Supplier<T> task) {
+    long start = System.nanoTime();
+    var result = task.get();
+    System.out.printf("%-28s %6d ms%n", label, (System.nanoTime() - start) / 1_000_000);
+    return result;
+  }
+
+  private TransactionCategory category(String title, Double expectedAmount) {
+    var category = fixture.category(title);
+    category.setExpectedAmount(expectedAmount);
+    return category;
+  }
+}
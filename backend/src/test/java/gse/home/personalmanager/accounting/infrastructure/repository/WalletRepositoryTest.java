@@ -0,0 +1,213 @@
+package gse.home.personalmanager.accounting.infrastructure.repository;
+
+import gse.home.personalmanager.accounting.application.dto.WalletDTO;
+import gse.home.personalmanager.accounting.application.mapper.WalletMapperImpl;
+import gse.home.personalmanager.accounting.application.service.WalletUseCaseService;
+import gse.home.personalmanager.accounting.config.WalletAccessConfig;
+import gse.home.personalmanager.accounting.domain.event.WalletAccessChangedEvent;
+import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.domain.model.WalletBalance;
+import gse.home.personalmanager.accounting.domain.model.WalletPermission;
+import gse.home.personalmanager.accounting.domain.model.WalletRole;
+import gse.home.personalmanager.accounting.domain.service.WalletAccessService;
+import gse.home.personalmanager.accounting.domain.service.WalletBalanceService;
+import gse.home.personalmanager.accounting.domain.service.WalletService;
+import gse.home.personalmanager.accounting.test.AccountingFixture;
+import gse.home.personalmanager.accounting.test.AccountingJpaTest;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import gse.home.personalmanager.user.domain.model.Tenant;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that wallet listings and access checks cost a constant number of statements, whatever the
+ * number of wallets.
+ */
+@AccountingJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ WalletUseCaseService.class, WalletService.class, WalletAccessService.class, WalletAccessConfig.class,
+    WalletBalanceService.class, WalletMapperImpl.class })
+class WalletRepositoryTest {
+
+  @Autowired
+  private WalletUseCaseService walletUseCaseService;
+
+  @Autowired
+  private WalletAccessService accessService;
+
+  @Autowired
+  private AccountingFixture fixture;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private AppUser caller;
+  private AppUser otherUser;
+  private Tenant tenant;
+
+  @BeforeEach
+  void setUp() {
+    tenant = new Tenant();
+    tenant.setName("Family");
+    entityManager.persist(tenant);
+    caller = fixture.user("caller");
+    otherUser = fixture.user("other");
+  }
+
+  @Test
+  void getWalletsForCurrentUser_shouldRunOneStatementWhateverTheWalletCount() {
+    createWallets(2);
+    long fewWallets = statementsFor(() -> assertThat(walletUseCaseService.getWalletsForCurrentUser(caller.getId())).hasSize(4));
+
+    createWallets(10);
+    long manyWallets = statementsFor(() -> assertThat(walletUseCaseService.getWalletsForCurrentUser(caller.getId())).hasSize(24));
+
+    assertThat(fewWallets).isEqualTo(1);
+    assertThat(manyWallets).isEqualTo(fewWallets);
+  }
+
+  @Test
+  void getWalletsForTenant_shouldListReadableWalletsInConstantStatements() {
+    createWallets(2);
+    accessService.onAccessChanged(new WalletAccessChangedEvent(this, null, caller.getId()));
+    long fewWallets = statementsFor(() -> assertThat(walletUseCaseService.getWalletsForTenant(tenant.getId(), caller.getId()))
+        .hasSize(4));
+
+    createWallets(10);
+    accessService.onAccessChanged(new WalletAccessChangedEvent(this, null, caller.getId()));
+    long manyWallets = statementsFor(() -> assertThat(walletUseCaseService.getWalletsForTenant(tenant.getId(), caller.getId()))
+        .hasSize(24)
+        .extracting(WalletDTO::getName)
+        .noneMatch(name -> name.startsWith("Foreign")));
+
+    // tenant check, listing and the caller's access list
+    assertThat(manyWallets).isEqualTo(fewWallets).isLessThanOrEqualTo(3);
+  }
+
+  @Test
+  void getWalletsForCurrentUser_shouldMapOwnerRoleAndBalance() {
+    Wallet owned = wallet("Owned", caller);
+    balance(owned, 120.5);
+    Wallet sharedWrite = wallet("Shared write", otherUser);
+    share(sharedWrite, WalletRole.WRITE);
+    Wallet sharedRead = wallet("Shared read", otherUser);
+    share(sharedRead, WalletRole.READ);
+    wallet("Not shared", otherUser);
+    entityManager.flush();
+    entityManager.clear();
+
+    List<WalletDTO> wallets = walletUseCaseService.getWalletsForCurrentUser(caller.getId());
+
+    assertThat(wallets).extracting(WalletDTO::getName).containsExactly("Owned", "Shared write", "Shared read");
+    assertThat(wallets).extracting(WalletDTO::getRole).containsExactly(WalletDTO.ROLE_OWNER, "WRITE", "READ");
+    assertThat(wallets).extracting(WalletDTO::getOwnerId)
+        .containsExactly(caller.getId(), otherUser.getId(), otherUser.getId());
+    assertThat(wallets.get(0).getBalance()).isEqualTo(120.5);
+    assertThat(wallets.get(0).getTenantName()).isEqualTo("Family");
+    assertThat(wallets.get(1).getBalance()).isNull();
+  }
+
+  @Test
+  void filterReadable_shouldReadTheAccessListOnceThenServeItFromCache() {
+    Wallet owned = wallet("Owned", caller);
+    Wallet sharedWrite = wallet("Shared write", otherUser);
+    share(sharedWrite, WalletRole.WRITE);
+    Wallet sharedRead = wallet("Shared read", otherUser);
+    share(sharedRead, WalletRole.READ);
+    Wallet foreign = wallet("Not shared", otherUser);
+    entityManager.flush();
+    var all = List.of(owned.getId(), sharedWrite.getId(), sharedRead.getId(), foreign.getId());
+
+    long firstCheck = statementsFor(() -> assertThat(accessService.filterReadable(caller.getId(), all))
+        .containsExactlyInAnyOrder(owned.getId(), sharedWrite.getId(), sharedRead.getId()));
+    long cachedChecks = statementsFor(() -> {
+      assertThat(accessService.filterWritable(caller.getId(), all))
+          .containsExactlyInAnyOrder(owned.getId(), sharedWrite.getId());
+      assertThat(accessService.canRead(foreign.getId(), caller.getId())).isFalse();
+      assertThat(accessService.getRole(owned.getId(), caller.getId())).isEqualTo(WalletRole.WRITE);
+    });
+
+    assertThat(firstCheck).isEqualTo(1);
+    assertThat(cachedChecks).isZero();
+  }
+
+  @Test
+  void onAccessChanged_shouldDropTheListsOfTheUsersInvolved() {
+    Wallet shared = wallet("Shared", otherUser);
+    share(shared, WalletRole.READ);
+    Wallet other = wallet("Other", otherUser);
+    entityManager.flush();
+    assertThat(accessService.canRead(shared.getId(), caller.getId())).isTrue();
+    assertThat(accessService.canRead(other.getId(), otherUser.getId())).isTrue();
+
+    share(other, WalletRole.WRITE);
+    entityManager.flush();
+    // not committed yet: the cached list is still served
+    assertThat(accessService.canWrite(other.getId(), caller.getId())).isFalse();
+    accessService.onAccessChanged(new WalletAccessChangedEvent(this, other.getId(), caller.getId()));
+    assertThat(accessService.canWrite(other.getId(), caller.getId())).isTrue();
+
+    entityManager.getEntityManager().createQuery("update accounting_wallets w set w.deletedAt = 1 where w.id = :id")
+        .setParameter("id", shared.getId()).executeUpdate();
+    long unchanged = statementsFor(() -> assertThat(accessService.canRead(shared.getId(), caller.getId())).isTrue());
+    accessService.onAccessChanged(new WalletAccessChangedEvent(this, shared.getId(), null));
+    long reloaded = statementsFor(() -> {
+      assertThat(accessService.canRead(shared.getId(), caller.getId())).isFalse();
+      assertThat(accessService.canRead(shared.getId(), otherUser.getId())).isFalse();
+    });
+
+    assertThat(unchanged).isZero();
+    assertThat(reloaded).isEqualTo(2);
+  }
+
+  private void createWallets(int count) {
+    for (int i = 0; i < count; i++) {
+      Wallet owned = wallet("Owned " + i, caller);
+      balance(owned, i * 10.0);
+      share(wallet("Shared " + i, otherUser), i % 2 == 0 ? WalletRole.READ : WalletRole.WRITE);
+      wallet("Foreign " + i, otherUser);
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  private long statementsFor(Runnable call) {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    entityManager.clear();
+    statistics.clear();
+    call.run();
+    return statistics.getPrepareStatementCount();
+  }
+
+  private Wallet wallet(String name, AppUser owner) {
+    Wallet wallet = fixture.wallet(name, owner);
+    wallet.setTenant(tenant);
+    return wallet;
+  }
+
+  private void balance(Wallet wallet, double amount) {
+    entityManager.find(WalletBalance.class, wallet.getId()).setBalance(amount);
+  }
+
+  private void share(Wallet wallet, WalletRole role) {
+    WalletPermission permission = new WalletPermission();
+    permission.setWallet(wallet);
+    permission.setUser(caller);
+    permission.setRole(role);
+    entityManager.persist(permission);
+  }
+}
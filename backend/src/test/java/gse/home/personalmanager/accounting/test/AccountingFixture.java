@@ -0,0 +1,73 @@
+package gse.home.personalmanager.accounting.test;
+
+import gse.home.personalmanager.accounting.domain.model.Transaction;
+import gse.home.personalmanager.accounting.domain.model.TransactionCategory;
+import gse.home.personalmanager.accounting.domain.model.TransactionType;
+import gse.home.personalmanager.accounting.domain.model.Wallet;
+import gse.home.personalmanager.accounting.domain.model.WalletBalance;
+import gse.home.personalmanager.user.domain.model.AppUser;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.time.LocalDate;
+
+/**
+ * Builds the users, wallets, categories and transactions the accounting JPA tests start from.
+ * <p>
+ * Users, wallets and categories are persisted right away; transactions are returned unsaved so
+ * each test can write them the way the code under test expects (bulk insert, repository save or
+ * entity manager). Set any other field on the returned entity.
+ */
+@TestComponent
+public class AccountingFixture {
+
+  private final TestEntityManager entityManager;
+
+  public AccountingFixture(TestEntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  public AppUser user(String uid) {
+    var user = new AppUser();
+    user.setFirebaseUid(uid);
+    user.setEmail(uid + "@example.com");
+    return entityManager.persist(user);
+  }
+
+  /**
+   * Persists a wallet with its empty balance snapshot, as {@code WalletService.createWallet} does.
+   */
+  public Wallet wallet(String name, AppUser owner) {
+    var wallet = new Wallet();
+    wallet.setName(name);
+    wallet.setOwner(owner);
+    entityManager.persist(wallet);
+    entityManager.persist(WalletBalance.empty(wallet.getId()));
+    return wallet;
+  }
+
+  public TransactionCategory category(String title) {
+    var category = new TransactionCategory();
+    category.setTitle(title);
+    return entityManager.persist(category);
+  }
+
+  /**
+   * An unsaved, uncategorized row of the wallet owner, debit or credit after the amount's sign.
+   */
+  public Transaction transaction(Wallet wallet, LocalDate date, double amount) {
+    return transaction(wallet, date, amount, null);
+  }
+
+  public Transaction transaction(Wallet wallet, LocalDate date, double amount, TransactionCategory category) {
+    var transaction = new Transaction();
+    transaction.setDate(date);
+    transaction.setAmount(amount);
+    transaction.setType(amount < 0 ? TransactionType.DEBIT : TransactionType.CREDIT);
+    transaction.setImportLabel("Row " + date + " " + amount);
+    transaction.setCategory(category);
+    transaction.setWallet(wallet);
+    transaction.setUser(wallet.getOwner());
+    return transaction;
+  }
+}
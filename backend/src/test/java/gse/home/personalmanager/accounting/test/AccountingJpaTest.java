@@ -0,0 +1,32 @@
+package gse.home.personalmanager.accounting.test;
+
+import gse.home.personalmanager.accounting.domain.service.AccountingRollupService;
+import gse.home.personalmanager.accounting.infrastructure.repository.AccountingRollupBulkRepository;
+import gse.home.personalmanager.accounting.infrastructure.repository.TransactionBulkRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * JPA slice for the accounting tests: the test profile's H2 database, the {@link AccountingFixture}
+ * and the bulk insert and rollup beans most of them write through. Tests {@code @Import} the
+ * services they exercise on top.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ AccountingFixture.class, TransactionBulkRepository.class, AccountingRollupService.class,
+    AccountingRollupBulkRepository.class, SimpleMeterRegistry.class })
+public @interface AccountingJpaTest {
+}
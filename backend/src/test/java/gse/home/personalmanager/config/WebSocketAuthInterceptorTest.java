@@ -1,133 +1,326 @@
 package gse.home.personalmanager.config;
 
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import gse.home.personalmanager.core.config.websocket.WebSocketAuthInterceptor;
+import gse.home.personalmanager.core.config.websocket.WebSocketPrincipal;
+import gse.home.personalmanager.core.utils.JwtUtils;
+import gse.home.personalmanager.security.AuthenticationMetrics;
+import gse.home.personalmanager.security.FirebaseTokenAuthenticator;
+import gse.home.personalmanager.security.TokenAuthenticationCache;
 import gse.home.personalmanager.user.application.service.UserAuthService;
-import gse.home.personalmanager.user.domain.model.AppUser;
+import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.messaging.Message;
-import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.ImmutableMessageChannelInterceptor;
 import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
-@ExtendWith(MockitoExtension.class)
 class WebSocketAuthInterceptorTest {
 
-    @Mock
-    private UserAuthService userAuthService;
-
-    @Mock
-    private MessageChannel messageChannel;
-
-    @InjectMocks
-    private WebSocketAuthInterceptor webSocketAuthInterceptor;
-
-    @Test
-    void shouldAuthenticateUserOnConnect() {
-        // Given
-        String firebaseUid = "firebase-uid-123";
-        Long userId = 1L;
+    private static final int USERS = 50;
+    private static final int RECONNECTS = 4000;
 
-        AppUser user = new AppUser();
-        user.setId(userId);
-        user.setFirebaseUid(firebaseUid);
+    private final AtomicInteger verifications = new AtomicInteger();
+    private final AtomicInteger userLookups = new AtomicInteger();
 
-        when(userAuthService.findOrCreateByFirebaseUid(eq(firebaseUid), any())).thenReturn(user);
+    private JwtUtils jwtUtils;
+    private UserAuthService userAuthService;
+    private WebSocketAuthInterceptor interceptor;
 
-        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
-        accessor.setNativeHeader("userId", firebaseUid);
-        accessor.setLeaveMutable(true);
-        Message<?> message = MessageBuilder.createMessage("", accessor.getMessageHeaders());
+    @BeforeEach
+    void setUp() throws Exception {
+        jwtUtils = mock(JwtUtils.class);
+        userAuthService = mock(UserAuthService.class);
 
-        // When
-        Message<?> result = webSocketAuthInterceptor.preSend(message, messageChannel);
+        // Tokens are "token-<userId>"; anything else fails verification
+        when(jwtUtils.decode(anyString())).thenAnswer(invocation -> {
+            String token = invocation.getArgument(0);
+            return decodedToken(token.startsWith("token-") ? token.substring("token-".length()) : null);
+        });
+        JWTVerifier verifier = mock(JWTVerifier.class);
+        when(jwtUtils.resolveVerifier(any())).thenReturn(verifier);
+        when(verifier.verify(any(DecodedJWT.class))).thenAnswer(invocation -> {
+            verifications.incrementAndGet();
+            DecodedJWT decoded = invocation.getArgument(0);
+            if (decoded.getSubject() == null) {
+                throw new IllegalArgumentException("bad signature");
+            }
+            return decoded;
+        });
+        when(userAuthService.loadPrincipal(anyString(), any())).thenAnswer(invocation -> {
+            userLookups.incrementAndGet();
+            String uid = invocation.getArgument(0);
+            return new AppUserPrincipal(Long.valueOf(uid), uid, null, "ROLE_USER", null);
+        });
 
-        // Then
-        assertThat(result).isNotNull();
-        verify(userAuthService).findOrCreateByFirebaseUid(firebaseUid, null);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TokenAuthenticationCache tokenCache = new TokenAuthenticationCache(meterRegistry, 1000);
+        interceptor = new WebSocketAuthInterceptor(new FirebaseTokenAuthenticator(
+                jwtUtils, userAuthService, tokenCache, new AuthenticationMetrics(meterRegistry)));
     }
 
     @Test
-    void shouldHandleConnectWithoutUserId() {
+    void shouldBindPrincipalNamedByUserIdOnConnect() {
         // Given
-        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
-        Message<?> message = MessageBuilder.createMessage("", accessor.getMessageHeaders());
+        Message<?> connect = frame(StompCommand.CONNECT, "Bearer token-42");
 
         // When
-        Message<?> result = webSocketAuthInterceptor.preSend(message, messageChannel);
+        Message<?> result = interceptor.preSend(connect, null);
 
         // Then
-        assertThat(result).isNotNull();
-        verify(userAuthService, never()).findOrCreateByFirebaseUid(any(), any());
+        Principal user = StompHeaderAccessor.wrap(result).getUser();
+        assertThat(user).isInstanceOf(WebSocketPrincipal.class);
+        assertThat(user.getName()).isEqualTo("42");
+        assertThat(((WebSocketPrincipal) user).user().firebaseUid()).isEqualTo("42");
     }
 
     @Test
-    void shouldHandleConnectWithEmptyUserIdList() {
-        // Given
-        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
-        Message<?> message = MessageBuilder.createMessage("", accessor.getMessageHeaders());
+    void shouldRejectConnectWithoutToken() {
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.CONNECT, null), null))
+                .isInstanceOf(BadCredentialsException.class);
+    }
 
-        // When
-        Message<?> result = webSocketAuthInterceptor.preSend(message, messageChannel);
+    @Test
+    void shouldRejectConnectWithInvalidToken() {
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.CONNECT, "Bearer forged"), null))
+                .isInstanceOf(BadCredentialsException.class);
+    }
 
-        // Then
-        assertThat(result).isNotNull();
-        verify(userAuthService, never()).findOrCreateByFirebaseUid(any(), any());
+    @Test
+    void shouldRejectSubscribeOnUnauthenticatedSession() {
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, null), null))
+                .isInstanceOf(AccessDeniedException.class);
     }
 
     @Test
-    void shouldHandleUserNotFound() {
-        // Given
-        String firebaseUid = "firebase-uid-456";
+    void shouldHandleReconnectStormWithOneVerificationPerToken() throws Exception {
+        // Given: the STOMP handler and in-memory broker wired as in WebSocketConfig
+        Map<String, StubSession> sessions = new ConcurrentHashMap<>();
+        StompSubProtocolHandler stompHandler = new StompSubProtocolHandler();
 
-        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
-        accessor.setNativeHeader("userId", firebaseUid);
-        Message<?> message = MessageBuilder.createMessage("", accessor.getMessageHeaders());
+        ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+        clientInbound.addInterceptor(interceptor);
+        clientInbound.addInterceptor(new ImmutableMessageChannelInterceptor());
+        ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        clientOutbound.subscribe(message -> {
+            StubSession session = sessions.get(StompHeaderAccessor.wrap(message).getSessionId());
+            stompHandler.handleMessageToClient(session, message);
+        });
+        SimpleBrokerMessageHandler broker =
+                new SimpleBrokerMessageHandler(clientInbound, clientOutbound, brokerChannel, List.of("/topic", "/queue"));
+        broker.start();
 
-        when(userAuthService.findOrCreateByFirebaseUid(eq(firebaseUid), any())).thenReturn(null);
+        // StompSubProtocolHandler looks up the immutable-message interceptor lazily on its first
+        // frame without synchronisation; warm it up so the storm only exercises our code
+        StubSession warmup = new StubSession("warmup");
+        sessions.put(warmup.getId(), warmup);
+        stompHandler.afterSessionStarted(warmup, clientInbound);
+        stompHandler.handleMessageFromClient(warmup, new TextMessage("DISCONNECT\n\n\0"), clientInbound);
+        sessions.remove(warmup.getId());
 
-        // When
-        Message<?> result = webSocketAuthInterceptor.preSend(message, messageChannel);
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When: every client reconnects at once against a cold cache
+        Future<?>[] futures = new Future<?>[RECONNECTS];
+        for (int i = 0; i < RECONNECTS; i++) {
+            StubSession session = new StubSession("session-" + i);
+            sessions.put(session.getId(), session);
+            long userId = i % USERS;
+            futures[i] = executor.submit(() -> {
+                start.await();
+                stompHandler.afterSessionStarted(session, clientInbound);
+                stompHandler.handleMessageFromClient(session, new TextMessage(
+                        "CONNECT\naccept-version:1.2\nhost:localhost\nAuthorization:Bearer token-" + userId + "\n\n\0"),
+                        clientInbound);
+                stompHandler.handleMessageFromClient(session, new TextMessage(
+                        "SUBSCRIBE\nid:sub-0\ndestination:/topic/notifications\n\n\0"), clientInbound);
+                return null;
+            });
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        new SimpMessagingTemplate(brokerChannel).convertAndSend("/topic/notifications", "hello".getBytes(StandardCharsets.UTF_8));
 
         // Then
-        assertThat(result).isNotNull();
-        verify(userAuthService).findOrCreateByFirebaseUid(firebaseUid, null);
-    }
+        assertThat(verifications.get()).isEqualTo(USERS);
+        assertThat(userLookups.get()).isEqualTo(USERS);
+        assertThat(sessions.values()).allSatisfy(session -> {
+            assertThat(session.frames()).anyMatch(frame -> frame.startsWith("CONNECTED"));
+            assertThat(session.frames()).anyMatch(frame -> frame.startsWith("MESSAGE") && frame.contains("hello"));
+            assertThat(session.frames()).noneMatch(frame -> frame.startsWith("ERROR"));
+        });
 
-    @Test
-    void shouldIgnoreNonConnectCommands() {
-        // Given
-        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
-        accessor.setNativeHeader("userId", "firebase-uid-789");
-        Message<?> message = MessageBuilder.createMessage("", accessor.getMessageHeaders());
+        broker.stop();
+    }
 
-        // When
-        Message<?> result = webSocketAuthInterceptor.preSend(message, messageChannel);
+    private static Message<byte[]> frame(StompCommand command, String authorization) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId("session-1");
+        if (command == StompCommand.SUBSCRIBE) {
+            accessor.setDestination("/topic/notifications");
+            accessor.setSubscriptionId("sub-0");
+        }
+        if (authorization != null) {
+            accessor.setNativeHeader("Authorization", authorization);
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
 
-        // Then
-        assertThat(result).isNotNull();
-        verify(userAuthService, never()).findOrCreateByFirebaseUid(any(), any());
+    private static DecodedJWT decodedToken(String uid) {
+        DecodedJWT decoded = mock(DecodedJWT.class);
+        Claim email = mock(Claim.class);
+        when(decoded.getSubject()).thenReturn(uid);
+        when(decoded.getClaim("email")).thenReturn(email);
+        when(decoded.getExpiresAtAsInstant()).thenReturn(Instant.now().plusSeconds(3600));
+        return decoded;
     }
 
-    @Test
-    void shouldHandleNullAccessor() {
-        // Given
-        Message<?> message = MessageBuilder.withPayload("test").build();
+    /**
+     * Minimal open session that records the frames sent to the client.
+     */
+    private static final class StubSession implements WebSocketSession {
 
-        // When
-        Message<?> result = webSocketAuthInterceptor.preSend(message, messageChannel);
+        private final String id;
+        private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+        private final Queue<String> frames = new ConcurrentLinkedQueue<>();
+        private volatile int textMessageSizeLimit = 64 * 1024;
 
-        // Then
-        assertThat(result).isNotNull();
-        verify(userAuthService, never()).findOrCreateByFirebaseUid(any(), any());
+        StubSession(String id) {
+            this.id = id;
+        }
+
+        List<String> frames() {
+            return List.copyOf(frames);
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public URI getUri() {
+            return URI.create("ws://localhost/ws");
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return "v12.stomp";
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+            this.textMessageSizeLimit = messageSizeLimit;
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return textMessageSizeLimit;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            frames.add(String.valueOf(message.getPayload()));
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+        }
     }
 }
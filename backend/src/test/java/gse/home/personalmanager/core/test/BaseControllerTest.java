@@ -1,8 +1,8 @@
 package gse.home.personalmanager.core.test;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import gse.home.personalmanager.core.utils.JwtUtils;
-import gse.home.personalmanager.user.application.service.UserAuthService;
+import gse.home.personalmanager.security.AuthenticationMetrics;
+import gse.home.personalmanager.security.FirebaseTokenAuthenticator;
 import gse.home.personalmanager.user.domain.model.AppUser;
 import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,7 +19,7 @@ import org.springframework.test.web.servlet.MockMvc;
  * - MockMvc for testing endpoints
  * - ObjectMapper for JSON serialization
  * - Mocked authentication setup (no filters)
- * - Mocked JwtUtils and UserAuthService to prevent FirebaseAuthenticationFilter initialization errors
+ * - Mocked FirebaseTokenAuthenticator and AuthenticationMetrics to prevent FirebaseAuthenticationFilter initialization errors
  * <p>
  * Usage: Extend this class and add @WebMvcTest(controllers = YourController.class)
  */
@@ -34,9 +34,9 @@ public abstract class BaseControllerTest {
     protected ObjectMapper objectMapper;
     protected AppUserPrincipal testPrincipal;
     @MockitoBean
-    private JwtUtils jwtUtils;  // Mock to prevent FirebaseAuthenticationFilter initialization error
+    private FirebaseTokenAuthenticator tokenAuthenticator;  // Mock to prevent FirebaseAuthenticationFilter initialization error
     @MockitoBean
-    private UserAuthService userAuthService;  // Mock to prevent FirebaseAuthenticationFilter initialization error
+    private AuthenticationMetrics authenticationMetrics;  // Mock to prevent FirebaseAuthenticationFilter initialization error
 
     @BeforeEach
     void setUpBaseController() {
@@ -0,0 +1,148 @@
+package gse.home.personalmanager.core.test;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import gse.home.personalmanager.core.utils.FirebaseKeyStore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test helper that plays the part of Google's x509 metadata endpoint.
+ * <p>
+ * Generates a self-signed RSA certificate with keytool, serves it from a local HTTP server
+ * under a configurable {@code kid} and signs Firebase-shaped ID tokens with the matching
+ * private key. Call {@link #close()} when done.
+ */
+public class FirebaseTokenFixture implements AutoCloseable {
+
+    public static final String PROJECT_ID = "test-project";
+    private static final String STORE_PASSWORD = "changeit";
+
+    private final HttpServer server;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger fetchCount = new AtomicInteger();
+    private final RSAPrivateKey privateKey;
+    private final RSAPublicKey publicKey;
+    private final String certificatePem;
+
+    private volatile String kid = "kid-1";
+    private volatile String cacheControl = "public, max-age=3600";
+
+    public FirebaseTokenFixture() throws Exception {
+        KeyStore keyStore = generateKeyStore();
+        X509Certificate certificate = (X509Certificate) keyStore.getCertificate("signing");
+        this.privateKey = (RSAPrivateKey) keyStore.getKey("signing", STORE_PASSWORD.toCharArray());
+        this.publicKey = (RSAPublicKey) certificate.getPublicKey();
+        this.certificatePem = "-----BEGIN CERTIFICATE-----\n"
+                + Base64.getMimeEncoder().encodeToString(certificate.getEncoded())
+                + "\n-----END CERTIFICATE-----\n";
+
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/certs", exchange -> {
+            fetchCount.incrementAndGet();
+            byte[] body = objectMapper.writeValueAsBytes(Map.of(kid, certificatePem));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Cache-Control", cacheControl);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        this.server.start();
+    }
+
+    private static KeyStore generateKeyStore() throws Exception {
+        Path dir = Files.createTempDirectory("firebase-fixture");
+        Path store = dir.resolve("signing.p12");
+        Process process = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                "-genkeypair", "-alias", "signing", "-keyalg", "RSA", "-keysize", "2048",
+                "-dname", "CN=firebase-test", "-validity", "2",
+                "-storetype", "PKCS12", "-keystore", store.toString(),
+                "-storepass", STORE_PASSWORD, "-keypass", STORE_PASSWORD)
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("keytool failed: " + output);
+        }
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream is = Files.newInputStream(store)) {
+            keyStore.load(is, STORE_PASSWORD.toCharArray());
+        }
+        Files.deleteIfExists(store);
+        Files.deleteIfExists(dir);
+        return keyStore;
+    }
+
+    public String certsUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/certs";
+    }
+
+    /**
+     * Creates a key store reading from this fixture instead of Google.
+     */
+    public FirebaseKeyStore newKeyStore(Duration minRefetchInterval) {
+        return new FirebaseKeyStore(PROJECT_ID, certsUrl(), Duration.ofMinutes(5), minRefetchInterval,
+                Duration.ofHours(1), Duration.ofSeconds(5));
+    }
+
+    public int fetchCount() {
+        return fetchCount.get();
+    }
+
+    public String kid() {
+        return kid;
+    }
+
+    public void rotateKid(String newKid) {
+        this.kid = newKid;
+    }
+
+    public void setCacheControl(String cacheControl) {
+        this.cacheControl = cacheControl;
+    }
+
+    public RSAPublicKey publicKey() {
+        return publicKey;
+    }
+
+    public String token(String firebaseUid, String email) {
+        return token(kid, firebaseUid, email, Instant.now().plusSeconds(3600));
+    }
+
+    public String token(String keyId, String firebaseUid, String email, Instant expiresAt) {
+        return JWT.create()
+                .withKeyId(keyId)
+                .withIssuer("https://securetoken.google.com/" + PROJECT_ID)
+                .withAudience(PROJECT_ID)
+                .withSubject(firebaseUid)
+                .withClaim("email", email)
+                .withIssuedAt(Instant.now().minusSeconds(5))
+                .withExpiresAt(expiresAt)
+                .sign(Algorithm.RSA256(publicKey, privateKey));
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.stop(0);
+    }
+}
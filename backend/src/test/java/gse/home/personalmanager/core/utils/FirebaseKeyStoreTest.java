@@ -0,0 +1,131 @@
+package gse.home.personalmanager.core.utils;
+
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import gse.home.personalmanager.core.test.FirebaseTokenFixture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FirebaseKeyStoreTest {
+
+    private FirebaseTokenFixture fixture;
+    private FirebaseKeyStore keyStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fixture = new FirebaseTokenFixture();
+        keyStore = fixture.newKeyStore(Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        keyStore.shutdown();
+        fixture.close();
+    }
+
+    @Test
+    void shouldFetchOnceAndReuseVerifierForKnownKid() {
+        // When
+        JWTVerifier first = keyStore.getVerifier(fixture.kid());
+        JWTVerifier second = keyStore.getVerifier(fixture.kid());
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(keyStore.getPublicKey(fixture.kid())).isEqualTo(fixture.publicKey());
+        assertThat(fixture.fetchCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRefetchWhenMaxAgeHasExpired() {
+        // Given
+        fixture.setCacheControl("public, max-age=0");
+        keyStore.getVerifier(fixture.kid());
+
+        // When
+        keyStore.getVerifier(fixture.kid());
+
+        // Then
+        assertThat(fixture.fetchCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRefetchOnceWhenKeysAreRotated() {
+        // Given
+        keyStore.getVerifier(fixture.kid());
+        fixture.rotateKid("kid-2");
+
+        // When
+        JWTVerifier verifier = keyStore.getVerifier("kid-2");
+
+        // Then
+        assertThat(verifier).isNotNull();
+        assertThat(fixture.fetchCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotRefetchUnknownKidWithinMinimumInterval() {
+        // Given
+        keyStore.shutdown();
+        keyStore = fixture.newKeyStore(Duration.ofMinutes(1));
+        keyStore.getVerifier(fixture.kid());
+
+        // When/Then
+        assertThatThrownBy(() -> keyStore.getVerifier("unknown-kid"))
+                .isInstanceOf(JWTVerificationException.class)
+                .hasMessageContaining("unknown-kid");
+        assertThatThrownBy(() -> keyStore.getVerifier("unknown-kid"))
+                .isInstanceOf(JWTVerificationException.class);
+        assertThat(fixture.fetchCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldShareOneFetchBetweenConcurrentCallers() throws Exception {
+        // Given
+        int callers = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<JWTVerifier>> results = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return keyStore.getVerifier(fixture.kid());
+            }));
+        }
+        start.countDown();
+        for (Future<JWTVerifier> result : results) {
+            assertThat(result.get()).isNotNull();
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(fixture.fetchCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectMissingKid() {
+        assertThatThrownBy(() -> keyStore.getVerifier(null))
+                .isInstanceOf(JWTVerificationException.class);
+        assertThat(fixture.fetchCount()).isZero();
+    }
+
+    @Test
+    void shouldParseMaxAgeFromCacheControl() {
+        assertThat(FirebaseKeyStore.parseMaxAge("public, max-age=19845, must-revalidate, no-transform"))
+                .contains(Duration.ofSeconds(19845));
+        assertThat(FirebaseKeyStore.parseMaxAge("no-cache")).isEmpty();
+    }
+}
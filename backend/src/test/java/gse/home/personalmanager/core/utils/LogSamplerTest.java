@@ -0,0 +1,37 @@
+package gse.home.personalmanager.core.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogSamplerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final LogSampler sampler = new LogSampler(Duration.ofSeconds(10), clock::get);
+
+    @Test
+    void shouldLetFirstEventThroughAndSuppressTheRestOfTheInterval() {
+        // When/Then
+        assertThat(sampler.sample()).isZero();
+        assertThat(sampler.sample()).isEqualTo(-1);
+        assertThat(sampler.sample()).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldReportSuppressedCountOnNextSample() {
+        // Given
+        sampler.sample();
+        sampler.sample();
+        sampler.sample();
+
+        // When
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // Then
+        assertThat(sampler.sample()).isEqualTo(2);
+        assertThat(sampler.sample()).isEqualTo(-1);
+    }
+}
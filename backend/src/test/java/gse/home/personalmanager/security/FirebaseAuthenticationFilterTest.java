@@ -1,11 +1,14 @@
 package gse.home.personalmanager.security;
 
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.exceptions.TokenExpiredException;
 import com.auth0.jwt.interfaces.Claim;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import gse.home.personalmanager.core.exception.FirebaseAuthException;
 import gse.home.personalmanager.core.utils.JwtUtils;
 import gse.home.personalmanager.user.application.service.UserAuthService;
-import gse.home.personalmanager.user.domain.model.AppUser;
+import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,16 +16,19 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.time.Instant;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,18 +52,29 @@ class FirebaseAuthenticationFilterTest {
     @Mock
     private DecodedJWT decodedJWT;
 
+    @Mock
+    private JWTVerifier verifier;
+
     @Mock
     private Claim claim;
 
     @Mock
     private PrintWriter writer;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
+
+    private TokenAuthenticationCache tokenCache;
+
     private FirebaseAuthenticationFilter filter;
 
     @BeforeEach
     void setUp() {
         SecurityContextHolder.clearContext();
+        meterRegistry = new SimpleMeterRegistry();
+        tokenCache = new TokenAuthenticationCache(meterRegistry, 100);
+        AuthenticationMetrics metrics = new AuthenticationMetrics(meterRegistry);
+        filter = new FirebaseAuthenticationFilter(
+                new FirebaseTokenAuthenticator(jwtUtils, userAuthService, tokenCache, metrics), metrics);
     }
 
     @Test
@@ -67,24 +84,21 @@ class FirebaseAuthenticationFilterTest {
         String firebaseUid = "firebase-123";
         String email = "test@example.com";
         
-        AppUser user = new AppUser();
-        user.setId(1L);
-        user.setFirebaseUid(firebaseUid);
-        user.setEmail(email);
+        AppUserPrincipal principal = new AppUserPrincipal(1L, firebaseUid, email, "ROLE_USER", null);
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtils.validateToken(token)).thenReturn(decodedJWT);
+        givenVerifiedToken(token);
         when(decodedJWT.getSubject()).thenReturn(firebaseUid);
         when(decodedJWT.getClaim("email")).thenReturn(claim);
         when(claim.asString()).thenReturn(email);
-        when(userAuthService.findOrCreateByFirebaseUid(firebaseUid, email)).thenReturn(user);
+        when(userAuthService.loadPrincipal(firebaseUid, email)).thenReturn(principal);
 
         // When
         filter.doFilterInternal(request, response, filterChain);
 
         // Then
-        verify(jwtUtils).validateToken(token);
-        verify(userAuthService).findOrCreateByFirebaseUid(firebaseUid, email);
+        verify(verifier).verify(decodedJWT);
+        verify(userAuthService).loadPrincipal(firebaseUid, email);
         verify(filterChain).doFilter(request, response);
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
     }
@@ -98,7 +112,7 @@ class FirebaseAuthenticationFilterTest {
         filter.doFilterInternal(request, response, filterChain);
 
         // Then
-        verify(jwtUtils, never()).validateToken(anyString());
+        verify(jwtUtils, never()).decode(anyString());
         verify(filterChain).doFilter(request, response);
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
     }
@@ -108,7 +122,7 @@ class FirebaseAuthenticationFilterTest {
         // Given
         String token = "invalid-token";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtils.validateToken(token)).thenThrow(new FirebaseAuthException());
+        when(jwtUtils.decode(token)).thenThrow(new FirebaseAuthException());
         when(response.getWriter()).thenReturn(writer);
 
         // When
@@ -129,7 +143,7 @@ class FirebaseAuthenticationFilterTest {
         filter.doFilterInternal(request, response, filterChain);
 
         // Then
-        verify(jwtUtils, never()).validateToken(anyString());
+        verify(jwtUtils, never()).decode(anyString());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -142,7 +156,116 @@ class FirebaseAuthenticationFilterTest {
         filter.doFilterInternal(request, response, filterChain);
 
         // Then
-        verify(jwtUtils, never()).validateToken(anyString());
+        verify(jwtUtils, never()).decode(anyString());
         verify(filterChain).doFilter(request, response);
     }
+
+    @Test
+    void shouldServeRepeatedTokenFromCacheWithoutVerification() throws Exception {
+        // Given
+        String token = "valid-token";
+        AppUserPrincipal principal = new AppUserPrincipal(1L, "firebase-123", null, "ROLE_USER", null);
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        givenVerifiedToken(token);
+        when(decodedJWT.getSubject()).thenReturn("firebase-123");
+        when(decodedJWT.getClaim("email")).thenReturn(claim);
+        when(decodedJWT.getExpiresAtAsInstant()).thenReturn(Instant.now().plusSeconds(3600));
+        when(userAuthService.loadPrincipal(eq("firebase-123"), any())).thenReturn(principal);
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+        SecurityContextHolder.clearContext();
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(verifier, times(1)).verify(decodedJWT);
+        verify(userAuthService, times(1)).loadPrincipal(eq("firebase-123"), any());
+        verify(filterChain, times(2)).doFilter(request, response);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+        assertThat(tokenCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotCacheTokenWithoutExpiry() throws Exception {
+        // Given
+        String token = "valid-token";
+        AppUserPrincipal principal = new AppUserPrincipal(1L, "firebase-123", null, "ROLE_USER", null);
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        givenVerifiedToken(token);
+        when(decodedJWT.getSubject()).thenReturn("firebase-123");
+        when(decodedJWT.getClaim("email")).thenReturn(claim);
+        when(userAuthService.loadPrincipal(eq("firebase-123"), any())).thenReturn(principal);
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(verifier, times(2)).verify(decodedJWT);
+        assertThat(tokenCache.size()).isZero();
+    }
+
+    @Test
+    void shouldRejectTokenFailingVerificationWithUnauthorized() throws Exception {
+        // Given
+        String token = "expired-token";
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        givenVerifiedToken(token);
+        when(verifier.verify(decodedJWT)).thenThrow(new TokenExpiredException("expired", Instant.now()));
+        when(response.getWriter()).thenReturn(writer);
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(filterChain, never()).doFilter(request, response);
+    }
+
+    @Test
+    void shouldTimeEveryStage() throws Exception {
+        // Given
+        String token = "valid-token";
+        AppUserPrincipal principal = new AppUserPrincipal(1L, "firebase-123", null, "ROLE_USER", null);
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        givenVerifiedToken(token);
+        when(decodedJWT.getSubject()).thenReturn("firebase-123");
+        when(decodedJWT.getClaim("email")).thenReturn(claim);
+        when(userAuthService.loadPrincipal(eq("firebase-123"), any())).thenReturn(principal);
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        assertThat(meterRegistry.get("auth.stage").tag("stage", "extraction").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.stage").tag("stage", "key_resolution").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.stage").tag("stage", "signature_verification").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.stage").tag("stage", "user_resolution").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCountUserResolutionFailure() throws Exception {
+        // Given
+        String token = "valid-token";
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        givenVerifiedToken(token);
+        when(decodedJWT.getSubject()).thenReturn("firebase-123");
+        when(decodedJWT.getClaim("email")).thenReturn(claim);
+        when(userAuthService.loadPrincipal(eq("firebase-123"), any())).thenThrow(new IllegalStateException("db down"));
+
+        // When/Then
+        assertThatThrownBy(() -> filter.doFilterInternal(request, response, filterChain))
+                .isInstanceOf(RuntimeException.class);
+        assertThat(meterRegistry.get("auth.failures").tag("stage", "user_resolution")
+                .tag("reason", "user_resolution_failed").counter().count()).isEqualTo(1);
+    }
+
+    private void givenVerifiedToken(String token) {
+        when(jwtUtils.decode(token)).thenReturn(decodedJWT);
+        when(jwtUtils.resolveVerifier(decodedJWT)).thenReturn(verifier);
+        lenient().when(verifier.verify(decodedJWT)).thenReturn(decodedJWT);
+    }
 }
@@ -0,0 +1,61 @@
+package gse.home.personalmanager.security;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import gse.home.personalmanager.core.test.FirebaseTokenFixture;
+import gse.home.personalmanager.core.utils.JwtUtils;
+import gse.home.personalmanager.user.application.service.UserAuthService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class FirebaseTokenAuthenticatorTest {
+
+    private FirebaseTokenFixture fixture;
+    private SimpleMeterRegistry meterRegistry;
+    private FirebaseTokenAuthenticator authenticator;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fixture = new FirebaseTokenFixture();
+        meterRegistry = new SimpleMeterRegistry();
+        authenticator = new FirebaseTokenAuthenticator(new JwtUtils(fixture.newKeyStore(Duration.ofSeconds(30))), mock(UserAuthService.class),
+                new TokenAuthenticationCache(meterRegistry, 100), new AuthenticationMetrics(meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        fixture.close();
+    }
+
+    @Test
+    void shouldCountFailureReasonsByStage() {
+        // Given
+        String expired = fixture.token(fixture.kid(), "firebase-123", "test@example.com",
+                Instant.now().minusSeconds(60));
+        String unknownKey = fixture.token("unknown-kid", "firebase-123", "test@example.com",
+                Instant.now().plusSeconds(60));
+
+        // When
+        assertThatThrownBy(() -> authenticator.authenticate(expired)).isInstanceOf(JWTVerificationException.class);
+        assertThatThrownBy(() -> authenticator.authenticate(unknownKey)).isInstanceOf(JWTVerificationException.class);
+        assertThatThrownBy(() -> authenticator.authenticate("not-a-jwt-token")).isInstanceOf(JWTVerificationException.class);
+
+        // Then
+        assertThat(meterRegistry.get("auth.failures").tag("stage", "signature_verification")
+                .tag("reason", "expired").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.failures").tag("stage", "key_resolution")
+                .tag("reason", "unknown_key").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.failures").tag("stage", "key_resolution")
+                .tag("reason", "malformed_token").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.stage").tag("stage", "key_resolution").timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("auth.stage").tag("stage", "signature_verification").timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,77 @@
+package gse.home.personalmanager.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenAuthenticationCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenAuthenticationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TokenAuthenticationCache(meterRegistry, 2);
+    }
+
+    @Test
+    void shouldReturnCachedAuthenticationUntilExpiry() {
+        // Given
+        Authentication auth = authentication("user-1");
+        cache.put("token-1", auth, Instant.now().plusSeconds(60));
+
+        // When/Then
+        assertThat(cache.get("token-1")).isSameAs(auth);
+        assertThat(cache.get("token-2")).isNull();
+    }
+
+    @Test
+    void shouldIgnoreAlreadyExpiredToken() {
+        // When
+        cache.put("token-1", authentication("user-1"), Instant.now().minusSeconds(1));
+
+        // Then
+        assertThat(cache.get("token-1")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void shouldStayWithinMaximumSize() {
+        // When
+        for (int i = 0; i < 10; i++) {
+            cache.put("token-" + i, authentication("user-" + i), Instant.now().plusSeconds(60));
+        }
+
+        // Then
+        assertThat(cache.size()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void shouldPublishHitAndMissMetrics() {
+        // Given
+        cache.put("token-1", authentication("user-1"), Instant.now().plusSeconds(60));
+
+        // When
+        cache.get("token-1");
+        cache.get("token-1");
+        cache.get("unknown");
+
+        // Then
+        assertThat(meterRegistry.get("cache.gets").tag("cache", TokenAuthenticationCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", TokenAuthenticationCache.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    private static Authentication authentication(String name) {
+        return new UsernamePasswordAuthenticationToken(name, null, List.of());
+    }
+}
@@ -0,0 +1,101 @@
+package gse.home.personalmanager.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final TokenBucketRateLimiter limiter =
+            new TokenBucketRateLimiter(10, Duration.ofSeconds(10), 1000, clock::get);
+
+    @Test
+    void shouldAllowBurstUpToCapacityThenReject() {
+        // When
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire("user:1", 1).allowed()).isTrue();
+        }
+        TokenBucketRateLimiter.Decision rejected = limiter.tryAcquire("user:1", 1);
+
+        // Then
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.remaining()).isZero();
+        assertThat(rejected.retryAfter()).isEqualTo(Duration.ofSeconds(1));
+        assertThat(rejected.resetAfter()).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void shouldRefillOverTime() {
+        // Given
+        limiter.tryAcquire("user:1", 10);
+
+        // When
+        clock.addAndGet(Duration.ofSeconds(3).toNanos());
+        TokenBucketRateLimiter.Decision decision = limiter.tryAcquire("user:1", 1);
+
+        // Then
+        assertThat(decision.allowed()).isTrue();
+        assertThat(decision.remaining()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldChargeWeightedCost() {
+        // When
+        TokenBucketRateLimiter.Decision first = limiter.tryAcquire("user:1", 8);
+        TokenBucketRateLimiter.Decision second = limiter.tryAcquire("user:1", 8);
+
+        // Then
+        assertThat(first.allowed()).isTrue();
+        assertThat(first.remaining()).isEqualTo(2);
+        assertThat(second.allowed()).isFalse();
+        assertThat(second.remaining()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepSeparateBucketsPerKey() {
+        // Given
+        limiter.tryAcquire("user:1", 10);
+
+        // When/Then
+        assertThat(limiter.tryAcquire("user:1", 1).allowed()).isFalse();
+        assertThat(limiter.tryAcquire("user:2", 1).allowed()).isTrue();
+        assertThat(limiter.bucketCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNeverGrantMoreThanCapacityUnderContention() throws Exception {
+        // Given
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 100; i++) {
+                    if (limiter.tryAcquire("user:1", 1).allowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        assertThat(allowed.get()).isEqualTo(10);
+    }
+}
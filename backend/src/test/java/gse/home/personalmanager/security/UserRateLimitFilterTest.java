@@ -0,0 +1,140 @@
+package gse.home.personalmanager.security;
+
+import gse.home.personalmanager.security.config.RateLimitProperties;
+import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class UserRateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserRateLimitFilter filter;
+    private FilterChain filterChain;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Cost csvCost = new RateLimitProperties.Cost();
+        csvCost.setMethod("POST");
+        csvCost.setPath("/v1/transactions/csv");
+        csvCost.setWeight(3);
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setCapacity(3L);
+        properties.setCosts(List.of(csvCost));
+
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new UserRateLimitFilter(properties, meterRegistry);
+        filterChain = mock(FilterChain.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldAllowRequestAndSetRateLimitHeaders() throws Exception {
+        // Given
+        authenticate(1L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request("GET", "/v1/wallets"), response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(any(), any());
+        assertThat(response.getHeader("RateLimit-Limit")).isEqualTo("3");
+        assertThat(response.getHeader("RateLimit-Remaining")).isEqualTo("2");
+        assertThat(response.getHeader("RateLimit-Reset")).isEqualTo("20");
+    }
+
+    @Test
+    void shouldRejectWhenUserBucketIsEmpty() throws Exception {
+        // Given
+        authenticate(1L);
+        filter.doFilter(request("POST", "/v1/transactions/csv"), new MockHttpServletResponse(), filterChain);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request("GET", "/v1/wallets/12/transactions"), response, filterChain);
+
+        // Then
+        verify(filterChain, times(1)).doFilter(any(), any());
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("20");
+        assertThat(meterRegistry.get(UserRateLimitFilter.METRIC_NAME)
+                .tag("route", "/v1/transactions/csv").tag("outcome", "allowed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(UserRateLimitFilter.METRIC_NAME)
+                .tag("route", UserRateLimitFilter.OTHER_ROUTE).tag("outcome", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeyBucketsByUserNotByAddress() throws Exception {
+        // Given
+        authenticate(1L);
+        filter.doFilter(request("POST", "/v1/transactions/csv"), new MockHttpServletResponse(), filterChain);
+        authenticate(2L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request("POST", "/v1/transactions/csv"), response, filterChain);
+
+        // Then
+        verify(filterChain, times(2)).doFilter(any(), any());
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void shouldSkipPathsOutsideApi() throws Exception {
+        // Given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request("GET", "/actuator/health"), response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(any(), any());
+        assertThat(response.getHeader("RateLimit-Limit")).isNull();
+    }
+
+    @Test
+    void shouldFallBackToRemoteAddressWhenAnonymous() throws Exception {
+        // Given
+        filter.doFilter(request("POST", "/v1/transactions/csv"), new MockHttpServletResponse(), filterChain);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request("GET", "/v1/wallets"), response, filterChain);
+
+        // Then
+        verify(filterChain, times(1)).doFilter(any(), any());
+        assertThat(response.getStatus()).isEqualTo(429);
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+
+    private static void authenticate(Long userId) {
+        AppUserPrincipal principal = new AppUserPrincipal(userId, "uid-" + userId, null, "ROLE_USER", null);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
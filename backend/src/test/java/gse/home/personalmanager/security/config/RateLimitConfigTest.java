@@ -1,6 +1,7 @@
 package gse.home.personalmanager.security.config;
 
-import org.apache.catalina.filters.RateLimitFilter;
+import gse.home.personalmanager.security.UserRateLimitFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 
@@ -13,16 +14,33 @@ class RateLimitConfigTest {
     @Test
     void shouldCreateRateLimitFilter() {
         // When
-        FilterRegistrationBean<RateLimitFilter> registrationBean = rateLimitConfig.rateLimitFilter();
+        UserRateLimitFilter filter = rateLimitConfig.userRateLimitFilter(new RateLimitProperties(), new SimpleMeterRegistry());
 
         // Then
-        assertThat(registrationBean).isNotNull();
-        assertThat(registrationBean.getFilter()).isInstanceOf(RateLimitFilter.class);
-        assertThat(registrationBean.getUrlPatterns()).contains("/v1/*");
-        assertThat(registrationBean.getInitParameters())
-                .containsEntry("bucketRequests", "200")
-                .containsEntry("bucketDuration", "60")
-                .containsEntry("enforce", "true")
-                .containsEntry("statusCode", "429");
+        assertThat(filter).isNotNull();
+    }
+
+    @Test
+    void shouldNotRegisterFilterOutsideSecurityChain() {
+        // Given
+        UserRateLimitFilter filter = rateLimitConfig.userRateLimitFilter(new RateLimitProperties(), new SimpleMeterRegistry());
+
+        // When
+        FilterRegistrationBean<UserRateLimitFilter> registrationBean = rateLimitConfig.userRateLimitFilterRegistration(filter);
+
+        // Then
+        assertThat(registrationBean.getFilter()).isSameAs(filter);
+        assertThat(registrationBean.isEnabled()).isFalse();
+    }
+
+    @Test
+    void shouldDefaultToTwoHundredRequestsPerMinuteOnApi() {
+        // When
+        RateLimitProperties properties = new RateLimitProperties();
+
+        // Then
+        assertThat(properties.getUrlPatterns()).containsExactly("/v1/**");
+        assertThat(properties.getCapacity()).isEqualTo(200);
+        assertThat(properties.getRefillPeriod()).hasSeconds(60);
     }
 }
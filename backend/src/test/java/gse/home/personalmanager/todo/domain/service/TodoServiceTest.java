@@ -9,7 +9,6 @@ import gse.home.personalmanager.todo.domain.model.Todo;
 import gse.home.personalmanager.todo.domain.model.TodoGroup;
 import gse.home.personalmanager.todo.infrastructure.repository.TodoGroupRepository;
 import gse.home.personalmanager.unit.UnitTestBase;
-import gse.home.personalmanager.user.domain.model.AppUser;
 import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -48,14 +47,10 @@ public class TodoServiceTest extends UnitTestBase {
         // Mock Security Context
         securityContext = mock(SecurityContext.class);
         Authentication authentication = mock(Authentication.class);
-        AppUserPrincipal principal = mock(AppUserPrincipal.class);
-        AppUser appUser = new AppUser();
-        appUser.setId(1L);
-        appUser.setFirebaseUid("firebase-uid");
+        AppUserPrincipal principal = new AppUserPrincipal(1L, "firebase-uid", null, "ROLE_USER", null);
 
         lenient().when(securityContext.getAuthentication()).thenReturn(authentication);
         lenient().when(authentication.getPrincipal()).thenReturn(principal);
-        lenient().when(principal.getUser()).thenReturn(appUser);
 
         SecurityContextHolder.setContext(securityContext);
     }
@@ -1,15 +1,24 @@
 package gse.home.personalmanager.user.application.service;
 
 import gse.home.personalmanager.unit.UnitTestBase;
+import gse.home.personalmanager.user.domain.event.UserChangedEvent;
 import gse.home.personalmanager.user.domain.model.AppUser;
+import gse.home.personalmanager.user.domain.model.AppUserPrincipal;
 import gse.home.personalmanager.user.infrastructure.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -21,13 +30,14 @@ class UserAuthServiceTest extends UnitTestBase {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
     private UserAuthService userAuthService;
 
     private AppUser existingUser;
 
     @BeforeEach
     void setUp() {
+        userAuthService = new UserAuthService(userRepository, 100, Duration.ofMinutes(30));
+
         existingUser = new AppUser();
         existingUser.setId(1L);
         existingUser.setFirebaseUid("existing-uid");
@@ -119,4 +129,86 @@ class UserAuthServiceTest extends UnitTestBase {
         // Assert
         verify(userRepository, times(1)).save(any(AppUser.class));
     }
+
+    @Test
+    void loadPrincipal_shouldServeRepeatedCallsFromCache() {
+        // Arrange
+        AppUserPrincipal principal = new AppUserPrincipal(existingUser);
+        when(userRepository.findPrincipalByFirebaseUid("existing-uid")).thenReturn(Optional.of(principal));
+
+        // Act
+        AppUserPrincipal first = userAuthService.loadPrincipal("existing-uid", "existing@example.com");
+        AppUserPrincipal second = userAuthService.loadPrincipal("existing-uid", "existing@example.com");
+
+        // Assert
+        assertThat(first).isEqualTo(principal);
+        assertThat(second).isSameAs(first);
+        verify(userRepository, times(1)).findPrincipalByFirebaseUid("existing-uid");
+    }
+
+    @Test
+    void loadPrincipal_shouldReloadAfterUserChanged() {
+        // Arrange
+        when(userRepository.findPrincipalByFirebaseUid("existing-uid"))
+                .thenReturn(Optional.of(new AppUserPrincipal(existingUser)))
+                .thenReturn(Optional.of(new AppUserPrincipal(1L, "existing-uid", "existing@example.com", "ROLE_ADMIN", null)));
+        userAuthService.loadPrincipal("existing-uid", null);
+
+        // Act
+        userAuthService.onUserChanged(new UserChangedEvent(this, 1L, "existing-uid"));
+        AppUserPrincipal reloaded = userAuthService.loadPrincipal("existing-uid", null);
+
+        // Assert
+        assertThat(reloaded.role()).isEqualTo("ROLE_ADMIN");
+        verify(userRepository, times(2)).findPrincipalByFirebaseUid("existing-uid");
+    }
+
+    @Test
+    void loadPrincipal_shouldReadBackUserCreatedConcurrently() {
+        // Arrange - another node inserted the same uid between our read and our insert
+        AppUserPrincipal winner = new AppUserPrincipal(7L, "new-uid", "new@example.com", "ROLE_USER", null);
+        when(userRepository.findPrincipalByFirebaseUid("new-uid"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(winner));
+        when(userRepository.save(any(AppUser.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_users_firebase_uid"));
+
+        // Act
+        AppUserPrincipal result = userAuthService.loadPrincipal("new-uid", "new@example.com");
+
+        // Assert
+        assertThat(result).isEqualTo(winner);
+    }
+
+    @Test
+    void loadPrincipal_shouldShareOneInsertBetweenConcurrentFirstLogins() throws Exception {
+        // Arrange
+        when(userRepository.findPrincipalByFirebaseUid("new-uid")).thenReturn(Optional.empty());
+        when(userRepository.save(any(AppUser.class))).thenAnswer(invocation -> {
+            AppUser user = invocation.getArgument(0);
+            user.setId(2L);
+            Thread.sleep(50);
+            return user;
+        });
+        int callers = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<AppUserPrincipal>> results = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return userAuthService.loadPrincipal("new-uid", "new@example.com");
+            }));
+        }
+        start.countDown();
+        for (Future<AppUserPrincipal> result : results) {
+            assertThat(result.get().id()).isEqualTo(2L);
+        }
+        executor.shutdown();
+
+        // Assert
+        verify(userRepository, times(1)).save(any(AppUser.class));
+    }
 }
@@ -0,0 +1,15 @@
+import type Transaction from "./Transaction";
+
+export default class TransactionCursorPage {
+
+  transactions: Transaction[];
+  nextDate?: string; // pass back as afterDate for the next page, absent on the last page
+  nextId?: number; // pass back as afterId for the next page, absent on the last page
+
+  constructor(transactions: Transaction[], nextDate?: string, nextId?: number) {
+    this.transactions = transactions;
+    this.nextDate = nextDate;
+    this.nextId = nextId;
+  }
+
+}
@@ -2,11 +2,13 @@ import type Transaction from "./Transaction";
 
 export default class TransactionSummary {
 
+  categoryId?: number; // id of the category, absent for uncategorized transactions
   category: string; // category of the transaction
   expense: number; // amount spent in this category
   percent: number; // percentage of total spend in this category
   maxExpected: number; // maximum expected to be spent for this category
-  transactions: Transaction[]; // list of transactions in this category
+  transactionCount?: number; // number of transactions in this category
+  transactions: Transaction[]; // list of transactions in this category, null in summary-only mode
 
   constructor(category: string, expense: number, percent: number, maxExpected: number, transactions: Transaction[]) {
     this.category = category;
@@ -3,15 +3,15 @@ import type Transaction from "./Transaction";
 export default class UncategorizedTransactions {
 
   transactions: Transaction[];
-  page: number;
-  totalPage: number;
   totalElements: number;
+  nextDate?: string;
+  nextId?: number;
 
-  constructor(transactions: Transaction[], page: number, totalPage: number, totalElements: number) {
+  constructor(transactions: Transaction[], totalElements: number, nextDate?: string, nextId?: number) {
     this.transactions = transactions;
-    this.page = page;
-    this.totalPage = totalPage;
     this.totalElements = totalElements;
+    this.nextDate = nextDate;
+    this.nextId = nextId;
   }
 
 }
@@ -9,6 +9,7 @@ export interface Wallet {
   createdAt: number;
   updatedAt: number;
   balance?: number;
+  role?: 'OWNER' | 'WRITE' | 'READ';
 }
 
 export interface CreateWalletRequest {
@@ -4,6 +4,7 @@ import type AccountingSummary from '@/model/accounting/AccountingSummary';
 import type TransactionCsvRow from '@/model/accounting/TransactionCsvRow';
 import type Transaction from '@/model/accounting/Transaction';
 import type UncategorizedTransactions from '@/model/accounting/UncategorizedTransactions';
+import type TransactionCursorPage from '@/model/accounting/TransactionCursorPage';
 
 const API_URL = `/api/transactions`;
 
@@ -25,6 +26,31 @@ export default class AccountingService {
     return response.data;
   }
 
+  async getCategorySummaries(params: URLSearchParams, walletId?: number): Promise<TransactionSummary[]> {
+    if (walletId) {
+      params.append('walletId', walletId.toString());
+    }
+    params.append('summaryOnly', 'true');
+    const response = await axios.get(API_URL, { params });
+    return response.data;
+  }
+
+  async getCategoryTransactions(params: URLSearchParams, categoryId?: number, after?: TransactionCursorPage,
+                                walletId?: number): Promise<TransactionCursorPage> {
+    if (walletId) {
+      params.append('walletId', walletId.toString());
+    }
+    if (categoryId) {
+      params.append('categoryId', categoryId.toString());
+    }
+    if (after?.nextDate && after.nextId) {
+      params.append('afterDate', after.nextDate);
+      params.append('afterId', after.nextId.toString());
+    }
+    const response = await axios.get(`${API_URL}/by-category`, { params });
+    return response.data;
+  }
+
   async importTransactionsFromCsv(csvLines: TransactionCsvRow[], walletId?: number): Promise<void> {
     const params = new URLSearchParams();
     if (walletId) {
@@ -36,10 +62,10 @@ export default class AccountingService {
   async getTransactionsToCategorize(walletId?: number): Promise<UncategorizedTransactions> {
     console.log("Fetching transactions to categorize...");
 
-    const page = 0;
     const size = 100; // You can adjust the size as needed
 
-    const params = new URLSearchParams({ page: page.toString(), size: size.toString() });
+    // first page of the inbox; the next ones are read with afterDate/afterId set to nextDate/nextId
+    const params = new URLSearchParams({ size: size.toString() });
     if (walletId) {
       params.append('walletId', walletId.toString());
     }
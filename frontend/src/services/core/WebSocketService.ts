@@ -1,9 +1,10 @@
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
+import { useAuthStore } from '@/stores/auth';
 
 export interface GamificationNotification {
   id: string;
-  type: 'ESSENCE_GAINED' | 'LEVEL_UP' | 'ACHIEVEMENT_UNLOCKED' | 'REWARD_UNLOCKED';
+  type: 'ESSENCE_GAINED' | 'LEVEL_UP' | 'ACHIEVEMENT_UNLOCKED' | 'REWARD_UNLOCKED' | 'BUDGET_WARNING' | 'BUDGET_EXCEEDED';
   title: string;
   message: string;
   icon: string;
@@ -54,8 +55,12 @@ class WebSocketService {
         console.log('🏭 Creating SockJS instance for:', socketUrl);
         return new SockJS(socketUrl) as any;
       },
-      connectHeaders: {
-        userId: firebaseUid, // Send Firebase UID to backend for auth
+      // Send a fresh Firebase ID token on every (re)connect; the backend verifies it on CONNECT
+      beforeConnect: async () => {
+        const token = await useAuthStore().jwtToken();
+        if (this.client) {
+          this.client.connectHeaders = token ? { Authorization: `Bearer ${token}` } : {};
+        }
       },
       debug: (str: string) => {
         console.log('📡 STOMP:', str);